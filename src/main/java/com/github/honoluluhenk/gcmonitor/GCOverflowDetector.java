@@ -1,12 +1,24 @@
 package com.github.honoluluhenk.gcmonitor;
 
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 import com.github.honoluluhenk.gcmonitor.detection.overflow.Overflow;
 import com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowDetector;
 import com.github.honoluluhenk.gcmonitor.eventsource.GCEventSource;
+import com.github.honoluluhenk.gcmonitor.expiry.BackgroundExpiryScheduler;
 import com.github.honoluluhenk.gcmonitor.expiry.Expiry;
+import com.github.honoluluhenk.gcmonitor.expiry.ExpiryCost;
+import com.github.honoluluhenk.gcmonitor.expiry.ExpiryScheduler;
+import com.github.honoluluhenk.gcmonitor.expiry.SynchronousExpiryScheduler;
 import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.journal.Journal;
+import com.github.honoluluhenk.gcmonitor.journal.MappedJournal;
+import com.github.honoluluhenk.gcmonitor.journal.NullJournal;
 import com.github.honoluluhenk.gcmonitor.memory.Memory;
 import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import com.github.honoluluhenk.gcmonitor.timeddata.MemoryTimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.MultiPoolTimeSeries;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
 
@@ -17,22 +29,132 @@ import static java.util.Objects.requireNonNull;
  */
 public class GCOverflowDetector {
 	private final GCEventSource eventSource;
-	private final Expiry<Memory> expiry;
 	private final OverflowDetector detector;
 
-	private final TimeSeries<Memory> timeSeries = new TimeSeries<>();
+	/**
+	 * The readings inspected by the detector.
+	 */
+	private final TimeSeries<Memory> timeSeries;
+	/**
+	 * Stores the readings of a major collection.
+	 */
+	private final Consumer<TimedData<GCEvent>> recorder;
+	/**
+	 * Expires the stored readings.
+	 */
+	private final Runnable expirer;
+	private final ExpiryScheduler scheduler;
+	// allocated once, not per reading
+	private final Runnable measuredExpiry = this::expire;
+	private final AtomicReference<ExpiryCost> expiryCost = new AtomicReference<>(ExpiryCost.EMPTY);
 
 	public GCOverflowDetector(
 			GCEventSource eventSource,
 			Expiry<Memory> expiry,
 			OverflowDetector detector
 	) {
+		this(eventSource, expiry, detector, new TimeSeries<>());
+	}
+
+	/**
+	 * @param timeSeries storage for the memory readings, e.g.: a {@link MemoryTimeSeries} for long histories.
+	 * Must not be {@link TimeSeries#isReadOnly() read-only}: to record all pools, pass the
+	 * {@link MultiPoolTimeSeries} itself instead of one of its {@link MultiPoolTimeSeries#pool pools}.
+	 */
+	public GCOverflowDetector(
+			GCEventSource eventSource,
+			Expiry<Memory> expiry,
+			OverflowDetector detector,
+			TimeSeries<Memory> timeSeries
+	) {
+		this(eventSource, expiry, detector, timeSeries, new NullJournal());
+	}
+
+	/**
+	 * @param journal persists all readings, e.g.: a {@link MappedJournal}.
+	 * Readings from the journal are loaded into {@code timeSeries} right away, so detection works immediately
+	 * after a restart.
+	 */
+	public GCOverflowDetector(
+			GCEventSource eventSource,
+			Expiry<Memory> expiry,
+			OverflowDetector detector,
+			TimeSeries<Memory> timeSeries,
+			Journal journal
+	) {
+		this(eventSource, expiry, detector, timeSeries, journal, new SynchronousExpiryScheduler());
+	}
+
+	/**
+	 * @param scheduler decides when {@code expiry} runs, e.g.: a {@link BackgroundExpiryScheduler}.
+	 */
+	public GCOverflowDetector(
+			GCEventSource eventSource,
+			Expiry<Memory> expiry,
+			OverflowDetector detector,
+			TimeSeries<Memory> timeSeries,
+			Journal journal,
+			ExpiryScheduler scheduler
+	) {
+		this.timeSeries = requireNonNull(timeSeries, "timeSeries");
+		if (timeSeries.isReadOnly()) {
+			throw new IllegalArgumentException("timeSeries must not be a read-only view but was: " + timeSeries);
+		}
+		requireNonNull(journal, "journal");
+		this.eventSource = requireNonNull(eventSource, "eventSource");
+		this.eventSource.addEventListener(this::handleGCEvent);
+		requireNonNull(expiry, "expiry");
+		this.recorder = event -> recordOldGen(event, journal);
+		this.expirer = () -> timeSeries.expire(expiry);
+		this.scheduler = requireNonNull(scheduler, "scheduler");
+
+		expiry.getExpectedReadings().ifPresent(detector::validate);
+		this.detector = requireNonNull(detector, "detector");
+		detector.attach(this.timeSeries);
+
+		journal.replay(timeSeries::add);
+		expire();
+	}
+
+	/**
+	 * Records the memory of all pools, the detector inspects the {@link MemoryPoolType#OLD} pool.
+	 *
+	 * @param pools storage for all pools, see {@link MultiPoolTimeSeries#pool(MemoryPoolType)}.
+	 * @param expiry expires whole events (i.e.: all pools at once).
+	 */
+	public GCOverflowDetector(
+			GCEventSource eventSource,
+			Expiry<GCEvent> expiry,
+			OverflowDetector detector,
+			MultiPoolTimeSeries pools
+	) {
+		this(eventSource, expiry, detector, pools, new SynchronousExpiryScheduler());
+	}
+
+	/**
+	 * @param scheduler decides when {@code expiry} runs, e.g.: a {@link BackgroundExpiryScheduler}.
+	 */
+	public GCOverflowDetector(
+			GCEventSource eventSource,
+			Expiry<GCEvent> expiry,
+			OverflowDetector detector,
+			MultiPoolTimeSeries pools,
+			ExpiryScheduler scheduler
+	) {
+		requireNonNull(pools, "pools");
+		this.timeSeries = pools.pool(MemoryPoolType.OLD);
 		this.eventSource = requireNonNull(eventSource, "eventSource");
 		this.eventSource.addEventListener(this::handleGCEvent);
-		this.expiry = requireNonNull(expiry, "expiry");
+		requireNonNull(expiry, "expiry");
+		this.recorder = event -> recordAllPools(event, pools);
+		this.expirer = () -> pools.expire(expiry);
+		this.scheduler = requireNonNull(scheduler, "scheduler");
 
 		expiry.getExpectedReadings().ifPresent(detector::validate);
 		this.detector = requireNonNull(detector, "detector");
+		detector.attach(this.timeSeries);
+
+		expire();
 	}
 
 	/* default */ void handleGCEvent(TimedData<GCEvent> event) {
@@ -42,25 +164,57 @@ public class GCOverflowDetector {
 			return;
 		}
 
+		recorder.accept(event);
+	}
+
+	private void recordOldGen(TimedData<GCEvent> event, Journal journal) {
 		Memory memory = event.getData().getMemoryAfterGC().get(MemoryPoolType.OLD);
 		if (memory == null) {
 			return;
 		}
 
-		timeSeries.add(new TimedData<>(event.getTimestamp(), memory));
-		timeSeries.expire(expiry);
+		TimedData<Memory> reading = new TimedData<>(event.getEpochNanos(), event.getZone(), memory);
+		timeSeries.add(reading);
+		scheduler.readingAdded(measuredExpiry);
+
+		journal.append(reading);
+	}
+
+	private void recordAllPools(TimedData<GCEvent> event, MultiPoolTimeSeries pools) {
+		pools.add(event);
+		scheduler.readingAdded(measuredExpiry);
+	}
+
+	/**
+	 * Runs the expiry and records its cost.
+	 */
+	private void expire() {
+		long start = System.nanoTime();
+		expirer.run();
+		long elapsed = System.nanoTime() - start;
 
+		expiryCost.updateAndGet(cost -> cost.plus(elapsed));
 	}
 
 	public void start() {
 		eventSource.start();
+		scheduler.start(measuredExpiry);
 	}
 
 	public void stop() {
 		eventSource.stop();
+		scheduler.stop();
+	}
+
+	/**
+	 * Time spent expiring readings so far, independent of the thread it ran on (see {@link ExpiryScheduler}).
+	 */
+	public ExpiryCost getExpiryCost() {
+		return expiryCost.get();
 	}
 
 	public Overflow detect() {
+		scheduler.beforeRead(measuredExpiry);
 		Overflow overflow = detector.detect(timeSeries);
 
 		return overflow;
@@ -0,0 +1,49 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of a type, an alternative to Java serialization.
+ * <p>
+ * Reads and writes directly from/to a {@link ByteBuffer} (e.g.: a direct or memory-mapped buffer),
+ * starting at its position and advancing it. Buffers must use the default (big endian) byte order.
+ * </p>
+ * <p>
+ * The encoding of a type never changes within a {@link Codecs#FORMAT_VERSION}.
+ * Use {@link Codecs#encode(Codec, Object)}/{@link Codecs#decode(Codec, ByteBuffer)} to add/check a header with
+ * the format version and the type.
+ * </p>
+ *
+ * @param <T> the type being encoded.
+ */
+public interface Codec<T> {
+	/**
+	 * Identifies the encoded type in the header written by {@link Codecs#encode(Codec, Object)}.
+	 */
+	byte getTypeTag();
+
+	/**
+	 * A value that stays the same between {@link #sizeOf(Object)} and {@link #write(Object, ByteBuffer)},
+	 * for types that might get modified concurrently (e.g.: a {@code TimeSeries}).
+	 * Immutable types return {@code value} itself.
+	 */
+	default T snapshot(T value) {
+		return value;
+	}
+
+	/**
+	 * Exact number of bytes {@link #write(Object, ByteBuffer)} needs for {@code value}.
+	 */
+	int sizeOf(T value);
+
+	/**
+	 * @throws java.nio.BufferOverflowException if {@code out} has not enough space left.
+	 */
+	void write(T value, ByteBuffer out);
+
+	/**
+	 * @throws java.nio.BufferUnderflowException if {@code in} ends prematurely.
+	 * @throws IllegalArgumentException if {@code in} contains invalid data.
+	 */
+	T read(ByteBuffer in);
+}
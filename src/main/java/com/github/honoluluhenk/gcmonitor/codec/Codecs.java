@@ -0,0 +1,123 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import com.github.honoluluhenk.gcmonitor.detection.overflow.Overflow;
+import com.github.honoluluhenk.gcmonitor.expiry.Params;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Entry point to the binary {@link Codec}s.
+ * <p>
+ * {@link #encode(Codec, Object)} prefixes the data with a header: magic number (short),
+ * {@link #FORMAT_VERSION} (byte) and type tag (byte).
+ * </p>
+ */
+@SuppressWarnings("PMD.ClassNamingConventions")
+public final class Codecs {
+	/**
+	 * Incremented on any incompatible change of an encoding.
+	 */
+	public static final byte FORMAT_VERSION = 4;
+
+	/**
+	 * Size of the header written by {@link #encode(Codec, Object)}.
+	 */
+	public static final int HEADER_SIZE = Short.BYTES + Byte.BYTES + Byte.BYTES;
+
+	// "GM"
+	@SuppressWarnings("PMD.AvoidUsingShortType") // wire format
+	private static final short MAGIC = 0x474D;
+
+	public static final Codec<Memory> MEMORY = new MemoryCodec();
+	public static final Codec<GCEvent> GC_EVENT = new GCEventCodec();
+	public static final Codec<Overflow> OVERFLOW = new OverflowCodec();
+
+	private Codecs() {
+		// utility class
+	}
+
+	public static <T extends Serializable> Codec<TimedData<T>> timedData(Codec<T> payloadCodec) {
+		return new TimedDataCodec<>(payloadCodec);
+	}
+
+	/**
+	 * Decodes into a plain {@link TimeSeries}.
+	 */
+	public static <T extends Serializable> Codec<TimeSeries<T>> timeSeries(Codec<T> payloadCodec) {
+		return new TimeSeriesCodec<>(payloadCodec);
+	}
+
+	/**
+	 * Decode the body of a {@link #timeSeries(Codec)} encoding into {@code target}
+	 * (e.g.: a {@link com.github.honoluluhenk.gcmonitor.timeddata.MemoryTimeSeries}).
+	 */
+	public static <T extends Serializable> void readTimeSeriesInto(
+			Codec<T> payloadCodec,
+			ByteBuffer in,
+			TimeSeries<T> target
+	) {
+		new TimeSeriesCodec<>(payloadCodec).readInto(requireNonNull(in), requireNonNull(target));
+	}
+
+	public static <T extends Serializable> Codec<Params<T>> params(Codec<T> payloadCodec) {
+		return new ParamsCodec<>(payloadCodec);
+	}
+
+	/**
+	 * Header and body in a new heap buffer of the exact size, ready for reading.
+	 */
+	public static <T> ByteBuffer encode(Codec<T> codec, T value) {
+		requireNonNull(codec);
+		requireNonNull(value);
+
+		T snapshot = codec.snapshot(value);
+		ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + codec.sizeOf(snapshot));
+		writeHeader(codec, out);
+		codec.write(snapshot, out);
+		out.flip();
+
+		return out;
+	}
+
+	/**
+	 * Check the header and decode the body, starting at the position of {@code in}.
+	 *
+	 * @throws IllegalArgumentException if the header does not match or the body is invalid.
+	 */
+	public static <T> T decode(Codec<T> codec, ByteBuffer in) {
+		requireNonNull(codec);
+		requireNonNull(in);
+
+		readHeader(codec, in);
+		return codec.read(in);
+	}
+
+	/* default */ static void writeHeader(Codec<?> codec, ByteBuffer out) {
+		out.putShort(MAGIC);
+		out.put(FORMAT_VERSION);
+		out.put(codec.getTypeTag());
+	}
+
+	/* default */ static void readHeader(Codec<?> codec, ByteBuffer in) {
+		int magic = in.getShort();
+		if (magic != MAGIC) {
+			throw new IllegalArgumentException("not an encoded value, magic: " + magic);
+		}
+		byte version = in.get();
+		if (version != FORMAT_VERSION) {
+			throw new IllegalArgumentException("unsupported format version: " + version);
+		}
+		byte typeTag = in.get();
+		if (typeTag != codec.getTypeTag()) {
+			throw new IllegalArgumentException(
+					"expected type tag " + codec.getTypeTag() + " but was: " + typeTag);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+
+/**
+ * GC name, collection code, duration (nanos), then before and after GC: number of pools and per pool: pool code and
+ * {@link Memory}.
+ */
+final class GCEventCodec implements Codec<GCEvent> {
+	/* default */ static final byte TYPE_TAG = 4;
+
+	// stable codes: only ever append
+	private static final GCCollection[] COLLECTIONS = {GCCollection.MINOR, GCCollection.MAJOR};
+	private static final MemoryPoolType[] POOL_TYPES = {
+			MemoryPoolType.YOUNG,
+			MemoryPoolType.SURVIVOR,
+			MemoryPoolType.OLD,
+			MemoryPoolType.METASPACE,
+			MemoryPoolType.CODE_CACHE,
+			MemoryPoolType.COMPRESSED_CLASS_SPACE,
+	};
+
+	private final MemoryCodec memoryCodec = new MemoryCodec();
+
+	@Override
+	public byte getTypeTag() {
+		return TYPE_TAG;
+	}
+
+	@Override
+	public int sizeOf(GCEvent value) {
+		return Primitives.sizeOf(value.getGcName()) + Byte.BYTES + Long.BYTES
+				+ sizeOf(value.getMemoryBeforeGC()) + sizeOf(value.getMemoryAfterGC());
+	}
+
+	private int sizeOf(Map<MemoryPoolType, Memory> pools) {
+		int size = Integer.BYTES;
+		for (Memory memory : pools.values()) {
+			size += Byte.BYTES + memoryCodec.sizeOf(memory);
+		}
+
+		return size;
+	}
+
+	@Override
+	public void write(GCEvent value, ByteBuffer out) {
+		Primitives.writeString(value.getGcName(), out);
+		Primitives.writeEnum(value.getCollection(), COLLECTIONS, out);
+		out.putLong(value.getDurationNanos());
+
+		write(value.getMemoryBeforeGC(), out);
+		write(value.getMemoryAfterGC(), out);
+	}
+
+	private void write(Map<MemoryPoolType, Memory> pools, ByteBuffer out) {
+		out.putInt(pools.size());
+		for (Entry<MemoryPoolType, Memory> entry : pools.entrySet()) {
+			Primitives.writeEnum(entry.getKey(), POOL_TYPES, out);
+			memoryCodec.write(entry.getValue(), out);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("PMD.PrematureDeclaration") // wire order
+	public GCEvent read(ByteBuffer in) {
+		String gcName = Primitives.readString(in);
+		GCCollection collection = Primitives.readEnum(in, COLLECTIONS);
+		long durationNanos = in.getLong();
+		if (durationNanos < 0) {
+			throw new IllegalArgumentException("invalid duration: " + durationNanos);
+		}
+
+		Map<MemoryPoolType, Memory> memoryBeforeGC = readPools(in);
+		Map<MemoryPoolType, Memory> memoryAfterGC = readPools(in);
+
+		return new GCEvent(gcName, collection, memoryBeforeGC, memoryAfterGC, Duration.ofNanos(durationNanos));
+	}
+
+	private Map<MemoryPoolType, Memory> readPools(ByteBuffer in) {
+		int count = Primitives.readCount(in);
+		Map<MemoryPoolType, Memory> pools = new EnumMap<>(MemoryPoolType.class);
+		for (int i = 0; i < count; i++) {
+			pools.put(Primitives.readEnum(in, POOL_TYPES), memoryCodec.read(in));
+		}
+
+		return pools;
+	}
+}
@@ -0,0 +1,41 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.nio.ByteBuffer;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+
+/**
+ * init, used, committed, max: 4 longs (-1 for undefined init/max).
+ */
+final class MemoryCodec implements Codec<Memory> {
+	/* default */ static final byte TYPE_TAG = 1;
+	private static final int SIZE = 4 * Long.BYTES;
+
+	@Override
+	public byte getTypeTag() {
+		return TYPE_TAG;
+	}
+
+	@Override
+	public int sizeOf(Memory value) {
+		return SIZE;
+	}
+
+	@Override
+	public void write(Memory value, ByteBuffer out) {
+		out.putLong(value.getInit().orElse(-1L));
+		out.putLong(value.getUsed());
+		out.putLong(value.getCommitted());
+		out.putLong(value.getMax().orElse(-1L));
+	}
+
+	@Override
+	public Memory read(ByteBuffer in) {
+		long init = in.getLong();
+		long used = in.getLong();
+		long committed = in.getLong();
+		long max = in.getLong();
+
+		return new Memory(init, used, committed, max);
+	}
+}
@@ -0,0 +1,39 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.nio.ByteBuffer;
+
+import com.github.honoluluhenk.gcmonitor.detection.overflow.Overflow;
+import com.github.honoluluhenk.gcmonitor.detection.overflow.Status;
+
+/**
+ * Status code followed by the reason.
+ */
+final class OverflowCodec implements Codec<Overflow> {
+	/* default */ static final byte TYPE_TAG = 6;
+
+	// stable codes: only ever append
+	private static final Status[] STATUSES = {Status.OK, Status.OVERFLOW};
+
+	@Override
+	public byte getTypeTag() {
+		return TYPE_TAG;
+	}
+
+	@Override
+	public int sizeOf(Overflow value) {
+		return Byte.BYTES + Primitives.sizeOf(value.getReason());
+	}
+
+	@Override
+	public void write(Overflow value, ByteBuffer out) {
+		Primitives.writeEnum(value.getStatus(), STATUSES, out);
+		Primitives.writeString(value.getReason(), out);
+	}
+
+	@Override
+	public Overflow read(ByteBuffer in) {
+		Status status = Primitives.readEnum(in, STATUSES);
+
+		return new Overflow(status, Primitives.readString(in));
+	}
+}
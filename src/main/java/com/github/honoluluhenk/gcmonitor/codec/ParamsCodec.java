@@ -0,0 +1,70 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.honoluluhenk.gcmonitor.expiry.Params;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The inspected {@link TimedData}, number of entries of all data and all entries.
+ * <p>All data is decoded as payload type {@code T}.</p>
+ */
+final class ParamsCodec<T extends Serializable> implements Codec<Params<T>> {
+	/* default */ static final byte TYPE_TAG = 5;
+
+	private final Codec<TimedData<T>> timedDataCodec;
+
+	/* default */ ParamsCodec(Codec<T> payloadCodec) {
+		this.timedDataCodec = new TimedDataCodec<>(requireNonNull(payloadCodec));
+	}
+
+	@Override
+	public byte getTypeTag() {
+		return TYPE_TAG;
+	}
+
+	@Override
+	public int sizeOf(Params<T> value) {
+		int size = timedDataCodec.sizeOf(value.getTimedData()) + Integer.BYTES;
+		for (TimedData<T> entry : allData(value)) {
+			size += timedDataCodec.sizeOf(entry);
+		}
+
+		return size;
+	}
+
+	@Override
+	public void write(Params<T> value, ByteBuffer out) {
+		timedDataCodec.write(value.getTimedData(), out);
+
+		List<TimedData<T>> allData = allData(value);
+		out.putInt(allData.size());
+		for (TimedData<T> entry : allData) {
+			timedDataCodec.write(entry, out);
+		}
+	}
+
+	@Override
+	public Params<T> read(ByteBuffer in) {
+		TimedData<T> timedData = timedDataCodec.read(in);
+
+		int count = Primitives.readCount(in);
+		List<TimedData<T>> allData = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			allData.add(timedDataCodec.read(in));
+		}
+
+		return new Params<>(timedData, allData);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Serializable> List<TimedData<T>> allData(Params<T> value) {
+		// the encoding only supports payloads of type T, the payload codec fails on anything else
+		return (List<TimedData<T>>) value.getAllData();
+	}
+}
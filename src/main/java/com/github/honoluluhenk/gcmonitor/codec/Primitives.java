@@ -0,0 +1,138 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Encodings shared by all codecs.
+ */
+@SuppressWarnings("PMD.ClassNamingConventions")
+final class Primitives {
+	private static final byte ZONE_OFFSET = 0;
+	private static final byte ZONE_REGION = 1;
+
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	/* default */ static final int TIMESTAMP_SIZE = Long.BYTES + Integer.BYTES;
+
+	private Primitives() {
+		// utility class
+	}
+
+	/**
+	 * Length prefixed UTF-8.
+	 */
+	/* default */ static int sizeOf(String value) {
+		return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	/* default */ static void writeString(String value, ByteBuffer out) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.putInt(bytes.length);
+		out.put(bytes);
+	}
+
+	/* default */ static String readString(ByteBuffer in) {
+		byte[] bytes = new byte[readCount(in)];
+		in.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * A non-negative int, e.g.: a number of elements.
+	 */
+	/* default */ static int readCount(ByteBuffer in) {
+		int count = in.getInt();
+		if (count < 0 || count > in.remaining()) {
+			// every element needs at least one byte
+			throw new IllegalArgumentException("invalid count: " + count);
+		}
+		return count;
+	}
+
+	/* default */ static int sizeOf(ZoneId zone) {
+		return zone instanceof ZoneOffset
+				? Byte.BYTES + Integer.BYTES
+				: Byte.BYTES + sizeOf(zone.getId());
+	}
+
+	/* default */ static void writeZone(ZoneId zone, ByteBuffer out) {
+		if (zone instanceof ZoneOffset) {
+			out.put(ZONE_OFFSET);
+			out.putInt(((ZoneOffset) zone).getTotalSeconds());
+		} else {
+			out.put(ZONE_REGION);
+			writeString(zone.getId(), out);
+		}
+	}
+
+	/* default */ static ZoneId readZone(ByteBuffer in) {
+		byte kind = in.get();
+		switch (kind) {
+		case ZONE_OFFSET:
+			return ZoneOffset.ofTotalSeconds(in.getInt());
+		case ZONE_REGION:
+			return ZoneId.of(readString(in));
+		default:
+			throw new IllegalArgumentException("unknown zone kind: " + kind);
+		}
+	}
+
+	/**
+	 * The instant only, see {@link #TIMESTAMP_SIZE}. The zone is written separately.
+	 */
+	/* default */ static void writeInstant(ZonedDateTime timestamp, ByteBuffer out) {
+		Instant instant = timestamp.toInstant();
+		out.putLong(instant.getEpochSecond());
+		out.putInt(instant.getNano());
+	}
+
+	/**
+	 * Same format as {@link #writeInstant(ZonedDateTime, ByteBuffer)}.
+	 */
+	/* default */ static void writeEpochNanos(long epochNanos, ByteBuffer out) {
+		out.putLong(Math.floorDiv(epochNanos, NANOS_PER_SECOND));
+		out.putInt((int) Math.floorMod(epochNanos, NANOS_PER_SECOND));
+	}
+
+	/* default */ static long readEpochNanos(ByteBuffer in) {
+		long epochSecond = in.getLong();
+		int nano = in.getInt();
+
+		return Math.addExact(Math.multiplyExact(epochSecond, NANOS_PER_SECOND), nano);
+	}
+
+	/* default */ static Instant readInstant(ByteBuffer in) {
+		long epochSecond = in.getLong();
+		int nano = in.getInt();
+
+		return Instant.ofEpochSecond(epochSecond, nano);
+	}
+
+	/**
+	 * Look up an enum constant by its stable code (its index in {@code byCode}).
+	 */
+	@SuppressWarnings("PMD.UseVarargs")
+	/* default */ static <E extends Enum<E>> E readEnum(ByteBuffer in, E[] byCode) {
+		int code = in.get();
+		if (code < 0 || code >= byCode.length) {
+			throw new IllegalArgumentException("unknown code: " + code);
+		}
+		return byCode[code];
+	}
+
+	/* default */ static <E extends Enum<E>> void writeEnum(E value, E[] byCode, ByteBuffer out) {
+		for (int code = 0; code < byCode.length; code++) {
+			if (byCode[code] == value) {
+				out.put((byte) code);
+				return;
+			}
+		}
+		throw new IllegalArgumentException("no code for: " + value);
+	}
+}
@@ -0,0 +1,150 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * All distinct zones (usually just one), then the number of entries
+ * and per entry: epoch second, nano, index into the zones (a short) and the payload.
+ */
+final class TimeSeriesCodec<T extends Serializable> implements Codec<TimeSeries<T>> {
+	/* default */ static final byte TYPE_TAG = 3;
+
+	private static final int MAX_ZONES = Short.MAX_VALUE;
+
+	private final Codec<T> payloadCodec;
+
+	/* default */ TimeSeriesCodec(Codec<T> payloadCodec) {
+		this.payloadCodec = requireNonNull(payloadCodec);
+	}
+
+	@Override
+	public byte getTypeTag() {
+		return TYPE_TAG;
+	}
+
+	/**
+	 * Fixes the current data, so concurrently added entries do not get written without being sized.
+	 */
+	@Override
+	public TimeSeries<T> snapshot(TimeSeries<T> value) {
+		return new Fixed<>(value.getTimedData());
+	}
+
+	@Override
+	public int sizeOf(TimeSeries<T> value) {
+		return sizeOf(value.getTimedData());
+	}
+
+	private int sizeOf(List<TimedData<T>> entries) {
+		int size = Integer.BYTES + Integer.BYTES;
+		for (ZoneId zone : zoneIndexes(entries).keySet()) {
+			size += Primitives.sizeOf(zone);
+		}
+		for (TimedData<T> entry : entries) {
+			size += Primitives.TIMESTAMP_SIZE + Short.BYTES + payloadCodec.sizeOf(entry.getData());
+		}
+
+		return size;
+	}
+
+	@Override
+	public void write(TimeSeries<T> value, ByteBuffer out) {
+		write(value.getTimedData(), out);
+	}
+
+	private void write(List<TimedData<T>> entries, ByteBuffer out) {
+		Map<ZoneId, Integer> zoneIndexes = zoneIndexes(entries);
+		out.putInt(zoneIndexes.size());
+		for (ZoneId zone : zoneIndexes.keySet()) {
+			Primitives.writeZone(zone, out);
+		}
+
+		out.putInt(entries.size());
+		for (TimedData<T> entry : entries) {
+			Primitives.writeEpochNanos(entry.getEpochNanos(), out);
+			out.putShort(zoneIndexes.get(entry.getZone()).shortValue());
+			payloadCodec.write(entry.getData(), out);
+		}
+	}
+
+	/**
+	 * Decodes into a new {@link TimeSeries}.
+	 */
+	@Override
+	public TimeSeries<T> read(ByteBuffer in) {
+		TimeSeries<T> timeSeries = new TimeSeries<>();
+		readInto(in, timeSeries);
+
+		return timeSeries;
+	}
+
+	/**
+	 * Decodes into {@code target}, e.g.: a {@link com.github.honoluluhenk.gcmonitor.timeddata.MemoryTimeSeries}.
+	 */
+	@SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops", "PMD.PrematureDeclaration"}) // wire order
+	/* default */ void readInto(ByteBuffer in, TimeSeries<T> target) {
+		int zoneCount = Primitives.readCount(in);
+		List<ZoneId> zones = new ArrayList<>(zoneCount);
+		for (int i = 0; i < zoneCount; i++) {
+			zones.add(Primitives.readZone(in));
+		}
+
+		int count = Primitives.readCount(in);
+		for (int i = 0; i < count; i++) {
+			long epochNanos = Primitives.readEpochNanos(in);
+			int zoneIndex = in.getShort();
+			if (zoneIndex < 0 || zoneIndex >= zones.size()) {
+				throw new IllegalArgumentException("invalid zone index: " + zoneIndex);
+			}
+
+			target.add(new TimedData<>(epochNanos, zones.get(zoneIndex), payloadCodec.read(in)));
+		}
+	}
+
+	private Map<ZoneId, Integer> zoneIndexes(List<TimedData<T>> entries) {
+		Map<ZoneId, Integer> indexes = new LinkedHashMap<>();
+		for (TimedData<T> entry : entries) {
+			indexes.putIfAbsent(entry.getZone(), indexes.size());
+		}
+		if (indexes.size() > MAX_ZONES) {
+			throw new IllegalArgumentException("too many distinct zones: " + indexes.size());
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * A time series that always returns the same data, see {@link #snapshot(TimeSeries)}.
+	 */
+	private static final class Fixed<T extends Serializable> extends TimeSeries<T> {
+		private static final long serialVersionUID = -3301851170426416735L;
+
+		private final List<TimedData<T>> data;
+
+		private Fixed(List<TimedData<T>> data) {
+			super();
+			this.data = data;
+		}
+
+		@Override
+		public List<TimedData<T>> getTimedData() {
+			return data;
+		}
+
+		@Override
+		public int size() {
+			return data.size();
+		}
+	}
+}
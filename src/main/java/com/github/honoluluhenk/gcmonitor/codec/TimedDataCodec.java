@@ -0,0 +1,51 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Timestamp (epoch second, nano, zone) followed by the payload.
+ */
+final class TimedDataCodec<T extends Serializable> implements Codec<TimedData<T>> {
+	/* default */ static final byte TYPE_TAG = 2;
+
+	private final Codec<T> payloadCodec;
+
+	/* default */ TimedDataCodec(Codec<T> payloadCodec) {
+		this.payloadCodec = requireNonNull(payloadCodec);
+	}
+
+	@Override
+	public byte getTypeTag() {
+		return TYPE_TAG;
+	}
+
+	@Override
+	public int sizeOf(TimedData<T> value) {
+		return Primitives.TIMESTAMP_SIZE
+				+ Primitives.sizeOf(value.getTimestamp().getZone())
+				+ payloadCodec.sizeOf(value.getData());
+	}
+
+	@Override
+	public void write(TimedData<T> value, ByteBuffer out) {
+		Primitives.writeInstant(value.getTimestamp(), out);
+		Primitives.writeZone(value.getTimestamp().getZone(), out);
+		payloadCodec.write(value.getData(), out);
+	}
+
+	@Override
+	public TimedData<T> read(ByteBuffer in) {
+		Instant instant = Primitives.readInstant(in);
+		ZoneId zone = Primitives.readZone(in);
+
+		return new TimedData<>(ZonedDateTime.ofInstant(instant, zone), payloadCodec.read(in));
+	}
+}
@@ -1,11 +1,8 @@
 package com.github.honoluluhenk.gcmonitor.detection.overflow;
 
-import java.util.List;
-
 import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.Statistics;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
-import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import static java.lang.String.format;
 
@@ -25,6 +22,11 @@ import static java.lang.String.format;
  * The detector ignores measurements where there is no max present (i.e.: no maximum memory pool size defined).<br>
  * Note from the author: I could not setup an Oracle/OpenJDK JVM to reproduce this szenario.
  * </p>
+ * <p>
+ * The average is maintained by the {@link TimeSeries} (see {@link TimeSeries#aggregate}, started by
+ * {@link #attach(TimeSeries)} or else by the first detection), so detection costs O(1) instead of a pass over all
+ * readings.
+ * </p>
  */
 public class AverageUsageAboveThreshold implements OverflowDetector {
 	private final long numMeasures;
@@ -49,22 +51,24 @@ public class AverageUsageAboveThreshold implements OverflowDetector {
 		this.alarmThresholdPct = alarmThresholdPct;
 	}
 
+	@Override
+	public void attach(TimeSeries<Memory> timeSeries) {
+		timeSeries.aggregate(MemoryMetric.USAGE_PCT);
+	}
+
 	@Override
 	public Overflow detect(TimeSeries<Memory> timeSeries) {
-		List<TimedData<Memory>> timedData = timeSeries.getTimedData();
+		// a lookup if attach() started it, else it gets started now (under the write lock)
+		Statistics usage = timeSeries.aggregate(MemoryMetric.USAGE_PCT)
+				.getStatistics();
 
-		int measuresCount = timedData.size();
+		long measuresCount = usage.getCount();
 		if (measuresCount < this.numMeasures) {
 			return Overflow.ok(
 					format("Not enough measures, have: %d but need at least %d", measuresCount, this.numMeasures));
 		}
 
-		@SuppressFBWarnings("OI_OPTIONAL_ISSUES_USES_IMMEDIATE_EXECUTION")
-		double usagePct = timedData.stream()
-				.mapToDouble(data -> new MemoryUsageCalculator(data.getData()).calculatePct()
-						.orElse(0.0d))
-				.average()
-				.orElse(0.0d);
+		double usagePct = usage.getMean();
 
 		boolean ok = usagePct < alarmThresholdPct;
 		if (ok) {
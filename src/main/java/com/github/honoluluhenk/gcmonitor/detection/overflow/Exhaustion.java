@@ -0,0 +1,39 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+
+/**
+ * Projects when the used memory reaches the max memory if it keeps growing linearly.
+ */
+@SuppressWarnings("PMD.ClassNamingConventions")
+final class Exhaustion {
+	/**
+	 * Like {@link java.lang.management.MemoryUsage#getMax()}: the max memory is undefined.
+	 */
+	/* default */ static final long NO_MAX = -1L;
+
+	private static final double NANOS_PER_SECOND = 1_000_000_000.0d;
+
+	private Exhaustion() {
+		// utility class
+	}
+
+	/**
+	 * @param max the max memory, {@link #NO_MAX} if undefined (see {@link Memory#getMaxOrMinusOne()}).
+	 * @param usedNow the (fitted) used memory now.
+	 * @param slopePerSecond growth of the used memory.
+	 * @return empty if there is no max or the usage does not grow.
+	 */
+	/* default */ static Optional<Duration> timeToExhaustion(long max, double usedNow, double slopePerSecond) {
+		if (max == NO_MAX || !(slopePerSecond > 0.0d)) {
+			return Optional.empty();
+		}
+
+		double nanos = Math.max(0.0d, (max - usedNow) / slopePerSecond * NANOS_PER_SECOND);
+		// saturates at Long.MAX_VALUE
+		return Optional.of(Duration.ofNanos((long) nanos));
+	}
+}
@@ -0,0 +1,102 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.Metric;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Exponential smoothing (Holt: level and trend) of a {@link Metric} over irregularly spaced readings.
+ * <p>
+ * The weight of a reading decays with its age, not with the number of readings:
+ * after {@code halfLife} it counts half. Without a trend half-life, this is a plain EWMA of the level.
+ * </p>
+ * <p>
+ * Keeps O(1) state: each reading gets fed once by {@link #update(TimedData)} (see {@link ReadingFeed}),
+ * in timestamp order. Not thread safe.
+ * </p>
+ */
+final class ExponentialSmoothing {
+	private static final double NANOS_PER_SECOND = 1_000_000_000.0d;
+	private static final double LN_2 = Math.log(2);
+
+	private final Metric<? super Memory> metric;
+	/**
+	 * Time constants in seconds, trend: 0.0 if no trend is tracked.
+	 */
+	private final double levelTau;
+	private final double trendTau;
+
+	private long count;
+	private long lastEpochNanos;
+	private double level;
+	/**
+	 * Per second.
+	 */
+	private double trend;
+
+	/**
+	 * @param trendHalfLife null: no trend.
+	 */
+	/* default */ ExponentialSmoothing(Metric<? super Memory> metric, Duration levelHalfLife, Duration trendHalfLife) {
+		this.metric = requireNonNull(metric);
+		this.levelTau = tau(requireNonNull(levelHalfLife));
+		this.trendTau = trendHalfLife == null ? 0.0d : tau(trendHalfLife);
+	}
+
+	private static double tau(Duration halfLife) {
+		return halfLife.toNanos() / NANOS_PER_SECOND / LN_2;
+	}
+
+	/* default */ static void requirePositive(Duration duration, String name) {
+		requireNonNull(duration, name);
+		if (duration.isNegative() || duration.isZero()) {
+			throw new IllegalArgumentException(name + " must be > 0 but was: " + duration);
+		}
+	}
+
+	/* default */ void update(TimedData<Memory> reading) {
+		update(reading.getEpochNanos(), metric.valueOf(reading.getData()));
+	}
+
+	/* default */ void update(long epochNanos, double value) {
+		if (count == 0) {
+			level = value;
+			trend = 0.0d;
+		} else {
+			double seconds = (epochNanos - lastEpochNanos) / NANOS_PER_SECOND;
+			double predicted = level + trend * seconds;
+			double newLevel = predicted + (1.0d - Math.exp(-seconds / levelTau)) * (value - predicted);
+			if (trendTau > 0.0d && seconds > 0.0d) {
+				double observedTrend = (newLevel - level) / seconds;
+				trend += (1.0d - Math.exp(-seconds / trendTau)) * (observedTrend - trend);
+			}
+			level = newLevel;
+		}
+
+		lastEpochNanos = epochNanos;
+		count++;
+	}
+
+	/* default */ long getCount() {
+		return count;
+	}
+
+	/* default */ double getLevel() {
+		return level;
+	}
+
+	/* default */ double getTrendPerSecond() {
+		return trend;
+	}
+
+	/**
+	 * The level {@code horizon} after the last reading seen, extrapolated by the trend.
+	 */
+	/* default */ double forecast(Duration horizon) {
+		return level + trend * (horizon.toNanos() / NANOS_PER_SECOND);
+	}
+}
@@ -0,0 +1,117 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+
+/**
+ * <p>
+ * <strong>Detection principle:</strong>
+ * </p>
+ * <ul>
+ * <li>smooth the memory pool usage (usage / max) by Holt's double exponential smoothing (level and trend)</li>
+ * <li>forecast the usage {@code horizon} ahead</li>
+ * <li>if the forecast is &gt;= {@code thresholdPct}</li>
+ * </ul>
+ * <p>
+ * then the detection counts as {@link Overflow} with {@link Status#OVERFLOW}.
+ * Like {@link SmoothedUsageAboveThreshold}, the detector keeps O(1) state,
+ * fed with each reading as it gets added (see {@link #attach(TimeSeries)}).
+ * </p>
+ */
+public class ForecastUsageAboveThreshold implements OverflowDetector {
+	/**
+	 * A trend needs at least two readings.
+	 */
+	private static final int MIN_MEASURES = 2;
+
+	private final int numMeasures;
+	private final Duration horizon;
+	private final double thresholdPct;
+
+	private final ExponentialSmoothing smoothing;
+	private final ReadingFeed feed = new ReadingFeed(this::accept);
+
+	/**
+	 * @param numMeasures overflow warnings are only given if at least this many readings have been seen.
+	 * @param levelHalfLife a reading counts half for the level after this duration.
+	 * @param trendHalfLife an observed change counts half for the trend after this duration.
+	 * @param horizon forecast this far ahead of the newest reading.
+	 * @param thresholdPct sets the alarm threshold in percent (e.g.: 90.0d means 90 percent).
+	 */
+	public ForecastUsageAboveThreshold(
+			int numMeasures,
+			Duration levelHalfLife,
+			Duration trendHalfLife,
+			Duration horizon,
+			double thresholdPct
+	) {
+		if (numMeasures < MIN_MEASURES) {
+			throw new IllegalArgumentException("numMeasures must be >= 2 but was: " + numMeasures);
+		}
+		this.numMeasures = numMeasures;
+
+		ExponentialSmoothing.requirePositive(levelHalfLife, "levelHalfLife");
+		ExponentialSmoothing.requirePositive(trendHalfLife, "trendHalfLife");
+		ExponentialSmoothing.requirePositive(horizon, "horizon");
+		this.horizon = horizon;
+
+		if (thresholdPct <= 0.0 || thresholdPct > 100.0) {
+			throw new IllegalArgumentException("thresholdPct must be 0 < x <= 100 but was: " + thresholdPct);
+		}
+		this.thresholdPct = thresholdPct;
+
+		this.smoothing = new ExponentialSmoothing(MemoryMetric.USAGE_PCT, levelHalfLife, trendHalfLife);
+	}
+
+	/**
+	 * Feed each reading of {@code timeSeries} as it gets added, see {@link TimeSeries#addAppendListener}.
+	 * Optional: without it, the first {@link #detect(TimeSeries)} attaches.
+	 *
+	 * @throws IllegalStateException if already attached to another time series.
+	 */
+	@Override
+	public synchronized void attach(TimeSeries<Memory> timeSeries) {
+		feed.attach(timeSeries);
+	}
+
+	private synchronized void accept(TimedData<Memory> reading) {
+		smoothing.update(reading);
+	}
+
+	@Override
+	public synchronized Overflow detect(TimeSeries<Memory> timeSeries) {
+		feed.attach(timeSeries);
+
+		long measuresCount = smoothing.getCount();
+		if (measuresCount < numMeasures) {
+			return Overflow.ok(
+					format("Not enough measures, have: %d but need at least %d", measuresCount, numMeasures));
+		}
+
+		double forecastPct = smoothing.forecast(horizon);
+		if (forecastPct < thresholdPct) {
+			return Overflow.ok(format("forecast usagePct in %s < thresholdPct: %s < %s, have %s measures",
+					horizon, forecastPct, thresholdPct, measuresCount));
+		}
+
+		return Overflow.overflow(format("Forecast usage in %s: %.5f%% >= %.5f%%", horizon, forecastPct,
+				thresholdPct));
+	}
+
+	public int getNumMeasures() {
+		return numMeasures;
+	}
+
+	public Duration getHorizon() {
+		return horizon;
+	}
+
+	public double getThresholdPct() {
+		return thresholdPct;
+	}
+}
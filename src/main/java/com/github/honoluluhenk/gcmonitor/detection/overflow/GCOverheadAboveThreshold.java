@@ -0,0 +1,170 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+
+import com.github.honoluluhenk.gcmonitor.eventlistener.EventListener;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>
+ * <strong>Detection principle:</strong> like the GCTimeLimit/GCHeapFreeLimit of HotSpot
+ * </p>
+ * <ul>
+ * <li>if the time spent in GC (minor and major collections) within the last {@code window}</li>
+ * <li>is &gt;= {@code gcTimeLimitPct} of the window</li>
+ * <li>and (optional) the free memory of the {@link MemoryPoolType#OLD} pool after the last major collection
+ * is &lt; {@code heapFreeLimitPct}</li>
+ * </ul>
+ * <p>
+ * then the detection counts as {@link Overflow} with {@link Status#OVERFLOW}.
+ * </p>
+ * <p>
+ * Unlike the {@link OverflowDetector}s, this needs all collections and their {@link GCEvent#getDuration()},
+ * so it listens to the events directly:
+ * </p>
+ * <pre>
+ * GCOverheadAboveThreshold overhead = new GCOverheadAboveThreshold(Duration.ofMinutes(1), 40.0);
+ * eventSource.addEventListener(overhead);
+ * // ...
+ * Overflow overflow = overhead.detect();
+ * </pre>
+ * <p>
+ * GC time is summed up per tenth of the window, so the window moves in steps of a tenth and neither events
+ * nor detection depend on the number of collections. The duration of a collection is spread over the tenths it ran
+ * in, and the GC time is related to the span the tenths cover (between 9/10 of the window and the window).
+ * </p>
+ */
+public class GCOverheadAboveThreshold implements EventListener<TimedData<GCEvent>> {
+	private static final double NO_HEAP_FREE_LIMIT = 100.0d;
+
+	private final Duration window;
+	private final double gcTimeLimitPct;
+	private final double heapFreeLimitPct;
+
+	private final long windowNanos;
+	private final SlicedWindow<long[]> gcTime;
+
+	private boolean seenAny;
+	/**
+	 * Start of the first collection seen.
+	 */
+	private long firstEpochNanos;
+	/**
+	 * Of the {@link MemoryPoolType#OLD} pool after the last major collection, NaN if unknown.
+	 */
+	private double oldFreePct = Double.NaN;
+
+	/**
+	 * Convenience: calls {@link #GCOverheadAboveThreshold(Duration, double, double)} without a heap free limit.
+	 */
+	public GCOverheadAboveThreshold(Duration window, double gcTimeLimitPct) {
+		this(window, gcTimeLimitPct, NO_HEAP_FREE_LIMIT);
+	}
+
+	/**
+	 * @param window GC time is measured over this duration, must be &gt;= 10 nanoseconds.
+	 * @param gcTimeLimitPct sets the alarm threshold in percent of the window (e.g.: 40.0d means 40 percent).
+	 * @param heapFreeLimitPct only alarm if less memory is free in the old pool (never if unknown), 100.0d: no limit.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public GCOverheadAboveThreshold(Duration window, double gcTimeLimitPct, double heapFreeLimitPct) {
+		ExponentialSmoothing.requirePositive(window, "window");
+		if (window.toNanos() < SlicedWindow.SLICES) {
+			throw new IllegalArgumentException("window must be >= 10 nanoseconds but was: " + window);
+		}
+		this.window = window;
+		this.windowNanos = window.toNanos();
+		this.gcTime = SlicedWindow.sums(windowNanos, 1);
+
+		if (!(gcTimeLimitPct > 0.0 && gcTimeLimitPct <= 100.0)) {
+			throw new IllegalArgumentException("gcTimeLimitPct must be 0 < x <= 100 but was: " + gcTimeLimitPct);
+		}
+		this.gcTimeLimitPct = gcTimeLimitPct;
+
+		if (!(heapFreeLimitPct > 0.0 && heapFreeLimitPct <= 100.0)) {
+			throw new IllegalArgumentException(
+					"heapFreeLimitPct must be 0 < x <= 100 but was: " + heapFreeLimitPct);
+		}
+		this.heapFreeLimitPct = heapFreeLimitPct;
+	}
+
+	@Override
+	public synchronized void accept(TimedData<GCEvent> event) {
+		requireNonNull(event);
+		long end = event.getEpochNanos();
+		long gcNanos = event.getData().getDurationNanos();
+
+		if (!seenAny || end - gcNanos < firstEpochNanos) {
+			firstEpochNanos = end - gcNanos;
+			seenAny = true;
+		}
+
+		SlicedWindow.addSpread(gcTime, end - gcNanos, end, 0);
+
+		if (event.getData().getCollection().isMajor()) {
+			Memory old = event.getData().getMemoryAfterGC().get(MemoryPoolType.OLD);
+			if (old != null) {
+				oldFreePct = old.getMax()
+						.map(max -> max > 0 ? 100.0d * (max - old.getUsed()) / max : Double.NaN)
+						.orElse(Double.NaN);
+			}
+		}
+	}
+
+	public synchronized Overflow detect() {
+		long now = now();
+		if (!seenAny || now - firstEpochNanos < windowNanos) {
+			return Overflow.ok(format("Not enough data, need collections over at least %s", window));
+		}
+
+		gcTime.advanceTo(now);
+		double gcTimePct = Math.min(100.0d, 100.0d * gcTime.getTotal()[0] / (now - gcTime.getStartNanos()));
+		if (gcTimePct < gcTimeLimitPct) {
+			return Overflow.ok(format("GC time < gcTimeLimitPct: %.5f%% < %.5f%% within %s",
+					gcTimePct, gcTimeLimitPct, window));
+		}
+
+		if (heapFreeLimitPct == NO_HEAP_FREE_LIMIT) {
+			return Overflow.overflow(format("GC time: %.5f%% >= %.5f%% within %s",
+					gcTimePct, gcTimeLimitPct, window));
+		}
+
+		if (!(oldFreePct < heapFreeLimitPct)) {
+			return Overflow.ok(format("GC time: %.5f%% >= %.5f%% but heap free after major GC: %s >= %.5f%%",
+					gcTimePct, gcTimeLimitPct, Double.isNaN(oldFreePct) ? "unknown" : format("%.5f%%", oldFreePct),
+					heapFreeLimitPct));
+		}
+
+		return Overflow.overflow(format(
+				"GC time: %.5f%% >= %.5f%% within %s, heap free after major GC: %.5f%% < %.5f%%",
+				gcTimePct, gcTimeLimitPct, window, oldFreePct, heapFreeLimitPct));
+	}
+
+	/**
+	 * make testing easier.
+	 *
+	 * @return nanoseconds since the epoch, see {@link EpochNanos}.
+	 */
+	/* default */ long now() {
+		return EpochNanos.now();
+	}
+
+	public Duration getWindow() {
+		return window;
+	}
+
+	public double getGcTimeLimitPct() {
+		return gcTimeLimitPct;
+	}
+
+	public double getHeapFreeLimitPct() {
+		return heapFreeLimitPct;
+	}
+}
@@ -0,0 +1,30 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.Metric;
+
+/**
+ * {@link Metric}s on {@link Memory} readings, e.g. for {@link
+ * com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries#aggregate(Metric)}.
+ */
+public enum MemoryMetric implements Metric<Memory> {
+	/**
+	 * See {@link Memory#getUsed()}, in bytes.
+	 */
+	USED {
+		@Override
+		public double valueOf(Memory memory) {
+			return memory.getUsed();
+		}
+	},
+	/**
+	 * See {@link MemoryUsageCalculator#calculatePct()}, 0.0 if there is no max.
+	 */
+	USAGE_PCT {
+		@Override
+		public double valueOf(Memory memory) {
+			return new MemoryUsageCalculator(memory).calculatePct()
+					.orElse(0.0d);
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.github.honoluluhenk.gcmonitor.detection.overflow;
 
 import com.github.honoluluhenk.gcmonitor.detection.Detector;
 import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
 
 /**
  * Implementations should detect a memory overflow situation based on memory information.
@@ -11,4 +12,14 @@ public interface OverflowDetector extends Detector<Overflow, Memory> {
 	default void validate(int expectedReadings) {
 		// ignored
 	}
+
+	/**
+	 * Called once before the first {@link #detect(TimeSeries)} on {@code timeSeries}:
+	 * start maintaining whatever the detector reads (e.g.: {@link TimeSeries#aggregate}),
+	 * so detection itself never needs the write lock of {@code timeSeries}.
+	 * Optional: without it, the first {@link #detect(TimeSeries)} starts it.
+	 */
+	default void attach(TimeSeries<Memory> timeSeries) {
+		// nothing to maintain
+	}
 }
@@ -0,0 +1,182 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Counts GC pause durations in log-linear buckets (like an HdrHistogram), so percentiles can be queried without
+ * keeping or sorting the pauses.
+ * <p>
+ * Pauses are counted in microseconds: exact below 64µs, above within about 3% (32 linear buckets per power of two).
+ * Pauses of more than about 71 minutes are counted as such. Memory is fixed (896 counters), recording does not
+ * allocate. Histograms can be merged, e.g.: histograms of several time windows or JVMs.
+ * </p>
+ * <p>Not thread safe.</p>
+ */
+public class PauseHistogram implements Serializable {
+	private static final long serialVersionUID = -6502917326465913420L;
+
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+	/**
+	 * Highest power of two tracked.
+	 */
+	private static final int MAX_MAGNITUDE = 31;
+	private static final long MAX_MICROS = (1L << (MAX_MAGNITUDE + 1)) - 1;
+	/* default */ static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS;
+	private static final long NANOS_PER_MICRO = 1_000L;
+	private static final double MAX_PCT = 100.0d;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+
+	public PauseHistogram copy() {
+		PauseHistogram copy = new PauseHistogram();
+		copy.merge(this);
+		return copy;
+	}
+
+	/**
+	 * Negative values are counted as 0.
+	 */
+	public void recordNanos(long pauseNanos) {
+		counts[bucketIndex(Math.max(0L, pauseNanos) / NANOS_PER_MICRO)]++;
+		count++;
+	}
+
+	/* default */ static int bucketIndex(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+
+		long clamped = Math.min(micros, MAX_MICROS);
+		int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(clamped);
+		int shift = magnitude - SUB_BUCKET_BITS + 1;
+
+		return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) ((clamped >> shift) - HALF_SUB_BUCKETS);
+	}
+
+	/**
+	 * The smallest value counted in the bucket.
+	 */
+	/* default */ static long lowestEquivalentMicros(int bucketIndex) {
+		if (bucketIndex < SUB_BUCKETS) {
+			return bucketIndex;
+		}
+
+		int shift = (bucketIndex - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+		long subBucket = (bucketIndex - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+		return subBucket << shift;
+	}
+
+	/**
+	 * The largest value counted in the bucket.
+	 */
+	/* default */ static long highestEquivalentMicros(int bucketIndex) {
+		if (bucketIndex < SUB_BUCKETS) {
+			return bucketIndex;
+		}
+
+		int shift = (bucketIndex - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+		long subBucket = (bucketIndex - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * Add all counts of {@code other} to this histogram.
+	 */
+	public void merge(PauseHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+	}
+
+	/**
+	 * Remove all counts of {@code other}, which must have been merged into this histogram before.
+	 */
+	/* default */ void subtract(PauseHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] -= other.counts[i];
+		}
+		count -= other.count;
+	}
+
+	public void clear() {
+		Arrays.fill(counts, 0L);
+		count = 0;
+	}
+
+	/**
+	 * The smallest bucket bound such that at least {@code percentile} percent of the pauses are at or below it.
+	 *
+	 * @param percentile 0 &lt; x &lt;= 100, e.g.: 99.9d for the p99.9, 100.0d for the max.
+	 * @return empty if there are no pauses.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public Optional<Duration> percentile(double percentile) {
+		int idx = percentileBucket(percentile);
+		if (idx < 0) {
+			return Optional.empty();
+		}
+
+		return Optional.of(Duration.of(highestEquivalentMicros(idx), ChronoUnit.MICROS));
+	}
+
+	/**
+	 * The lowest value counted in the bucket holding the {@code percentile}: the percentile is at least this,
+	 * i.e.: comparing it against a limit never over-reports.
+	 *
+	 * @param percentile 0 &lt; x &lt;= 100, e.g.: 99.9d for the p99.9, 100.0d for the max.
+	 * @return empty if there are no pauses.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public Optional<Duration> percentileLowerBound(double percentile) {
+		int idx = percentileBucket(percentile);
+		if (idx < 0) {
+			return Optional.empty();
+		}
+
+		return Optional.of(Duration.of(lowestEquivalentMicros(idx), ChronoUnit.MICROS));
+	}
+
+	/**
+	 * @return -1 if there are no pauses.
+	 */
+	private int percentileBucket(double percentile) {
+		if (!(percentile > 0.0d && percentile <= MAX_PCT)) {
+			throw new IllegalArgumentException("percentile must be 0 < x <= 100 but was: " + percentile);
+		}
+		if (count == 0) {
+			return -1;
+		}
+
+		long rank = (long) Math.ceil(count * percentile / MAX_PCT);
+		long seen = 0;
+		int idx = 0;
+		while (idx < BUCKETS - 1) {
+			seen += counts[idx];
+			if (seen >= rank) {
+				break;
+			}
+			idx++;
+		}
+
+		return idx;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("PauseHistogram{count=%d}", count);
+	}
+}
@@ -0,0 +1,42 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * A service level objective for GC pauses, e.g.: the p99 must not exceed 200ms.
+ */
+public class PauseSlo implements Serializable {
+	private static final long serialVersionUID = 4389021637740185512L;
+
+	private final double percentile;
+	private final Duration maxPause;
+
+	/**
+	 * @param percentile 0 &lt; x &lt;= 100, e.g.: 99.9d for the p99.9, 100.0d for the longest pause.
+	 * @param maxPause the percentile must not exceed this, must be &gt; 0.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public PauseSlo(double percentile, Duration maxPause) {
+		if (!(percentile > 0.0d && percentile <= 100.0d)) {
+			throw new IllegalArgumentException("percentile must be 0 < x <= 100 but was: " + percentile);
+		}
+		this.percentile = percentile;
+
+		ExponentialSmoothing.requirePositive(maxPause, "maxPause");
+		this.maxPause = maxPause;
+	}
+
+	public double getPercentile() {
+		return percentile;
+	}
+
+	public Duration getMaxPause() {
+		return maxPause;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("p%s <= %s", percentile, maxPause);
+	}
+}
@@ -0,0 +1,152 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import com.github.honoluluhenk.gcmonitor.eventlistener.EventListener;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>
+ * <strong>Detection principle:</strong>
+ * </p>
+ * <ul>
+ * <li>for each collector (see {@link GCEvent#getGcName()}, e.g.: "G1 Young Generation"),</li>
+ * <li>if a percentile of the pauses ({@link GCEvent#getDuration()}) within the last {@code window}</li>
+ * <li>exceeds the max pause of one of the {@link PauseSlo}s</li>
+ * </ul>
+ * <p>
+ * then the detection counts as {@link Overflow} with {@link Status#OVERFLOW}.
+ * Note: for concurrent collectors (e.g.: the old generation of G1), the duration covers the whole collection,
+ * not only the pause.
+ * </p>
+ * <p>
+ * The pauses are counted in {@link PauseHistogram}s, one per collector and tenth of the window, so the window
+ * moves in steps of a tenth. Memory is fixed per collector and recording a pause does not allocate.
+ * It needs all collections, so it listens to the events directly:
+ * </p>
+ * <pre>
+ * PauseTimeAboveThreshold pauses = new PauseTimeAboveThreshold(Duration.ofMinutes(5), Arrays.asList(
+ *     new PauseSlo(99.0, Duration.ofMillis(200)),
+ *     new PauseSlo(100.0, Duration.ofSeconds(1))));
+ * eventSource.addEventListener(pauses);
+ * // ...
+ * Overflow overflow = pauses.detect();
+ * </pre>
+ */
+public class PauseTimeAboveThreshold implements EventListener<TimedData<GCEvent>> {
+	private final Duration window;
+	private final List<PauseSlo> slos;
+
+	private final long windowNanos;
+	/**
+	 * The pauses of each collector by {@link GCEvent#getGcName()}, in order of appearance.
+	 */
+	private final Map<String, SlicedWindow<PauseHistogram>> collectors = new LinkedHashMap<>();
+
+	/**
+	 * @param window only pauses this close to now count, must be &gt;= 10 nanoseconds.
+	 * @param slos at least one.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public PauseTimeAboveThreshold(Duration window, List<PauseSlo> slos) {
+		ExponentialSmoothing.requirePositive(window, "window");
+		if (window.toNanos() < SlicedWindow.SLICES) {
+			throw new IllegalArgumentException("window must be >= 10 nanoseconds but was: " + window);
+		}
+		this.window = window;
+		this.windowNanos = window.toNanos();
+
+		this.slos = Collections.unmodifiableList(new ArrayList<>(requireNonNull(slos)));
+		if (this.slos.isEmpty()) {
+			throw new IllegalArgumentException("need at least one slo");
+		}
+	}
+
+	@Override
+	public synchronized void accept(TimedData<GCEvent> event) {
+		requireNonNull(event);
+		GCEvent gcEvent = event.getData();
+
+		SlicedWindow<PauseHistogram> collector = collectors.get(gcEvent.getGcName());
+		if (collector == null) {
+			collector = new SlicedWindow<>(windowNanos, PauseHistogram::new, PauseHistogram::subtract,
+					PauseHistogram::clear);
+			collectors.put(gcEvent.getGcName(), collector);
+		}
+
+		PauseHistogram slice = collector.slice(event.getEpochNanos());
+		if (slice != null) {
+			slice.recordNanos(gcEvent.getDurationNanos());
+			collector.getTotal().recordNanos(gcEvent.getDurationNanos());
+		}
+	}
+
+	public synchronized Overflow detect() {
+		long now = now();
+
+		StringBuilder violations = new StringBuilder();
+		for (Entry<String, SlicedWindow<PauseHistogram>> entry : collectors.entrySet()) {
+			SlicedWindow<PauseHistogram> collector = entry.getValue();
+			collector.advanceTo(now);
+
+			for (PauseSlo slo : slos) {
+				Optional<Duration> pause = collector.getTotal().percentileLowerBound(slo.getPercentile());
+				if (pause.isPresent() && pause.get().compareTo(slo.getMaxPause()) > 0) {
+					if (violations.length() > 0) {
+						violations.append(", ");
+					}
+					violations.append(format("%s p%s: %s > %s",
+							entry.getKey(), slo.getPercentile(), pause.get(), slo.getMaxPause()));
+				}
+			}
+		}
+
+		if (violations.length() == 0) {
+			return Overflow.ok(format("All pause SLOs met within %s: %s", window, slos));
+		}
+
+		return Overflow.overflow(format("Pause SLOs violated within %s: %s", window, violations));
+	}
+
+	/**
+	 * Copies of the histograms of the pauses within the window (as of the last detection) by collector,
+	 * e.g. to merge them with those of other JVMs.
+	 */
+	public synchronized Map<String, PauseHistogram> getHistograms() {
+		Map<String, PauseHistogram> histograms = new LinkedHashMap<>();
+		for (Entry<String, SlicedWindow<PauseHistogram>> entry : collectors.entrySet()) {
+			histograms.put(entry.getKey(), entry.getValue().getTotal().copy());
+		}
+
+		return Collections.unmodifiableMap(histograms);
+	}
+
+	/**
+	 * make testing easier.
+	 *
+	 * @return nanoseconds since the epoch, see {@link EpochNanos}.
+	 */
+	/* default */ long now() {
+		return EpochNanos.now();
+	}
+
+	public Duration getWindow() {
+		return window;
+	}
+
+	public List<PauseSlo> getSlos() {
+		return slos;
+	}
+}
@@ -0,0 +1,138 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+
+/**
+ * <p>
+ * <strong>Detection principle:</strong>
+ * </p>
+ * <ul>
+ * <li>if the {@code percentile} (e.g.: p90) of the memory pool usage (usage / max)</li>
+ * <li>of all readings within {@code window} (relative to the newest reading)</li>
+ * <li>is &gt;= {@code thresholdPct}</li>
+ * </ul>
+ * <p>
+ * then the detection counts as {@link Overflow} with {@link Status#OVERFLOW}.
+ * </p>
+ * <p>
+ * The readings are counted in {@link UsageHistogram}s (resolution: 0.25%), one per tenth of the window.
+ * So the window moves in steps of a tenth, memory is bounded and detection does not depend on the number of readings.
+ * The detector is fed with each reading as it gets added (see {@link #attach(TimeSeries)}), so they need not be
+ * retained.
+ * </p>
+ */
+public class PercentileUsageAboveThreshold implements OverflowDetector {
+	private static final int BUCKETS_PER_PERCENT = 4;
+
+	private final int numMeasures;
+	private final double percentile;
+	private final Duration window;
+	private final double thresholdPct;
+
+	private final SlicedWindow<UsageHistogram> usages;
+	private final ReadingFeed feed = new ReadingFeed(this::accept);
+
+	/**
+	 * @param numMeasures overflow warnings are only given if the window contains at least this many readings.
+	 * @param percentile 0 &lt; x &lt;= 100, e.g.: 90.0d for the p90.
+	 * @param window only readings this close to the newest reading count, must be &gt;= 10 nanoseconds.
+	 * @param thresholdPct sets the alarm threshold in percent (e.g.: 90.0d means 90 percent).
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public PercentileUsageAboveThreshold(int numMeasures, double percentile, Duration window, double thresholdPct) {
+		if (numMeasures <= 0) {
+			throw new IllegalArgumentException("numMeasures must be > 0 but was: " + numMeasures);
+		}
+		this.numMeasures = numMeasures;
+
+		if (!(percentile > 0.0 && percentile <= 100.0)) {
+			throw new IllegalArgumentException("percentile must be 0 < x <= 100 but was: " + percentile);
+		}
+		this.percentile = percentile;
+
+		ExponentialSmoothing.requirePositive(window, "window");
+		if (window.toNanos() < SlicedWindow.SLICES) {
+			throw new IllegalArgumentException("window must be >= 10 nanoseconds but was: " + window);
+		}
+		this.window = window;
+		this.usages = new SlicedWindow<>(window.toNanos(), () -> new UsageHistogram(BUCKETS_PER_PERCENT),
+				UsageHistogram::subtract, UsageHistogram::clear);
+
+		if (thresholdPct <= 0.0 || thresholdPct > 100.0) {
+			throw new IllegalArgumentException("thresholdPct must be 0 < x <= 100 but was: " + thresholdPct);
+		}
+		this.thresholdPct = thresholdPct;
+	}
+
+	/**
+	 * Feed each reading of {@code timeSeries} as it gets added, see {@link TimeSeries#addAppendListener}.
+	 * Optional: without it, the first {@link #detect(TimeSeries)} attaches.
+	 *
+	 * @throws IllegalStateException if already attached to another time series.
+	 */
+	@Override
+	public synchronized void attach(TimeSeries<Memory> timeSeries) {
+		feed.attach(timeSeries);
+	}
+
+	private synchronized void accept(TimedData<Memory> reading) {
+		record(reading.getEpochNanos(), MemoryMetric.USAGE_PCT.valueOf(reading.getData()));
+	}
+
+	@Override
+	public synchronized Overflow detect(TimeSeries<Memory> timeSeries) {
+		feed.attach(timeSeries);
+
+		UsageHistogram total = usages.getTotal();
+		long measuresCount = total.getCount();
+		if (measuresCount < numMeasures) {
+			return Overflow.ok(
+					format("Not enough measures, have: %d but need at least %d", measuresCount, numMeasures));
+		}
+
+		double usagePct = total.percentileLowerBound(percentile);
+		if (usagePct < thresholdPct) {
+			return Overflow.ok(format("p%s usagePct < thresholdPct: %s < %s, have %s measures",
+					percentile, usagePct, thresholdPct, measuresCount));
+		}
+
+		return Overflow.overflow(format("p%s usage: %.5f%% >= %.5f%%", percentile, usagePct, thresholdPct));
+	}
+
+	private void record(long epochNanos, double usagePct) {
+		UsageHistogram slice = usages.slice(epochNanos);
+		if (slice != null) {
+			slice.record(usagePct);
+			usages.getTotal().record(usagePct);
+		}
+	}
+
+	/**
+	 * A copy of the histogram of all readings within the window, e.g. to merge it with those of other JVMs.
+	 */
+	public synchronized UsageHistogram getHistogram() {
+		return usages.getTotal().copy();
+	}
+
+	public int getNumMeasures() {
+		return numMeasures;
+	}
+
+	public double getPercentile() {
+		return percentile;
+	}
+
+	public Duration getWindow() {
+		return window;
+	}
+
+	public double getThresholdPct() {
+		return thresholdPct;
+	}
+}
@@ -0,0 +1,170 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import com.github.honoluluhenk.gcmonitor.eventlistener.EventListener;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>
+ * <strong>Detection principle:</strong>
+ * </p>
+ * <ul>
+ * <li>within the last {@code window}, sum up the memory promoted into the {@link MemoryPoolType#OLD} pool
+ * (growth during a collection) and the memory reclaimed from it (shrinking during a collection),</li>
+ * <li>if promotion outpaces reclaim</li>
+ * <li>and the old pool will be full in less than {@code warnBefore} at this net promotion rate</li>
+ * </ul>
+ * <p>
+ * then the detection counts as {@link Overflow} with {@link Status#OVERFLOW}:
+ * a leading indicator of premature promotion and full GC storms.
+ * The allocation rate ({@link MemoryPoolType#YOUNG} usage before a collection minus after the previous one)
+ * is reported as well.
+ * </p>
+ * <p>
+ * Needs all collections with {@link GCEvent#getMemoryBeforeGC()}, so it listens to the events directly:
+ * </p>
+ * <pre>
+ * PromotionRateAboveThreshold promotion =
+ *     new PromotionRateAboveThreshold(Duration.ofMinutes(10), Duration.ofMinutes(5));
+ * eventSource.addEventListener(promotion);
+ * // ...
+ * Overflow overflow = promotion.detect();
+ * </pre>
+ * <p>
+ * Bytes are summed up per tenth of the window, so the window moves in steps of a tenth and neither events
+ * nor detection depend on the number of collections.
+ * </p>
+ */
+public class PromotionRateAboveThreshold implements EventListener<TimedData<GCEvent>> {
+	private static final double NANOS_PER_SECOND = 1_000_000_000.0d;
+
+	private static final int ALLOCATED = 0;
+	private static final int PROMOTED = 1;
+	private static final int RECLAIMED = 2;
+
+	private final Duration window;
+	private final Duration warnBefore;
+
+	private final long windowNanos;
+	private final SlicedWindow<long[]> bytes;
+
+	private boolean seenAny;
+	private long firstEpochNanos;
+	/**
+	 * Used memory of the {@link MemoryPoolType#YOUNG} pool after the previous collection, -1 if unknown.
+	 */
+	private long previousYoungUsed = -1;
+	/**
+	 * The {@link MemoryPoolType#OLD} pool after the last collection, null if unknown.
+	 */
+	private Memory old;
+
+	/**
+	 * @param window rates are measured over this duration, must be &gt;= 10 nanoseconds.
+	 * @param warnBefore alarm if the old pool is projected to be full earlier than this, must be &gt; 0.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public PromotionRateAboveThreshold(Duration window, Duration warnBefore) {
+		ExponentialSmoothing.requirePositive(window, "window");
+		if (window.toNanos() < SlicedWindow.SLICES) {
+			throw new IllegalArgumentException("window must be >= 10 nanoseconds but was: " + window);
+		}
+		this.window = window;
+		this.windowNanos = window.toNanos();
+		this.bytes = SlicedWindow.sums(windowNanos, RECLAIMED + 1);
+
+		ExponentialSmoothing.requirePositive(warnBefore, "warnBefore");
+		this.warnBefore = warnBefore;
+	}
+
+	@Override
+	public synchronized void accept(TimedData<GCEvent> event) {
+		requireNonNull(event);
+		long end = event.getEpochNanos();
+		Map<MemoryPoolType, Memory> before = event.getData().getMemoryBeforeGC();
+		Map<MemoryPoolType, Memory> after = event.getData().getMemoryAfterGC();
+
+		if (!seenAny || end < firstEpochNanos) {
+			firstEpochNanos = end;
+			seenAny = true;
+		}
+
+		Memory youngBefore = before.get(MemoryPoolType.YOUNG);
+		if (youngBefore != null && previousYoungUsed >= 0) {
+			SlicedWindow.add(bytes, end, ALLOCATED, Math.max(0L, youngBefore.getUsed() - previousYoungUsed));
+		}
+		Memory youngAfter = after.get(MemoryPoolType.YOUNG);
+		previousYoungUsed = youngAfter == null ? -1 : youngAfter.getUsed();
+
+		Memory oldBefore = before.get(MemoryPoolType.OLD);
+		Memory oldAfter = after.get(MemoryPoolType.OLD);
+		if (oldBefore != null && oldAfter != null) {
+			long growth = oldAfter.getUsed() - oldBefore.getUsed();
+			SlicedWindow.add(bytes, end, growth >= 0 ? PROMOTED : RECLAIMED, Math.abs(growth));
+		}
+		if (oldAfter != null) {
+			old = oldAfter;
+		}
+	}
+
+	public synchronized Overflow detect() {
+		long now = now();
+		if (!seenAny || old == null || now - firstEpochNanos < windowNanos) {
+			return Overflow.ok(format("Not enough data, need collections over at least %s", window));
+		}
+
+		bytes.advanceTo(now);
+		double seconds = windowNanos / NANOS_PER_SECOND;
+		double allocation = bytes.getTotal()[ALLOCATED] / seconds;
+		double promotion = bytes.getTotal()[PROMOTED] / seconds;
+		double reclaim = bytes.getTotal()[RECLAIMED] / seconds;
+
+		if (promotion <= reclaim) {
+			return Overflow.ok(format(
+					"Promotion rate <= reclaim rate: %.1f <= %.1f bytes/s (allocation: %.1f bytes/s)",
+					promotion, reclaim, allocation));
+		}
+
+		Optional<Duration> full = Exhaustion.timeToExhaustion(
+				old.getMaxOrMinusOne(), old.getUsed(), promotion - reclaim);
+		if (!full.isPresent()) {
+			return Overflow.ok(format("Old pool has no max, promotion: %.1f bytes/s, reclaim: %.1f bytes/s",
+					promotion, reclaim));
+		}
+
+		String rates = format("promotion: %.1f bytes/s, reclaim: %.1f bytes/s, allocation: %.1f bytes/s",
+				promotion, reclaim, allocation);
+		if (full.get().compareTo(warnBefore) >= 0) {
+			return Overflow.ok(format("Old pool full in %s >= %s (%s)", full.get(), warnBefore, rates));
+		}
+
+		return Overflow.overflow(format("Old pool full in %s < %s (%s)", full.get(), warnBefore, rates));
+	}
+
+	/**
+	 * make testing easier.
+	 *
+	 * @return nanoseconds since the epoch, see {@link EpochNanos}.
+	 */
+	/* default */ long now() {
+		return EpochNanos.now();
+	}
+
+	public Duration getWindow() {
+		return window;
+	}
+
+	public Duration getWarnBefore() {
+		return warnBefore;
+	}
+}
@@ -0,0 +1,45 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import com.github.honoluluhenk.gcmonitor.eventlistener.EventListener;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Feeds each reading of a {@link TimeSeries} to a consumer once: the readings it holds when attaching,
+ * then each appended one (see {@link TimeSeries#addAppendListener(EventListener)}).
+ * <p>
+ * So incremental detectors keep O(1) state and see every reading, even if it expires before the next detection.
+ * Not thread safe: the owner synchronizes {@link #attach(TimeSeries)} and the consumer.
+ * </p>
+ */
+final class ReadingFeed {
+	private final EventListener<TimedData<Memory>> consumer;
+
+	private TimeSeries<Memory> source;
+
+	/* default */ ReadingFeed(EventListener<TimedData<Memory>> consumer) {
+		this.consumer = requireNonNull(consumer);
+	}
+
+	/**
+	 * Start feeding the readings of {@code timeSeries}, nop if already attached to it.
+	 *
+	 * @throws IllegalStateException if already attached to another time series.
+	 */
+	/* default */ void attach(TimeSeries<Memory> timeSeries) {
+		if (timeSeries.equals(source)) {
+			return;
+		}
+		if (source != null) {
+			throw new IllegalStateException("Already attached to another timeSeries, see attach()");
+		}
+
+		source = timeSeries;
+		for (TimedData<Memory> reading : timeSeries.addAppendListener(consumer)) {
+			consumer.accept(reading);
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Like {@link TimeToExhaustionBelowThreshold}, but the growth of the used memory is estimated by the Theil–Sen
+ * estimator (the median of the slopes between all pairs of readings) instead of least squares.
+ * So single outliers (e.g.: a one-off big batch job) do not throw off the projection.
+ * <p>
+ * If there are more than {@code maxPairs} pairs, the median is estimated from {@code maxPairs} randomly sampled
+ * pairs: detection costs O(maxPairs log maxPairs) instead of O(n² log n).
+ * The sampling is seeded, so detecting on the same readings always gives the same result.
+ * </p>
+ * <p>
+ * The reason of the {@link Overflow} contains the slope and its 95% confidence interval (Sen's method).
+ * </p>
+ */
+public class RobustTimeToExhaustionBelowThreshold implements OverflowDetector {
+	public static final int DEFAULT_MAX_PAIRS = 10_000;
+
+	private static final int MIN_READINGS = 2;
+	private static final double NANOS_PER_SECOND = 1_000_000_000.0d;
+	/**
+	 * Standard normal quantile for a two-sided 95% confidence interval.
+	 */
+	private static final double Z_95 = 1.96d;
+	private static final double KENDALL_VARIANCE_DIVISOR = 18.0d;
+	private static final int KENDALL_VARIANCE_OFFSET = 5;
+	private static final long SEED = 0x5EED_7E11_5E17L;
+
+	private final int numMeasures;
+	private final Duration warnBefore;
+	private final int maxPairs;
+
+	/**
+	 * Convenience: calls {@link #RobustTimeToExhaustionBelowThreshold(int, Duration, int)}
+	 * with {@link #DEFAULT_MAX_PAIRS}.
+	 */
+	public RobustTimeToExhaustionBelowThreshold(int numMeasures, Duration warnBefore) {
+		this(numMeasures, warnBefore, DEFAULT_MAX_PAIRS);
+	}
+
+	/**
+	 * @param numMeasures at least this many readings are needed for a projection, must be &gt;= 2.
+	 * @param warnBefore detect an overflow if the memory is projected to be exhausted within this duration.
+	 * @param maxPairs sample at most this many pairs of readings, must be &gt; 0.
+	 */
+	public RobustTimeToExhaustionBelowThreshold(int numMeasures, Duration warnBefore, int maxPairs) {
+		if (numMeasures < MIN_READINGS) {
+			throw new IllegalArgumentException("numMeasures must be >= " + MIN_READINGS + " but was: " + numMeasures);
+		}
+		this.numMeasures = numMeasures;
+
+		requireNonNull(warnBefore, "warnBefore");
+		if (warnBefore.isNegative() || warnBefore.isZero()) {
+			throw new IllegalArgumentException("warnBefore must be > 0 but was: " + warnBefore);
+		}
+		this.warnBefore = warnBefore;
+
+		if (maxPairs <= 0) {
+			throw new IllegalArgumentException("maxPairs must be > 0 but was: " + maxPairs);
+		}
+		this.maxPairs = maxPairs;
+	}
+
+	@Override
+	public Overflow detect(TimeSeries<Memory> timeSeries) {
+		List<TimedData<Memory>> readings = timeSeries.getTimedData();
+		if (readings.size() < numMeasures) {
+			return Overflow.ok(
+					format("Not enough measures, have: %d but need at least %d", readings.size(), numMeasures));
+		}
+
+		Estimate estimate = estimate(readings);
+		if (estimate == null) {
+			return Overflow.ok(format("No slope: all %d measures share the same timestamp", readings.size()));
+		}
+
+		String slope = format("%.1f bytes/s (95%% CI: %.1f .. %.1f)",
+				estimate.slope, estimate.lowerSlope, estimate.upperSlope);
+		Optional<Duration> timeToExhaustion = timeToExhaustion(readings, estimate);
+		if (!timeToExhaustion.isPresent()) {
+			return Overflow.ok(format("Usage not growing towards max: %s, have %d measures",
+					slope, readings.size()));
+		}
+
+		Duration projected = timeToExhaustion.get();
+		if (projected.compareTo(warnBefore) >= 0) {
+			return Overflow.ok(format("Projected exhaustion in %s >= %s, slope: %s", projected, warnBefore, slope));
+		}
+
+		return Overflow.overflow(format("Projected exhaustion in %s < %s, slope: %s", projected, warnBefore, slope));
+	}
+
+	/**
+	 * Projected time from the newest reading until the used memory reaches the max memory.
+	 *
+	 * @return empty if there are not enough readings, no max memory or the usage does not grow.
+	 */
+	public Optional<Duration> timeToExhaustion(TimeSeries<Memory> timeSeries) {
+		List<TimedData<Memory>> readings = timeSeries.getTimedData();
+		if (readings.size() < MIN_READINGS) {
+			return Optional.empty();
+		}
+
+		Estimate estimate = estimate(readings);
+		return estimate == null
+				? Optional.empty()
+				: timeToExhaustion(readings, estimate);
+	}
+
+	private static Optional<Duration> timeToExhaustion(List<TimedData<Memory>> readings, Estimate estimate) {
+		TimedData<Memory> newest = readings.get(readings.size() - 1);
+		double usedNow = estimate.intercept + estimate.slope * seconds(readings.get(0), newest);
+
+		return Exhaustion.timeToExhaustion(newest.getData().getMaxOrMinusOne(), usedNow, estimate.slope);
+	}
+
+	/**
+	 * @return null if no slope can be computed (all timestamps equal).
+	 */
+	private Estimate estimate(List<TimedData<Memory>> readings) {
+		int count = readings.size();
+		double[] x = new double[count];
+		double[] y = new double[count];
+		for (int i = 0; i < count; i++) {
+			TimedData<Memory> reading = readings.get(i);
+			x[i] = seconds(readings.get(0), reading);
+			y[i] = reading.getData().getUsed();
+		}
+
+		long totalPairs = (long) count * (count - 1) / 2;
+		double[] slopes = totalPairs <= maxPairs
+				? allSlopes(x, y)
+				: sampledSlopes(x, y);
+		if (slopes.length == 0) {
+			return null;
+		}
+		Arrays.sort(slopes);
+		double slope = median(slopes);
+
+		// Sen's confidence interval: ranks around the median, scaled to the (sampled) slopes
+		double spread = Z_95 * Math.sqrt(count * (count - 1.0d) * (2.0d * count + KENDALL_VARIANCE_OFFSET)
+				/ KENDALL_VARIANCE_DIVISOR);
+		double scale = (double) slopes.length / totalPairs;
+		int lower = (int) Math.max(0, Math.floor((totalPairs - spread) / 2 * scale));
+		int upper = (int) Math.min(slopes.length - 1, Math.ceil((totalPairs + spread) / 2 * scale));
+
+		double[] residuals = new double[count];
+		for (int i = 0; i < count; i++) {
+			residuals[i] = y[i] - slope * x[i];
+		}
+		Arrays.sort(residuals);
+
+		return new Estimate(slope, slopes[lower], slopes[upper], median(residuals));
+	}
+
+	@SuppressWarnings("PMD.UseVarargs")
+	private static double[] allSlopes(double[] x, double[] y) {
+		int count = x.length;
+		double[] slopes = new double[count * (count - 1) / 2];
+		int found = 0;
+		for (int i = 0; i < count; i++) {
+			for (int j = i + 1; j < count; j++) {
+				if (x[j] != x[i]) {
+					slopes[found] = (y[j] - y[i]) / (x[j] - x[i]);
+					found++;
+				}
+			}
+		}
+
+		return Arrays.copyOf(slopes, found);
+	}
+
+	@SuppressWarnings("PMD.UseVarargs")
+	private double[] sampledSlopes(double[] x, double[] y) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		int count = x.length;
+		double[] slopes = new double[maxPairs];
+		int found = 0;
+		// pairs sharing a timestamp are skipped, but do not retry forever
+		for (int attempt = 0; attempt < 2 * maxPairs && found < maxPairs; attempt++) {
+			int i = random.nextInt(count);
+			int j = random.nextInt(count);
+			if (x[j] != x[i]) {
+				slopes[found] = (y[j] - y[i]) / (x[j] - x[i]);
+				found++;
+			}
+		}
+
+		return Arrays.copyOf(slopes, found);
+	}
+
+	@SuppressWarnings("PMD.UseVarargs")
+	private static double median(double[] sorted) {
+		int middle = sorted.length / 2;
+		return sorted.length % 2 == 1
+				? sorted[middle]
+				: (sorted[middle - 1] + sorted[middle]) / 2;
+	}
+
+	private static double seconds(TimedData<?> from, TimedData<?> to) {
+		return (to.getEpochNanos() - from.getEpochNanos()) / NANOS_PER_SECOND;
+	}
+
+	@Override
+	public void validate(int expectedReadings) {
+		if (expectedReadings < numMeasures) {
+			throw new IllegalArgumentException(format(
+					"can never enough data because expectedReadings < numMeasures: %s < %s",
+					expectedReadings, numMeasures));
+		}
+	}
+
+	public int getNumMeasures() {
+		return numMeasures;
+	}
+
+	public Duration getWarnBefore() {
+		return warnBefore;
+	}
+
+	public int getMaxPairs() {
+		return maxPairs;
+	}
+
+	private static final class Estimate {
+		private final double slope;
+		private final double lowerSlope;
+		private final double upperSlope;
+		/**
+		 * Fitted used memory at the oldest reading.
+		 */
+		private final double intercept;
+
+		private Estimate(double slope, double lowerSlope, double upperSlope, double intercept) {
+			this.slope = slope;
+			this.lowerSlope = lowerSlope;
+			this.upperSlope = upperSlope;
+			this.intercept = intercept;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Accumulates values over a sliding time window, split into ten slices, e.g.: sums or histograms.
+ * <p>
+ * A value counts towards the slice its timestamp falls into, and towards the running total of the window.
+ * Slices older than the window are subtracted from the total when the window moves. So the window moves in steps of
+ * a tenth and both adding and reading are O(1) in the number of values. Values older than the window
+ * (e.g.: added late) are ignored. Memory is fixed: all slices get created up front.
+ * Not thread safe.
+ * </p>
+ *
+ * @param <S> the accumulator of a slice and the total, e.g.: {@code long[]} sums (see {@link #sums(long, int)}).
+ */
+final class SlicedWindow<S> {
+	/* default */ static final int SLICES = 10;
+
+	/**
+	 * Slice id of an empty slot.
+	 */
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private final long sliceNanos;
+	private final BiConsumer<S, S> subtract;
+	private final Consumer<S> clear;
+
+	private final S total;
+	private final Object[] slices = new Object[SLICES];
+	private final long[] sliceIds = new long[SLICES];
+	private long newestSliceId = Long.MIN_VALUE;
+
+	/**
+	 * @param windowNanos must be &gt;= {@link #SLICES}, not validated.
+	 * @param factory creates an empty accumulator.
+	 * @param subtract removes all values of a slice (2nd argument) from the total (1st argument).
+	 * @param clear empties a slice.
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	/* default */ SlicedWindow(long windowNanos, Supplier<S> factory, BiConsumer<S, S> subtract, Consumer<S> clear) {
+		this.sliceNanos = windowNanos / SLICES;
+		this.subtract = subtract;
+		this.clear = clear;
+
+		this.total = factory.get();
+		for (int slot = 0; slot < SLICES; slot++) {
+			slices[slot] = factory.get();
+		}
+		Arrays.fill(sliceIds, EMPTY);
+	}
+
+	/**
+	 * Sums of {@code series} values each, see {@link #add(SlicedWindow, long, int, long)}.
+	 */
+	/* default */ static SlicedWindow<long[]> sums(long windowNanos, int series) {
+		return new SlicedWindow<>(windowNanos, () -> new long[series], SlicedWindow::subtractSums,
+				sums -> Arrays.fill(sums, 0L));
+	}
+
+	/**
+	 * Add {@code value} to the given series of {@code window}, see {@link #slice(long)}.
+	 */
+	/* default */ static void add(SlicedWindow<long[]> window, long epochNanos, int series, long value) {
+		long[] slice = window.slice(epochNanos);
+		if (slice != null) {
+			slice[series] += value;
+			window.getTotal()[series] += value;
+		}
+	}
+
+	/**
+	 * Spread {@code toNanos - fromNanos} over the given series of the slices {@code [fromNanos, toNanos)} overlaps,
+	 * e.g. the duration of a GC: each slice gets the nanoseconds within it. Parts older than the window are ignored.
+	 */
+	/* default */ static void addSpread(SlicedWindow<long[]> window, long fromNanos, long toNanos, int series) {
+		window.advanceTo(toNanos);
+
+		long from = Math.max(fromNanos, window.getStartNanos());
+		while (from < toNanos) {
+			long sliceEnd = (Math.floorDiv(from, window.sliceNanos) + 1) * window.sliceNanos;
+			long to = Math.min(toNanos, sliceEnd);
+			add(window, from, series, to - from);
+			from = to;
+		}
+	}
+
+	@SuppressWarnings("PMD.UseVarargs")
+	private static void subtractSums(long[] total, long[] slice) {
+		for (int series = 0; series < total.length; series++) {
+			total[series] -= slice[series];
+		}
+	}
+
+	/**
+	 * Move the window so it ends at {@code epochNanos}, if that is later than its current end.
+	 */
+	/* default */ void advanceTo(long epochNanos) {
+		long sliceId = Math.floorDiv(epochNanos, sliceNanos);
+		if (sliceId <= newestSliceId) {
+			return;
+		}
+
+		newestSliceId = sliceId;
+		for (int slot = 0; slot < SLICES; slot++) {
+			if (sliceIds[slot] != EMPTY && sliceIds[slot] <= newestSliceId - SLICES) {
+				S slice = slotAt(slot);
+				subtract.accept(total, slice);
+				clear.accept(slice);
+				sliceIds[slot] = EMPTY;
+			}
+		}
+	}
+
+	/**
+	 * The slice a value at {@code epochNanos} must be added to, moving the window if {@code epochNanos} is later
+	 * than its end. The caller adds the value to both this slice and the {@link #getTotal()}.
+	 *
+	 * @return null if {@code epochNanos} is older than the window: ignore the value.
+	 */
+	/* default */ S slice(long epochNanos) {
+		advanceTo(epochNanos);
+
+		long sliceId = Math.floorDiv(epochNanos, sliceNanos);
+		if (sliceId <= newestSliceId - SLICES) {
+			return null;
+		}
+
+		int slot = (int) Math.floorMod(sliceId, (long) SLICES);
+		// a slot of an older slice is outside of the window, so already emptied by advanceTo()
+		sliceIds[slot] = sliceId;
+		return slotAt(slot);
+	}
+
+	/**
+	 * Where the window starts: the start of its oldest slice, so the window covers between 9/10 and all of its
+	 * duration up to the time it was moved to. Only meaningful once moved, see {@link #advanceTo(long)}.
+	 *
+	 * @return nanoseconds since the epoch.
+	 */
+	/* default */ long getStartNanos() {
+		return (newestSliceId - SLICES + 1) * sliceNanos;
+	}
+
+	/**
+	 * All values within the window.
+	 */
+	/* default */ S getTotal() {
+		return total;
+	}
+
+	@SuppressWarnings("unchecked")
+	private S slotAt(int slot) {
+		// only ever filled by the factory
+		return (S) slices[slot];
+	}
+}
@@ -0,0 +1,101 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+
+/**
+ * <p>
+ * <strong>Detection principle:</strong>
+ * </p>
+ * <ul>
+ * <li>if the exponentially weighted moving average (EWMA) of the memory pool usage (usage / max),</li>
+ * <li>with weights halving every {@code halfLife},</li>
+ * <li>is &gt;= {@code thresholdPct}</li>
+ * </ul>
+ * <p>
+ * then the detection counts as {@link Overflow} with {@link Status#OVERFLOW}.
+ * Reacts faster than {@link AverageUsageAboveThreshold} and does not need the readings to be retained:
+ * the detector keeps O(1) state, fed with each reading as it gets added (see {@link #attach(TimeSeries)}).
+ * </p>
+ */
+public class SmoothedUsageAboveThreshold implements OverflowDetector {
+	private final int numMeasures;
+	private final Duration halfLife;
+	private final double thresholdPct;
+
+	private final ExponentialSmoothing smoothing;
+	private final ReadingFeed feed = new ReadingFeed(this::accept);
+
+	/**
+	 * @param numMeasures overflow warnings are only given if at least this many readings have been seen.
+	 * @param halfLife a reading counts half after this duration.
+	 * @param thresholdPct sets the alarm threshold in percent (e.g.: 90.0d means 90 percent).
+	 */
+	public SmoothedUsageAboveThreshold(int numMeasures, Duration halfLife, double thresholdPct) {
+		if (numMeasures <= 0) {
+			throw new IllegalArgumentException("numMeasures must be > 0 but was: " + numMeasures);
+		}
+		this.numMeasures = numMeasures;
+
+		ExponentialSmoothing.requirePositive(halfLife, "halfLife");
+		this.halfLife = halfLife;
+
+		if (thresholdPct <= 0.0 || thresholdPct > 100.0) {
+			throw new IllegalArgumentException("thresholdPct must be 0 < x <= 100 but was: " + thresholdPct);
+		}
+		this.thresholdPct = thresholdPct;
+
+		this.smoothing = new ExponentialSmoothing(MemoryMetric.USAGE_PCT, halfLife, null);
+	}
+
+	/**
+	 * Feed each reading of {@code timeSeries} as it gets added, see {@link TimeSeries#addAppendListener}.
+	 * Optional: without it, the first {@link #detect(TimeSeries)} attaches.
+	 *
+	 * @throws IllegalStateException if already attached to another time series.
+	 */
+	@Override
+	public synchronized void attach(TimeSeries<Memory> timeSeries) {
+		feed.attach(timeSeries);
+	}
+
+	private synchronized void accept(TimedData<Memory> reading) {
+		smoothing.update(reading);
+	}
+
+	@Override
+	public synchronized Overflow detect(TimeSeries<Memory> timeSeries) {
+		feed.attach(timeSeries);
+
+		long measuresCount = smoothing.getCount();
+		if (measuresCount < numMeasures) {
+			return Overflow.ok(
+					format("Not enough measures, have: %d but need at least %d", measuresCount, numMeasures));
+		}
+
+		double usagePct = smoothing.getLevel();
+		if (usagePct < thresholdPct) {
+			return Overflow.ok(format("smoothed usagePct < thresholdPct: %s < %s, have %s measures",
+					usagePct, thresholdPct, measuresCount));
+		}
+
+		return Overflow.overflow(format("Smoothed usage: %.5f%% >= %.5f%%", usagePct, thresholdPct));
+	}
+
+	public int getNumMeasures() {
+		return numMeasures;
+	}
+
+	public Duration getHalfLife() {
+		return halfLife;
+	}
+
+	public double getThresholdPct() {
+		return thresholdPct;
+	}
+}
@@ -0,0 +1,132 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.Regression;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * <p>
+ * <strong>Detection principle:</strong>
+ * </p>
+ * <ul>
+ * <li>fit a line (least squares) through the used memory of all readings over time</li>
+ * <li>extrapolate until the used memory reaches the max memory of the newest reading</li>
+ * <li>if this happens within {@code warnBefore}</li>
+ * </ul>
+ * <p>
+ * then the detection counts as {@link Overflow} with {@link Status#OVERFLOW}.
+ * Unlike the usage thresholds, a slow leak is detected while there is still plenty of memory left,
+ * see {@link #timeToExhaustion(TimeSeries)}.
+ * </p>
+ * <p>
+ * The fit is maintained by the {@link TimeSeries} (see {@link TimeSeries#regression}, started by
+ * {@link #attach(TimeSeries)} or else by the first detection), so detection costs O(1) instead of a pass over all
+ * readings.
+ * Readings without max memory are not extrapolated.
+ * </p>
+ */
+public class TimeToExhaustionBelowThreshold implements OverflowDetector {
+	private static final int MIN_READINGS = 2;
+
+	private final int numMeasures;
+	private final Duration warnBefore;
+
+	/**
+	 * @param numMeasures at least this many readings are needed for a projection, must be &gt;= 2.
+	 * @param warnBefore detect an overflow if the memory is projected to be exhausted within this duration.
+	 */
+	public TimeToExhaustionBelowThreshold(int numMeasures, Duration warnBefore) {
+		if (numMeasures < MIN_READINGS) {
+			throw new IllegalArgumentException("numMeasures must be >= " + MIN_READINGS + " but was: " + numMeasures);
+		}
+		this.numMeasures = numMeasures;
+
+		requireNonNull(warnBefore, "warnBefore");
+		if (warnBefore.isNegative() || warnBefore.isZero()) {
+			throw new IllegalArgumentException("warnBefore must be > 0 but was: " + warnBefore);
+		}
+		this.warnBefore = warnBefore;
+	}
+
+	@Override
+	public void attach(TimeSeries<Memory> timeSeries) {
+		timeSeries.regression(MemoryMetric.USED);
+	}
+
+	@Override
+	public Overflow detect(TimeSeries<Memory> timeSeries) {
+		Regression regression = regressionOf(timeSeries);
+
+		long measuresCount = regression.getCount();
+		if (measuresCount < numMeasures) {
+			return Overflow.ok(
+					format("Not enough measures, have: %d but need at least %d", measuresCount, numMeasures));
+		}
+
+		Optional<Duration> timeToExhaustion = timeToExhaustion(timeSeries, regression);
+		if (!timeToExhaustion.isPresent()) {
+			return Overflow.ok(format("Usage not growing towards max: %.1f bytes/s, have %d measures",
+					regression.getSlopePerSecond(), measuresCount));
+		}
+
+		Duration projected = timeToExhaustion.get();
+		if (projected.compareTo(warnBefore) >= 0) {
+			return Overflow.ok(format("Projected exhaustion in %s >= %s (%.1f bytes/s, R²: %.3f)",
+					projected, warnBefore, regression.getSlopePerSecond(), regression.getRSquared()));
+		}
+
+		return Overflow.overflow(format("Projected exhaustion in %s < %s (%.1f bytes/s, R²: %.3f)",
+				projected, warnBefore, regression.getSlopePerSecond(), regression.getRSquared()));
+	}
+
+	/**
+	 * Projected time from the newest reading until the used memory reaches the max memory.
+	 *
+	 * @return empty if there are not enough readings, no max memory or the usage does not grow.
+	 */
+	public Optional<Duration> timeToExhaustion(TimeSeries<Memory> timeSeries) {
+		return timeToExhaustion(timeSeries, regressionOf(timeSeries));
+	}
+
+	private static Regression regressionOf(TimeSeries<Memory> timeSeries) {
+		// a lookup if attach() started it, else it gets started now (under the write lock)
+		return timeSeries.regression(MemoryMetric.USED)
+				.getRegression();
+	}
+
+	private Optional<Duration> timeToExhaustion(TimeSeries<Memory> timeSeries, Regression regression) {
+		List<TimedData<Memory>> newest = timeSeries.latest(1);
+		if (newest.isEmpty()) {
+			return Optional.empty();
+		}
+
+		TimedData<Memory> reading = newest.get(0);
+		return Exhaustion.timeToExhaustion(reading.getData().getMaxOrMinusOne(),
+				regression.valueAt(reading.getEpochNanos()), regression.getSlopePerSecond());
+	}
+
+	@Override
+	public void validate(int expectedReadings) {
+		if (expectedReadings < numMeasures) {
+			throw new IllegalArgumentException(format(
+					"can never enough data because expectedReadings < numMeasures: %s < %s",
+					expectedReadings, numMeasures));
+		}
+	}
+
+	public int getNumMeasures() {
+		return numMeasures;
+	}
+
+	public Duration getWarnBefore() {
+		return warnBefore;
+	}
+}
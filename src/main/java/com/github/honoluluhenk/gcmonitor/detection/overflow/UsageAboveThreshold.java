@@ -45,14 +45,14 @@ public class UsageAboveThreshold implements OverflowDetector {
 
 	@Override
 	public Overflow detect(TimeSeries<Memory> timeSeries) {
-		List<TimedData<Memory>> timedData = timeSeries.getTimedData();
-		int readingCount = timedData.size();
-		if (readingCount < numMeasures) {
-			return Overflow.ok(format("not enough readings, have: %d but need: %d", readingCount, numMeasures));
+		// only look at the readings we need instead of the whole history
+		List<TimedData<Memory>> timedData = timeSeries.latest(numMeasures);
+		if (timedData.size() < numMeasures) {
+			return Overflow.ok(format("not enough readings, have: %d but need: %d", timedData.size(), numMeasures));
 		}
+		int readingCount = timeSeries.size();
 
-		List<Double> relevantReadings = timeSeries.stream()
-				.limit(numMeasures)
+		List<Double> relevantReadings = timedData.stream()
 				.map(entry -> new MemoryUsageCalculator(entry.getData()).calculatePct())
 				.filter(Optional::isPresent)
 				.map(Optional::get)
@@ -0,0 +1,166 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Counts usage percentages (0 to 100) in fixed-width buckets, so percentiles can be queried without
+ * keeping or sorting the readings.
+ * <p>
+ * Memory is bounded by the resolution ({@code 100 * bucketsPerPercent + 1} counters), independent of the number of
+ * readings. Histograms of the same resolution can be merged, e.g.: histograms of several time windows or JVMs.
+ * Percentiles are accurate to {@code 1 / bucketsPerPercent} percent: {@link #percentile(double)} rounds up,
+ * {@link #percentileLowerBound(double)} rounds down.
+ * </p>
+ * <p>Not thread safe.</p>
+ */
+public class UsageHistogram implements Serializable {
+	private static final long serialVersionUID = 2790211850335004171L;
+
+	private static final double MAX_PCT = 100.0d;
+
+	private final int bucketsPerPercent;
+	private final long[] counts;
+	private long count;
+
+	/**
+	 * @param bucketsPerPercent resolution, e.g.: 10 means 0.1%, must be &gt; 0.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public UsageHistogram(int bucketsPerPercent) {
+		if (bucketsPerPercent <= 0) {
+			throw new IllegalArgumentException("bucketsPerPercent must be > 0 but was: " + bucketsPerPercent);
+		}
+		this.bucketsPerPercent = bucketsPerPercent;
+		this.counts = new long[100 * bucketsPerPercent + 1];
+	}
+
+	public UsageHistogram copy() {
+		UsageHistogram copy = new UsageHistogram(bucketsPerPercent);
+		copy.merge(this);
+		return copy;
+	}
+
+	/**
+	 * Values outside of 0 to 100 percent are counted in the first/last bucket.
+	 */
+	public void record(double usagePct) {
+		counts[bucketIndex(usagePct)]++;
+		count++;
+	}
+
+	private int bucketIndex(double usagePct) {
+		if (!(usagePct > 0.0d)) {
+			return 0;
+		}
+
+		return (int) Math.min(counts.length - 1, (long) Math.floor(usagePct * bucketsPerPercent));
+	}
+
+	/**
+	 * Add all counts of {@code other} to this histogram.
+	 *
+	 * @throws IllegalArgumentException if the resolutions differ.
+	 */
+	public void merge(UsageHistogram other) {
+		requireSameResolution(other);
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+	}
+
+	/**
+	 * Remove all counts of {@code other}, which must have been merged into this histogram before.
+	 */
+	/* default */ void subtract(UsageHistogram other) {
+		requireSameResolution(other);
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] -= other.counts[i];
+		}
+		count -= other.count;
+	}
+
+	private void requireSameResolution(UsageHistogram other) {
+		if (other.bucketsPerPercent != bucketsPerPercent) {
+			throw new IllegalArgumentException(String.format("bucketsPerPercent must match but was: %d and %d",
+					bucketsPerPercent, other.bucketsPerPercent));
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(counts, 0L);
+		count = 0;
+	}
+
+	/**
+	 * The smallest bucket bound such that at least {@code percentile} percent of the readings are at or below it.
+	 *
+	 * @param percentile 0 &lt; x &lt;= 100, e.g.: 90.0d for the p90.
+	 * @return NaN if there are no readings.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public double percentile(double percentile) {
+		int idx = percentileBucket(percentile);
+		if (idx < 0) {
+			return Double.NaN;
+		}
+
+		return Math.min(MAX_PCT, (double) (idx + 1) / bucketsPerPercent);
+	}
+
+	/**
+	 * The lower bound of the bucket holding the {@code percentile}: the percentile is at least this,
+	 * i.e.: comparing it against a threshold never over-reports, accurate to {@code 1 / bucketsPerPercent} percent.
+	 *
+	 * @param percentile 0 &lt; x &lt;= 100, e.g.: 90.0d for the p90.
+	 * @return NaN if there are no readings.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public double percentileLowerBound(double percentile) {
+		int idx = percentileBucket(percentile);
+		if (idx < 0) {
+			return Double.NaN;
+		}
+
+		return (double) idx / bucketsPerPercent;
+	}
+
+	/**
+	 * @return -1 if there are no readings.
+	 */
+	private int percentileBucket(double percentile) {
+		if (!(percentile > 0.0d && percentile <= MAX_PCT)) {
+			throw new IllegalArgumentException("percentile must be 0 < x <= 100 but was: " + percentile);
+		}
+		if (count == 0) {
+			return -1;
+		}
+
+		long rank = (long) Math.ceil(count * percentile / MAX_PCT);
+		long seen = 0;
+		int idx = 0;
+		while (idx < counts.length - 1) {
+			seen += counts[idx];
+			if (seen >= rank) {
+				break;
+			}
+			idx++;
+		}
+
+		return idx;
+	}
+
+	public int getBucketsPerPercent() {
+		return bucketsPerPercent;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("UsageHistogram{bucketsPerPercent=%d, count=%d}", bucketsPerPercent, count);
+	}
+}
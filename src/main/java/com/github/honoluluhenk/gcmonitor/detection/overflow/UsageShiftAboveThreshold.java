@@ -0,0 +1,145 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.lang.String.format;
+
+/**
+ * <p>
+ * <strong>Detection principle:</strong> Page-Hinkley change-point test on the memory pool usage (usage / max)
+ * </p>
+ * <ul>
+ * <li>the first {@code warmupMeasures} readings establish the baseline (mean usage),</li>
+ * <li>afterwards, the excess of each reading over the baseline (minus {@code driftPct}) gets accumulated,</li>
+ * <li>if the accumulated excess rises by more than {@code threshold} percentage points above its minimum</li>
+ * </ul>
+ * <p>
+ * then the detection counts as {@link Overflow} with {@link Status#OVERFLOW}.
+ * A sustained jump of the usage gets detected within a few readings, while a high but stable usage does not.
+ * </p>
+ * <p>
+ * The shift is reported by the next detection only, afterwards a new baseline is established
+ * starting at the reading that triggered it.
+ * The detector keeps O(1) state, fed with each reading as it gets added (see {@link #attach(TimeSeries)}).
+ * </p>
+ */
+public class UsageShiftAboveThreshold implements OverflowDetector {
+	private final int warmupMeasures;
+	private final double driftPct;
+	private final double threshold;
+
+	private final ReadingFeed feed = new ReadingFeed(this::accept);
+
+	/**
+	 * Readings since the current baseline started.
+	 */
+	private long count;
+	private double mean;
+	private double cumulative;
+	private double minimum;
+
+	/**
+	 * Reason of a shift that was not yet reported, null if none.
+	 */
+	private String pendingShift;
+
+	/**
+	 * @param warmupMeasures this many readings establish the baseline, must be &gt; 0.
+	 * @param driftPct deviations of up to this many percentage points per reading are tolerated, must be &gt;= 0.
+	 * @param threshold accumulated deviation in percentage points that counts as shift, must be &gt; 0.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public UsageShiftAboveThreshold(int warmupMeasures, double driftPct, double threshold) {
+		if (warmupMeasures <= 0) {
+			throw new IllegalArgumentException("warmupMeasures must be > 0 but was: " + warmupMeasures);
+		}
+		this.warmupMeasures = warmupMeasures;
+
+		if (!(driftPct >= 0.0d)) {
+			throw new IllegalArgumentException("driftPct must be >= 0 but was: " + driftPct);
+		}
+		this.driftPct = driftPct;
+
+		if (!(threshold > 0.0d)) {
+			throw new IllegalArgumentException("threshold must be > 0 but was: " + threshold);
+		}
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Feed each reading of {@code timeSeries} as it gets added, see {@link TimeSeries#addAppendListener}.
+	 * Optional: without it, the first {@link #detect(TimeSeries)} attaches.
+	 *
+	 * @throws IllegalStateException if already attached to another time series.
+	 */
+	@Override
+	public synchronized void attach(TimeSeries<Memory> timeSeries) {
+		feed.attach(timeSeries);
+	}
+
+	private synchronized void accept(TimedData<Memory> reading) {
+		update(MemoryMetric.USAGE_PCT.valueOf(reading.getData()));
+	}
+
+	@Override
+	@SuppressWarnings("PMD.NullAssignment") // a shift is reported once
+	public synchronized Overflow detect(TimeSeries<Memory> timeSeries) {
+		feed.attach(timeSeries);
+
+		if (pendingShift != null) {
+			String reason = pendingShift;
+			pendingShift = null;
+			return Overflow.overflow(reason);
+		}
+
+		if (count <= warmupMeasures) {
+			return Overflow.ok(
+					format("Not enough measures, have: %d but need at least %d", count, warmupMeasures + 1));
+		}
+
+		return Overflow.ok(format("Page-Hinkley statistic < threshold: %s < %s, baseline: %.5f%%, have %s measures",
+				cumulative - minimum, threshold, mean, count));
+	}
+
+	private void update(double usagePct) {
+		count++;
+		if (count <= warmupMeasures) {
+			mean += (usagePct - mean) / count;
+			return;
+		}
+
+		double baseline = mean;
+		// the baseline follows the readings, but only until the shift is detected
+		mean += (usagePct - mean) / count;
+		cumulative += usagePct - mean - driftPct;
+		minimum = Math.min(minimum, cumulative);
+		double statistic = cumulative - minimum;
+
+		if (statistic > threshold) {
+			pendingShift = format("Usage shift: baseline %.5f%%, now %.5f%% (Page-Hinkley: %.5f > %.5f)",
+					baseline, usagePct, statistic, threshold);
+			restartBaseline(usagePct);
+		}
+	}
+
+	private void restartBaseline(double usagePct) {
+		count = 1;
+		mean = usagePct;
+		cumulative = 0.0d;
+		minimum = 0.0d;
+	}
+
+	public int getWarmupMeasures() {
+		return warmupMeasures;
+	}
+
+	public double getDriftPct() {
+		return driftPct;
+	}
+
+	public double getThreshold() {
+		return threshold;
+	}
+}
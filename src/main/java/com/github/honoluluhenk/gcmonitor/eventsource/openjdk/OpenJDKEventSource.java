@@ -3,8 +3,8 @@ package com.github.honoluluhenk.gcmonitor.eventsource.openjdk;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryUsage;
+import java.time.Duration;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +26,7 @@ import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
 import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
 import com.github.honoluluhenk.gcmonitor.memory.Memory;
 import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
 import com.sun.management.GarbageCollectionNotificationInfo;
 import org.slf4j.Logger;
@@ -46,6 +47,9 @@ public class OpenJDKEventSource implements GCEventSource {
 
 	private final EventListeners<TimedData<GCEvent>> eventListeners = new EventListeners<>();
 
+	// looked up once: ZoneId.systemDefault() is not free on the notification thread
+	private final ZoneId zone = ZoneId.systemDefault();
+
 	private final NotificationListener notificationListener = this::handleGCNotification;
 	private final NotificationFilter notificationFilter = this::isGCNotification;
 
@@ -66,9 +70,11 @@ public class OpenJDKEventSource implements GCEventSource {
 					.orElseThrow(() -> new IllegalStateException(
 							"Notification action not supported: " + info.getGcAction()));
 
+			Map<MemoryPoolType, Memory> poolDataBefore = parseMemory(getMemoryUsageBeforeGc(info));
 			Map<MemoryPoolType, Memory> poolData = parseMemory(getMemoryUsageAfterGc(info));
 
-			TimedData<GCEvent> event = buildEvent(action.getCollection(), poolData);
+			TimedData<GCEvent> event = buildEvent(
+					info.getGcName(), action.getCollection(), poolDataBefore, poolData, getDuration(info));
 
 			LOG.trace("Event notification: {}", event);
 
@@ -81,18 +87,28 @@ public class OpenJDKEventSource implements GCEventSource {
 		}
 	}
 
-	private TimedData<GCEvent> buildEvent(GCCollection collection, Map<MemoryPoolType, Memory> poolData) {
+	private TimedData<GCEvent> buildEvent(
+			String gcName,
+			GCCollection collection,
+			Map<MemoryPoolType, Memory> poolDataBefore,
+			Map<MemoryPoolType, Memory> poolData,
+			Duration duration
+	) {
+		requireNonNull(gcName);
 		requireNonNull(collection);
+		requireNonNull(poolDataBefore);
 		requireNonNull(poolData);
 
-		return new TimedData<>(now(), new GCEvent(collection, poolData));
+		return new TimedData<>(now(), zone, new GCEvent(gcName, collection, poolDataBefore, poolData, duration));
 	}
 
 	/**
 	 * make testing easier.
+	 *
+	 * @return nanoseconds since the epoch, see {@link EpochNanos}.
 	 */
-	/* default */ ZonedDateTime now() {
-		return ZonedDateTime.now(ZoneId.systemDefault());
+	/* default */ long now() {
+		return EpochNanos.now();
 	}
 
 	/**
@@ -102,6 +118,21 @@ public class OpenJDKEventSource implements GCEventSource {
 		return info.getGcInfo().getMemoryUsageAfterGc();
 	}
 
+	/**
+	 * make testing easier.
+	 */
+	/* default */ Map<String, MemoryUsage> getMemoryUsageBeforeGc(GarbageCollectionNotificationInfo info) {
+		return info.getGcInfo().getMemoryUsageBeforeGc();
+	}
+
+	/**
+	 * make testing easier.
+	 */
+	/* default */ Duration getDuration(GarbageCollectionNotificationInfo info) {
+		// GcInfo only has millisecond resolution
+		return Duration.ofMillis(info.getGcInfo().getDuration());
+	}
+
 	/* default */ Map<MemoryPoolType, Memory> parseMemory(Map<String, MemoryUsage> memoryAfterGC) {
 		LOG.trace("parseMemory: {}", memoryAfterGC);
 
@@ -0,0 +1,116 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
+import java.util.OptionalInt;
+
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Expires an entry if both expiries do, see {@link Expiry#and(Expiry)}.
+ */
+/* default */ class AndExpiry<T extends Serializable> implements Expiry<T> {
+	private final Expiry<T> left;
+	private final Expiry<T> right;
+
+	/* default */ AndExpiry(Expiry<T> left, Expiry<T> right) {
+		this.left = requireNonNull(left);
+		this.right = requireNonNull(right);
+	}
+
+	/**
+	 * If both expiries are {@link CutoffExpiry}s, so is the result.
+	 * If both get asked once per expiry run (a {@link CutoffExpiry} or {@link SelectionExpiry}),
+	 * the result is a {@link SelectionExpiry}.
+	 */
+	@SuppressWarnings("PMD.ShortMethodName")
+	/* default */ static <T extends Serializable> Expiry<T> of(Expiry<T> left, Expiry<T> right) {
+		if (left instanceof CutoffExpiry && right instanceof CutoffExpiry) {
+			return new Cutoff<>((CutoffExpiry<T>) left, (CutoffExpiry<T>) right);
+		}
+		if (isBulk(left) && isBulk(right)) {
+			return new Selection<>(left, right);
+		}
+
+		return new AndExpiry<>(left, right);
+	}
+
+	/* default */ static boolean isBulk(Expiry<?> expiry) {
+		return expiry instanceof CutoffExpiry || expiry instanceof SelectionExpiry;
+	}
+
+	@Override
+	public boolean isExpired(Params<T> params) {
+		return left.isExpired(params) && right.isExpired(params);
+	}
+
+	/**
+	 * Everything kept by either expiry is kept: at least the larger of both bounds.
+	 */
+	@Override
+	public OptionalInt getExpectedReadings() {
+		OptionalInt leftReadings = left.getExpectedReadings();
+		OptionalInt rightReadings = right.getExpectedReadings();
+		if (!leftReadings.isPresent()) {
+			return rightReadings;
+		}
+		if (!rightReadings.isPresent()) {
+			return leftReadings;
+		}
+
+		return OptionalInt.of(Math.max(leftReadings.getAsInt(), rightReadings.getAsInt()));
+	}
+
+	/**
+	 * Both cutoffs expire a prefix: the intersection is the shorter one.
+	 */
+	private static final class Cutoff<T extends Serializable> extends AndExpiry<T> implements CutoffExpiry<T> {
+		private final CutoffExpiry<T> left;
+		private final CutoffExpiry<T> right;
+
+		private Cutoff(CutoffExpiry<T> left, CutoffExpiry<T> right) {
+			super(left, right);
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public int expiredCount(Timestamps sortedTimestamps) {
+			int leftCount = left.expiredCount(sortedTimestamps);
+			if (leftCount == 0) {
+				return 0;
+			}
+
+			return Math.min(leftCount, right.expiredCount(sortedTimestamps));
+		}
+	}
+
+	/**
+	 * Expired by both: the intersection of both selections.
+	 */
+	private static final class Selection<T extends Serializable> extends AndExpiry<T> implements SelectionExpiry<T> {
+		private final Expiry<T> left;
+		private final Expiry<T> right;
+
+		private Selection(Expiry<T> left, Expiry<T> right) {
+			super(left, right);
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public BitSet expiredIndices(List<? extends TimedData<? super T>> sortedData) {
+			// sortedData of a TimeSeries<T> only contains T
+			List<? extends TimedData<T>> data = (List<? extends TimedData<T>>) sortedData;
+
+			BitSet expired = SelectionExpiry.select(left, data);
+			expired.and(SelectionExpiry.select(right, data));
+			return expired;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Expires on a background (daemon) thread, so the GC notification thread only appends readings.
+ * <ul>
+ * <li>time-driven: runs every {@code interval}, so e.g.: a {@link DurationExpiry} also drops data
+ * while no GC happens</li>
+ * <li>amortized: additionally runs after {@code batchSize} added readings</li>
+ * <li>coalesced: bursts of readings queue at most one run</li>
+ * </ul>
+ */
+public class BackgroundExpiryScheduler implements ExpiryScheduler {
+	private static final Logger LOG = LoggerFactory.getLogger(BackgroundExpiryScheduler.class);
+
+	public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+	public static final int DEFAULT_BATCH_SIZE = 64;
+
+	private final Duration interval;
+	private final int batchSize;
+
+	private final AtomicInteger pendingReadings = new AtomicInteger();
+	private final AtomicBoolean runQueued = new AtomicBoolean();
+
+	// null while stopped
+	private volatile ScheduledExecutorService executor;
+
+	public BackgroundExpiryScheduler() {
+		this(DEFAULT_INTERVAL, DEFAULT_BATCH_SIZE);
+	}
+
+	public BackgroundExpiryScheduler(Duration interval, int batchSize) {
+		requireNonNull(interval, "interval");
+		if (interval.isNegative() || interval.isZero()) {
+			throw new IllegalArgumentException("interval must be > 0 but was: " + interval);
+		}
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("batchSize must be > 0 but was: " + batchSize);
+		}
+		this.interval = interval;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void readingAdded(Runnable expiry) {
+		requireNonNull(expiry);
+
+		if (pendingReadings.incrementAndGet() < batchSize || !runQueued.compareAndSet(false, true)) {
+			return;
+		}
+
+		ScheduledExecutorService current = executor;
+		if (current == null) {
+			// not started: the next start() catches up
+			runQueued.set(false);
+			return;
+		}
+
+		try {
+			current.execute(() -> run(expiry));
+		} catch (RejectedExecutionException e) {
+			// stopped concurrently
+			runQueued.set(false);
+		}
+	}
+
+	@Override
+	public synchronized void start(Runnable expiry) {
+		requireNonNull(expiry);
+		if (executor != null) {
+			return;
+		}
+
+		ScheduledExecutorService started = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "gcmonitor-expiry");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long nanos = interval.toNanos();
+		started.scheduleWithFixedDelay(() -> run(expiry), 0, nanos, TimeUnit.NANOSECONDS);
+		executor = started;
+	}
+
+	@Override
+	@SuppressWarnings("PMD.NullAssignment") // null marks the scheduler stopped
+	public synchronized void stop() {
+		if (executor == null) {
+			return;
+		}
+
+		executor.shutdownNow();
+		executor = null;
+	}
+
+	private void run(Runnable expiry) {
+		runQueued.set(false);
+		pendingReadings.set(0);
+		try {
+			expiry.run();
+		} catch (RuntimeException e) {
+			// must not cancel the periodic runs
+			LOG.warn("Expiry failed", e);
+		}
+	}
+
+	public Duration getInterval() {
+		return interval;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/* default */ boolean isStarted() {
+		return executor != null;
+	}
+}
@@ -6,12 +6,13 @@ import java.util.OptionalInt;
 
 import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
 
 /**
  * Expire data from the {@link TimeSeries} if more than {@code maxCollectionSize} entries exist.
  * <p>Older entries are expired first.</p>
  */
-public class CollectionSizeExpiry<T extends Serializable> implements Expiry<T>, Serializable {
+public class CollectionSizeExpiry<T extends Serializable> implements CutoffExpiry<T>, Serializable {
 	private static final long serialVersionUID = 460414477181441179L;
 
 	private final int maxCollectionSize;
@@ -35,6 +36,14 @@ public class CollectionSizeExpiry<T extends Serializable> implements Expiry<T>,
 		return idx < firstAllowedIndex;
 	}
 
+	/**
+	 * O(1): everything beyond the newest {@code maxCollectionSize} entries.
+	 */
+	@Override
+	public int expiredCount(Timestamps sortedTimestamps) {
+		return Math.max(0, sortedTimestamps.size() - maxCollectionSize);
+	}
+
 	@Override
 	public OptionalInt getExpectedReadings() {
 		return OptionalInt.of(maxCollectionSize);
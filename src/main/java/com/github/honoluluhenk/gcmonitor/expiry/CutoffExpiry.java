@@ -0,0 +1,23 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.io.Serializable;
+
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
+
+/**
+ * An {@link Expiry} that only ever expires the oldest entries.
+ * <p>
+ * Instead of being asked for every single entry (see {@link #isExpired(Params)}), it computes the cutoff once
+ * per expiry run: {@link TimeSeries#expire(Expiry)} then drops the oldest entries in one go.
+ * It only sees the timestamps of the entries, read from the storage of the series without copying.
+ * Plain {@link Expiry} implementations still get asked per entry.
+ * </p>
+ */
+public interface CutoffExpiry<T extends Serializable> extends Expiry<T> {
+	/**
+	 * @param sortedTimestamps the timestamps of all entries of the time series, oldest first.
+	 * @return the number of oldest entries to expire: 0 &lt;= result &lt;= {@code sortedTimestamps.size()}.
+	 */
+	int expiredCount(Timestamps sortedTimestamps);
+}
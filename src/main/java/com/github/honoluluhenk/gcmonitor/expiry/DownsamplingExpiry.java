@@ -0,0 +1,183 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
+import java.util.OptionalInt;
+
+import com.github.honoluluhenk.gcmonitor.timeddata.Metric;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thins out older data of the {@link TimeSeries} instead of dropping it, so a fixed number of readings covers a much
+ * longer horizon.
+ * <p>
+ * The newest {@code rawReadings} are never expired. Once there are more than {@code maxReadings}, the older readings
+ * get downsampled to half of their budget by Largest-Triangle-Three-Buckets (LTTB) on {@code metric}:
+ * peaks and slopes are kept, flat stretches get thinned. Since this repeats whenever the budget is exceeded,
+ * the older the readings, the sparser they get.
+ * </p>
+ * <p>
+ * The selection is computed once per expiry run (see {@link SelectionExpiry}).
+ * Readings are selected by their position, so a raw reading never shares the fate of an older one with the same
+ * timestamp.
+ * </p>
+ */
+public class DownsamplingExpiry<T extends Serializable> implements SelectionExpiry<T>, Serializable {
+	private static final long serialVersionUID = -2530390290155932014L;
+
+	/**
+	 * LTTB always keeps the first and last reading plus at least one in between.
+	 */
+	private static final int MIN_DOWNSAMPLED = 3;
+
+	private final int maxReadings;
+	private final int rawReadings;
+	private final Metric<? super T> metric;
+
+	/**
+	 * @param maxReadings downsample if there are more readings.
+	 * @param rawReadings the newest readings, never downsampled: 0 &lt; rawReadings, and
+	 * {@code maxReadings - rawReadings >= 6}.
+	 * @param metric the shape to preserve,
+	 * e.g.: {@link com.github.honoluluhenk.gcmonitor.detection.overflow.MemoryMetric#USED}.
+	 */
+	public DownsamplingExpiry(int maxReadings, int rawReadings, Metric<? super T> metric) {
+		if (rawReadings <= 0) {
+			throw new IllegalArgumentException("rawReadings must be > 0 but was: " + rawReadings);
+		}
+		if (maxReadings - rawReadings < 2 * MIN_DOWNSAMPLED) {
+			throw new IllegalArgumentException("maxReadings - rawReadings must be >= " + 2 * MIN_DOWNSAMPLED
+					+ " but was: " + (maxReadings - rawReadings));
+		}
+		this.maxReadings = maxReadings;
+		this.rawReadings = rawReadings;
+		this.metric = requireNonNull(metric, "metric");
+	}
+
+	/**
+	 * Costs a full selection per call: {@link TimeSeries#expire(Expiry)} asks {@link #expiredIndices(List)} once
+	 * instead. The entry is located in {@link Params#getAllData()} by identity.
+	 */
+	@Override
+	public boolean isExpired(Params<T> params) {
+		List<? extends TimedData<? super T>> allData = params.getAllData();
+		TimedData<T> timedData = params.getTimedData();
+
+		BitSet expired = expiredIndices(allData);
+		for (int i = expired.nextSetBit(0); i >= 0; i = expired.nextSetBit(i + 1)) {
+			if (allData.get(i) == timedData) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public BitSet expiredIndices(List<? extends TimedData<? super T>> sortedData) {
+		int size = sortedData.size();
+		if (size <= maxReadings) {
+			return new BitSet();
+		}
+
+		int older = size - rawReadings;
+		long[] nanos = new long[older];
+		double[] values = new double[older];
+		for (int i = 0; i < older; i++) {
+			TimedData<? super T> timedData = sortedData.get(i);
+			nanos[i] = timedData.getEpochNanos();
+			values[i] = valueOf(timedData);
+		}
+
+		BitSet expired = largestTriangles(nanos, values, (maxReadings - rawReadings) / 2);
+		expired.flip(0, older);
+
+		return expired;
+	}
+
+	/**
+	 * The newest {@code rawReadings} are never expired.
+	 */
+	@Override
+	public OptionalInt getExpectedReadings() {
+		return OptionalInt.of(rawReadings);
+	}
+
+	public int getMaxReadings() {
+		return maxReadings;
+	}
+
+	public int getRawReadings() {
+		return rawReadings;
+	}
+
+	@SuppressWarnings("unchecked")
+	private double valueOf(TimedData<? super T> timedData) {
+		// allData of a TimeSeries<T> only contains T
+		return metric.valueOf((T) timedData.getData());
+	}
+
+	/**
+	 * Largest-Triangle-Three-Buckets: split all but the first and last point into {@code threshold - 2} buckets,
+	 * keep the point of each bucket spanning the largest triangle with the point kept from the previous bucket
+	 * and the average of the next bucket.
+	 */
+	/* default */ static BitSet largestTriangles(long[] nanos, double[] values, int threshold) {
+		int length = nanos.length;
+		BitSet kept = new BitSet(length);
+		if (threshold >= length) {
+			kept.set(0, length);
+			return kept;
+		}
+
+		double bucketSize = (double) (length - 2) / (threshold - 2);
+		int previous = 0;
+		kept.set(previous);
+
+		for (int bucket = 0; bucket < threshold - 2; bucket++) {
+			int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+			int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, length);
+			double avgX = 0;
+			double avgY = 0;
+			for (int i = nextStart; i < nextEnd; i++) {
+				avgX += relativeNanos(nanos, i);
+				avgY += values[i];
+			}
+			avgX /= nextEnd - nextStart;
+			avgY /= nextEnd - nextStart;
+
+			int start = (int) (bucket * bucketSize) + 1;
+			int end = nextStart;
+			double previousX = relativeNanos(nanos, previous);
+			double previousY = values[previous];
+			double maxArea = -1;
+			int chosen = start;
+			for (int i = start; i < end; i++) {
+				// twice the area, sufficient for comparison
+				double area = Math.abs((previousX - avgX) * (values[i] - previousY)
+						- (previousX - relativeNanos(nanos, i)) * (avgY - previousY));
+				if (area > maxArea) {
+					maxArea = area;
+					chosen = i;
+				}
+			}
+
+			kept.set(chosen);
+			previous = chosen;
+		}
+
+		kept.set(length - 1);
+		return kept;
+	}
+
+	/**
+	 * Relative to the first timestamp: keeps the precision of a double.
+	 */
+	private static double relativeNanos(long[] nanos, int index) {
+		return nanos[index] - nanos[0];
+	}
+}
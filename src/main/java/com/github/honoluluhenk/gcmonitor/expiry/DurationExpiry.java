@@ -1,17 +1,26 @@
 package com.github.honoluluhenk.gcmonitor.expiry;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.TemporalAmount;
 import java.util.Objects;
 
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
 
 /**
  * Expire all data from {@link TimeSeries} that is older than {@code expireAfter} (a {@link TemporalAmount}).
+ * <p>
+ * Timestamps are compared as primitives (see {@link TimedData#getEpochNanos()}), the cutoff is found by
+ * binary search. Amounts other than a {@link Duration} (e.g.: a {@link java.time.Period}) depend on the
+ * calendar: the cutoff is computed once using a {@link ZonedDateTime}.
+ * </p>
  */
-public class DurationExpiry<T extends Serializable> implements Expiry<T>, Serializable {
+public class DurationExpiry<T extends Serializable> implements CutoffExpiry<T>, Serializable {
 	private static final long serialVersionUID = -2298525974951823363L;
 
 	private final TemporalAmount expireAfter;
@@ -22,18 +31,37 @@ public class DurationExpiry<T extends Serializable> implements Expiry<T>, Serial
 
 	@Override
 	public boolean isExpired(Params<T> params) {
-		ZonedDateTime expireAt = getNow().minus(expireAfter);
+		return params.getTimedData().getEpochNanos() <= expireAt();
+	}
+
+	/**
+	 * Binary search for the first entry newer than the cutoff.
+	 */
+	@Override
+	public int expiredCount(Timestamps sortedTimestamps) {
+		return sortedTimestamps.countUntil(expireAt());
+	}
 
-		boolean expired = params.getTimedData().getTimestamp().compareTo(expireAt) <= 0;
+	/**
+	 * Entries with a timestamp &lt;= this get expired.
+	 */
+	private long expireAt() {
+		if (expireAfter instanceof Duration) {
+			return getNowEpochNanos() - ((Duration) expireAfter).toNanos();
+		}
 
-		return expired;
+		return EpochNanos.of(getNow().minus(expireAfter));
 	}
 
 	/**
-	 * Allow unit tests to not depend on static ZonedDateTime.now().
+	 * Allow unit tests to not depend on the system clock.
 	 */
-	/* default */ ZonedDateTime getNow() {
-		return ZonedDateTime.now(ZoneId.systemDefault());
+	/* default */ long getNowEpochNanos() {
+		return EpochNanos.now();
+	}
+
+	private ZonedDateTime getNow() {
+		return EpochNanos.toZonedDateTime(getNowEpochNanos(), ZoneId.systemDefault());
 	}
 
 }
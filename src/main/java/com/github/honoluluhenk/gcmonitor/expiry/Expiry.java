@@ -26,13 +26,23 @@ public interface Expiry<T extends Serializable> {
 		return OptionalInt.empty();
 	}
 
+	/**
+	 * Expires entries expired by both expiries.
+	 * Combining {@link CutoffExpiry}s yields a {@link CutoffExpiry} (the shorter cutoff),
+	 * so it costs the same as a single one.
+	 */
 	default Expiry<T> and(Expiry<T> other) {
-		return (params) -> isExpired(params) && other.isExpired(params);
+		return AndExpiry.of(this, other);
 	}
 
+	/**
+	 * Expires entries expired by any of both expiries.
+	 * Combining {@link CutoffExpiry}s yields a {@link CutoffExpiry} (the longer cutoff),
+	 * so it costs the same as a single one.
+	 */
 	@SuppressWarnings("PMD.ShortMethodName")
 	default Expiry<T> or(Expiry<T> other) {
-		return (params) -> isExpired(params) || other.isExpired(params);
+		return OrExpiry.of(this, other);
 	}
 
 	default Expiry<T> negate() {
@@ -0,0 +1,68 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.io.Serializable;
+
+/**
+ * Immutable statistics of the time spent expiring data, see
+ * {@link com.github.honoluluhenk.gcmonitor.GCOverflowDetector#getExpiryCost()}.
+ */
+public final class ExpiryCost implements Serializable {
+	private static final long serialVersionUID = 6385520409815497713L;
+
+	public static final ExpiryCost EMPTY = new ExpiryCost(0, 0, 0, 0);
+
+	private final long runs;
+	private final long totalNanos;
+	private final long maxNanos;
+	private final long lastNanos;
+
+	private ExpiryCost(long runs, long totalNanos, long maxNanos, long lastNanos) {
+		this.runs = runs;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+		this.lastNanos = lastNanos;
+	}
+
+	/**
+	 * These statistics plus one more run.
+	 */
+	public ExpiryCost plus(long nanos) {
+		if (nanos < 0) {
+			throw new IllegalArgumentException("nanos must be >= 0 but was: " + nanos);
+		}
+
+		return new ExpiryCost(runs + 1, totalNanos + nanos, Math.max(maxNanos, nanos), nanos);
+	}
+
+	public long getRuns() {
+		return runs;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * Duration of the most recent run, 0 if there was none.
+	 */
+	public long getLastNanos() {
+		return lastNanos;
+	}
+
+	/**
+	 * {@link Double#NaN} if there was no run.
+	 */
+	public double getMeanNanos() {
+		return runs == 0 ? Double.NaN : (double) totalNanos / runs;
+	}
+
+	@Override
+	public String toString() {
+		return "ExpiryCost{runs=" + runs + ", totalNanos=" + totalNanos + ", maxNanos=" + maxNanos
+				+ ", lastNanos=" + lastNanos + '}';
+	}
+}
@@ -0,0 +1,30 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+/**
+ * Decides when {@link Expiry} runs on the readings of a {@link com.github.honoluluhenk.gcmonitor.GCOverflowDetector}.
+ */
+public interface ExpiryScheduler {
+	/**
+	 * A reading was added.
+	 * Called on the GC notification thread: must not block.
+	 *
+	 * @param expiry runs the expiry, may be called from any thread.
+	 */
+	void readingAdded(Runnable expiry);
+
+	/**
+	 * The readings are about to be inspected,
+	 * see {@link com.github.honoluluhenk.gcmonitor.GCOverflowDetector#detect()}.
+	 * Called on the thread of the caller.
+	 */
+	default void beforeRead(Runnable expiry) {
+		// nop
+	}
+
+	/**
+	 * Start time-driven expiry (if any), see {@link com.github.honoluluhenk.gcmonitor.GCOverflowDetector#start()}.
+	 */
+	void start(Runnable expiry);
+
+	void stop();
+}
@@ -0,0 +1,74 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Expires when the readings get inspected (see {@link #beforeRead(Runnable)}), not when they get added:
+ * as long as somebody reads, expiry work is proportional to the reads actually performed instead of the readings
+ * added.
+ * <p>
+ * This is not a logical start offset applied at read time: every {@link #beforeRead(Runnable)} runs the full
+ * {@link Expiry} on the thread of the reader, holding the write lock of the
+ * {@link com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries} (so a concurrent add waits for it).
+ * Expiring the oldest entries then only moves the start offset of the stored data (physical compaction is
+ * amortized, see {@link com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries}), so with a {@link CutoffExpiry}
+ * that costs O(log n) at most. Any other {@link Expiry} costs what it costs with any other scheduler.
+ * </p>
+ * <p>
+ * To bound the memory used if nobody reads, expiry also runs after {@code maxPendingReadings} added readings.
+ * That run happens on the GC notification thread: so adding is a pure append except for every
+ * {@code maxPendingReadings}th reading.
+ * </p>
+ */
+public class LazyExpiryScheduler implements ExpiryScheduler {
+	public static final int DEFAULT_MAX_PENDING_READINGS = 1024;
+
+	private final int maxPendingReadings;
+
+	private final AtomicInteger pendingReadings = new AtomicInteger();
+
+	public LazyExpiryScheduler() {
+		this(DEFAULT_MAX_PENDING_READINGS);
+	}
+
+	public LazyExpiryScheduler(int maxPendingReadings) {
+		if (maxPendingReadings <= 0) {
+			throw new IllegalArgumentException("maxPendingReadings must be > 0 but was: " + maxPendingReadings);
+		}
+		this.maxPendingReadings = maxPendingReadings;
+	}
+
+	@Override
+	public void readingAdded(Runnable expiry) {
+		if (pendingReadings.incrementAndGet() >= maxPendingReadings) {
+			run(expiry);
+		}
+	}
+
+	/**
+	 * Always runs: time-based expiries (e.g.: {@link DurationExpiry}) expire readings without new ones arriving.
+	 */
+	@Override
+	public void beforeRead(Runnable expiry) {
+		run(expiry);
+	}
+
+	@Override
+	public void start(Runnable expiry) {
+		// nop
+	}
+
+	@Override
+	public void stop() {
+		// nop
+	}
+
+	public int getMaxPendingReadings() {
+		return maxPendingReadings;
+	}
+
+	private void run(Runnable expiry) {
+		pendingReadings.set(0);
+		expiry.run();
+	}
+}
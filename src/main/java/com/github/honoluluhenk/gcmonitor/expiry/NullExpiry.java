@@ -2,13 +2,20 @@ package com.github.honoluluhenk.gcmonitor.expiry;
 
 import java.io.Serializable;
 
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
+
 /**
  * Useful for debugging, else <strong>this might create a memory leak</strong>!
  * Never expire any data.
  */
-public class NullExpiry<T extends Serializable> implements Expiry<T> {
+public class NullExpiry<T extends Serializable> implements CutoffExpiry<T> {
 	@Override
 	public boolean isExpired(Params<T> params) {
 		return false;
 	}
+
+	@Override
+	public int expiredCount(Timestamps sortedTimestamps) {
+		return 0;
+	}
 }
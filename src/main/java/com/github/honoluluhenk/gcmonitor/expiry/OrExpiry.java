@@ -0,0 +1,118 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
+import java.util.OptionalInt;
+
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Expires an entry if any of both expiries does, see {@link Expiry#or(Expiry)}.
+ */
+/* default */ class OrExpiry<T extends Serializable> implements Expiry<T> {
+	private final Expiry<T> left;
+	private final Expiry<T> right;
+
+	/* default */ OrExpiry(Expiry<T> left, Expiry<T> right) {
+		this.left = requireNonNull(left);
+		this.right = requireNonNull(right);
+	}
+
+	/**
+	 * If both expiries are {@link CutoffExpiry}s, so is the result.
+	 * If both get asked once per expiry run (a {@link CutoffExpiry} or {@link SelectionExpiry}),
+	 * the result is a {@link SelectionExpiry}.
+	 */
+	@SuppressWarnings("PMD.ShortMethodName")
+	/* default */ static <T extends Serializable> Expiry<T> of(Expiry<T> left, Expiry<T> right) {
+		if (left instanceof CutoffExpiry && right instanceof CutoffExpiry) {
+			return new Cutoff<>((CutoffExpiry<T>) left, (CutoffExpiry<T>) right);
+		}
+		if (AndExpiry.isBulk(left) && AndExpiry.isBulk(right)) {
+			return new Selection<>(left, right);
+		}
+
+		return new OrExpiry<>(left, right);
+	}
+
+	@Override
+	public boolean isExpired(Params<T> params) {
+		return left.isExpired(params) || right.isExpired(params);
+	}
+
+	/**
+	 * Only what both expiries keep is kept.
+	 * Arbitrary expiries might keep disjoint entries, so there is no lower bound.
+	 */
+	@Override
+	public OptionalInt getExpectedReadings() {
+		return OptionalInt.empty();
+	}
+
+	/**
+	 * Both cutoffs expire a prefix: the union is the longer one.
+	 */
+	private static final class Cutoff<T extends Serializable> extends OrExpiry<T> implements CutoffExpiry<T> {
+		private final CutoffExpiry<T> left;
+		private final CutoffExpiry<T> right;
+
+		private Cutoff(CutoffExpiry<T> left, CutoffExpiry<T> right) {
+			super(left, right);
+			this.left = left;
+			this.right = right;
+		}
+
+		/**
+		 * Both keep a suffix, the shorter one is kept: at least the smaller of both bounds.
+		 */
+		@Override
+		public OptionalInt getExpectedReadings() {
+			OptionalInt leftReadings = left.getExpectedReadings();
+			OptionalInt rightReadings = right.getExpectedReadings();
+			if (!leftReadings.isPresent() || !rightReadings.isPresent()) {
+				return OptionalInt.empty();
+			}
+
+			return OptionalInt.of(Math.min(leftReadings.getAsInt(), rightReadings.getAsInt()));
+		}
+
+		@Override
+		public int expiredCount(Timestamps sortedTimestamps) {
+			int leftCount = left.expiredCount(sortedTimestamps);
+			if (leftCount == sortedTimestamps.size()) {
+				return leftCount;
+			}
+
+			return Math.max(leftCount, right.expiredCount(sortedTimestamps));
+		}
+	}
+
+	/**
+	 * Expired by any: the union of both selections.
+	 */
+	private static final class Selection<T extends Serializable> extends OrExpiry<T> implements SelectionExpiry<T> {
+		private final Expiry<T> left;
+		private final Expiry<T> right;
+
+		private Selection(Expiry<T> left, Expiry<T> right) {
+			super(left, right);
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public BitSet expiredIndices(List<? extends TimedData<? super T>> sortedData) {
+			// sortedData of a TimeSeries<T> only contains T
+			List<? extends TimedData<T>> data = (List<? extends TimedData<T>>) sortedData;
+
+			BitSet expired = SelectionExpiry.select(left, data);
+			expired.or(SelectionExpiry.select(right, data));
+			return expired;
+		}
+	}
+}
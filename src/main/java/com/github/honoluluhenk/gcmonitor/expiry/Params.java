@@ -31,7 +31,7 @@ public class Params<T extends Serializable> implements Serializable {
 	 * For expiries that need to compare agains the whole collection of TimedData in a TimeSeries: a readonly view of
 	 * the complete TimeSeries data <strong>at the time the expiry process started</strong>.
 	 * <p>Please note: some data might already be removed by previous calls to {@link Expiry#isExpired(Params)}!</p>
-	 * <p>Ordering of the list: latest entry at index 0</p>
+	 * <p>Ordering of the list: oldest entry at index 0</p>
 	 */
 	public List<? extends TimedData<? super T>> getAllData() {
 		return allData;
@@ -0,0 +1,59 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
+
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
+
+/**
+ * An {@link Expiry} that selects the expired entries of all data at once (e.g.: by comparing them to each other).
+ * <p>
+ * Instead of being asked for every single entry (see {@link #isExpired(Params)}), it gets asked once per expiry run
+ * by {@link TimeSeries#expire(Expiry)}. Entries are selected by their position, so entries sharing a timestamp
+ * can have a different fate.
+ * </p>
+ */
+public interface SelectionExpiry<T extends Serializable> extends Expiry<T> {
+	/**
+	 * @param sortedData all entries of the time series, oldest first.
+	 * @return bit {@code i} is set if the entry at index {@code i} expires:
+	 * {@code result.length() <= sortedData.size()}.
+	 */
+	BitSet expiredIndices(List<? extends TimedData<? super T>> sortedData);
+
+	/**
+	 * The expired entries as selected by any {@link Expiry}: {@link CutoffExpiry} and {@link SelectionExpiry}
+	 * get asked once, any other {@link Expiry} once per entry.
+	 *
+	 * @param sortedData all entries of the time series, oldest first.
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	static <T extends Serializable> BitSet select(Expiry<T> expiry, List<? extends TimedData<T>> sortedData) {
+		int size = sortedData.size();
+
+		BitSet expired;
+		if (expiry instanceof SelectionExpiry) {
+			expired = ((SelectionExpiry<T>) expiry).expiredIndices(sortedData);
+		} else if (expiry instanceof CutoffExpiry) {
+			expired = new BitSet(size);
+			expired.set(0, ((CutoffExpiry<T>) expiry).expiredCount(Timestamps.of(sortedData)));
+		} else {
+			expired = new BitSet(size);
+			for (int i = 0; i < size; i++) {
+				if (expiry.isExpired(new Params<>(sortedData.get(i), sortedData))) {
+					expired.set(i);
+				}
+			}
+		}
+
+		if (expired.length() > size) {
+			throw new IllegalStateException(
+					"expiredIndices must be within [0, " + size + ") but was: " + (expired.length() - 1));
+		}
+
+		return expired;
+	}
+}
@@ -0,0 +1,22 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+/**
+ * Default: expires right after adding each reading, on the GC notification thread.
+ * <p>Data is only expired if readings arrive, i.e.: not during GC-quiet periods.</p>
+ */
+public class SynchronousExpiryScheduler implements ExpiryScheduler {
+	@Override
+	public void readingAdded(Runnable expiry) {
+		expiry.run();
+	}
+
+	@Override
+	public void start(Runnable expiry) {
+		// nop
+	}
+
+	@Override
+	public void stop() {
+		// nop
+	}
+}
@@ -1,6 +1,8 @@
 package com.github.honoluluhenk.gcmonitor.gc;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Map;
 
 import com.github.honoluluhenk.gcmonitor.memory.Memory;
@@ -14,12 +16,77 @@ import static java.util.Objects.requireNonNull;
 public class GCEvent implements Serializable {
 	private static final long serialVersionUID = 3368361816542995335L;
 
+	/**
+	 * Null in instances serialized before this field existed.
+	 */
+	private final String gcName;
 	private final GCCollection collection;
 	private final Map<MemoryPoolType, Memory> memoryAfterGC;
+	/**
+	 * Null in instances serialized before this field existed.
+	 */
+	private final Map<MemoryPoolType, Memory> memoryBeforeGC;
+	/**
+	 * A primitive: instances serialized before this field existed read as 0 (unknown).
+	 */
+	private final long durationNanos;
 
+	/**
+	 * Convenience: calls {@link #GCEvent(GCCollection, Map, Duration)} with an unknown (zero) duration.
+	 */
 	public GCEvent(GCCollection collection, Map<MemoryPoolType, Memory> memoryAfterGC) {
+		this(collection, memoryAfterGC, Duration.ZERO);
+	}
+
+	/**
+	 * @param duration how long the collection took, {@link Duration#ZERO} if unknown.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public GCEvent(GCCollection collection, Map<MemoryPoolType, Memory> memoryAfterGC, Duration duration) {
+		this(collection, Collections.emptyMap(), memoryAfterGC, duration);
+	}
+
+	/**
+	 * Convenience: calls {@link #GCEvent(String, GCCollection, Map, Map, Duration)} with an unknown (empty) gcName.
+	 */
+	public GCEvent(
+			GCCollection collection,
+			Map<MemoryPoolType, Memory> memoryBeforeGC,
+			Map<MemoryPoolType, Memory> memoryAfterGC,
+			Duration duration
+	) {
+		this("", collection, memoryBeforeGC, memoryAfterGC, duration);
+	}
+
+	/**
+	 * @param gcName the collector, see {@link java.lang.management.GarbageCollectorMXBean#getName()},
+	 * empty if unknown.
+	 * @param memoryBeforeGC empty if unknown.
+	 * @param duration how long the collection took, {@link Duration#ZERO} if unknown.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public GCEvent(
+			String gcName,
+			GCCollection collection,
+			Map<MemoryPoolType, Memory> memoryBeforeGC,
+			Map<MemoryPoolType, Memory> memoryAfterGC,
+			Duration duration
+	) {
+		this.gcName = requireNonNull(gcName);
 		this.collection = requireNonNull(collection);
+		this.memoryBeforeGC = requireNonNull(memoryBeforeGC);
 		this.memoryAfterGC = requireNonNull(memoryAfterGC);
+		if (requireNonNull(duration).isNegative()) {
+			throw new IllegalArgumentException("duration must be >= 0 but was: " + duration);
+		}
+		this.durationNanos = duration.toNanos();
+	}
+
+	/**
+	 * The collector, see {@link java.lang.management.GarbageCollectorMXBean#getName()}, empty if unknown.
+	 */
+	public String getGcName() {
+		return gcName == null ? "" : gcName;
 	}
 
 	public GCCollection getCollection() {
@@ -29,4 +96,25 @@ public class GCEvent implements Serializable {
 	public Map<MemoryPoolType, Memory> getMemoryAfterGC() {
 		return memoryAfterGC;
 	}
+
+	/**
+	 * Empty if unknown.
+	 */
+	public Map<MemoryPoolType, Memory> getMemoryBeforeGC() {
+		return memoryBeforeGC == null ? Collections.emptyMap() : memoryBeforeGC;
+	}
+
+	/**
+	 * How long the collection took, {@link Duration#ZERO} if unknown.
+	 */
+	public Duration getDuration() {
+		return Duration.ofNanos(durationNanos);
+	}
+
+	/**
+	 * Like {@link #getDuration()}, in nanoseconds: does not allocate.
+	 */
+	public long getDurationNanos() {
+		return durationNanos;
+	}
 }
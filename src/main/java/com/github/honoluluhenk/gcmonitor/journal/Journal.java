@@ -0,0 +1,26 @@
+package com.github.honoluluhenk.gcmonitor.journal;
+
+import java.util.function.Consumer;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+/**
+ * Persists the {@link Memory} readings of a {@link com.github.honoluluhenk.gcmonitor.GCOverflowDetector}
+ * so they survive restarts.
+ */
+public interface Journal {
+	/**
+	 * Persist a reading.
+	 *
+	 * @throws java.io.UncheckedIOException if the reading could not be persisted.
+	 */
+	void append(TimedData<Memory> reading);
+
+	/**
+	 * Feed all persisted readings to {@code consumer}, in the order they were appended.
+	 *
+	 * @throws java.io.UncheckedIOException if reading failed.
+	 */
+	void replay(Consumer<? super TimedData<Memory>> consumer);
+}
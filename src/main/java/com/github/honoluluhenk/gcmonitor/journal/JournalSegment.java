@@ -0,0 +1,201 @@
+package com.github.honoluluhenk.gcmonitor.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+/**
+ * A single memory-mapped journal file with a fixed number of fixed-width records.
+ * <p>
+ * Layout: a header (magic, version, record size), followed by the records.
+ * A record consists of timestamp (epoch nanos), init, used, committed, max (all longs),
+ * a marker and a CRC32 checksum (ints).
+ * The file is pre-allocated (zeroes), so the first record with an invalid checksum marks the end of the data.
+ * A record torn by a crash fails the checksum and gets overwritten by the next append.
+ * </p>
+ */
+final class JournalSegment {
+	private static final long FILE_MAGIC = 0x47434A4F55524E31L; // "GCJOURN1"
+	private static final int VERSION = 1;
+	private static final int VERSION_OFFSET = Long.BYTES;
+	private static final int RECORD_SIZE_OFFSET = VERSION_OFFSET + Integer.BYTES;
+	/* default */ static final int HEADER_SIZE = RECORD_SIZE_OFFSET + Integer.BYTES;
+
+	private static final int TIMESTAMP_OFFSET = 0;
+	private static final int INIT_OFFSET = TIMESTAMP_OFFSET + Long.BYTES;
+	private static final int USED_OFFSET = INIT_OFFSET + Long.BYTES;
+	private static final int COMMITTED_OFFSET = USED_OFFSET + Long.BYTES;
+	private static final int MAX_OFFSET = COMMITTED_OFFSET + Long.BYTES;
+	private static final int MARKER_OFFSET = MAX_OFFSET + Long.BYTES;
+	private static final int CRC_OFFSET = MARKER_OFFSET + Integer.BYTES;
+	/* default */ static final int RECORD_SIZE = CRC_OFFSET + Integer.BYTES;
+
+	private static final int RECORD_MARKER = 0x52454344; // "RECD"
+
+	private final Path path;
+	private final long sequence;
+	private final int capacity;
+	private final MappedByteBuffer buffer;
+
+	private final byte[] scratch = new byte[RECORD_SIZE];
+	private final ByteBuffer record = ByteBuffer.wrap(scratch);
+	private final CRC32 crc = new CRC32();
+
+	private int count;
+
+	private JournalSegment(Path path, long sequence, int capacity, MappedByteBuffer buffer, int count) {
+		this.path = path;
+		this.sequence = sequence;
+		this.capacity = capacity;
+		this.buffer = buffer;
+		this.count = count;
+	}
+
+	/**
+	 * Create a new, empty segment file for appending.
+	 */
+	/* default */ static JournalSegment create(Path path, long sequence, int capacity) throws IOException {
+		MappedByteBuffer buffer = map(path, MapMode.READ_WRITE, HEADER_SIZE + (long) capacity * RECORD_SIZE,
+				StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		buffer.putLong(0, FILE_MAGIC);
+		buffer.putInt(VERSION_OFFSET, VERSION);
+		buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+
+		return new JournalSegment(path, sequence, capacity, buffer, 0);
+	}
+
+	/**
+	 * Open an existing segment file, recover the number of valid records.
+	 *
+	 * @param writable map for appending, else read-only.
+	 * @throws IOException if the file is no (compatible) segment file.
+	 */
+	/* default */ static JournalSegment open(Path path, long sequence, boolean writable) throws IOException {
+		long size = path.toFile().length();
+		MappedByteBuffer buffer = writable
+				? map(path, MapMode.READ_WRITE, size, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: map(path, MapMode.READ_ONLY, size, StandardOpenOption.READ);
+
+		if (size < HEADER_SIZE
+				|| buffer.getLong(0) != FILE_MAGIC
+				|| buffer.getInt(VERSION_OFFSET) != VERSION
+				|| buffer.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+			throw new IOException("not a journal segment of version " + VERSION + ": " + path);
+		}
+
+		int capacity = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+		JournalSegment segment = new JournalSegment(path, sequence, capacity, buffer, 0);
+		segment.count = segment.countValidRecords();
+
+		return segment;
+	}
+
+	private static MappedByteBuffer map(Path path, MapMode mode, long size, StandardOpenOption... options)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(path, options)) {
+			// the mapping stays valid after closing the channel
+			return channel.map(mode, 0, size);
+		}
+	}
+
+	private int countValidRecords() {
+		int valid = 0;
+		while (valid < capacity && isValid(valid)) {
+			valid++;
+		}
+		return valid;
+	}
+
+	private boolean isValid(int index) {
+		int offset = offset(index);
+		for (int i = 0; i < RECORD_SIZE; i++) {
+			scratch[i] = buffer.get(offset + i);
+		}
+
+		crc.reset();
+		crc.update(scratch, 0, CRC_OFFSET);
+
+		return record.getInt(MARKER_OFFSET) == RECORD_MARKER
+				&& record.getInt(CRC_OFFSET) == (int) crc.getValue();
+	}
+
+	/* default */ boolean isFull() {
+		return count == capacity;
+	}
+
+	/* default */ void append(long timestamp, long init, long used, long committed, long max) {
+		if (isFull()) {
+			throw new IllegalStateException("segment is full: " + path);
+		}
+
+		record.clear();
+		record.putLong(timestamp)
+				.putLong(init)
+				.putLong(used)
+				.putLong(committed)
+				.putLong(max)
+				.putInt(RECORD_MARKER);
+		crc.reset();
+		crc.update(scratch, 0, CRC_OFFSET);
+		record.putInt((int) crc.getValue());
+
+		int offset = offset(count);
+		for (int i = 0; i < RECORD_SIZE; i++) {
+			buffer.put(offset + i, scratch[i]);
+		}
+		count++;
+	}
+
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	/* default */ void replay(ZoneId zone, Consumer<? super TimedData<Memory>> consumer) {
+		for (int i = 0; i < count; i++) {
+			int offset = offset(i);
+
+			consumer.accept(new TimedData<>(
+					buffer.getLong(offset + TIMESTAMP_OFFSET), zone,
+					new Memory(
+							buffer.getLong(offset + INIT_OFFSET),
+							buffer.getLong(offset + USED_OFFSET),
+							buffer.getLong(offset + COMMITTED_OFFSET),
+							buffer.getLong(offset + MAX_OFFSET))));
+		}
+	}
+
+	/**
+	 * Write to disk: survive an OS crash, not only a crash of the JVM.
+	 */
+	/* default */ void force() {
+		buffer.force();
+	}
+
+	private static int offset(int index) {
+		return HEADER_SIZE + index * RECORD_SIZE;
+	}
+
+	/* default */ Path getPath() {
+		return path;
+	}
+
+	/* default */ long getSequence() {
+		return sequence;
+	}
+
+	/* default */ int getCount() {
+		return count;
+	}
+
+	/* default */ int getCapacity() {
+		return capacity;
+	}
+}
@@ -0,0 +1,216 @@
+package com.github.honoluluhenk.gcmonitor.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Append-only journal in memory-mapped segment files of fixed-width records (48 bytes per reading).
+ * <p>
+ * Appending is a plain memory write: it survives a crash of the JVM without any system call,
+ * call {@link #flush()} to also survive a crash of the OS.
+ * A record torn by a crash is detected by its checksum and ignored.
+ * </p>
+ * <p>
+ * If the current segment is full, a new one gets created.
+ * Only the newest {@code maxSegments} segments are kept, older ones get deleted,
+ * so the journal never needs more than {@code maxSegments * recordsPerSegment * 48} bytes of disk space.
+ * </p>
+ * <p>
+ * Only one journal instance (and JVM) may use a directory at a time.
+ * </p>
+ */
+public class MappedJournal implements Journal, Closeable {
+	private static final Logger LOG = LoggerFactory.getLogger(MappedJournal.class);
+
+	private static final int DEFAULT_RECORDS_PER_SEGMENT = 65_536;
+	private static final int DEFAULT_MAX_SEGMENTS = 16;
+	private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{20})\\.journal");
+
+	private final Path directory;
+	private final int recordsPerSegment;
+	private final int maxSegments;
+	private final ZoneId zone;
+
+	/**
+	 * All segment files by sequence number, including the active one.
+	 */
+	private final NavigableMap<Long, Path> segments = new TreeMap<>();
+	private JournalSegment active;
+
+	/**
+	 * Convenience: segments of 65536 readings (3 MB), at most 16 segments, timestamps in the system default zone.
+	 */
+	public MappedJournal(Path directory) throws IOException {
+		this(directory, DEFAULT_RECORDS_PER_SEGMENT, DEFAULT_MAX_SEGMENTS, ZoneId.systemDefault());
+	}
+
+	/**
+	 * Opens the journal in {@code directory} (creates it if necessary) and recovers the end of the newest segment.
+	 *
+	 * @param recordsPerSegment number of readings per segment file, must be &gt; 0.
+	 * @param maxSegments number of segment files kept, must be &gt; 0.
+	 * @param zone timestamps of replayed readings are converted to this zone.
+	 * @throws IllegalArgumentException if input validation fails.
+	 * @throws IOException if the journal could not be opened.
+	 */
+	public MappedJournal(Path directory, int recordsPerSegment, int maxSegments, ZoneId zone) throws IOException {
+		this.directory = requireNonNull(directory);
+		if (recordsPerSegment <= 0) {
+			throw new IllegalArgumentException("recordsPerSegment must be > 0 but was: " + recordsPerSegment);
+		}
+		this.recordsPerSegment = recordsPerSegment;
+		if (maxSegments <= 0) {
+			throw new IllegalArgumentException("maxSegments must be > 0 but was: " + maxSegments);
+		}
+		this.maxSegments = maxSegments;
+		this.zone = requireNonNull(zone);
+
+		Files.createDirectories(directory);
+		findSegments();
+		openActiveSegment();
+	}
+
+	private void findSegments() throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+				if (matcher.matches()) {
+					segments.put(Long.parseLong(matcher.group(1)), file);
+				}
+			}
+		}
+	}
+
+	private void openActiveSegment() throws IOException {
+		if (segments.isEmpty()) {
+			createSegment(0);
+			return;
+		}
+
+		Map.Entry<Long, Path> newest = segments.lastEntry();
+		try {
+			active = JournalSegment.open(newest.getValue(), newest.getKey(), true);
+		} catch (IOException e) {
+			LOG.warn("Could not recover journal segment, starting a new one: {}", newest.getValue(), e);
+			createSegment(newest.getKey() + 1);
+		}
+	}
+
+	private void createSegment(long sequence) throws IOException {
+		Path path = directory.resolve(String.format("segment-%020d.journal", sequence));
+		active = JournalSegment.create(path, sequence, recordsPerSegment);
+		segments.put(sequence, path);
+
+		while (segments.size() > maxSegments) {
+			Files.deleteIfExists(segments.pollFirstEntry().getValue());
+		}
+	}
+
+	@Override
+	public synchronized void append(TimedData<Memory> reading) {
+		requireNonNull(reading);
+		requireOpen();
+
+		try {
+			if (active.isFull()) {
+				createSegment(active.getSequence() + 1);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not create new journal segment", e);
+		}
+
+		Memory memory = reading.getData();
+		active.append(
+				reading.getEpochNanos(),
+				memory.getInit().orElse(-1L),
+				memory.getUsed(),
+				memory.getCommitted(),
+				memory.getMax().orElse(-1L));
+	}
+
+	/**
+	 * Segments that cannot be read (e.g.: corrupt header) are skipped.
+	 */
+	@Override
+	public synchronized void replay(Consumer<? super TimedData<Memory>> consumer) {
+		requireNonNull(consumer);
+		requireOpen();
+
+		for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+			if (segment.getKey() == active.getSequence()) {
+				active.replay(zone, consumer);
+				continue;
+			}
+
+			try {
+				JournalSegment.open(segment.getValue(), segment.getKey(), false)
+						.replay(zone, consumer);
+			} catch (IOException e) {
+				LOG.warn("Skipping unreadable journal segment: {}", segment.getValue(), e);
+			}
+		}
+	}
+
+	/**
+	 * Force all appended readings to disk.
+	 */
+	public synchronized void flush() {
+		requireOpen();
+
+		active.force();
+	}
+
+	/**
+	 * Flushes, further use throws {@link IllegalStateException}.
+	 */
+	@Override
+	@SuppressWarnings("PMD.NullAssignment") // null marks the journal closed
+	public synchronized void close() {
+		if (active == null) {
+			return;
+		}
+
+		active.force();
+		active = null;
+	}
+
+	private void requireOpen() {
+		if (active == null) {
+			throw new IllegalStateException("journal is closed: " + directory);
+		}
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public int getRecordsPerSegment() {
+		return recordsPerSegment;
+	}
+
+	public int getMaxSegments() {
+		return maxSegments;
+	}
+
+	public ZoneId getZone() {
+		return zone;
+	}
+}
@@ -0,0 +1,21 @@
+package com.github.honoluluhenk.gcmonitor.journal;
+
+import java.util.function.Consumer;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
+/**
+ * Does not persist anything: all readings are lost on restart.
+ */
+public class NullJournal implements Journal {
+	@Override
+	public void append(TimedData<Memory> reading) {
+		// nop
+	}
+
+	@Override
+	public void replay(Consumer<? super TimedData<Memory>> consumer) {
+		// nothing to replay
+	}
+}
@@ -2,6 +2,7 @@ package com.github.honoluluhenk.gcmonitor.memory;
 
 import java.io.Serializable;
 import java.lang.management.MemoryUsage;
+import java.util.Objects;
 import java.util.Optional;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -51,6 +52,13 @@ public class Memory implements Serializable {
 		return minusOneAsEmpty(init);
 	}
 
+	/**
+	 * See {@link MemoryUsage#getInit()}: like {@link #getInit()} but without boxing, -1 if undefined.
+	 */
+	public long getInitOrMinusOne() {
+		return init;
+	}
+
 	/**
 	 * See {@link MemoryUsage#getUsed()}.
 	 */
@@ -65,6 +73,13 @@ public class Memory implements Serializable {
 		return minusOneAsEmpty(max);
 	}
 
+	/**
+	 * See {@link MemoryUsage#getMax()}: like {@link #getMax()} but without boxing, -1 if undefined.
+	 */
+	public long getMaxOrMinusOne() {
+		return max;
+	}
+
 	/**
 	 * See {@link MemoryUsage#getCommitted()}.
 	 */
@@ -81,6 +96,26 @@ public class Memory implements Serializable {
 		return Optional.of(value);
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Memory)) {
+			return false;
+		}
+		Memory memory = (Memory) o;
+		return init == memory.init
+				&& used == memory.used
+				&& committed == memory.committed
+				&& max == memory.max;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(init, used, committed, max);
+	}
+
 	@Override
 	public String toString() {
 		return "Memory{" + new MemoryUsage(init, used, committed, max) + '}';
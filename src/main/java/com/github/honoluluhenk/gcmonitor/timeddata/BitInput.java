@@ -0,0 +1,45 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.util.NoSuchElementException;
+
+import static com.github.honoluluhenk.gcmonitor.timeddata.BitOutput.BITS_PER_BYTE;
+
+/**
+ * Reads a bit stream written by {@link BitOutput}.
+ */
+final class BitInput {
+	private static final int HIGHEST_BIT = 0x80;
+
+	private final byte[] bytes;
+	private final int bitLength;
+	private int position;
+
+	@SuppressWarnings("PMD.ArrayIsStoredDirectly") // read-only
+	/* default */ BitInput(byte[] bytes, int bitLength) {
+		this.bytes = bytes;
+		this.bitLength = bitLength;
+	}
+
+	/* default */ boolean readBit() {
+		if (position >= bitLength) {
+			throw new NoSuchElementException("end of bit stream reached at: " + bitLength);
+		}
+
+		boolean bit = (bytes[position / BITS_PER_BYTE] & (HIGHEST_BIT >>> (position % BITS_PER_BYTE))) != 0;
+		position++;
+
+		return bit;
+	}
+
+	/**
+	 * Read {@code count} bits into the lowest bits of the result.
+	 */
+	/* default */ long readBits(int count) {
+		long value = 0;
+		for (int i = 0; i < count; i++) {
+			value = (value << 1) | (readBit() ? 1L : 0L);
+		}
+
+		return value;
+	}
+}
@@ -0,0 +1,60 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.util.Arrays;
+
+/**
+ * Append-only bit stream, most significant bit first.
+ * <p>
+ * Bits once written are never modified, so a {@link BitInput} on the same array can safely read
+ * everything up to the bit length at the time it was created (see {@link #getBitLength()}),
+ * as long as it was published safely.
+ * </p>
+ */
+final class BitOutput {
+	/* default */ static final int BITS_PER_BYTE = 8;
+
+	/* default */ static final int INITIAL_BYTES = 64;
+	/* default */ static final long OBJECT_BYTES = Footprint.object(Footprint.REFERENCE + Integer.BYTES);
+
+	private static final int HIGHEST_BIT = 0x80;
+
+	private byte[] bytes;
+	private int bitLength;
+
+	/* default */ BitOutput() {
+		this.bytes = new byte[INITIAL_BYTES];
+	}
+
+	/* default */ void writeBit(boolean bit) {
+		int byteIndex = bitLength / BITS_PER_BYTE;
+		if (byteIndex == bytes.length) {
+			// old arrays might still be read, never modify them
+			bytes = Arrays.copyOf(bytes, bytes.length * 2);
+		}
+		if (bit) {
+			bytes[byteIndex] |= (byte) (HIGHEST_BIT >>> (bitLength % BITS_PER_BYTE));
+		}
+		bitLength++;
+	}
+
+	/**
+	 * Write the lowest {@code count} bits of {@code value}.
+	 */
+	/* default */ void writeBits(long value, int count) {
+		for (int i = count - 1; i >= 0; i--) {
+			writeBit(((value >>> i) & 1L) != 0);
+		}
+	}
+
+	/**
+	 * The current backing array, shared: only read up to {@link #getBitLength()}.
+	 */
+	@SuppressWarnings("PMD.MethodReturnsInternalArray")
+	/* default */ byte[] getBytes() {
+		return bytes;
+	}
+
+	/* default */ int getBitLength() {
+		return bitLength;
+	}
+}
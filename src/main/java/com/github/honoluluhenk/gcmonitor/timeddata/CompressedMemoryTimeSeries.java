@@ -0,0 +1,647 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+import com.github.honoluluhenk.gcmonitor.expiry.CutoffExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.Expiry;
+import com.github.honoluluhenk.gcmonitor.expiry.SelectionExpiry;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link TimeSeries} of {@link Memory} readings, stored compressed in {@link MemoryBlock}s
+ * (typically around 1-2 bytes per field and reading instead of about 100 bytes for a {@link TimedData} object).
+ * Meant for long retention, e.g.: months of readings.
+ * <p>
+ * Readings are appended to an open block, which gets sealed once it holds {@code blockSize} readings.
+ * Reading data decodes the blocks, so prefer narrow range queries (e.g.: {@link #latest(int)},
+ * {@link #since(long)}) that only decode the blocks they need, or {@link #getBlocks()} to stream
+ * through the data without materializing it.
+ * Expiring the oldest readings drops whole blocks and only re-encodes a partly expired block,
+ * out-of-order readings and expiring readings in the middle re-encode all data.
+ * </p>
+ * <p>
+ * Optionally bounded by a byte budget: if {@link #getRetainedBytes()} exceeds it, the oldest sealed blocks
+ * get evicted.
+ * </p>
+ * <p>
+ * Like {@link TimeSeries}: writers are serialized, readers do not lock and work on an immutable snapshot.
+ * Timestamps are returned in the {@link ZoneId} given in the constructor.
+ * </p>
+ */
+public class CompressedMemoryTimeSeries extends TimeSeries<Memory> {
+	private static final long serialVersionUID = -2215005463003227962L;
+
+	private static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	private static final long BLOCKS_OBJECT_BYTES =
+			Footprint.object(Footprint.REFERENCE + Footprint.REFERENCE + Integer.BYTES + Long.BYTES);
+	// the unmodifiable wrapper and its ArrayList, without the array
+	private static final long SEALED_LIST_OBJECT_BYTES =
+			Footprint.object(Footprint.REFERENCE + Footprint.REFERENCE)
+					+ Footprint.object(Footprint.REFERENCE + Integer.BYTES + Integer.BYTES);
+
+	private final int blockSize;
+	private final ZoneId zone;
+	private final long maxRetainedBytes;
+
+	private volatile Blocks blocks = Blocks.EMPTY;
+	private transient MemoryBlockEncoder encoder = new MemoryBlockEncoder();
+
+	/**
+	 * Convenience: blocks of 1024 readings, timestamps in the system default zone.
+	 */
+	public CompressedMemoryTimeSeries() {
+		this(DEFAULT_BLOCK_SIZE, ZoneId.systemDefault());
+	}
+
+	/**
+	 * @param blockSize number of readings per block, must be &gt; 0.
+	 * @param zone all timestamps returned by this series are converted to this zone.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public CompressedMemoryTimeSeries(int blockSize, ZoneId zone) {
+		this(blockSize, zone, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @param blockSize number of readings per block, must be &gt; 0.
+	 * @param zone all timestamps returned by this series are converted to this zone.
+	 * @param maxRetainedBytes byte budget for the readings, see {@link #getRetainedBytes()}, must be &gt; 0.
+	 * Evicting works block-wise, so the open block and at least one sealed block should fit into the budget.
+	 * Running aggregates and regressions (see {@link #aggregate(Metric)}) come on top: they keep their values
+	 * uncompressed, a regression 16 bytes per reading, an aggregate 16 to 48 (values plus min/max candidates).
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public CompressedMemoryTimeSeries(int blockSize, ZoneId zone, long maxRetainedBytes) {
+		super();
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("blockSize must be > 0 but was: " + blockSize);
+		}
+		if (maxRetainedBytes <= 0) {
+			throw new IllegalArgumentException("maxRetainedBytes must be > 0 but was: " + maxRetainedBytes);
+		}
+		this.blockSize = blockSize;
+		this.zone = requireNonNull(zone);
+		this.maxRetainedBytes = maxRetainedBytes;
+	}
+
+	/**
+	 * An immutable snapshot of the current data, decodes all blocks.
+	 */
+	@Override
+	public List<TimedData<Memory>> getTimedData() {
+		return decode(blocks.all(), 0);
+	}
+
+	@Override
+	public int size() {
+		return blocks.size;
+	}
+
+	/**
+	 * Only decodes the newest blocks.
+	 */
+	@Override
+	public List<TimedData<Memory>> latest(int count) {
+		requireNonNegative(count);
+
+		List<MemoryBlock> all = blocks.all();
+		int first = all.size();
+		int decoded = 0;
+		while (first > 0 && decoded < count) {
+			first--;
+			decoded += all.get(first).size();
+		}
+
+		List<TimedData<Memory>> data = decode(all, first);
+		return data.subList(data.size() - Math.min(count, data.size()), data.size());
+	}
+
+	/**
+	 * Skips blocks that end before {@code from}.
+	 */
+	@Override
+	public List<TimedData<Memory>> between(ZonedDateTime from, ZonedDateTime to) {
+		requireNonNull(to);
+		long fromNanos = EpochNanos.of(from);
+		List<TimedData<Memory>> data = decodeSince(fromNanos);
+
+		int end = TimestampSearch.lowerBound(data, EpochNanos.of(to));
+		int start = TimestampSearch.lowerBound(data, fromNanos);
+		return data.subList(start, Math.max(start, end));
+	}
+
+	/**
+	 * Skips blocks that end before {@code from}.
+	 */
+	@Override
+	public List<TimedData<Memory>> since(long fromEpochNanos) {
+		List<TimedData<Memory>> data = decodeSince(fromEpochNanos);
+
+		return data.subList(TimestampSearch.lowerBound(data, fromEpochNanos), data.size());
+	}
+
+	private List<TimedData<Memory>> decodeSince(long fromNanos) {
+		List<MemoryBlock> all = blocks.all();
+		int first = 0;
+		while (first < all.size() && all.get(first).getLastTimestamp() < fromNanos) {
+			first++;
+		}
+
+		return decode(all, first);
+	}
+
+	@Override
+	public void add(TimedData<Memory> timedData) {
+		requireNonNull(timedData);
+
+		super.write(ignored -> {
+			long timestamp = timedData.getEpochNanos();
+			Blocks current = blocks;
+
+			boolean inOrder = current.size == 0 || current.lastTimestamp() <= timestamp;
+			if (inOrder) {
+				append(timestamp, timedData.getData());
+				publish(current, current.size + 1);
+				appendToAggregates(timedData);
+				evictOverBudget();
+				return null;
+			}
+
+			List<TimedData<Memory>> allData = new ArrayList<>(decode(current.all(), 0));
+			allData.add(TimestampSearch.upperBound(allData, timedData.getEpochNanos()), timedData);
+			encodeAll(allData);
+			rebuildAggregates(allData);
+			evictOverBudget();
+			return null;
+		});
+	}
+
+	@Override
+	public void expire(Expiry<Memory> expiry) {
+		requireNonNull(expiry);
+
+		if (expiry instanceof CutoffExpiry) {
+			expireOldest((CutoffExpiry<Memory>) expiry);
+			return;
+		}
+
+		super.write(ignored -> {
+			// materialize once: expiries might compare entries by identity (e.g.: List.indexOf())
+			List<TimedData<Memory>> allData = decode(blocks.all(), 0);
+			BitSet expired = SelectionExpiry.select(expiry, allData);
+			if (expired.isEmpty()) {
+				return null;
+			}
+
+			int expiredPrefix = expired.nextClearBit(0);
+			if (expiredPrefix == expired.cardinality()) {
+				dropOldest(expiredPrefix);
+				evictOverBudget();
+				return null;
+			}
+
+			int size = allData.size();
+			List<TimedData<Memory>> kept = new ArrayList<>(size - expired.cardinality());
+			for (int i = expired.nextClearBit(0); i < size; i = expired.nextClearBit(i + 1)) {
+				kept.add(allData.get(i));
+			}
+			encodeAll(kept);
+			rebuildAggregates(kept);
+			evictOverBudget();
+			return null;
+		});
+	}
+
+	/**
+	 * Drops whole blocks without decoding them, only a partly dropped block gets re-encoded.
+	 */
+	@Override
+	/* default */ void dropOldest(int count) {
+		Blocks current = blocks;
+		int dropped = Math.min(count, current.size);
+		if (dropped <= 0) {
+			return;
+		}
+
+		List<MemoryBlock> sealed = current.sealed;
+		long sealedRetainedBytes = current.sealedRetainedBytes;
+		int remaining = dropped;
+		int firstKept = 0;
+		while (firstKept < sealed.size() && sealed.get(firstKept).size() <= remaining) {
+			MemoryBlock block = sealed.get(firstKept);
+			remaining -= block.size();
+			sealedRetainedBytes -= block.getRetainedBytes();
+			firstKept++;
+		}
+
+		List<MemoryBlock> newSealed = new ArrayList<>(sealed.size() - firstKept);
+		MemoryBlock open = current.open;
+		if (remaining > 0 && firstKept < sealed.size()) {
+			MemoryBlock head = sealed.get(firstKept);
+			MemoryBlockEncoder tail = new MemoryBlockEncoder();
+			appendTail(tail, head, remaining);
+			MemoryBlock sealedTail = tail.seal();
+
+			newSealed.add(sealedTail);
+			sealedRetainedBytes += sealedTail.getRetainedBytes() - head.getRetainedBytes();
+			firstKept++;
+		} else if (remaining > 0) {
+			// only the open block is left
+			encoder = new MemoryBlockEncoder();
+			appendTail(encoder, open, remaining);
+			open = encoder.getCount() == 0 ? null : encoder.view();
+		}
+		newSealed.addAll(sealed.subList(firstKept, sealed.size()));
+
+		blocks = new Blocks(
+				newSealed.isEmpty() ? Collections.emptyList() : unmodifiableList(newSealed),
+				open,
+				current.size - dropped,
+				sealedRetainedBytes);
+		removeOldestFromAggregates(dropped);
+	}
+
+	/**
+	 * Append all readings of {@code block} but the first {@code skipped} ones.
+	 */
+	private static void appendTail(MemoryBlockEncoder target, MemoryBlock block, int skipped) {
+		MemoryBlockDecoder decoder = block.decoder();
+		int index = 0;
+		while (decoder.next()) {
+			if (index >= skipped) {
+				target.append(decoder.getTimestamp(), decoder.getInit(), decoder.getUsed(), decoder.getCommitted(),
+						decoder.getMax());
+			}
+			index++;
+		}
+	}
+
+	/**
+	 * {@code writer} gets a lazy view that only decodes the blocks it accesses
+	 * (e.g.: a {@link CutoffExpiry} searching for its cutoff decodes O(log n) blocks).
+	 */
+	@Override
+	/* default */ <R> R write(Function<List<TimedData<Memory>>, R> writer) {
+		return super.write(ignored -> writer.apply(new BlockReadings(blocks.all(), zone)));
+	}
+
+	/**
+	 * The first and last timestamp of each block are known without decoding,
+	 * so a cutoff search (see {@link Timestamps#countUntil(long)}) only decodes the block containing the cutoff.
+	 */
+	@Override
+	/* default */ <R> R writeTimestamps(Function<Timestamps, R> writer) {
+		return super.write(ignored -> writer.apply(new BlockTimestamps(blocks.all())));
+	}
+
+	/**
+	 * All blocks, oldest first. The last one might not be full yet.
+	 */
+	public List<MemoryBlock> getBlocks() {
+		return blocks.all();
+	}
+
+	/**
+	 * Size of the compressed data in bytes.
+	 */
+	public long getByteSize() {
+		return blocks.all().stream()
+				.mapToLong(MemoryBlock::getByteSize)
+				.sum();
+	}
+
+	/**
+	 * Heap footprint of the stored readings in bytes: the compressed blocks (including the buffer of the block
+	 * that is still being written), the encoder and all internal objects holding the blocks.
+	 * <p>
+	 * Computed for HotSpot on 64 bit with compressed references (heaps up to 32 GB).
+	 * Not the whole footprint of this series: the constant overhead of the series object itself and running
+	 * aggregates/regressions (see {@link #aggregate(Metric)}) are not included, the latter grow with the number
+	 * of readings, see {@link #CompressedMemoryTimeSeries(int, ZoneId, long)}.
+	 * </p>
+	 */
+	public long getRetainedBytes() {
+		Blocks current = blocks;
+
+		long sealedList = current.sealed.isEmpty()
+				// the shared Collections.emptyList()
+				? 0
+				: SEALED_LIST_OBJECT_BYTES + Footprint.array(current.sealed.size(), Footprint.REFERENCE);
+		long openBuffer = current.open == null
+				? Footprint.array(BitOutput.INITIAL_BYTES, Byte.BYTES)
+				: current.open.getRetainedBytes();
+
+		return BLOCKS_OBJECT_BYTES
+				+ sealedList
+				+ current.sealedRetainedBytes
+				+ MemoryBlockEncoder.OBJECT_BYTES
+				+ openBuffer;
+	}
+
+	/**
+	 * The byte budget, see {@link #getRetainedBytes()}. {@link Long#MAX_VALUE} if unbounded.
+	 */
+	public long getMaxRetainedBytes() {
+		return maxRetainedBytes;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	private void append(long timestamp, Memory memory) {
+		encoder.append(
+				timestamp,
+				memory.getInitOrMinusOne(),
+				memory.getUsed(),
+				memory.getCommitted(),
+				memory.getMaxOrMinusOne());
+	}
+
+	/**
+	 * Publish the state of the encoder, seal its block if full.
+	 */
+	private void publish(Blocks current, int size) {
+		if (encoder.getCount() < blockSize) {
+			blocks = new Blocks(current.sealed, encoder.view(), size, current.sealedRetainedBytes);
+			return;
+		}
+
+		MemoryBlock block = encoder.seal();
+		List<MemoryBlock> newSealed = new ArrayList<>(current.sealed.size() + 1);
+		newSealed.addAll(current.sealed);
+		newSealed.add(block);
+		encoder = new MemoryBlockEncoder();
+
+		blocks = new Blocks(unmodifiableList(newSealed), null, size,
+				current.sealedRetainedBytes + block.getRetainedBytes());
+	}
+
+	/**
+	 * Drop the oldest sealed blocks while over budget. Caller must hold the write lock.
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	private void evictOverBudget() {
+		while (getRetainedBytes() > maxRetainedBytes && !blocks.sealed.isEmpty()) {
+			Blocks current = blocks;
+			MemoryBlock oldest = current.sealed.get(0);
+
+			List<MemoryBlock> remaining = current.sealed.size() == 1
+					? Collections.emptyList()
+					: unmodifiableList(new ArrayList<>(current.sealed.subList(1, current.sealed.size())));
+
+			blocks = new Blocks(
+					remaining,
+					current.open,
+					current.size - oldest.size(),
+					current.sealedRetainedBytes - oldest.getRetainedBytes());
+			removeOldestFromAggregates(oldest.size());
+		}
+	}
+
+	private void encodeAll(List<TimedData<Memory>> allData) {
+		encoder = new MemoryBlockEncoder();
+		blocks = Blocks.EMPTY;
+
+		for (TimedData<Memory> timedData : allData) {
+			append(timedData.getEpochNanos(), timedData.getData());
+			publish(blocks, blocks.size + 1);
+		}
+	}
+
+	private List<TimedData<Memory>> decode(List<MemoryBlock> all, int firstBlock) {
+		int count = 0;
+		for (int i = firstBlock; i < all.size(); i++) {
+			count += all.get(i).size();
+		}
+
+		List<TimedData<Memory>> result = new ArrayList<>(count);
+		for (int i = firstBlock; i < all.size(); i++) {
+			Iterator<TimedData<Memory>> it = all.get(i).iterator(zone);
+			while (it.hasNext()) {
+				result.add(it.next());
+			}
+		}
+
+		return unmodifiableList(result);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+
+		encoder = new MemoryBlockEncoder();
+		if (blocks.open != null) {
+			appendTail(encoder, blocks.open, 0);
+		}
+	}
+
+	/**
+	 * Immutable state published to readers.
+	 */
+	private static final class Blocks implements Serializable {
+		private static final long serialVersionUID = 4006383569526993003L;
+
+		private static final Blocks EMPTY = new Blocks(Collections.emptyList(), null, 0, 0);
+
+		private final List<MemoryBlock> sealed;
+		private final MemoryBlock open;
+		private final int size;
+		/**
+		 * Sum of {@link MemoryBlock#getRetainedBytes()} of all sealed blocks.
+		 */
+		private final long sealedRetainedBytes;
+
+		private Blocks(List<MemoryBlock> sealed, MemoryBlock open, int size, long sealedRetainedBytes) {
+			this.sealed = sealed;
+			this.open = open;
+			this.size = size;
+			this.sealedRetainedBytes = sealedRetainedBytes;
+		}
+
+		private long lastTimestamp() {
+			return open == null
+					? sealed.get(sealed.size() - 1).getLastTimestamp()
+					: open.getLastTimestamp();
+		}
+
+		private List<MemoryBlock> all() {
+			if (open == null) {
+				return sealed;
+			}
+
+			List<MemoryBlock> all = new ArrayList<>(sealed.size() + 1);
+			all.addAll(sealed);
+			all.add(open);
+			return unmodifiableList(all);
+		}
+	}
+
+	/**
+	 * Lazy view on the readings of some blocks: each block gets decoded on first access.
+	 * Not thread safe, only used by writers.
+	 */
+	private static final class BlockReadings extends AbstractList<TimedData<Memory>> implements RandomAccess {
+		private final List<MemoryBlock> blocks;
+		private final ZoneId zone;
+		/**
+		 * Index of the first reading of each block, plus the total size.
+		 */
+		private final int[] offsets;
+		private final List<List<TimedData<Memory>>> decoded;
+
+		private BlockReadings(List<MemoryBlock> blocks, ZoneId zone) {
+			super();
+			this.blocks = blocks;
+			this.zone = zone;
+
+			offsets = new int[blocks.size() + 1];
+			for (int i = 0; i < blocks.size(); i++) {
+				offsets[i + 1] = offsets[i] + blocks.get(i).size();
+			}
+			decoded = new ArrayList<>(Collections.nCopies(blocks.size(), null));
+		}
+
+		@Override
+		public TimedData<Memory> get(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+
+			int found = Arrays.binarySearch(offsets, 0, blocks.size(), index);
+			int block = found >= 0 ? found : -found - 2;
+
+			return decodedBlock(block).get(index - offsets[block]);
+		}
+
+		private List<TimedData<Memory>> decodedBlock(int block) {
+			List<TimedData<Memory>> readings = decoded.get(block);
+			if (readings == null) {
+				readings = new ArrayList<>(blocks.get(block).size());
+				Iterator<TimedData<Memory>> it = blocks.get(block).iterator(zone);
+				while (it.hasNext()) {
+					readings.add(it.next());
+				}
+				decoded.set(block, readings);
+			}
+
+			return readings;
+		}
+
+		@Override
+		public int size() {
+			return offsets[blocks.size()];
+		}
+	}
+
+	/**
+	 * Lazy view on the timestamps of some blocks: the first and last timestamp of a block are known,
+	 * the ones in between get decoded on first access. Not thread safe, only used by writers.
+	 */
+	private static final class BlockTimestamps implements Timestamps {
+		private final List<MemoryBlock> blocks;
+		/**
+		 * Index of the first reading of each block, plus the total size.
+		 */
+		private final int[] offsets;
+		private final long[][] decoded;
+
+		private BlockTimestamps(List<MemoryBlock> blocks) {
+			this.blocks = blocks;
+
+			offsets = new int[blocks.size() + 1];
+			for (int i = 0; i < blocks.size(); i++) {
+				offsets[i + 1] = offsets[i] + blocks.get(i).size();
+			}
+			decoded = new long[blocks.size()][];
+		}
+
+		@Override
+		public int size() {
+			return offsets[blocks.size()];
+		}
+
+		@Override
+		public long epochNanos(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+
+			int found = Arrays.binarySearch(offsets, 0, blocks.size(), index);
+			int block = found >= 0 ? found : -found - 2;
+			MemoryBlock memoryBlock = blocks.get(block);
+			int offset = index - offsets[block];
+
+			if (offset == 0) {
+				return memoryBlock.getFirstTimestamp();
+			}
+			if (offset == memoryBlock.size() - 1) {
+				return memoryBlock.getLastTimestamp();
+			}
+
+			return decodedTimestamps(block)[offset];
+		}
+
+		/**
+		 * Whole blocks are skipped by their first/last timestamp, only the block containing the cutoff gets decoded.
+		 */
+		@Override
+		public int countUntil(long epochNanos) {
+			int low = 0;
+			int high = blocks.size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (blocks.get(mid).getLastTimestamp() <= epochNanos) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+
+			if (low == blocks.size() || blocks.get(low).getFirstTimestamp() > epochNanos) {
+				return offsets[low];
+			}
+
+			long[] timestamps = decodedTimestamps(low);
+			int inBlock = 0;
+			while (timestamps[inBlock] <= epochNanos) {
+				inBlock++;
+			}
+			return offsets[low] + inBlock;
+		}
+
+		private long[] decodedTimestamps(int block) {
+			if (decoded[block] == null) {
+				MemoryBlock memoryBlock = blocks.get(block);
+				long[] timestamps = new long[memoryBlock.size()];
+				MemoryBlockDecoder decoder = memoryBlock.decoder();
+				for (int i = 0; decoder.next(); i++) {
+					timestamps[i] = decoder.getTimestamp();
+				}
+				decoded[block] = timestamps;
+			}
+
+			return decoded[block];
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Conversion between {@link ZonedDateTime} and primitive nanoseconds since the epoch.
+ * <p>A long holds roughly +/- 292 years of nanoseconds around 1970, which is plenty for GC readings.</p>
+ */
+@SuppressWarnings("PMD.ClassNamingConventions")
+public final class EpochNanos {
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	private EpochNanos() {
+		// utility class
+	}
+
+	@SuppressWarnings("PMD.ShortMethodName")
+	public static long of(ZonedDateTime timestamp) {
+		return of(timestamp.toInstant());
+	}
+
+	@SuppressWarnings("PMD.ShortMethodName")
+	public static long of(Instant instant) {
+		return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+	}
+
+	/**
+	 * The current time of the system clock.
+	 */
+	public static long now() {
+		return of(Instant.now());
+	}
+
+	public static ZonedDateTime toZonedDateTime(long epochNanos, ZoneId zone) {
+		return ZonedDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), zone);
+	}
+}
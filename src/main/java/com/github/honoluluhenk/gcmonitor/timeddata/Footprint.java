@@ -0,0 +1,33 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+/**
+ * Heap footprint of objects and arrays, assuming the HotSpot layout of a 64 bit JVM with compressed references
+ * (the default for heaps up to 32 GB): 12 byte object headers, 16 byte array headers, 4 byte references,
+ * everything aligned to 8 bytes.
+ */
+final class Footprint {
+	/* default */ static final int REFERENCE = 4;
+
+	private static final int OBJECT_HEADER = 12;
+	private static final int ARRAY_HEADER = 16;
+	private static final int ALIGNMENT = 8;
+
+	private Footprint() {
+		// utility class
+	}
+
+	/**
+	 * An object with fields of {@code fieldBytes} in total.
+	 */
+	/* default */ static long object(int fieldBytes) {
+		return align(OBJECT_HEADER + fieldBytes);
+	}
+
+	/* default */ static long array(int length, int elementBytes) {
+		return align(ARRAY_HEADER + (long) length * elementBytes);
+	}
+
+	private static long align(long bytes) {
+		return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+}
@@ -0,0 +1,132 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable, compressed block of {@link Memory} readings, see {@link CompressedMemoryTimeSeries}.
+ * <p>
+ * Format (Gorilla style): a bit stream with 5 fields per reading:
+ * the delta-of-delta of the timestamp (nanoseconds since the epoch) and the deltas of init/used/committed/max,
+ * each relative to the previous reading (or 0 for the first one).
+ * An unchanged field (e.g.: regular timestamps, constant max) costs a single bit, any other a zigzag encoded
+ * value prefixed with its bit length.
+ * </p>
+ */
+public final class MemoryBlock implements Serializable {
+	private static final long serialVersionUID = -7364018219446151187L;
+
+	/**
+	 * The block itself, without its data array.
+	 */
+	/* default */ static final long OBJECT_BYTES =
+			Footprint.object(Footprint.REFERENCE + Integer.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES);
+
+	@SuppressWarnings("PMD.ArrayIsStoredDirectly") // bits up to bitLength never get modified
+	private final byte[] bytes;
+	private final int bitLength;
+	private final int count;
+	private final long firstTimestamp;
+	private final long lastTimestamp;
+
+	/* default */ MemoryBlock(byte[] bytes, int bitLength, int count, long firstTimestamp, long lastTimestamp) {
+		this.bytes = requireNonNull(bytes);
+		this.bitLength = bitLength;
+		this.count = count;
+		this.firstTimestamp = firstTimestamp;
+		this.lastTimestamp = lastTimestamp;
+	}
+
+	/**
+	 * Streaming decoder, does not allocate per reading.
+	 */
+	public MemoryBlockDecoder decoder() {
+		return new MemoryBlockDecoder(new BitInput(bytes, bitLength), count);
+	}
+
+	/**
+	 * Convenience: decodes into {@link TimedData} with timestamps in {@code zone}.
+	 */
+	public Iterator<TimedData<Memory>> iterator(ZoneId zone) {
+		requireNonNull(zone);
+		MemoryBlockDecoder decoder = decoder();
+
+		return new Iterator<TimedData<Memory>>() {
+			private int remaining = count;
+
+			@Override
+			public boolean hasNext() {
+				return remaining > 0;
+			}
+
+			@Override
+			public TimedData<Memory> next() {
+				if (!decoder.next()) {
+					throw new NoSuchElementException();
+				}
+				remaining--;
+
+				return new TimedData<>(
+						decoder.getTimestamp(), zone,
+						new Memory(decoder.getInit(), decoder.getUsed(), decoder.getCommitted(), decoder.getMax()));
+			}
+		};
+	}
+
+	/**
+	 * Number of readings.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Size of the compressed data in bytes.
+	 */
+	public int getByteSize() {
+		return (bitLength + BitOutput.BITS_PER_BYTE - 1) / BitOutput.BITS_PER_BYTE;
+	}
+
+	/**
+	 * Heap footprint including the data array (which might be larger than {@link #getByteSize()}
+	 * for a block that is still being written).
+	 */
+	public long getRetainedBytes() {
+		return OBJECT_BYTES + Footprint.array(bytes.length, Byte.BYTES);
+	}
+
+	/* default */ long getFirstTimestamp() {
+		return firstTimestamp;
+	}
+
+	/* default */ long getLastTimestamp() {
+		return lastTimestamp;
+	}
+
+	/**
+	 * Same block, but not sharing a (larger) buffer.
+	 */
+	/* default */ MemoryBlock trimmed() {
+		if (bytes.length == getByteSize()) {
+			return this;
+		}
+
+		return new MemoryBlock(Arrays.copyOf(bytes, getByteSize()), bitLength, count, firstTimestamp, lastTimestamp);
+	}
+
+	private Object writeReplace() {
+		return trimmed();
+	}
+
+	@Override
+	public String toString() {
+		return "MemoryBlock{count=" + count + ", bytes=" + getByteSize() + '}';
+	}
+}
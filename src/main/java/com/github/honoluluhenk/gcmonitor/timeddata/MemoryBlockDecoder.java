@@ -0,0 +1,86 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import static com.github.honoluluhenk.gcmonitor.timeddata.MemoryBlockEncoder.LENGTH_BITS;
+
+/**
+ * Streaming decoder of a {@link MemoryBlock}: decodes one reading per {@link #next()} into primitive fields,
+ * without allocating.
+ * <p>Usage: {@code while (decoder.next()) { decoder.getUsed(); ... }}</p>
+ */
+public final class MemoryBlockDecoder {
+	private final BitInput in;
+	private int remaining;
+
+	private long timestamp;
+	private long timestampDelta;
+	private long init;
+	private long used;
+	private long committed;
+	private long max;
+
+	/* default */ MemoryBlockDecoder(BitInput in, int count) {
+		this.in = in;
+		this.remaining = count;
+	}
+
+	/**
+	 * Advance to the next reading.
+	 *
+	 * @return false if there are no more readings.
+	 */
+	public boolean next() {
+		if (remaining == 0) {
+			return false;
+		}
+		remaining--;
+
+		timestampDelta += readDelta();
+		timestamp += timestampDelta;
+		init += readDelta();
+		used += readDelta();
+		committed += readDelta();
+		max += readDelta();
+
+		return true;
+	}
+
+	private long readDelta() {
+		if (!in.readBit()) {
+			return 0;
+		}
+
+		int significantBits = (int) in.readBits(LENGTH_BITS) + 1;
+		long zigZag = (1L << (significantBits - 1)) | in.readBits(significantBits - 1);
+
+		return (zigZag >>> 1) ^ -(zigZag & 1L);
+	}
+
+	/**
+	 * Nanoseconds since the epoch.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * -1 if undefined, see {@link com.github.honoluluhenk.gcmonitor.memory.Memory}.
+	 */
+	public long getInit() {
+		return init;
+	}
+
+	public long getUsed() {
+		return used;
+	}
+
+	public long getCommitted() {
+		return committed;
+	}
+
+	/**
+	 * -1 if undefined, see {@link com.github.honoluluhenk.gcmonitor.memory.Memory}.
+	 */
+	public long getMax() {
+		return max;
+	}
+}
@@ -0,0 +1,97 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+/**
+ * Appends {@link com.github.honoluluhenk.gcmonitor.memory.Memory} readings to a compressed bit stream,
+ * see {@link MemoryBlock} for the format.
+ * <p>Not thread safe, but published {@link #view()}s stay valid while more readings get appended.</p>
+ */
+final class MemoryBlockEncoder {
+	/**
+	 * Number of bits needed to store the significant bit count (1 to 64) of a value.
+	 */
+	/* default */ static final int LENGTH_BITS = 6;
+
+	// firstTimestamp, timestamp, timestampDelta, init, used, committed, max
+	private static final int LONG_FIELDS = 7;
+
+	/**
+	 * The encoder and its {@link BitOutput}, without the buffer.
+	 */
+	/* default */ static final long OBJECT_BYTES =
+			Footprint.object(Footprint.REFERENCE + Integer.BYTES + LONG_FIELDS * Long.BYTES) + BitOutput.OBJECT_BYTES;
+
+	private final BitOutput out = new BitOutput();
+
+	private int count;
+	private long firstTimestamp;
+	private long timestamp;
+	private long timestampDelta;
+	private long init;
+	private long used;
+	private long committed;
+	private long max;
+
+	/**
+	 * Timestamps must not decrease.
+	 */
+	/* default */ void append(long newTimestamp, long newInit, long newUsed, long newCommitted, long newMax) {
+		long newTimestampDelta = newTimestamp - timestamp;
+		writeDelta(newTimestampDelta - timestampDelta);
+		writeDelta(newInit - init);
+		writeDelta(newUsed - used);
+		writeDelta(newCommitted - committed);
+		writeDelta(newMax - max);
+
+		if (count == 0) {
+			firstTimestamp = newTimestamp;
+		}
+		count++;
+		timestamp = newTimestamp;
+		timestampDelta = newTimestampDelta;
+		init = newInit;
+		used = newUsed;
+		committed = newCommitted;
+		max = newMax;
+	}
+
+	/**
+	 * A single 0 bit if unchanged.
+	 * Otherwise a 1 bit, then the zigzag encoded delta: its significant bit count (6 bits)
+	 * followed by the significant bits without the leading 1 bit (which is implicit).
+	 */
+	private void writeDelta(long delta) {
+		if (delta == 0) {
+			out.writeBit(false);
+			return;
+		}
+
+		long zigZag = (delta << 1) ^ (delta >> (Long.SIZE - 1));
+		int significantBits = Long.SIZE - Long.numberOfLeadingZeros(zigZag);
+
+		out.writeBit(true);
+		out.writeBits(significantBits - 1, LENGTH_BITS);
+		out.writeBits(zigZag, significantBits - 1);
+	}
+
+	/* default */ int getCount() {
+		return count;
+	}
+
+	/* default */ long getLastTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Immutable block of all readings appended so far, shares the buffer.
+	 */
+	/* default */ MemoryBlock view() {
+		return new MemoryBlock(out.getBytes(), out.getBitLength(), count, firstTimestamp, timestamp);
+	}
+
+	/**
+	 * Like {@link #view()}, but does not share the buffer: for blocks that are kept a long time.
+	 */
+	/* default */ MemoryBlock seal() {
+		return view().trimmed();
+	}
+}
@@ -0,0 +1,498 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.github.honoluluhenk.gcmonitor.expiry.CutoffExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.Expiry;
+import com.github.honoluluhenk.gcmonitor.expiry.SelectionExpiry;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A fixed-capacity {@link TimeSeries} specialized for {@link Memory} readings.
+ * <p>
+ * Readings are stored in parallel primitive columns (timestamp, init, used, committed, max) that form a circular
+ * buffer, so adding a reading does not allocate.
+ * {@link TimedData}/{@link Memory} instances are only created when the data is read (e.g.: {@link #getTimedData()}).
+ * </p>
+ * <p>
+ * If the buffer is full, adding a reading overwrites the oldest one.
+ * Timestamps are returned in the {@link ZoneId} given in the constructor.
+ * </p>
+ * <p>
+ * Writers are serialized by a {@link StampedLock}.
+ * Readers copy the primitive columns using optimistic reads (a seqlock), so they neither block the writer
+ * nor see half-written data. Only if a reader keeps colliding with writers, it falls back to a read lock.
+ * </p>
+ */
+public class MemoryTimeSeries extends TimeSeries<Memory> {
+	private static final long serialVersionUID = -4412693528178807101L;
+
+	private static final int OPTIMISTIC_READ_ATTEMPTS = 3;
+
+	private static final int TIMESTAMP = 0;
+	private static final int INIT = 1;
+	private static final int USED = 2;
+	private static final int COMMITTED = 3;
+	private static final int MAX = 4;
+	private static final int COLUMNS = 5;
+
+	private transient StampedLock lock = new StampedLock();
+
+	private final ZoneId zone;
+	private final int capacity;
+
+	private final long[] timestamps;
+	private final long[] inits;
+	private final long[] useds;
+	private final long[] committeds;
+	private final long[] maxs;
+
+	/**
+	 * Physical index of the oldest reading.
+	 */
+	private int head;
+	private int filled;
+
+	/**
+	 * Convenience: calls {@link #MemoryTimeSeries(int, ZoneId)} with the system default zone.
+	 */
+	public MemoryTimeSeries(int capacity) {
+		this(capacity, ZoneId.systemDefault());
+	}
+
+	/**
+	 * @param capacity the maximum number of readings kept, must be &gt; 0.
+	 * @param zone all timestamps returned by this series are converted to this zone.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public MemoryTimeSeries(int capacity, ZoneId zone) {
+		super();
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be > 0 but was: " + capacity);
+		}
+		this.capacity = capacity;
+		this.zone = requireNonNull(zone);
+
+		this.timestamps = new long[capacity];
+		this.inits = new long[capacity];
+		this.useds = new long[capacity];
+		this.committeds = new long[capacity];
+		this.maxs = new long[capacity];
+	}
+
+	/**
+	 * An immutable snapshot of the current data.
+	 */
+	@Override
+	public List<TimedData<Memory>> getTimedData() {
+		return read(() -> copyColumns(0, currentSize()));
+	}
+
+	@Override
+	public int size() {
+		return read(this::currentSize);
+	}
+
+	/**
+	 * Only copies the requested readings.
+	 */
+	@Override
+	public List<TimedData<Memory>> latest(int count) {
+		requireNonNegative(count);
+
+		return read(() -> {
+			int visible = currentSize();
+			return copyColumns(visible - Math.min(count, visible), visible);
+		});
+	}
+
+	/**
+	 * Only copies the requested readings.
+	 */
+	@Override
+	public List<TimedData<Memory>> earliest(int count) {
+		requireNonNegative(count);
+
+		return read(() -> copyColumns(0, Math.min(count, currentSize())));
+	}
+
+	/**
+	 * Only copies the requested readings.
+	 */
+	@Override
+	public List<TimedData<Memory>> between(ZonedDateTime from, ZonedDateTime to) {
+		long fromNanos = EpochNanos.of(from);
+		long toNanos = EpochNanos.of(to);
+
+		return read(() -> {
+			int visible = currentSize();
+			int start = lowerBound(fromNanos, visible);
+			return copyColumns(start, Math.max(start, lowerBound(toNanos, visible)));
+		});
+	}
+
+	/**
+	 * Only copies the requested readings.
+	 */
+	@Override
+	public List<TimedData<Memory>> since(long fromEpochNanos) {
+		return read(() -> {
+			int visible = currentSize();
+			return copyColumns(lowerBound(fromEpochNanos, visible), visible);
+		});
+	}
+
+	@Override
+	public Optional<TimedData<Memory>> floor(ZonedDateTime timestamp) {
+		long nanos = EpochNanos.of(timestamp);
+
+		List<TimedData<Memory>> found = read(() -> {
+			int idx = upperBound(nanos, currentSize()) - 1;
+			return copyColumns(Math.max(0, idx), idx + 1);
+		});
+
+		return found.stream().findFirst();
+	}
+
+	@Override
+	public Optional<TimedData<Memory>> ceiling(ZonedDateTime timestamp) {
+		long nanos = EpochNanos.of(timestamp);
+
+		List<TimedData<Memory>> found = read(() -> {
+			int visible = currentSize();
+			int idx = lowerBound(nanos, visible);
+			return copyColumns(idx, Math.min(idx + 1, visible));
+		});
+
+		return found.stream().findFirst();
+	}
+
+	/**
+	 * Run {@code reader} with optimistic reads, fall back to a read lock if writers keep interfering.
+	 * <p>{@code reader} must not fail on inconsistent data, the result gets discarded anyway.</p>
+	 */
+	private <R> R read(Supplier<R> reader) {
+		for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+			long stamp = lock.tryOptimisticRead();
+			if (stamp != 0) {
+				// might read inconsistent data if a writer interferes. validate() tells.
+				R result = reader.get();
+				if (lock.validate(stamp)) {
+					return result;
+				}
+			}
+		}
+
+		long stamp = lock.readLock();
+		try {
+			return reader.get();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	@Override
+	public void add(TimedData<Memory> timedData) {
+		requireNonNull(timedData);
+
+		long timestamp = timedData.getEpochNanos();
+		Memory memory = timedData.getData();
+
+		long stamp = lock.writeLock();
+		try {
+			int pos = insertionIndex(timestamp);
+
+			if (filled == capacity) {
+				if (pos == 0) {
+					// older than anything we have: it would be the first one to get overwritten.
+					return;
+				}
+				head = physical(1);
+				filled--;
+				pos--;
+				removeOldestFromAggregates(1);
+			}
+
+			for (int i = filled; i > pos; i--) {
+				move(physical(i - 1), physical(i));
+			}
+
+			int target = physical(pos);
+			timestamps[target] = timestamp;
+			inits[target] = memory.getInitOrMinusOne();
+			useds[target] = memory.getUsed();
+			committeds[target] = memory.getCommitted();
+			maxs[target] = memory.getMaxOrMinusOne();
+
+			filled++;
+
+			if (pos == filled - 1) {
+				appendToAggregates(timedData);
+			} else if (hasAggregates()) {
+				rebuildAggregates(copyColumns(0, filled));
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	public void expire(Expiry<Memory> expiry) {
+		requireNonNull(expiry);
+
+		if (expiry instanceof CutoffExpiry) {
+			expireOldest((CutoffExpiry<Memory>) expiry);
+			return;
+		}
+
+		long stamp = lock.writeLock();
+		try {
+			// materialize once: expiries might compare entries by identity (e.g.: List.indexOf())
+			List<TimedData<Memory>> allData = unmodifiableList(new ArrayList<>(copyColumns(0, filled)));
+
+			BitSet expired = SelectionExpiry.select(expiry, allData);
+
+			int expiredPrefix = expired.nextClearBit(0);
+			if (expiredPrefix == expired.cardinality()) {
+				dropOldest(expiredPrefix);
+				return;
+			}
+
+			int kept = 0;
+			for (int i = 0; i < filled; i++) {
+				if (!expired.get(i)) {
+					move(physical(i), physical(kept));
+					kept++;
+				}
+			}
+			filled = kept;
+			rebuildAggregates(copyColumns(0, filled));
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	/* default */ <R> R write(Function<List<TimedData<Memory>>, R> writer) {
+		long stamp = lock.writeLock();
+		try {
+			return writer.apply(copyColumns(0, filled));
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * The timestamps are read straight from the primitive column.
+	 */
+	@Override
+	/* default */ <R> R writeTimestamps(Function<Timestamps, R> writer) {
+		long stamp = lock.writeLock();
+		try {
+			return writer.apply(new ColumnTimestamps());
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	/* default */ void dropOldest(int count) {
+		int dropped = Math.min(count, filled);
+
+		head = physical(dropped);
+		filled -= dropped;
+		removeOldestFromAggregates(dropped);
+	}
+
+	/**
+	 * Heap footprint of the stored readings in bytes: the primitive columns, allocated up front for the full capacity.
+	 * <p>Exact for HotSpot on 64 bit with compressed references (heaps up to 32 GB), not included: the constant
+	 * overhead of the series object itself and running aggregates.</p>
+	 */
+	public long getRetainedBytes() {
+		return COLUMNS * Footprint.array(capacity, Long.BYTES);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	/**
+	 * Logical index at which a reading with the given timestamp gets inserted (after all readings with the same
+	 * timestamp).
+	 * Readings are expected to arrive in timestamp order, so appending is the fast path.
+	 */
+	private int insertionIndex(long timestamp) {
+		if (filled == 0 || timestamps[physical(filled - 1)] <= timestamp) {
+			return filled;
+		}
+
+		return upperBound(timestamp, filled);
+	}
+
+	/**
+	 * Logical index of the first reading with a timestamp &gt;= {@code timestamp}, {@code count} if there is none.
+	 */
+	private int lowerBound(long timestamp, int count) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (timestamps[physical(mid)] < timestamp) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Logical index of the first reading with a timestamp &gt; {@code timestamp}, {@code count} if there is none.
+	 */
+	private int upperBound(long timestamp, int count) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (timestamps[physical(mid)] > timestamp) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Always within [0, capacity], even if read while a writer modifies the buffer.
+	 */
+	private int currentSize() {
+		return Math.max(0, Math.min(filled, capacity));
+	}
+
+	private int physical(int logicalIndex) {
+		return (head + logicalIndex) % capacity;
+	}
+
+	private void move(int from, int to) {
+		timestamps[to] = timestamps[from];
+		inits[to] = inits[from];
+		useds[to] = useds[from];
+		committeds[to] = committeds[from];
+		maxs[to] = maxs[from];
+	}
+
+	/**
+	 * Copies the logical range {@code [start, end)} of all columns, oldest reading first.
+	 * Always stays within array bounds, even if called with inconsistent head/filled (optimistic read).
+	 */
+	private Columns copyColumns(int start, int end) {
+		int count = Math.max(0, end - start);
+		int first = physical(Math.max(0, start));
+		int firstChunk = Math.min(count, capacity - first);
+
+		long[][] copies = new long[COLUMNS][count];
+		long[][] sources = {timestamps, inits, useds, committeds, maxs};
+		for (int c = 0; c < COLUMNS; c++) {
+			System.arraycopy(sources[c], first, copies[c], 0, firstChunk);
+			System.arraycopy(sources[c], 0, copies[c], firstChunk, count - firstChunk);
+		}
+
+		return new Columns(copies, zone);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		lock = new StampedLock();
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		long stamp = lock.readLock();
+		try {
+			out.defaultWriteObject();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Read-only copy of the columns, creates {@link TimedData} instances on access.
+	 * Serializable like the {@link Snapshot} returned by {@link TimeSeries#getTimedData()}.
+	 */
+	private static final class Columns extends AbstractList<TimedData<Memory>> implements RandomAccess, Serializable {
+		private static final long serialVersionUID = 3254197736840587364L;
+
+		private final long[][] values;
+		private final ZoneId zone;
+
+		@SuppressWarnings("PMD.ArrayIsStoredDirectly") // the copy is owned by this view
+		private Columns(long[][] values, ZoneId zone) {
+			super();
+			this.values = values;
+			this.zone = zone;
+		}
+
+		@Override
+		public TimedData<Memory> get(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+
+			return new TimedData<>(
+					values[TIMESTAMP][index], zone,
+					new Memory(
+							values[INIT][index],
+							values[USED][index],
+							values[COMMITTED][index],
+							values[MAX][index]));
+		}
+
+		@Override
+		public int size() {
+			return values[TIMESTAMP].length;
+		}
+	}
+
+	/**
+	 * View on the timestamp column, only valid while holding the write lock.
+	 */
+	private final class ColumnTimestamps implements Timestamps {
+		@Override
+		public int size() {
+			return filled;
+		}
+
+		@Override
+		public long epochNanos(int index) {
+			if (index < 0 || index >= filled) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + filled);
+			}
+
+			return timestamps[physical(index)];
+		}
+	}
+}
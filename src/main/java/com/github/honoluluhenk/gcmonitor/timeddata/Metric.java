@@ -0,0 +1,21 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+
+/**
+ * Extracts a numeric value from the payload of a {@link TimedData}, see {@link RunningAggregate}.
+ * <p>
+ * Must be {@link Serializable} since {@link TimeSeries} is.
+ * Prefer enum constants: they keep their identity when deserialized, which
+ * {@link TimeSeries#findAggregate(Metric)} relies on.
+ * </p>
+ *
+ * @param <T> the payload data type.
+ */
+@FunctionalInterface
+public interface Metric<T> extends Serializable {
+	/**
+	 * Must return a finite value.
+	 */
+	double valueOf(T data);
+}
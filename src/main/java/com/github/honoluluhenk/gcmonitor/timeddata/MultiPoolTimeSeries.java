@@ -0,0 +1,634 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.github.honoluluhenk.gcmonitor.expiry.CutoffExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.Expiry;
+import com.github.honoluluhenk.gcmonitor.expiry.SelectionExpiry;
+import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A fixed-capacity {@link TimeSeries} of {@link GCEvent}s that keeps the {@link Memory} of all pools.
+ * <p>
+ * Each event is one row: a single timestamp and the init/used/committed/max columns of every
+ * {@link MemoryPoolType} (a primitive layout indexed by the pool type, like an {@link EnumMap}).
+ * Recording all pools costs one timestamp per event, not one per pool.
+ * Only the memory after the collection is kept, {@link GCEvent#getMemoryBeforeGC()} and {@link GCEvent#getGcName()}
+ * of the events read back are empty.
+ * </p>
+ * <p>
+ * {@link #pool(MemoryPoolType)} is a read-only {@link TimeSeries} of the readings of one pool, e.g.: for detectors.
+ * It reads from the same columns and supports {@link #aggregate(Metric) running aggregates}.
+ * </p>
+ * <p>
+ * Like {@link MemoryTimeSeries}: a circular buffer that overwrites the oldest row if full, writers are serialized
+ * by a {@link StampedLock}, readers copy the columns using optimistic reads.
+ * Timestamps are returned in the {@link ZoneId} given in the constructor.
+ * </p>
+ */
+public class MultiPoolTimeSeries extends TimeSeries<GCEvent> {
+	private static final long serialVersionUID = -4217390873146602211L;
+
+	private static final int OPTIMISTIC_READ_ATTEMPTS = 3;
+
+	private static final MemoryPoolType[] POOL_TYPES = MemoryPoolType.values();
+	private static final GCCollection[] COLLECTIONS = GCCollection.values();
+
+	private static final int INIT = 0;
+	private static final int USED = 1;
+	private static final int COMMITTED = 2;
+	private static final int MAX = 3;
+	private static final int FIELDS = 4;
+
+	private transient StampedLock lock = new StampedLock();
+
+	private final ZoneId zone;
+	private final int capacity;
+
+	private final long[] timestamps;
+	private final byte[] collections;
+	private final long[] durations;
+	/**
+	 * One bit per {@link MemoryPoolType#ordinal()}: the pool is part of the row.
+	 */
+	private final int[] presentPools;
+	/**
+	 * Indexed by {@code poolType.ordinal() * FIELDS + field}.
+	 */
+	private final long[][] poolColumns;
+
+	private final Map<MemoryPoolType, Pool> pools = new EnumMap<>(MemoryPoolType.class);
+
+	/**
+	 * Physical index of the oldest row.
+	 */
+	private int head;
+	private int filled;
+
+	/**
+	 * Convenience: calls {@link #MultiPoolTimeSeries(int, ZoneId)} with the system default zone.
+	 */
+	public MultiPoolTimeSeries(int capacity) {
+		this(capacity, ZoneId.systemDefault());
+	}
+
+	/**
+	 * @param capacity the maximum number of events kept, must be &gt; 0.
+	 * @param zone all timestamps returned by this series are converted to this zone.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	public MultiPoolTimeSeries(int capacity, ZoneId zone) {
+		super();
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be > 0 but was: " + capacity);
+		}
+		this.capacity = capacity;
+		this.zone = requireNonNull(zone);
+
+		this.timestamps = new long[capacity];
+		this.collections = new byte[capacity];
+		this.durations = new long[capacity];
+		this.presentPools = new int[capacity];
+		this.poolColumns = new long[POOL_TYPES.length * FIELDS][capacity];
+
+		for (MemoryPoolType poolType : POOL_TYPES) {
+			pools.put(poolType, new Pool(this, poolType));
+		}
+	}
+
+	/**
+	 * The readings of {@code poolType} (only events that contain this pool).
+	 * <p>Read-only: {@link TimeSeries#add(TimedData)} and {@link TimeSeries#expire(Expiry)} throw
+	 * {@link UnsupportedOperationException}, modify this series instead.</p>
+	 */
+	public TimeSeries<Memory> pool(MemoryPoolType poolType) {
+		return pools.get(requireNonNull(poolType));
+	}
+
+	/**
+	 * An immutable snapshot of the current data.
+	 */
+	@Override
+	public List<TimedData<GCEvent>> getTimedData() {
+		return read(() -> copyAll(0, currentSize()));
+	}
+
+	@Override
+	public int size() {
+		return read(this::currentSize);
+	}
+
+	/**
+	 * Run {@code reader} with optimistic reads, fall back to a read lock if writers keep interfering.
+	 * <p>{@code reader} must not fail on inconsistent data, the result gets discarded anyway.</p>
+	 */
+	private <R> R read(Supplier<R> reader) {
+		for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+			long stamp = lock.tryOptimisticRead();
+			if (stamp != 0) {
+				// might read inconsistent data if a writer interferes. validate() tells.
+				R result = reader.get();
+				if (lock.validate(stamp)) {
+					return result;
+				}
+			}
+		}
+
+		long stamp = lock.readLock();
+		try {
+			return reader.get();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	private <R> R writeLocked(Supplier<R> writer) {
+		long stamp = lock.writeLock();
+		try {
+			return writer.get();
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@Override
+	public void add(TimedData<GCEvent> timedData) {
+		requireNonNull(timedData);
+
+		long stamp = lock.writeLock();
+		try {
+			insert(timedData);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	private void insert(TimedData<GCEvent> timedData) {
+		long timestamp = timedData.getEpochNanos();
+		int pos = insertionIndex(timestamp);
+
+		if (filled == capacity) {
+			if (pos == 0) {
+				// older than anything we have: it would be the first one to get overwritten.
+				return;
+			}
+			dropOldest(1);
+			pos--;
+		}
+
+		for (int i = filled; i > pos; i--) {
+			move(physical(i - 1), physical(i));
+		}
+
+		int target = physical(pos);
+		timestamps[target] = timestamp;
+		collections[target] = (byte) timedData.getData().getCollection().ordinal();
+		durations[target] = timedData.getData().getDurationNanos();
+		int present = 0;
+		for (Entry<MemoryPoolType, Memory> entry : timedData.getData().getMemoryAfterGC().entrySet()) {
+			int ordinal = entry.getKey().ordinal();
+			Memory memory = entry.getValue();
+			poolColumns[ordinal * FIELDS + INIT][target] = memory.getInitOrMinusOne();
+			poolColumns[ordinal * FIELDS + USED][target] = memory.getUsed();
+			poolColumns[ordinal * FIELDS + COMMITTED][target] = memory.getCommitted();
+			poolColumns[ordinal * FIELDS + MAX][target] = memory.getMaxOrMinusOne();
+			present |= 1 << ordinal;
+		}
+		presentPools[target] = present;
+
+		filled++;
+
+		if (pos == filled - 1) {
+			appendToAggregates(timedData);
+			for (Entry<MemoryPoolType, Memory> entry : timedData.getData().getMemoryAfterGC().entrySet()) {
+				Pool pool = pools.get(entry.getKey());
+				if (pool.hasAppendConsumers()) {
+					pool.appendToAggregates(new TimedData<>(timestamp, zone, entry.getValue()));
+				}
+			}
+		} else {
+			rebuildAllAggregates();
+		}
+	}
+
+	@Override
+	public void expire(Expiry<GCEvent> expiry) {
+		requireNonNull(expiry);
+
+		if (expiry instanceof CutoffExpiry) {
+			expireOldest((CutoffExpiry<GCEvent>) expiry);
+			return;
+		}
+
+		writeLocked(() -> {
+			// materialize once: expiries might compare entries by identity (e.g.: List.indexOf())
+			List<TimedData<GCEvent>> allData = unmodifiableList(new ArrayList<>(copyAll(0, filled)));
+
+			BitSet expired = SelectionExpiry.select(expiry, allData);
+
+			int expiredPrefix = expired.nextClearBit(0);
+			if (expiredPrefix == expired.cardinality()) {
+				dropOldest(expiredPrefix);
+				return null;
+			}
+
+			int kept = 0;
+			for (int i = 0; i < filled; i++) {
+				if (!expired.get(i)) {
+					move(physical(i), physical(kept));
+					kept++;
+				}
+			}
+			filled = kept;
+			rebuildAllAggregates();
+			return null;
+		});
+	}
+
+	@Override
+	/* default */ <R> R write(Function<List<TimedData<GCEvent>>, R> writer) {
+		return writeLocked(() -> writer.apply(copyAll(0, filled)));
+	}
+
+	/**
+	 * The timestamps are read straight from the primitive column.
+	 */
+	@Override
+	/* default */ <R> R writeTimestamps(Function<Timestamps, R> writer) {
+		return writeLocked(() -> writer.apply(new ColumnTimestamps()));
+	}
+
+	@Override
+	/* default */ void dropOldest(int count) {
+		int dropped = Math.min(count, filled);
+
+		for (Pool pool : pools.values()) {
+			if (pool.hasAggregates()) {
+				pool.removeOldestFromAggregates(countRowsWith(pool.poolType, dropped));
+			}
+		}
+
+		head = physical(dropped);
+		filled -= dropped;
+		removeOldestFromAggregates(dropped);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	/**
+	 * Number of rows containing {@code poolType} among the first {@code end} rows,
+	 * stays within bounds on optimistic reads.
+	 */
+	private int countRowsWith(MemoryPoolType poolType, int end) {
+		int mask = 1 << poolType.ordinal();
+		int count = 0;
+		for (int i = 0; i < end; i++) {
+			if ((presentPools[physical(i)] & mask) != 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void rebuildAllAggregates() {
+		if (hasAggregates()) {
+			rebuildAggregates(copyAll(0, filled));
+		}
+		for (Pool pool : pools.values()) {
+			if (pool.hasAggregates()) {
+				pool.rebuildAggregates(copyPool(pool.poolType, filled));
+			}
+		}
+	}
+
+	/**
+	 * Logical index at which a row with the given timestamp gets inserted (after all rows with the same
+	 * timestamp).
+	 * Events are expected to arrive in timestamp order, so appending is the fast path.
+	 */
+	private int insertionIndex(long timestamp) {
+		if (filled == 0 || timestamps[physical(filled - 1)] <= timestamp) {
+			return filled;
+		}
+
+		int low = 0;
+		int high = filled;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (timestamps[physical(mid)] > timestamp) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Always within [0, capacity], even if read while a writer modifies the buffer.
+	 */
+	private int currentSize() {
+		return Math.max(0, Math.min(filled, capacity));
+	}
+
+	private int physical(int logicalIndex) {
+		return (head + logicalIndex) % capacity;
+	}
+
+	@SuppressWarnings("PMD.AvoidArrayLoops")
+	private void move(int from, int to) {
+		timestamps[to] = timestamps[from];
+		collections[to] = collections[from];
+		durations[to] = durations[from];
+		presentPools[to] = presentPools[from];
+		for (long[] column : poolColumns) {
+			column[to] = column[from];
+		}
+	}
+
+	/**
+	 * Copies the logical range {@code [start, end)} of all columns, oldest row first.
+	 */
+	private Rows copyAll(int start, int end) {
+		int count = Math.max(0, end - start);
+
+		long[][] poolCopies = new long[poolColumns.length][count];
+		for (int c = 0; c < poolColumns.length; c++) {
+			copyRange(poolColumns[c], poolCopies[c], start, count);
+		}
+		long[] times = new long[count];
+		copyRange(timestamps, times, start, count);
+		byte[] collectionCodes = new byte[count];
+		copyRange(collections, collectionCodes, start, count);
+		long[] durationNanos = new long[count];
+		copyRange(durations, durationNanos, start, count);
+		int[] present = new int[count];
+		copyRange(presentPools, present, start, count);
+
+		return new Rows(times, collectionCodes, durationNanos, present, poolCopies, zone);
+	}
+
+	/**
+	 * Copies the first {@code end} rows, but only those containing {@code poolType} and only the columns of this pool.
+	 */
+	@SuppressWarnings("PMD.AvoidArrayLoops")
+	private PoolReadings copyPool(MemoryPoolType poolType, int end) {
+		int count = Math.max(0, end);
+		int mask = 1 << poolType.ordinal();
+
+		int[] present = new int[count];
+		copyRange(presentPools, present, 0, count);
+		long[] times = new long[count];
+		copyRange(timestamps, times, 0, count);
+		long[][] fields = new long[FIELDS][count];
+		for (int field = 0; field < FIELDS; field++) {
+			copyRange(poolColumns[poolType.ordinal() * FIELDS + field], fields[field], 0, count);
+		}
+
+		// compact: skip rows without this pool
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if ((present[i] & mask) != 0) {
+				times[kept] = times[i];
+				for (long[] field : fields) {
+					field[kept] = field[i];
+				}
+				kept++;
+			}
+		}
+		for (int field = 0; field < FIELDS; field++) {
+			fields[field] = Arrays.copyOf(fields[field], kept);
+		}
+
+		return new PoolReadings(Arrays.copyOf(times, kept), fields, zone);
+	}
+
+	/**
+	 * Copies {@code count} elements of the logical range starting at {@code start} into {@code target}.
+	 * Always stays within array bounds, even if called with inconsistent head/filled (optimistic read).
+	 */
+	private void copyRange(Object source, Object target, int start, int count) {
+		int first = physical(Math.max(0, start));
+		int firstChunk = Math.min(count, capacity - first);
+
+		System.arraycopy(source, first, target, 0, firstChunk);
+		System.arraycopy(source, 0, target, firstChunk, count - firstChunk);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		lock = new StampedLock();
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		long stamp = lock.readLock();
+		try {
+			out.defaultWriteObject();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Read-only copy of all rows, creates {@link TimedData} instances on access.
+	 */
+	@SuppressWarnings("PMD.ShortClassName")
+	private static final class Rows extends AbstractList<TimedData<GCEvent>> implements RandomAccess {
+		private final long[] timestamps;
+		private final byte[] collections;
+		private final long[] durations;
+		private final int[] presentPools;
+		private final long[][] poolColumns;
+		private final ZoneId zone;
+
+		@SuppressWarnings("PMD.ArrayIsStoredDirectly") // the copies are owned by this view
+		private Rows(
+				long[] timestamps,
+				byte[] collections,
+				long[] durations,
+				int[] presentPools,
+				long[][] poolColumns,
+				ZoneId zone
+		) {
+			super();
+			this.timestamps = timestamps;
+			this.collections = collections;
+			this.durations = durations;
+			this.presentPools = presentPools;
+			this.poolColumns = poolColumns;
+			this.zone = zone;
+		}
+
+		@Override
+		public TimedData<GCEvent> get(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+
+			Map<MemoryPoolType, Memory> memoryAfterGC = new EnumMap<>(MemoryPoolType.class);
+			int present = presentPools[index];
+			for (int ordinal = 0; ordinal < POOL_TYPES.length; ordinal++) {
+				if ((present & (1 << ordinal)) != 0) {
+					memoryAfterGC.put(POOL_TYPES[ordinal], memory(poolColumns, ordinal * FIELDS, index));
+				}
+			}
+
+			return new TimedData<>(
+					timestamps[index], zone,
+					new GCEvent(COLLECTIONS[collections[index]], Collections.unmodifiableMap(memoryAfterGC),
+							Duration.ofNanos(durations[index])));
+		}
+
+		@Override
+		public int size() {
+			return timestamps.length;
+		}
+	}
+
+	/**
+	 * Read-only copy of the readings of one pool, creates {@link TimedData} instances on access.
+	 */
+	private static final class PoolReadings extends AbstractList<TimedData<Memory>> implements RandomAccess {
+		private final long[] timestamps;
+		private final long[][] fields;
+		private final ZoneId zone;
+
+		@SuppressWarnings("PMD.ArrayIsStoredDirectly") // the copies are owned by this view
+		private PoolReadings(long[] timestamps, long[][] fields, ZoneId zone) {
+			super();
+			this.timestamps = timestamps;
+			this.fields = fields;
+			this.zone = zone;
+		}
+
+		@Override
+		public TimedData<Memory> get(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+
+			return new TimedData<>(timestamps[index], zone, memory(fields, 0, index));
+		}
+
+		@Override
+		public int size() {
+			return timestamps.length;
+		}
+	}
+
+	private static Memory memory(long[][] poolColumns, int firstColumn, int index) {
+		return new Memory(
+				poolColumns[firstColumn + INIT][index],
+				poolColumns[firstColumn + USED][index],
+				poolColumns[firstColumn + COMMITTED][index],
+				poolColumns[firstColumn + MAX][index]);
+	}
+
+	/**
+	 * Read-only view on the readings of one pool.
+	 */
+	@SuppressWarnings("PMD.ShortClassName")
+	private static final class Pool extends TimeSeries<Memory> {
+		private static final long serialVersionUID = -1390637000935412878L;
+
+		private final MultiPoolTimeSeries owner;
+		private final MemoryPoolType poolType;
+
+		private Pool(MultiPoolTimeSeries owner, MemoryPoolType poolType) {
+			super();
+			this.owner = owner;
+			this.poolType = poolType;
+		}
+
+		@Override
+		public List<TimedData<Memory>> getTimedData() {
+			return owner.read(() -> owner.copyPool(poolType, owner.currentSize()));
+		}
+
+		@Override
+		public int size() {
+			return owner.read(() -> owner.countRowsWith(poolType, owner.currentSize()));
+		}
+
+		@Override
+		public boolean isReadOnly() {
+			return true;
+		}
+
+		@Override
+		public void add(TimedData<Memory> timedData) {
+			throw new UnsupportedOperationException("read-only view of pool " + poolType);
+		}
+
+		@Override
+		public void expire(Expiry<Memory> expiry) {
+			throw new UnsupportedOperationException("read-only view of pool " + poolType);
+		}
+
+		@Override
+		/* default */ <R> R write(Function<List<TimedData<Memory>>, R> writer) {
+			return owner.writeLocked(() -> writer.apply(owner.copyPool(poolType, owner.filled)));
+		}
+
+		@Override
+		/* default */ void dropOldest(int count) {
+			throw new UnsupportedOperationException("read-only view of pool " + poolType);
+		}
+
+		@Override
+		public String toString() {
+			return "Pool{" + poolType + '}';
+		}
+	}
+
+	/**
+	 * View on the timestamp column, only valid while holding the write lock.
+	 */
+	private final class ColumnTimestamps implements Timestamps {
+		@Override
+		public int size() {
+			return filled;
+		}
+
+		@Override
+		public long epochNanos(int index) {
+			if (index < 0 || index >= filled) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + filled);
+			}
+
+			return timestamps[physical(index)];
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+
+/**
+ * Immutable least-squares fit {@code value = intercept + slope * time} of a {@link Metric} over time,
+ * see {@link RunningRegression}.
+ * <p>All values besides {@link #getCount()} are {@link Double#NaN} if there are less than 2 distinct timestamps.</p>
+ */
+public final class Regression implements Serializable {
+	private static final long serialVersionUID = 3187362190473612508L;
+
+	private static final double NANOS_PER_SECOND = 1_000_000_000.0d;
+
+	/* default */ static final Regression EMPTY = new Regression(0, 0, 0.0d, 0.0d, 0.0d, 0.0d, 0.0d);
+
+	private final long count;
+	/**
+	 * Time is measured in seconds since this.
+	 */
+	private final long originEpochNanos;
+	private final double meanX;
+	private final double meanY;
+	/**
+	 * Sums of products of the deviations from the means: {@code count} times the (co-)variances.
+	 */
+	private final double comomentXX;
+	private final double comomentXY;
+	private final double comomentYY;
+
+	/* default */ Regression(long count, long originEpochNanos, double meanX, double meanY,
+			double comomentXX, double comomentXY, double comomentYY) {
+		this.count = count;
+		this.originEpochNanos = originEpochNanos;
+		this.meanX = meanX;
+		this.meanY = meanY;
+		this.comomentXX = comomentXX;
+		this.comomentXY = comomentXY;
+		this.comomentYY = comomentYY;
+	}
+
+	/* default */ static double secondsBetween(long fromEpochNanos, long toEpochNanos) {
+		return (toEpochNanos - fromEpochNanos) / NANOS_PER_SECOND;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Change of the value per second.
+	 */
+	public double getSlopePerSecond() {
+		if (count < 2 || comomentXX <= 0.0d) {
+			return Double.NaN;
+		}
+
+		return comomentXY / comomentXX;
+	}
+
+	/**
+	 * The fitted value at {@code epochNanos} (see {@link TimedData#getEpochNanos()}).
+	 */
+	public double valueAt(long epochNanos) {
+		double slope = getSlopePerSecond();
+
+		return meanY + slope * (secondsBetween(originEpochNanos, epochNanos) - meanX);
+	}
+
+	/**
+	 * Coefficient of determination: 1.0 if all values are on a line, 0.0 if there is no linear relationship.
+	 */
+	public double getRSquared() {
+		if (count < 2 || comomentXX <= 0.0d) {
+			return Double.NaN;
+		}
+		if (comomentYY <= 0) {
+			// constant values: perfectly on a (flat) line
+			return 1.0d;
+		}
+
+		return Math.min(1.0d, comomentXY * comomentXY / (comomentXX * comomentYY));
+	}
+
+	@Override
+	public String toString() {
+		return "Regression{count=" + count + ", slopePerSecond=" + getSlopePerSecond()
+				+ ", rSquared=" + getRSquared() + '}';
+	}
+}
@@ -0,0 +1,126 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable summary (min/max/avg/last) of the {@link Metric} values of all readings within the time bucket
+ * {@code [start, start + resolution)}, see {@link TieredTimeSeries}.
+ */
+public final class Rollup implements Serializable {
+	private static final long serialVersionUID = 5081736417212547563L;
+
+	private final ZonedDateTime start;
+	private final Duration resolution;
+	private final Statistics statistics;
+	private final double last;
+	private final ZonedDateTime lastTimestamp;
+
+	private Rollup(
+			ZonedDateTime start,
+			Duration resolution,
+			Statistics statistics,
+			double last,
+			ZonedDateTime lastTimestamp) {
+		this.start = requireNonNull(start);
+		this.resolution = requireNonNull(resolution);
+		this.statistics = requireNonNull(statistics);
+		this.last = last;
+		this.lastTimestamp = requireNonNull(lastTimestamp);
+	}
+
+	/**
+	 * A rollup of a single reading.
+	 */
+	@SuppressWarnings("PMD.ShortMethodName")
+	/* default */ static Rollup of(ZonedDateTime timestamp, double value) {
+		return new Rollup(timestamp, Duration.ZERO, Statistics.of(value), value, timestamp);
+	}
+
+	/**
+	 * Same values, but assigned to the bucket of {@code resolution} that contains {@link #getStart()}.
+	 * Buckets are aligned to the epoch (e.g.: full minutes, full hours in UTC).
+	 */
+	/* default */ Rollup inBucket(Duration bucketResolution) {
+		long resolutionNanos = bucketResolution.toNanos();
+		long bucketStart = Math.floorDiv(EpochNanos.of(start), resolutionNanos) * resolutionNanos;
+
+		return new Rollup(
+				EpochNanos.toZonedDateTime(bucketStart, start.getZone()),
+				bucketResolution, statistics, last, lastTimestamp);
+	}
+
+	/**
+	 * Combine with another rollup of the same bucket.
+	 */
+	/* default */ Rollup merge(Rollup other) {
+		boolean otherIsNewer = other.lastTimestamp.isAfter(lastTimestamp);
+
+		return new Rollup(
+				start,
+				resolution,
+				statistics.merge(other.statistics),
+				otherIsNewer ? other.last : last,
+				otherIsNewer ? other.lastTimestamp : lastTimestamp);
+	}
+
+	public ZonedDateTime getStart() {
+		return start;
+	}
+
+	/**
+	 * The bucket ends (exclusive) at {@code start + resolution}.
+	 */
+	public Duration getResolution() {
+		return resolution;
+	}
+
+	/**
+	 * Number of readings summarized.
+	 */
+	public long getCount() {
+		return statistics.getCount();
+	}
+
+	public double getMin() {
+		return statistics.getMin();
+	}
+
+	public double getMax() {
+		return statistics.getMax();
+	}
+
+	public double getAverage() {
+		return statistics.getMean();
+	}
+
+	/**
+	 * All statistics of the values within the bucket.
+	 */
+	public Statistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Value of the newest reading.
+	 */
+	public double getLast() {
+		return last;
+	}
+
+	/**
+	 * Timestamp of the newest reading.
+	 */
+	public ZonedDateTime getLastTimestamp() {
+		return lastTimestamp;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Rollup{start=%s, resolution=%s, count=%d, min=%s, max=%s, avg=%s, last=%s}",
+				start, resolution, getCount(), getMin(), getMax(), getAverage(), last);
+	}
+}
@@ -0,0 +1,165 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Summary {@link Statistics} of a {@link Metric} over all entries of a {@link TimeSeries},
+ * see {@link TimeSeries#aggregate(Metric)}.
+ * <p>
+ * Maintained incrementally by the owning TimeSeries: appending the newest entry or dropping the oldest ones costs
+ * O(1) (amortized) per entry. Sums are compensated (Kahan) so they do not drift when values get added and removed
+ * over a long time.
+ * The variance is kept as squared deviations from the mean, updated as by Welford (and reversed for removal),
+ * so it stays precise for values that are large compared to their spread (e.g.: used bytes).
+ * Min/max are kept in monotonic deques (a sliding window minimum/maximum).
+ * Any other modification (out-of-order insert, expiring entries in the middle) recomputes everything.
+ * </p>
+ * <p>
+ * Only modified by the owner while holding its write lock,
+ * readers get the latest published immutable {@link #getStatistics()}.
+ * </p>
+ *
+ * @param <T> the payload data type of the owning {@link TimeSeries}.
+ */
+public final class RunningAggregate<T extends Serializable> implements Serializable {
+	private static final long serialVersionUID = -3528711496520651830L;
+
+	private final Metric<? super T> metric;
+
+	/**
+	 * All values, oldest first, numbered by an ever increasing sequence number.
+	 */
+	private final ValueDeque values = new ValueDeque();
+	/**
+	 * Candidates for the minimum, ascending values.
+	 */
+	private final ValueDeque minimums = new ValueDeque();
+	/**
+	 * Candidates for the maximum, descending values.
+	 */
+	private final ValueDeque maximums = new ValueDeque();
+
+	private long nextSequence;
+	private long count;
+	private double sum;
+	private double sumCompensation;
+	private double squaredDeviations;
+
+	private volatile Statistics statistics = Statistics.EMPTY;
+
+	/* default */ RunningAggregate(Metric<? super T> metric) {
+		this.metric = requireNonNull(metric);
+	}
+
+	public Metric<? super T> getMetric() {
+		return metric;
+	}
+
+	/**
+	 * Statistics over all entries at the time of the last modification of the owning {@link TimeSeries}.
+	 */
+	public Statistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Caller guarantees that {@code data} belongs to the newest entry.
+	 */
+	/* default */ void append(T data) {
+		appendValue(metric.valueOf(data));
+		publish();
+	}
+
+	/**
+	 * Caller guarantees that the oldest {@code removed} entries were dropped.
+	 */
+	/* default */ void removeOldest(int removed) {
+		for (int i = 0; i < removed && !values.isEmpty(); i++) {
+			double value = values.firstValue();
+			long sequence = values.firstSequence();
+			values.removeFirst();
+
+			double meanBefore = sum / count;
+			addToSum(-value);
+			count--;
+			double meanAfter = count == 0 ? value : sum / count;
+			squaredDeviations -= (value - meanBefore) * (value - meanAfter);
+
+			if (!minimums.isEmpty() && minimums.firstSequence() == sequence) {
+				minimums.removeFirst();
+			}
+			if (!maximums.isEmpty() && maximums.firstSequence() == sequence) {
+				maximums.removeFirst();
+			}
+		}
+
+		if (count == 0) {
+			// start over without any accumulated rounding errors
+			resetSums();
+		}
+		publish();
+	}
+
+	/**
+	 * Recompute from scratch.
+	 */
+	/* default */ void rebuild(List<TimedData<T>> allData) {
+		values.clear();
+		minimums.clear();
+		maximums.clear();
+		count = 0;
+		resetSums();
+
+		for (TimedData<T> timedData : allData) {
+			appendValue(metric.valueOf(timedData.getData()));
+		}
+		publish();
+	}
+
+	private void appendValue(double value) {
+		long sequence = nextSequence++;
+		values.addLast(value, sequence);
+
+		double meanBefore = count == 0 ? value : sum / count;
+		addToSum(value);
+		count++;
+		squaredDeviations += (value - meanBefore) * (value - sum / count);
+
+		while (!minimums.isEmpty() && minimums.lastValue() > value) {
+			minimums.removeLast();
+		}
+		minimums.addLast(value, sequence);
+
+		while (!maximums.isEmpty() && maximums.lastValue() < value) {
+			maximums.removeLast();
+		}
+		maximums.addLast(value, sequence);
+	}
+
+	private void addToSum(double value) {
+		double corrected = value - sumCompensation;
+		double newSum = sum + corrected;
+		sumCompensation = (newSum - sum) - corrected;
+		sum = newSum;
+	}
+
+	private void resetSums() {
+		sum = 0.0d;
+		sumCompensation = 0.0d;
+		squaredDeviations = 0.0d;
+	}
+
+	private void publish() {
+		statistics = count == 0
+				? Statistics.EMPTY
+				: new Statistics(count, sum, squaredDeviations, minimums.firstValue(), maximums.firstValue());
+	}
+
+	@Override
+	public String toString() {
+		return "RunningAggregate{" + metric + ": " + statistics + '}';
+	}
+}
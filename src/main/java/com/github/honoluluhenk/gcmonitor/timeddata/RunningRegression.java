@@ -0,0 +1,200 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Least-squares {@link Regression} of a {@link Metric} over the timestamps of all entries of a {@link TimeSeries},
+ * see {@link TimeSeries#regression(Metric)}.
+ * <p>
+ * Maintained incrementally by the owning TimeSeries, like a {@link RunningAggregate}: appending the newest entry or
+ * dropping the oldest ones costs O(1) (amortized) per entry. The means come from compensated (Kahan) sums,
+ * the co-moments are kept centered on the means, updated as by Welford (and reversed for removal): no catastrophic
+ * cancellation of large raw sums of products.
+ * Time is measured relative to an origin that follows the oldest entry, so the sums stay small and precise.
+ * </p>
+ * <p>
+ * Only modified by the owner while holding its write lock,
+ * readers get the latest published immutable {@link #getRegression()}.
+ * </p>
+ *
+ * @param <T> the payload data type of the owning {@link TimeSeries}.
+ */
+public final class RunningRegression<T extends Serializable> implements Serializable {
+	private static final long serialVersionUID = -7010298931532807352L;
+
+	private static final int SUMS = 2;
+	private static final int X = 0;
+	private static final int Y = 1;
+
+	private final Metric<? super T> metric;
+
+	/**
+	 * All (value, epochNanos) pairs, oldest first.
+	 */
+	private final ValueDeque values = new ValueDeque();
+
+	private long originEpochNanos;
+	private final double[] sums = new double[SUMS];
+	private final double[] compensations = new double[SUMS];
+	/**
+	 * Sums of products of the deviations from the means.
+	 */
+	private double comomentXX;
+	private double comomentXY;
+	private double comomentYY;
+
+	private volatile Regression regression = Regression.EMPTY;
+
+	/* default */ RunningRegression(Metric<? super T> metric) {
+		this.metric = requireNonNull(metric);
+	}
+
+	public Metric<? super T> getMetric() {
+		return metric;
+	}
+
+	/**
+	 * Regression over all entries at the time of the last modification of the owning {@link TimeSeries}.
+	 */
+	public Regression getRegression() {
+		return regression;
+	}
+
+	/**
+	 * Caller guarantees that {@code timedData} is the newest entry.
+	 */
+	/* default */ void append(TimedData<T> timedData) {
+		if (values.isEmpty()) {
+			originEpochNanos = timedData.getEpochNanos();
+		}
+		appendValue(metric.valueOf(timedData.getData()), timedData.getEpochNanos());
+		publish();
+	}
+
+	/**
+	 * Caller guarantees that the oldest {@code removed} entries were dropped.
+	 */
+	/* default */ void removeOldest(int removed) {
+		for (int i = 0; i < removed && !values.isEmpty(); i++) {
+			double y = values.firstValue();
+			double x = Regression.secondsBetween(originEpochNanos, values.firstSequence());
+			values.removeFirst();
+
+			remove(values.size(), x, y);
+		}
+
+		if (values.isEmpty()) {
+			resetSums();
+		} else if (isOriginStale()) {
+			rebase();
+		}
+		publish();
+	}
+
+	/**
+	 * Recompute from scratch.
+	 */
+	/* default */ void rebuild(List<TimedData<T>> allData) {
+		values.clear();
+		for (TimedData<T> timedData : allData) {
+			values.addLast(metric.valueOf(timedData.getData()), timedData.getEpochNanos());
+		}
+		rebase();
+		publish();
+	}
+
+	private void appendValue(double y, long epochNanos) {
+		values.addLast(y, epochNanos);
+		add(values.size(), Regression.secondsBetween(originEpochNanos, epochNanos), y);
+	}
+
+	/**
+	 * The origin is further behind the oldest entry than the time span of all entries:
+	 * happens at most once per full turnover of the entries, so rebasing costs O(1) amortized.
+	 */
+	private boolean isOriginStale() {
+		long oldest = values.firstSequence();
+		long newest = values.sequence(values.size() - 1);
+		return oldest - originEpochNanos > newest - oldest;
+	}
+
+	/**
+	 * Move the origin to the oldest entry and recompute all sums.
+	 */
+	private void rebase() {
+		resetSums();
+		if (values.isEmpty()) {
+			return;
+		}
+
+		originEpochNanos = values.firstSequence();
+		for (int i = 0; i < values.size(); i++) {
+			add(i + 1, Regression.secondsBetween(originEpochNanos, values.sequence(i)), values.value(i));
+		}
+	}
+
+	/**
+	 * @param count including the added entry.
+	 */
+	private void add(int count, double x, double y) {
+		double meanXBefore = count == 1 ? x : sums[X] / (count - 1);
+		double meanYBefore = count == 1 ? y : sums[Y] / (count - 1);
+		addToSum(X, x);
+		addToSum(Y, y);
+		double meanXAfter = sums[X] / count;
+		double meanYAfter = sums[Y] / count;
+
+		comomentXX += (x - meanXBefore) * (x - meanXAfter);
+		comomentXY += (x - meanXBefore) * (y - meanYAfter);
+		comomentYY += (y - meanYBefore) * (y - meanYAfter);
+	}
+
+	/**
+	 * @param count without the removed entry.
+	 */
+	private void remove(int count, double x, double y) {
+		double meanXBefore = sums[X] / (count + 1);
+		double meanYBefore = sums[Y] / (count + 1);
+		addToSum(X, -x);
+		addToSum(Y, -y);
+		double meanXAfter = count == 0 ? x : sums[X] / count;
+		double meanYAfter = count == 0 ? y : sums[Y] / count;
+
+		comomentXX -= (x - meanXAfter) * (x - meanXBefore);
+		comomentXY -= (x - meanXAfter) * (y - meanYBefore);
+		comomentYY -= (y - meanYAfter) * (y - meanYBefore);
+	}
+
+	private void addToSum(int sum, double value) {
+		double corrected = value - compensations[sum];
+		double newSum = sums[sum] + corrected;
+		compensations[sum] = (newSum - sums[sum]) - corrected;
+		sums[sum] = newSum;
+	}
+
+	private void resetSums() {
+		for (int i = 0; i < SUMS; i++) {
+			sums[i] = 0.0d;
+			compensations[i] = 0.0d;
+		}
+		comomentXX = 0.0d;
+		comomentXY = 0.0d;
+		comomentYY = 0.0d;
+	}
+
+	private void publish() {
+		int count = values.size();
+		regression = count == 0
+				? Regression.EMPTY
+				: new Regression(count, originEpochNanos, sums[X] / count, sums[Y] / count,
+						comomentXX, comomentXY, comomentYY);
+	}
+
+	@Override
+	public String toString() {
+		return "RunningRegression{" + metric + ": " + regression + '}';
+	}
+}
@@ -0,0 +1,82 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable view on the range {@code [from, to)} of an array of {@link TimedData}.
+ * <p>The owner guarantees that the array range is never modified after the snapshot got published.</p>
+ */
+final class Snapshot<T extends Serializable> extends AbstractList<TimedData<T>> implements RandomAccess, Serializable {
+	private static final long serialVersionUID = -6101466262826925187L;
+
+	private final Object[] elements;
+	private final int from;
+	private final int to;
+
+	@SuppressWarnings("PMD.ArrayIsStoredDirectly") // intended, see class comment
+	/* default */ Snapshot(Object[] elements, int from, int to) {
+		super();
+		this.elements = elements;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * The shared backing array, owner only.
+	 */
+	@SuppressWarnings("PMD.MethodReturnsInternalArray")
+	/* default */ Object[] getElements() {
+		return elements;
+	}
+
+	/* default */ int getFrom() {
+		return from;
+	}
+
+	/* default */ int getTo() {
+		return to;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public TimedData<T> get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+
+		return (TimedData<T>) elements[from + index];
+	}
+
+	@Override
+	public int size() {
+		return to - from;
+	}
+
+	/**
+	 * Zero-copy: shares the underlying array.
+	 */
+	@Override
+	public List<TimedData<T>> subList(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException(
+					"fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: " + size());
+		}
+
+		return new Snapshot<>(elements, from + fromIndex, from + toIndex);
+	}
+
+	/**
+	 * Only serialize the visible range, not the whole shared array.
+	 */
+	private Object writeReplace() {
+		if (from == 0 && to == elements.length) {
+			return this;
+		}
+
+		return new Snapshot<T>(Arrays.copyOfRange(elements, from, to), 0, size());
+	}
+}
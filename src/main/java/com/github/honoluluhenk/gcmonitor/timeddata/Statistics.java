@@ -0,0 +1,104 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+
+/**
+ * Immutable summary statistics of some values, see {@link RunningAggregate}.
+ * <p>All values besides {@link #getCount()} are {@link Double#NaN} if there are no values.</p>
+ */
+public final class Statistics implements Serializable {
+	private static final long serialVersionUID = 4770394618720158386L;
+
+	/* default */ static final Statistics EMPTY = new Statistics(0, 0.0d, 0.0d, Double.NaN, Double.NaN);
+
+	private final long count;
+	private final double sum;
+	/**
+	 * Sum of the squared deviations from the mean (Welford's M2): no cancellation if the values are large
+	 * compared to their spread, as opposed to {@code sumOfSquares / count - mean * mean}.
+	 */
+	private final double squaredDeviations;
+	private final double min;
+	private final double max;
+
+	/* default */ Statistics(long count, double sum, double squaredDeviations, double min, double max) {
+		this.count = count;
+		this.sum = sum;
+		this.squaredDeviations = squaredDeviations;
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Statistics of a single value.
+	 */
+	@SuppressWarnings("PMD.ShortMethodName")
+	/* default */ static Statistics of(double value) {
+		return new Statistics(1, value, 0.0d, value, value);
+	}
+
+	/**
+	 * Statistics of the values of both, squared deviations get combined as by Chan et al.
+	 */
+	/* default */ Statistics merge(Statistics other) {
+		if (other.count == 0) {
+			return this;
+		}
+		if (count == 0) {
+			return other;
+		}
+
+		long mergedCount = count + other.count;
+		double delta = other.getMean() - getMean();
+
+		return new Statistics(
+				mergedCount,
+				sum + other.sum,
+				squaredDeviations + other.squaredDeviations
+						+ delta * delta * ((double) count * other.count / mergedCount),
+				Math.min(min, other.min),
+				Math.max(max, other.max));
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getSum() {
+		return count == 0 ? Double.NaN : sum;
+	}
+
+	public double getMean() {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	/**
+	 * Population variance.
+	 */
+	public double getVariance() {
+		if (count == 0) {
+			return Double.NaN;
+		}
+
+		// rounding errors while removing values might produce tiny negative values
+		return Math.max(0.0d, squaredDeviations / count);
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Statistics{count=%d, mean=%s, variance=%s, min=%s, max=%s}",
+				count, getMean(), getVariance(), min, max);
+	}
+}
@@ -0,0 +1,55 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Configuration of one resolution level of a {@link TieredTimeSeries}.
+ */
+@SuppressWarnings("PMD.ShortClassName")
+public final class Tier implements Serializable {
+	private static final long serialVersionUID = -2402453616848716036L;
+
+	private final Duration resolution;
+	private final int maxBuckets;
+
+	/**
+	 * @param resolution width of a bucket, must be positive.
+	 * @param maxBuckets number of buckets kept in this tier before the oldest one moves to the next tier,
+	 * must be &gt; 0.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	public Tier(Duration resolution, int maxBuckets) {
+		requireNonNull(resolution);
+		if (resolution.isNegative() || resolution.isZero()) {
+			throw new IllegalArgumentException("resolution must be > 0 but was: " + resolution);
+		}
+		if (maxBuckets <= 0) {
+			throw new IllegalArgumentException("maxBuckets must be > 0 but was: " + maxBuckets);
+		}
+		this.resolution = resolution;
+		this.maxBuckets = maxBuckets;
+	}
+
+	public Duration getResolution() {
+		return resolution;
+	}
+
+	public int getMaxBuckets() {
+		return maxBuckets;
+	}
+
+	/**
+	 * Timespan covered by this tier when full.
+	 */
+	public Duration getHorizon() {
+		return resolution.multipliedBy(maxBuckets);
+	}
+
+	@Override
+	public String toString() {
+		return "Tier{resolution=" + resolution + ", maxBuckets=" + maxBuckets + '}';
+	}
+}
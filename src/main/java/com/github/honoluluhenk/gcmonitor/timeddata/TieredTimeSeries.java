@@ -0,0 +1,356 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import com.github.honoluluhenk.gcmonitor.expiry.Expiry;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link TimeSeries} that keeps raw readings only for a short horizon and rolls older readings into
+ * {@link Rollup}s (min/max/avg/last of a {@link Metric}) of increasingly coarse resolution.
+ * <p>
+ * Readings older than {@code rawRetention} (relative to the newest reading) or exceeding {@code maxRawReadings}
+ * are rolled into the buckets of the first {@link Tier}.
+ * If a tier has more than {@link Tier#getMaxBuckets()} buckets, the oldest bucket is merged into the next tier,
+ * the last tier drops it.
+ * So the footprint is bounded by {@code maxRawReadings} plus the sum of all {@link Tier#getMaxBuckets()},
+ * while the history covers the sum of all {@link Tier#getHorizon()}.
+ * </p>
+ * <p>
+ * All regular accessors (e.g.: {@link #getTimedData()}) only see the raw readings,
+ * rolled up data is available through {@link #getHistory()} or as a TimeSeries of its own through
+ * {@link #history()}, e.g.: for a {@link com.github.honoluluhenk.gcmonitor.detection.Detector} of {@link Rollup}s.
+ * Like raw data, rolled up data is read without locking.
+ * Readings removed by {@link #expire(com.github.honoluluhenk.gcmonitor.expiry.Expiry)} are discarded without being
+ * rolled up, so usually this is combined with a {@link com.github.honoluluhenk.gcmonitor.expiry.NullExpiry}.
+ * </p>
+ *
+ * @param <T> the payload data this TimeSeries is made of.
+ */
+public class TieredTimeSeries<T extends Serializable> extends TimeSeries<T> {
+	private static final long serialVersionUID = -2883453004963512278L;
+
+	private static final Duration DEFAULT_RAW_RETENTION = Duration.ofMinutes(10);
+	private static final int DEFAULT_MAX_RAW_READINGS = 10_000;
+	private static final int MINUTES_PER_DAY = 24 * 60;
+	private static final int HOURS_PER_4_WEEKS = 4 * 7 * 24;
+	private static final String READ_ONLY = "read-only view of the history";
+
+	private final Metric<? super T> metric;
+	private final Duration rawRetention;
+	private final int maxRawReadings;
+	private final List<Tier> tiers;
+
+	/**
+	 * Buckets of each tier, oldest first. Only accessed while holding the write lock.
+	 */
+	private final List<List<Rollup>> buckets;
+	/**
+	 * Immutable copies of {@link #buckets} for readers, republished after each modification.
+	 */
+	private volatile History published;
+	private final TimeSeries<Rollup> historyView = new HistoryView(this);
+
+	/**
+	 * @param metric the value of each reading that gets rolled up.
+	 * @param rawRetention keep raw readings for this long (relative to the newest reading).
+	 * @param maxRawReadings but never keep more raw readings than this, must be &gt; 0.
+	 * @param tiers at least one, with increasing resolution, each a multiple of the previous one.
+	 * @throws IllegalArgumentException if input validation fails.
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	public TieredTimeSeries(Metric<? super T> metric, Duration rawRetention, int maxRawReadings, List<Tier> tiers) {
+		super();
+		this.metric = requireNonNull(metric);
+		this.rawRetention = requireNonNull(rawRetention);
+		if (rawRetention.isNegative()) {
+			throw new IllegalArgumentException("rawRetention must be >= 0 but was: " + rawRetention);
+		}
+		if (maxRawReadings <= 0) {
+			throw new IllegalArgumentException("maxRawReadings must be > 0 but was: " + maxRawReadings);
+		}
+		this.maxRawReadings = maxRawReadings;
+		this.tiers = Collections.unmodifiableList(new ArrayList<>(requireNonNull(tiers)));
+		validateTiers(this.tiers);
+
+		this.buckets = new ArrayList<>();
+		List<List<Rollup>> empty = new ArrayList<>();
+		for (Tier tier : this.tiers) {
+			this.buckets.add(new ArrayList<>(tier.getMaxBuckets() + 1));
+			empty.add(Collections.emptyList());
+		}
+		this.published = new History(empty);
+	}
+
+	/**
+	 * Raw readings for 10 minutes (at most 10'000), then 1-minute buckets for a day,
+	 * then 1-hour buckets for 4 weeks.
+	 */
+	public static <T extends Serializable> TieredTimeSeries<T> withDefaultTiers(Metric<? super T> metric) {
+		return new TieredTimeSeries<>(metric, DEFAULT_RAW_RETENTION, DEFAULT_MAX_RAW_READINGS, Arrays.asList(
+				new Tier(Duration.ofMinutes(1), MINUTES_PER_DAY),
+				new Tier(Duration.ofHours(1), HOURS_PER_4_WEEKS)));
+	}
+
+	private static void validateTiers(List<Tier> tiers) {
+		if (tiers.isEmpty()) {
+			throw new IllegalArgumentException("need at least one tier");
+		}
+
+		for (int i = 1; i < tiers.size(); i++) {
+			long previous = tiers.get(i - 1).getResolution().toNanos();
+			long current = tiers.get(i).getResolution().toNanos();
+			if (current <= previous || current % previous != 0) {
+				throw new IllegalArgumentException(String.format(
+						"tier resolutions must be increasing multiples of each other but got: %s and %s",
+						tiers.get(i - 1).getResolution(), tiers.get(i).getResolution()));
+			}
+		}
+	}
+
+	/**
+	 * All rolled up data of all tiers, ordered by {@link Rollup#getStart()}.
+	 * <p>
+	 * A coarse bucket might overlap buckets of a finer tier (the coarse one only summarizes the older readings),
+	 * on equal starts the coarser bucket comes first.
+	 * </p>
+	 */
+	public List<Rollup> getHistory() {
+		return published.merged();
+	}
+
+	/**
+	 * The rolled up data of a single tier (see {@link #getTiers()}), oldest first.
+	 */
+	public List<Rollup> getHistory(int tierIndex) {
+		return published.tiers.get(tierIndex);
+	}
+
+	/**
+	 * Read-only view on {@link #getHistory()}: each {@link Rollup} timestamped with its start.
+	 * <p>Supports all queries (e.g.: {@link #between(ZonedDateTime, ZonedDateTime)}), but no modifications
+	 * (including {@link #aggregate(Metric)}): the history is updated by adding raw readings to the owner.</p>
+	 */
+	public TimeSeries<Rollup> history() {
+		return historyView;
+	}
+
+	/**
+	 * Roll over the raw readings exceeding {@code rawRetention} or {@code maxRawReadings} along with the add,
+	 * so readers never see them as raw readings.
+	 */
+	@Override
+	/* default */ int overflowOnAdd(List<TimedData<T>> allData) {
+		int size = allData.size();
+
+		long cutoff = allData.get(size - 1).getEpochNanos() - rawRetention.toNanos();
+		int rolled = Math.max(TimestampSearch.lowerBound(allData, cutoff), size - maxRawReadings);
+		if (rolled <= 0) {
+			return 0;
+		}
+
+		int changedTiers = 0;
+		for (int i = 0; i < rolled; i++) {
+			TimedData<T> reading = allData.get(i);
+			changedTiers = Math.max(changedTiers,
+					addToTier(0, Rollup.of(reading.getTimestamp(), metric.valueOf(reading.getData()))));
+		}
+
+		publish(changedTiers);
+		return rolled;
+	}
+
+	/**
+	 * Copy the {@code changedTiers} finest tiers for readers, the coarser ones did not change.
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	private void publish(int changedTiers) {
+		List<List<Rollup>> tierCopies = new ArrayList<>(published.tiers);
+		for (int i = 0; i < changedTiers; i++) {
+			tierCopies.set(i, Collections.unmodifiableList(new ArrayList<>(buckets.get(i))));
+		}
+
+		published = new History(tierCopies);
+	}
+
+	/**
+	 * @return the number of tiers modified, starting at the finest one.
+	 */
+	private int addToTier(int tierIndex, Rollup rollup) {
+		Tier tier = tiers.get(tierIndex);
+		List<Rollup> tierBuckets = buckets.get(tierIndex);
+		Rollup bucketed = rollup.inBucket(tier.getResolution());
+
+		int idx = bucketIndex(tierBuckets, bucketed.getStart());
+		if (idx < tierBuckets.size() && tierBuckets.get(idx).getStart().isEqual(bucketed.getStart())) {
+			tierBuckets.set(idx, tierBuckets.get(idx).merge(bucketed));
+		} else {
+			// usually appends, only very late readings land in the middle
+			tierBuckets.add(idx, bucketed);
+		}
+
+		if (tierBuckets.size() > tier.getMaxBuckets()) {
+			Rollup oldest = tierBuckets.remove(0);
+			if (tierIndex + 1 < tiers.size()) {
+				return addToTier(tierIndex + 1, oldest);
+			}
+		}
+
+		return tierIndex + 1;
+	}
+
+	/**
+	 * Index of the first bucket not starting before {@code start}.
+	 */
+	private static int bucketIndex(List<Rollup> tierBuckets, ZonedDateTime start) {
+		int size = tierBuckets.size();
+		if (size == 0 || tierBuckets.get(size - 1).getStart().isBefore(start)) {
+			// fast path: a new bucket
+			return size;
+		}
+
+		int low = 0;
+		int high = size - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (tierBuckets.get(mid).getStart().isBefore(start)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	public Metric<? super T> getMetric() {
+		return metric;
+	}
+
+	public Duration getRawRetention() {
+		return rawRetention;
+	}
+
+	public int getMaxRawReadings() {
+		return maxRawReadings;
+	}
+
+	public List<Tier> getTiers() {
+		return tiers;
+	}
+
+	/**
+	 * Immutable buckets of all tiers, the time ordered merge of all tiers is computed on demand.
+	 */
+	private static final class History implements Serializable {
+		private static final long serialVersionUID = 6326185316371398372L;
+
+		private static final Comparator<Rollup> BY_START =
+				Comparator.comparing(Rollup::getStart, ChronoZonedDateTime.timeLineOrder());
+
+		private final List<List<Rollup>> tiers;
+		// benign race: concurrent readers might both compute the same lists
+		private transient volatile List<Rollup> mergedCache;
+		private transient volatile List<TimedData<Rollup>> timedDataCache;
+
+		private History(List<List<Rollup>> tiers) {
+			this.tiers = Collections.unmodifiableList(tiers);
+		}
+
+		private List<Rollup> merged() {
+			List<Rollup> result = mergedCache;
+			if (result == null) {
+				List<Rollup> all = new ArrayList<>();
+				for (int i = tiers.size() - 1; i >= 0; i--) {
+					all.addAll(tiers.get(i));
+				}
+				// stable: coarser buckets stay first on equal starts
+				all.sort(BY_START);
+				result = Collections.unmodifiableList(all);
+				mergedCache = result;
+			}
+
+			return result;
+		}
+
+		@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+		private List<TimedData<Rollup>> timedData() {
+			List<TimedData<Rollup>> result = timedDataCache;
+			if (result == null) {
+				List<Rollup> rollups = merged();
+				List<TimedData<Rollup>> all = new ArrayList<>(rollups.size());
+				for (Rollup rollup : rollups) {
+					all.add(new TimedData<>(rollup.getStart(), rollup));
+				}
+				result = Collections.unmodifiableList(all);
+				timedDataCache = result;
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * Read-only view on the rolled up data of the owner, see {@link #history()}.
+	 */
+	private static final class HistoryView extends TimeSeries<Rollup> {
+		private static final long serialVersionUID = -4012962873458251302L;
+
+		private final TieredTimeSeries<?> owner;
+
+		private HistoryView(TieredTimeSeries<?> owner) {
+			super();
+			this.owner = owner;
+		}
+
+		@Override
+		public List<TimedData<Rollup>> getTimedData() {
+			return owner.published.timedData();
+		}
+
+		@Override
+		public int size() {
+			return owner.published.merged().size();
+		}
+
+		@Override
+		public boolean isReadOnly() {
+			return true;
+		}
+
+		@Override
+		public void add(TimedData<Rollup> timedData) {
+			throw new UnsupportedOperationException(READ_ONLY);
+		}
+
+		@Override
+		public void expire(Expiry<Rollup> expiry) {
+			throw new UnsupportedOperationException(READ_ONLY);
+		}
+
+		@Override
+		/* default */ <R> R write(Function<List<TimedData<Rollup>>, R> writer) {
+			throw new UnsupportedOperationException(READ_ONLY);
+		}
+
+		@Override
+		/* default */ void dropOldest(int count) {
+			throw new UnsupportedOperationException(READ_ONLY);
+		}
+
+		@Override
+		public String toString() {
+			return "History{" + owner.getTiers() + '}';
+		}
+	}
+}
@@ -1,33 +1,231 @@
 package com.github.honoluluhenk.gcmonitor.timeddata;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+import com.github.honoluluhenk.gcmonitor.eventlistener.EventListener;
+import com.github.honoluluhenk.gcmonitor.expiry.CutoffExpiry;
 import com.github.honoluluhenk.gcmonitor.expiry.Expiry;
-import com.github.honoluluhenk.gcmonitor.expiry.Params;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import com.github.honoluluhenk.gcmonitor.expiry.SelectionExpiry;
 
 import static java.util.Collections.unmodifiableList;
 
 /**
- * A series of data ordered by timestamp (descending).
- * I.E.: entry with biggest timestamp comes first when iterating (e.g.: {@link #stream()} or via
+ * A series of data ordered by timestamp (ascending).
+ * I.E.: entry with smallest timestamp comes first when iterating (e.g.: {@link #stream()} or via
  * {@link #getTimedData()}.
+ * <p>
+ * Writers ({@link #add(TimedData)}, {@link #expire(Expiry)}) are serialized by a lock.
+ * Readers never lock: they get an immutable snapshot of the data at the time of the call,
+ * so iterating never races with concurrent writes (e.g.: from the GC notification thread).
+ * </p>
+ * <p>
+ * Summary statistics over all entries can be maintained incrementally, see {@link #aggregate(Metric)}
+ * and {@link #regression(Metric)}. Consumers with state of their own get each appended entry,
+ * see {@link #addAppendListener(EventListener)}.
+ * </p>
  *
  * @param <T> the payload data this TimeSeries is made of.
  */
 public class TimeSeries<T extends Serializable> implements Serializable {
 	private static final long serialVersionUID = 2117342200468145148L;
 
-	// LinkedList since insertion at an index close to one end
-	// (99% expected use case) is cheap
-	private final List<TimedData<T>> data = new ArrayList<>();
+	private static final int MIN_CAPACITY = 16;
 
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	// Array based since appending (99% expected use case) is cheap
+	// and it allows binary search for the rare out-of-order reading.
+	// Entries of a published snapshot are never modified: writers only append behind it or copy.
+	private volatile Snapshot<T> snapshot = new Snapshot<>(new Object[0], 0, 0);
+
+	// only modified by writers, iterated by index to avoid allocations on the add() path
+	private final List<RunningAggregate<T>> aggregates = new CopyOnWriteArrayList<>();
+	private final List<RunningRegression<T>> regressions = new CopyOnWriteArrayList<>();
+	// not part of the data: consumers register again after deserialization
+	private transient List<EventListener<TimedData<T>>> appendListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * An immutable snapshot of the current data.
+	 */
 	public List<TimedData<T>> getTimedData() {
-		return unmodifiableList(data);
+		return snapshot;
+	}
+
+	public int size() {
+		return snapshot.size();
+	}
+
+	/**
+	 * Views on the data of another series (e.g.: {@link MultiPoolTimeSeries#pool}) can only be read,
+	 * {@link #add(TimedData)} and {@link #expire(Expiry)} throw {@link UnsupportedOperationException}.
+	 */
+	public boolean isReadOnly() {
+		return false;
+	}
+
+	/**
+	 * The newest {@code count} entries (or less if there are not enough), ordered ascending like all other data.
+	 * <p>Like all range queries: an immutable view on a snapshot, found by binary search without copying data.</p>
+	 */
+	public List<TimedData<T>> latest(int count) {
+		requireNonNegative(count);
+
+		List<TimedData<T>> data = getTimedData();
+		int size = data.size();
+		return data.subList(size - Math.min(count, size), size);
+	}
+
+	/**
+	 * The oldest {@code count} entries (or less if there are not enough).
+	 */
+	public List<TimedData<T>> earliest(int count) {
+		requireNonNegative(count);
+
+		List<TimedData<T>> data = getTimedData();
+		return data.subList(0, Math.min(count, data.size()));
+	}
+
+	/**
+	 * All entries with {@code from <= timestamp < to}.
+	 */
+	public List<TimedData<T>> between(ZonedDateTime from, ZonedDateTime to) {
+		Objects.requireNonNull(from);
+		Objects.requireNonNull(to);
+
+		List<TimedData<T>> data = getTimedData();
+		int start = TimestampSearch.lowerBound(data, EpochNanos.of(from));
+		int end = TimestampSearch.lowerBound(data, EpochNanos.of(to));
+		return data.subList(start, Math.max(start, end));
+	}
+
+	/**
+	 * All entries with {@code from <= timestamp}.
+	 */
+	public List<TimedData<T>> since(ZonedDateTime from) {
+		return since(EpochNanos.of(from));
+	}
+
+	/**
+	 * All entries with {@code fromEpochNanos <= timestamp}, see {@link TimedData#getEpochNanos()}.
+	 */
+	public List<TimedData<T>> since(long fromEpochNanos) {
+		List<TimedData<T>> data = getTimedData();
+		return data.subList(TimestampSearch.lowerBound(data, fromEpochNanos), data.size());
+	}
+
+	/**
+	 * The newest entry with a timestamp &lt;= {@code timestamp}.
+	 */
+	public Optional<TimedData<T>> floor(ZonedDateTime timestamp) {
+		Objects.requireNonNull(timestamp);
+
+		List<TimedData<T>> data = getTimedData();
+		int idx = TimestampSearch.upperBound(data, EpochNanos.of(timestamp)) - 1;
+		return idx < 0
+				? Optional.empty()
+				: Optional.of(data.get(idx));
+	}
+
+	/**
+	 * The oldest entry with a timestamp &gt;= {@code timestamp}.
+	 */
+	public Optional<TimedData<T>> ceiling(ZonedDateTime timestamp) {
+		Objects.requireNonNull(timestamp);
+
+		List<TimedData<T>> data = getTimedData();
+		int idx = TimestampSearch.lowerBound(data, EpochNanos.of(timestamp));
+		return idx < data.size()
+				? Optional.of(data.get(idx))
+				: Optional.empty();
+	}
+
+	/**
+	 * Get the running aggregate of {@code metric} over all entries, start maintaining it if not done yet.
+	 * <p>
+	 * Starting costs a full pass over the data, afterwards adding/expiring entries updates the aggregate in O(1)
+	 * per entry (as long as entries get appended in timestamp order and expired oldest first).
+	 * So asking for the aggregate on each detection costs O(1), not O(n).
+	 * </p>
+	 */
+	public RunningAggregate<T> aggregate(Metric<? super T> metric) {
+		Objects.requireNonNull(metric);
+
+		return findAggregate(metric)
+				.orElseGet(() -> write(allData -> findAggregate(metric).orElseGet(() -> {
+					RunningAggregate<T> aggregate = new RunningAggregate<>(metric);
+					aggregate.rebuild(allData);
+					aggregates.add(aggregate);
+					return aggregate;
+				})));
+	}
+
+	/**
+	 * The running aggregate of {@code metric}, if it was started by {@link #aggregate(Metric)}.
+	 */
+	public Optional<RunningAggregate<T>> findAggregate(Metric<? super T> metric) {
+		Objects.requireNonNull(metric);
+
+		return aggregates.stream()
+				.filter(aggregate -> aggregate.getMetric().equals(metric))
+				.findFirst();
+	}
+
+	/**
+	 * Get the running least-squares regression of {@code metric} over time, start maintaining it if not done yet.
+	 * <p>Like {@link #aggregate(Metric)}: starting costs a full pass, afterwards updates cost O(1) per entry.</p>
+	 */
+	public RunningRegression<T> regression(Metric<? super T> metric) {
+		Objects.requireNonNull(metric);
+
+		return findRegression(metric)
+				.orElseGet(() -> write(allData -> findRegression(metric).orElseGet(() -> {
+					RunningRegression<T> regression = new RunningRegression<>(metric);
+					regression.rebuild(allData);
+					regressions.add(regression);
+					return regression;
+				})));
+	}
+
+	/**
+	 * The running regression of {@code metric}, if it was started by {@link #regression(Metric)}.
+	 */
+	public Optional<RunningRegression<T>> findRegression(Metric<? super T> metric) {
+		Objects.requireNonNull(metric);
+
+		return regressions.stream()
+				.filter(regression -> regression.getMetric().equals(metric))
+				.findFirst();
+	}
+
+	/**
+	 * Notify {@code listener} of each entry appended from now on (i.e.: added with a timestamp not older than
+	 * the newest entry), e.g.: by a detector keeping state of its own. Entries inserted out of order are not notified.
+	 * <p>
+	 * Unlike reading the data on demand, the listener sees each entry exactly once, even if it expires before being
+	 * read. It gets called while the write lock is held: it must be fast and must not access this series.
+	 * </p>
+	 *
+	 * @return all entries added before the listener got registered, oldest first.
+	 */
+	public List<TimedData<T>> addAppendListener(EventListener<TimedData<T>> listener) {
+		Objects.requireNonNull(listener);
+
+		return write(allData -> {
+			appendListeners.add(listener);
+			return unmodifiableList(new ArrayList<>(allData));
+		});
 	}
 
 	public void add(TimedData<T> timedData) {
@@ -36,35 +234,258 @@ public class TimeSeries<T extends Serializable> implements Serializable {
 		insertAtTimestamp(timedData);
 	}
 
+	/**
+	 * A {@link CutoffExpiry} or {@link SelectionExpiry} gets asked once, any other {@link Expiry} once per entry.
+	 */
 	public void expire(Expiry<T> expiry) {
 		Objects.requireNonNull(expiry);
 
-		synchronized (data) {
-			List<TimedData<T>> allData = unmodifiableList(data);
-			data.removeIf(entry -> expiry.isExpired(new Params<>(entry, allData)));
+		if (expiry instanceof CutoffExpiry) {
+			expireOldest((CutoffExpiry<T>) expiry);
+			return;
+		}
+
+		writeLock.lock();
+		try {
+			Snapshot<T> allData = snapshot;
+			BitSet expired = SelectionExpiry.select(expiry, allData);
+
+			int expiredPrefix = expired.nextClearBit(0);
+			if (expiredPrefix == expired.cardinality()) {
+				dropOldest(expiredPrefix);
+			} else {
+				keepOnly(allData, expired);
+				rebuildAggregates(snapshot);
+			}
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
-	// TODO: convert to some sorted collection, e.g.: SortedSet.
-	@SuppressFBWarnings(value = "LII_LIST_INDEXED_ITERATING",
-			justification = "needs converting to a sorted collection")
+	/**
+	 * Readings are expected to arrive in timestamp order, so appending is the fast path.
+	 * Out-of-order readings are placed by binary search (after all entries with the same timestamp).
+	 * Readers see a single new snapshot: including the new entry and without the ones dropped by
+	 * {@link #overflowOnAdd(List)}.
+	 */
 	private void insertAtTimestamp(TimedData<T> timedData) {
-		synchronized (data) {
-			int i = 0;
-			for (i = 0; i < data.size(); i++) {
-				TimedData<T> existing = data.get(i);
-
-				if (existing.getTimestamp().isAfter(timedData.getTimestamp())) {
-					break;
-				}
+		writeLock.lock();
+		try {
+			Snapshot<T> current = snapshot;
+			int size = current.size();
+			long epochNanos = timedData.getEpochNanos();
+			Snapshot<T> next;
+			if (size == 0 || current.get(size - 1).getEpochNanos() <= epochNanos) {
+				next = append(current, timedData);
+				appendToAggregates(timedData);
+			} else {
+				int pos = TimestampSearch.upperBound(current, epochNanos);
+				Object[] elements = new Object[capacityFor(size + 1)];
+				System.arraycopy(current.getElements(), current.getFrom(), elements, 0, pos);
+				elements[pos] = timedData;
+				System.arraycopy(current.getElements(), current.getFrom() + pos, elements, pos + 1, size - pos);
+
+				next = new Snapshot<>(elements, 0, size + 1);
+				rebuildAggregates(next);
 			}
 
-			this.data.add(i, timedData);
+			int overflow = overflowOnAdd(next);
+			if (overflow > 0) {
+				next = dropPrefix(next, overflow);
+				removeOldestFromAggregates(overflow);
+			}
+
+			snapshot = next;
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
+	private Snapshot<T> append(Snapshot<T> current, TimedData<T> timedData) {
+		Object[] elements = current.getElements();
+		int from = current.getFrom();
+		int to = current.getTo();
+
+		if (to == elements.length) {
+			int size = to - from;
+			elements = new Object[capacityFor(size + 1)];
+			System.arraycopy(current.getElements(), from, elements, 0, size);
+			from = 0;
+			to = size;
+		}
+
+		// not visible to readers until the new snapshot gets published
+		elements[to] = timedData;
+
+		return new Snapshot<>(elements, from, to + 1);
+	}
+
+	private Snapshot<T> dropPrefix(Snapshot<T> current, int count) {
+		if (count == 0) {
+			return current;
+		}
+
+		int from = current.getFrom() + count;
+		int size = current.getTo() - from;
+
+		if (from > size) {
+			// too many dead entries at the beginning: release them for garbage collection
+			Object[] elements = new Object[capacityFor(size)];
+			System.arraycopy(current.getElements(), from, elements, 0, size);
+			return new Snapshot<>(elements, 0, size);
+		}
+
+		return new Snapshot<>(current.getElements(), from, current.getTo());
+	}
+
+	private void keepOnly(Snapshot<T> current, BitSet expired) {
+		int size = current.size();
+		Object[] elements = new Object[capacityFor(size - expired.cardinality())];
+
+		int kept = 0;
+		for (int i = expired.nextClearBit(0); i < size; i = expired.nextClearBit(i + 1)) {
+			elements[kept] = current.getElements()[current.getFrom() + i];
+			kept++;
+		}
+
+		snapshot = new Snapshot<>(elements, 0, kept);
+	}
+
+	/**
+	 * Drop the oldest entries as determined by {@code expiry}, using {@link #writeTimestamps(Function)} and
+	 * {@link #dropOldest(int)}: no data gets copied.
+	 */
+	/* default */ final void expireOldest(CutoffExpiry<T> expiry) {
+		writeTimestamps(timestamps -> {
+			int size = timestamps.size();
+			int count = expiry.expiredCount(timestamps);
+			if (count < 0 || count > size) {
+				throw new IllegalStateException(
+						"expiredCount must be within [0, " + size + "] but was: " + count);
+			}
+			if (count > 0) {
+				dropOldest(count);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Run {@code writer} with a view on the timestamps of all current data while holding the write lock.
+	 * Subclasses with their own locking/storage must override.
+	 */
+	/* default */ <R> R writeTimestamps(Function<Timestamps, R> writer) {
+		writeLock.lock();
+		try {
+			return writer.apply(Timestamps.of(snapshot));
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Run {@code writer} with all current data while holding the write lock.
+	 * Subclasses with their own locking/storage must override.
+	 */
+	/* default */ <R> R write(Function<List<TimedData<T>>, R> writer) {
+		writeLock.lock();
+		try {
+			return writer.apply(snapshot);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Drop the {@code count} oldest entries.
+	 * Caller must hold the write lock, see {@link #write(Function)}.
+	 */
+	/* default */ void dropOldest(int count) {
+		Snapshot<T> current = snapshot;
+		int dropped = Math.min(count, current.size());
+
+		snapshot = dropPrefix(current, dropped);
+		removeOldestFromAggregates(dropped);
+	}
+
+	/**
+	 * Called by {@link #add(TimedData)} while holding the write lock, before readers see the new entry.
+	 *
+	 * @param allData all data including the new entry.
+	 * @return the number of oldest entries to drop along with the add (e.g.: to keep a maximum size),
+	 * must be within [0, allData.size()].
+	 */
+	/* default */ int overflowOnAdd(List<TimedData<T>> allData) {
+		return 0;
+	}
+
+	/**
+	 * Writers call this after appending the newest entry.
+	 */
+	/* default */ final void appendToAggregates(TimedData<T> timedData) {
+		for (RunningAggregate<T> aggregate : aggregates) {
+			aggregate.append(timedData.getData());
+		}
+		for (RunningRegression<T> regression : regressions) {
+			regression.append(timedData);
+		}
+		for (EventListener<TimedData<T>> listener : appendListeners) {
+			listener.accept(timedData);
+		}
+	}
+
+	/**
+	 * Writers call this after dropping the {@code count} oldest entries.
+	 */
+	/* default */ final void removeOldestFromAggregates(int count) {
+		for (RunningAggregate<T> aggregate : aggregates) {
+			aggregate.removeOldest(count);
+		}
+		for (RunningRegression<T> regression : regressions) {
+			regression.removeOldest(count);
+		}
+	}
+
+	/**
+	 * Writers call this after any other modification.
+	 */
+	/* default */ final void rebuildAggregates(List<TimedData<T>> allData) {
+		for (RunningAggregate<T> aggregate : aggregates) {
+			aggregate.rebuild(allData);
+		}
+		for (RunningRegression<T> regression : regressions) {
+			regression.rebuild(allData);
+		}
+	}
+
+	/* default */ final boolean hasAggregates() {
+		return !aggregates.isEmpty() || !regressions.isEmpty();
+	}
+
+	/**
+	 * Anything to notify by {@link #appendToAggregates(TimedData)}.
+	 */
+	/* default */ final boolean hasAppendConsumers() {
+		return hasAggregates() || !appendListeners.isEmpty();
+	}
+
+	/* default */ static void requireNonNegative(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("count must be >= 0 but was: " + count);
+		}
+	}
+
+	private static int capacityFor(int size) {
+		return Math.max(MIN_CAPACITY, size + (size >> 1));
+	}
+
 	public Stream<TimedData<T>> stream() {
 		return getTimedData().stream();
 	}
 
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		appendListeners = new CopyOnWriteArrayList<>();
+	}
+
 }
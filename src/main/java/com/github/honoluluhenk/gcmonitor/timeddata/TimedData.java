@@ -1,28 +1,61 @@
 package com.github.honoluluhenk.gcmonitor.timeddata;
 
 import java.io.Serializable;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 
 /**
  * Add a timestamp to some data.
+ * <p>
+ * The timestamp is kept as primitive nanoseconds since the epoch (see {@link EpochNanos}) plus its zone:
+ * ordering and comparing timestamps does not need any objects.
+ * The {@link ZonedDateTime} is only created on demand by {@link #getTimestamp()}.
+ * </p>
  *
  * @param <T> the payload data type.
  */
 public class TimedData<T extends Serializable> implements Serializable {
-	private static final long serialVersionUID = -1657726356066610508L;
+	private static final long serialVersionUID = 4514391447125539216L;
 
-	private final ZonedDateTime timestamp;
+	private final long epochNanos;
+
+	private final ZoneId zone;
 
 	private final T data;
 
+	// immutable, so racing threads at worst create it twice
+	private transient ZonedDateTime timestamp;
+
 	public TimedData(ZonedDateTime timestamp, T data) {
-		this.timestamp = Objects.requireNonNull(timestamp);
+		this(EpochNanos.of(timestamp), timestamp.getZone(), data);
+		this.timestamp = timestamp;
+	}
+
+	public TimedData(long epochNanos, ZoneId zone, T data) {
+		this.epochNanos = epochNanos;
+		this.zone = Objects.requireNonNull(zone);
 		this.data = Objects.requireNonNull(data);
 	}
 
 	public ZonedDateTime getTimestamp() {
-		return timestamp;
+		ZonedDateTime result = timestamp;
+		if (result == null) {
+			result = EpochNanos.toZonedDateTime(epochNanos, zone);
+			timestamp = result;
+		}
+		return result;
+	}
+
+	/**
+	 * The timestamp in nanoseconds since the epoch, see {@link EpochNanos}.
+	 */
+	public long getEpochNanos() {
+		return epochNanos;
+	}
+
+	public ZoneId getZone() {
+		return zone;
 	}
 
 	public T getData() {
@@ -38,17 +71,18 @@ public class TimedData<T extends Serializable> implements Serializable {
 			return false;
 		}
 		TimedData<?> timedData = (TimedData<?>) o;
-		return getTimestamp().equals(timedData.getTimestamp())
+		return getEpochNanos() == timedData.getEpochNanos()
+				&& getZone().equals(timedData.getZone())
 				&& getData().equals(timedData.getData());
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(getTimestamp(), getData());
+		return Objects.hash(getEpochNanos(), getZone(), getData());
 	}
 
 	@Override
 	public String toString() {
-		return "TimedData{timestamp=" + timestamp + ", data=" + data + '}';
+		return "TimedData{timestamp=" + getTimestamp() + ", data=" + data + '}';
 	}
 }
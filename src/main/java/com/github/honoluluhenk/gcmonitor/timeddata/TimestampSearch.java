@@ -0,0 +1,50 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.util.List;
+
+/**
+ * Binary search on lists of {@link TimedData} sorted by timestamp (ascending).
+ * <p>Timestamps are compared by their instant, see {@link TimedData#getEpochNanos()}.</p>
+ */
+@SuppressWarnings("PMD.ClassNamingConventions")
+final class TimestampSearch {
+	private TimestampSearch() {
+		// utility class
+	}
+
+	/**
+	 * Index of the first entry with a timestamp not before {@code epochNanos}, {@code sorted.size()} if there is none.
+	 */
+	/* default */ static int lowerBound(List<? extends TimedData<?>> sorted, long epochNanos) {
+		int low = 0;
+		int high = sorted.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted.get(mid).getEpochNanos() < epochNanos) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Index of the first entry with a timestamp after {@code epochNanos}, {@code sorted.size()} if there is none.
+	 */
+	/* default */ static int upperBound(List<? extends TimedData<?>> sorted, long epochNanos) {
+		int low = 0;
+		int high = sorted.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted.get(mid).getEpochNanos() > epochNanos) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+
+		return low;
+	}
+}
@@ -0,0 +1,57 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read-only view on the timestamps (see {@link TimedData#getEpochNanos()}) of the entries of a {@link TimeSeries},
+ * oldest first, see {@link com.github.honoluluhenk.gcmonitor.expiry.CutoffExpiry}.
+ * <p>Reads the storage of the series on access (e.g.: a primitive column) instead of copying it.</p>
+ */
+public interface Timestamps {
+	int size();
+
+	/**
+	 * @param index 0: the oldest entry.
+	 */
+	long epochNanos(int index);
+
+	/**
+	 * Number of entries with a timestamp &lt;= {@code epochNanos}, found by binary search.
+	 */
+	default int countUntil(long epochNanos) {
+		int low = 0;
+		int high = size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (epochNanos(mid) <= epochNanos) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * View on the timestamps of {@code sortedData}.
+	 */
+	@SuppressWarnings("PMD.ShortMethodName")
+	static Timestamps of(List<? extends TimedData<?>> sortedData) {
+		requireNonNull(sortedData);
+
+		return new Timestamps() {
+			@Override
+			public int size() {
+				return sortedData.size();
+			}
+
+			@Override
+			public long epochNanos(int index) {
+				return sortedData.get(index).getEpochNanos();
+			}
+		};
+	}
+}
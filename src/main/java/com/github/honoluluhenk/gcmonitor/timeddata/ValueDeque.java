@@ -0,0 +1,109 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+
+/**
+ * A growable double-ended queue of primitive (value, sequence number) pairs.
+ * Does not allocate unless it needs to grow.
+ */
+final class ValueDeque implements Serializable {
+	private static final long serialVersionUID = 4311516282476452406L;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private double[] values = new double[INITIAL_CAPACITY];
+	private long[] sequences = new long[INITIAL_CAPACITY];
+	private int head;
+	private int filled;
+
+	/* default */ void addLast(double value, long sequence) {
+		if (filled == values.length) {
+			grow();
+		}
+		int idx = physical(filled);
+		values[idx] = value;
+		sequences[idx] = sequence;
+		filled++;
+	}
+
+	/* default */ double firstValue() {
+		requireNotEmpty();
+		return values[head];
+	}
+
+	/* default */ long firstSequence() {
+		requireNotEmpty();
+		return sequences[head];
+	}
+
+	/* default */ double lastValue() {
+		requireNotEmpty();
+		return values[physical(filled - 1)];
+	}
+
+	/* default */ void removeFirst() {
+		requireNotEmpty();
+		head = physical(1);
+		filled--;
+	}
+
+	/* default */ void removeLast() {
+		requireNotEmpty();
+		filled--;
+	}
+
+	/* default */ boolean isEmpty() {
+		return filled == 0;
+	}
+
+	/* default */ int size() {
+		return filled;
+	}
+
+	/**
+	 * @param index 0: the first (oldest) element.
+	 */
+	/* default */ double value(int index) {
+		requireIndex(index);
+		return values[physical(index)];
+	}
+
+	/* default */ long sequence(int index) {
+		requireIndex(index);
+		return sequences[physical(index)];
+	}
+
+	/* default */ void clear() {
+		head = 0;
+		filled = 0;
+	}
+
+	private int physical(int logicalIndex) {
+		return (head + logicalIndex) % values.length;
+	}
+
+	private void requireIndex(int index) {
+		if (index < 0 || index >= filled) {
+			throw new IndexOutOfBoundsException("index: " + index + ", size: " + filled);
+		}
+	}
+
+	private void requireNotEmpty() {
+		if (filled == 0) {
+			throw new NoSuchElementException();
+		}
+	}
+
+	private void grow() {
+		double[] newValues = new double[values.length * 2];
+		long[] newSequences = new long[values.length * 2];
+		for (int i = 0; i < filled; i++) {
+			newValues[i] = values[physical(i)];
+			newSequences[i] = sequences[physical(i)];
+		}
+		values = newValues;
+		sequences = newSequences;
+		head = 0;
+	}
+}
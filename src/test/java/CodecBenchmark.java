@@ -0,0 +1,94 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.codec.Codec;
+import com.github.honoluluhenk.gcmonitor.codec.Codecs;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manual micro benchmark: size and encode/decode latency of a {@link TimeSeries},
+ * Java serialization vs. {@link Codecs#timeSeries(Codec)}.
+ * <p>
+ * Not a unit test since timings depend on the machine.
+ * </p>
+ */
+public class CodecBenchmark {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CodecBenchmark.class);
+
+	private static final int[] READINGS = { 10, 1_000, 100_000 };
+	private static final int ITERATIONS = 50;
+	private static final int ROUNDS = 3;
+
+	private static final ZonedDateTime START = ZonedDateTime.now();
+
+	private static final Codec<TimeSeries<Memory>> CODEC = Codecs.timeSeries(Codecs.MEMORY);
+
+	public static void main(String[] args) {
+		for (int round = 1; round <= ROUNDS; round++) {
+			LOG.info("===== round {} of {} (first rounds are warmup) =====", round, ROUNDS);
+
+			for (int readings : READINGS) {
+				TimeSeries<Memory> timeSeries = mkTimeSeries(readings);
+				byte[] serialized = serialize(timeSeries);
+				ByteBuffer encoded = Codecs.encode(CODEC, timeSeries);
+
+				LOG.info("readings: {}, serialization: {} bytes, {} ns encode, {} ns decode; "
+								+ "codec: {} bytes, {} ns encode, {} ns decode",
+						readings,
+						serialized.length,
+						measure(() -> serialize(timeSeries)),
+						measure(() -> deserialize(serialized)),
+						encoded.remaining(),
+						measure(() -> Codecs.encode(CODEC, timeSeries)),
+						measure(() -> Codecs.decode(CODEC, encoded.duplicate())));
+			}
+		}
+	}
+
+	private static TimeSeries<Memory> mkTimeSeries(int readings) {
+		TimeSeries<Memory> timeSeries = new TimeSeries<>();
+		for (int i = 0; i < readings; i++) {
+			timeSeries.add(new TimedData<>(START.plusSeconds(i * 2L), new Memory(-1, 1_000_000L + i, 5_000_000, -1)));
+		}
+		return timeSeries;
+	}
+
+	private static long measure(Runnable runnable) {
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			runnable.run();
+		}
+		return (System.nanoTime() - start) / ITERATIONS;
+	}
+
+	private static byte[] serialize(Object value) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] serialized) {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			return in.readObject();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.MemoryTimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manual micro benchmark: latency of {@link TimeSeries#add(TimedData)} depending on the number of retained readings.
+ * <p>
+ * Not a unit test since timings depend on the machine, run with e.g.: {@code -Xmx2g}.
+ * The latency should stay flat from 10 to 1,000,000 retained readings.
+ * </p>
+ */
+public class TimeSeriesBenchmark {
+
+	private static final Logger LOG = LoggerFactory.getLogger(TimeSeriesBenchmark.class);
+
+	private static final int[] RETAINED = { 10, 100, 1_000, 10_000, 100_000, 1_000_000 };
+	private static final int MEASURED_ADDS = 10_000;
+	private static final int ROUNDS = 3;
+
+	private static final ZonedDateTime START = ZonedDateTime.now();
+	private static final Memory MEMORY = new Memory(-1, 1234, 5678, 9999);
+
+	public static void main(String[] args) {
+		for (int round = 1; round <= ROUNDS; round++) {
+			LOG.info("===== round {} of {} (first rounds are warmup) =====", round, ROUNDS);
+
+			for (int retained : RETAINED) {
+				LOG.info("retained: {}, TimeSeries in order: {} ns/add, TimeSeries out of order: {} ns/add, "
+								+ "MemoryTimeSeries in order: {} ns/add",
+						retained,
+						measure(new TimeSeries<>(), retained, false),
+						measure(new TimeSeries<>(), retained, true),
+						measure(new MemoryTimeSeries(retained + MEASURED_ADDS), retained, false));
+			}
+		}
+	}
+
+	/**
+	 * @param outOfOrder if true, each measured reading is older than the newest reading in the series.
+	 */
+	private static long measure(TimeSeries<Memory> timeSeries, int retained, boolean outOfOrder) {
+		for (int i = 0; i < retained; i++) {
+			timeSeries.add(new TimedData<>(START.plusSeconds(i * 2L), MEMORY));
+		}
+
+		// pre-build the readings: only measure add()
+		@SuppressWarnings("unchecked")
+		TimedData<Memory>[] readings = new TimedData[MEASURED_ADDS];
+		for (int i = 0; i < MEASURED_ADDS; i++) {
+			long seconds = outOfOrder
+					? (retained - 1) * 2L - 1
+					: (retained + i) * 2L;
+			readings[i] = new TimedData<>(START.plusSeconds(seconds), MEMORY);
+		}
+
+		long start = System.nanoTime();
+		for (TimedData<Memory> reading : readings) {
+			timeSeries.add(reading);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		return elapsed / MEASURED_ADDS;
+	}
+}
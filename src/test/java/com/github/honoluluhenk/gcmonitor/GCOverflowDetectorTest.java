@@ -1,18 +1,31 @@
 package com.github.honoluluhenk.gcmonitor;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import com.github.honoluluhenk.gcmonitor.detection.overflow.Overflow;
 import com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowDetector;
 import com.github.honoluluhenk.gcmonitor.eventsource.GCEventSource;
+import com.github.honoluluhenk.gcmonitor.expiry.BackgroundExpiryScheduler;
 import com.github.honoluluhenk.gcmonitor.expiry.Expiry;
+import com.github.honoluluhenk.gcmonitor.expiry.ExpiryScheduler;
+import com.github.honoluluhenk.gcmonitor.expiry.LazyExpiryScheduler;
 import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
 import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.journal.Journal;
+import com.github.honoluluhenk.gcmonitor.journal.NullJournal;
 import com.github.honoluluhenk.gcmonitor.memory.Memory;
 import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.timeddata.MemoryTimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.MultiPoolTimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,8 +33,10 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isNotNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
@@ -104,6 +119,139 @@ class GCOverflowDetectorTest {
 				.validate(2);
 	}
 
+	@Test
+	void uses_given_timeSeries() {
+		MemoryTimeSeries timeSeries = new MemoryTimeSeries(2);
+
+		GCOverflowDetector custom = new GCOverflowDetector(
+				eventSourceMock,
+				expiryMock,
+				detectorMock,
+				timeSeries
+		);
+
+		assertThat(custom.getTimeSeries())
+				.isSameAs(timeSeries);
+	}
+
+	@Test
+	void rejects_read_only_timeSeries() {
+		TimeSeries<Memory> pool = new MultiPoolTimeSeries(2).pool(MemoryPoolType.OLD);
+
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> new GCOverflowDetector(eventSourceMock, expiryMock, detectorMock, pool));
+
+		assertThat(iae).hasMessage("timeSeries must not be a read-only view but was: Pool{OLD}");
+	}
+
+	@Test
+	void replays_journal_into_timeSeries() {
+		TimedData<Memory> first = new TimedData<>(ZonedDateTime.now().minusSeconds(2), new Memory(1, 2, 3, 4));
+		TimedData<Memory> second = new TimedData<>(ZonedDateTime.now().minusSeconds(1), new Memory(1, 3, 3, 4));
+		Journal journal = mock(Journal.class);
+		doAnswer(invocation -> {
+			Consumer<TimedData<Memory>> consumer = invocation.getArgument(0);
+			consumer.accept(first);
+			consumer.accept(second);
+			return null;
+		}).when(journal).replay(any());
+
+		GCOverflowDetector custom = new GCOverflowDetector(
+				eventSourceMock,
+				expiryMock,
+				detectorMock,
+				new TimeSeries<>(),
+				journal
+		);
+
+		assertThat(custom.getTimeSeries().getTimedData())
+				.containsExactly(first, second);
+		verify(expiryMock, times(2)).isExpired(any());
+	}
+
+	@Test
+	void expiry_cost_is_recorded() {
+		assertThat(detector.getExpiryCost().getRuns()).isEqualTo(1);
+
+		detector.handleGCEvent(new TimedData<>(ZonedDateTime.now(), new GCEvent(GCCollection.MAJOR,
+				Collections.singletonMap(MemoryPoolType.OLD, new Memory(1, 2, 3, 4)))));
+
+		assertThat(detector.getExpiryCost().getRuns()).isEqualTo(2);
+	}
+
+	@Test
+	void scheduler_decides_when_to_expire() {
+		ExpiryScheduler scheduler = mock(ExpiryScheduler.class);
+		GCOverflowDetector scheduled = new GCOverflowDetector(
+				eventSourceMock,
+				expiryMock,
+				detectorMock,
+				new TimeSeries<>(),
+				new NullJournal(),
+				scheduler
+		);
+
+		scheduled.handleGCEvent(new TimedData<>(ZonedDateTime.now(), new GCEvent(GCCollection.MAJOR,
+				Collections.singletonMap(MemoryPoolType.OLD, new Memory(1, 2, 3, 4)))));
+		verify(expiryMock, never()).isExpired(any());
+		verify(scheduler, times(1)).readingAdded(isNotNull());
+
+		scheduled.start();
+		verify(scheduler, times(1)).start(isNotNull());
+		scheduled.stop();
+		verify(scheduler, times(1)).stop();
+	}
+
+	@Test
+	void lazy_scheduler_expires_on_detect() {
+		TimeSeries<Memory> timeSeries = new TimeSeries<>();
+		GCOverflowDetector lazy = new GCOverflowDetector(
+				eventSourceMock,
+				new CollectionSizeExpiry<>(1),
+				detectorMock,
+				timeSeries,
+				new NullJournal(),
+				new LazyExpiryScheduler()
+		);
+		for (int i = 0; i < 3; i++) {
+			lazy.handleGCEvent(new TimedData<>(ZonedDateTime.now().plusSeconds(i), new GCEvent(GCCollection.MAJOR,
+					Collections.singletonMap(MemoryPoolType.OLD, new Memory(1, 2, 3, 4)))));
+		}
+		assertThat(timeSeries.size()).isEqualTo(3);
+
+		lazy.detect();
+
+		assertThat(timeSeries.size()).isEqualTo(1);
+		verify(detectorMock, times(1)).detect(timeSeries);
+	}
+
+	@Test
+	void background_scheduler_expires_without_gc() throws InterruptedException {
+		TimeSeries<Memory> timeSeries = new TimeSeries<>();
+		GCOverflowDetector background = new GCOverflowDetector(
+				eventSourceMock,
+				new CollectionSizeExpiry<>(1),
+				detectorMock,
+				timeSeries,
+				new NullJournal(),
+				new BackgroundExpiryScheduler(Duration.ofMillis(1), Integer.MAX_VALUE)
+		);
+		timeSeries.add(new TimedData<>(ZonedDateTime.now(), new Memory(1, 2, 3, 4)));
+		timeSeries.add(new TimedData<>(ZonedDateTime.now(), new Memory(1, 2, 3, 4)));
+
+		background.start();
+		try {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (timeSeries.size() > 1 && System.nanoTime() < deadline) {
+				Thread.sleep(1);
+			}
+		} finally {
+			background.stop();
+		}
+
+		assertThat(timeSeries.size()).isEqualTo(1);
+	}
+
 	@Test
 	void detect_has_been_called() {
 		Overflow expected = Overflow.ok("testing");
@@ -123,6 +271,38 @@ class GCOverflowDetectorTest {
 		private ZonedDateTime now = null;
 		private Memory memory = null;
 
+		@Test
+		void handleGCEvent_major_appends_to_journal() {
+			Journal journal = mock(Journal.class);
+			GCOverflowDetector journaled = new GCOverflowDetector(
+					eventSourceMock,
+					expiryMock,
+					detectorMock,
+					new TimeSeries<>(),
+					journal
+			);
+
+			journaled.handleGCEvent(givenMemoryInPoolType(MemoryPoolType.OLD, GCCollection.MAJOR));
+
+			verify(journal, times(1)).append(new TimedData<>(now, memory));
+		}
+
+		@Test
+		void handleGCEvent_minor_does_not_append_to_journal() {
+			Journal journal = mock(Journal.class);
+			GCOverflowDetector journaled = new GCOverflowDetector(
+					eventSourceMock,
+					expiryMock,
+					detectorMock,
+					new TimeSeries<>(),
+					journal
+			);
+
+			journaled.handleGCEvent(givenMemoryInPoolType(MemoryPoolType.OLD, GCCollection.MINOR));
+
+			verify(journal, never()).append(any());
+		}
+
 		@Test
 		void handleGCEvent_major() {
 			TimedData<GCEvent> params = givenMemoryInPoolType(MemoryPoolType.OLD, GCCollection.MAJOR);
@@ -181,6 +361,33 @@ class GCOverflowDetectorTest {
 			verify(expiryMock, never()).isExpired(any());
 		}
 
+		@Test
+		void handleGCEvent_major_records_all_pools() {
+			MultiPoolTimeSeries pools = new MultiPoolTimeSeries(10);
+			GCOverflowDetector allPools = new GCOverflowDetector(
+					eventSourceMock,
+					new CollectionSizeExpiry<>(2),
+					detectorMock,
+					pools
+			);
+			Map<MemoryPoolType, Memory> memoryAfterGC = new EnumMap<>(MemoryPoolType.class);
+			memoryAfterGC.put(MemoryPoolType.OLD, new Memory(1, 2, 3, 4));
+			memoryAfterGC.put(MemoryPoolType.METASPACE, new Memory(5, 6, 7, 8));
+
+			for (int i = 0; i < 3; i++) {
+				allPools.handleGCEvent(new TimedData<>(ZonedDateTime.now().plusSeconds(i),
+						new GCEvent(GCCollection.MAJOR, memoryAfterGC)));
+			}
+			allPools.handleGCEvent(new TimedData<>(ZonedDateTime.now(),
+					new GCEvent(GCCollection.MINOR, memoryAfterGC)));
+
+			assertThat(pools.size()).isEqualTo(2);
+			assertThat(pools.pool(MemoryPoolType.METASPACE).getTimedData())
+					.extracting(TimedData::getData)
+					.containsExactly(new Memory(5, 6, 7, 8), new Memory(5, 6, 7, 8));
+			assertThat(allPools.getTimeSeries()).isSameAs(pools.pool(MemoryPoolType.OLD));
+		}
+
 		private TimedData<GCEvent> givenMemoryInPoolType(MemoryPoolType poolType, GCCollection collection) {
 			this.now = ZonedDateTime.now();
 			this.memory = new Memory(1, 2, 3, 4);
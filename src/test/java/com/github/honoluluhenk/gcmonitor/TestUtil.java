@@ -3,6 +3,9 @@ package com.github.honoluluhenk.gcmonitor;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+
 public final class TestUtil {
 
 	private TestUtil() {
@@ -13,4 +16,11 @@ public final class TestUtil {
 		return ZonedDateTime
 				.of(2018, 1, day, 0, 0, 0, 0, ZoneId.systemDefault());
 	}
+
+	/**
+	 * A reading at midnight of {@code day}, only {@code used} varies.
+	 */
+	public static TimedData<Memory> reading(int day, long used) {
+		return new TimedData<>(mkTime(day), new Memory(-1, used, 1000, 2000));
+	}
 }
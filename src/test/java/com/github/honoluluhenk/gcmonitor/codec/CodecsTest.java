@@ -0,0 +1,263 @@
+package com.github.honoluluhenk.gcmonitor.codec;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.detection.overflow.Overflow;
+import com.github.honoluluhenk.gcmonitor.detection.overflow.Status;
+import com.github.honoluluhenk.gcmonitor.expiry.Params;
+import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import com.github.honoluluhenk.gcmonitor.timeddata.MemoryTimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.reading;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CodecsTest {
+
+	private static <T> T roundtrip(Codec<T> codec, T value) {
+		ByteBuffer encoded = Codecs.encode(codec, value);
+
+		assertThat(encoded.remaining()).isEqualTo(Codecs.HEADER_SIZE + codec.sizeOf(value));
+
+		T decoded = Codecs.decode(codec, encoded);
+		assertThat(encoded.hasRemaining()).isFalse();
+
+		return decoded;
+	}
+
+	@Nested
+	class RoundtripTest {
+		@Test
+		void memory() {
+			Memory memory = new Memory(1, 2, 3, 4);
+
+			assertThat(roundtrip(Codecs.MEMORY, memory)).isEqualTo(memory);
+		}
+
+		@Test
+		void memory_without_init_and_max() {
+			Memory memory = new Memory(-1, 2, 3, -1);
+
+			assertThat(roundtrip(Codecs.MEMORY, memory)).isEqualTo(memory);
+		}
+
+		@Test
+		void timed_data_keeps_nanos_and_region_zone() {
+			TimedData<Memory> timedData = new TimedData<>(
+					TestUtil.mkTime(3).withZoneSameInstant(ZoneId.of("Europe/Zurich")).plusNanos(123_456_789),
+					new Memory(1, 2, 3, 4));
+
+			TimedData<Memory> decoded = roundtrip(Codecs.timedData(Codecs.MEMORY), timedData);
+
+			assertThat(decoded).isEqualTo(timedData);
+			assertThat(decoded.getTimestamp().getZone()).isEqualTo(ZoneId.of("Europe/Zurich"));
+		}
+
+		@Test
+		void timed_data_with_offset_zone() {
+			TimedData<Memory> timedData = new TimedData<>(
+					TestUtil.mkTime(3).withZoneSameInstant(ZoneOffset.ofHoursMinutes(-3, -30)),
+					new Memory(1, 2, 3, 4));
+
+			TimedData<Memory> decoded = roundtrip(Codecs.timedData(Codecs.MEMORY), timedData);
+
+			assertThat(decoded.getTimestamp()).isEqualTo(timedData.getTimestamp());
+		}
+
+		@Test
+		void time_series() {
+			TimeSeries<Memory> timeSeries = new TimeSeries<>();
+			timeSeries.add(reading(1, 1));
+			timeSeries.add(reading(2, 2));
+			timeSeries.add(new TimedData<>(TestUtil.mkTime(3).withZoneSameInstant(ZoneOffset.UTC),
+					new Memory(-1, 3, 1000, 2000)));
+
+			TimeSeries<Memory> decoded = roundtrip(Codecs.timeSeries(Codecs.MEMORY), timeSeries);
+
+			assertThat(decoded.getTimedData()).isEqualTo(timeSeries.getTimedData());
+			assertThat(decoded.getTimedData().get(2).getTimestamp().getZone()).isEqualTo(ZoneOffset.UTC);
+		}
+
+		@Test
+		void empty_time_series() {
+			TimeSeries<Memory> decoded = roundtrip(Codecs.timeSeries(Codecs.MEMORY), new TimeSeries<>());
+
+			assertThat(decoded.getTimedData()).isEmpty();
+		}
+
+		@Test
+		void time_series_snapshot_ignores_concurrent_adds() {
+			TimeSeries<Memory> timeSeries = new TimeSeries<>();
+			timeSeries.add(reading(1, 1));
+			Codec<TimeSeries<Memory>> codec = Codecs.timeSeries(Codecs.MEMORY);
+
+			TimeSeries<Memory> snapshot = codec.snapshot(timeSeries);
+			int size = codec.sizeOf(snapshot);
+			timeSeries.add(reading(2, 2));
+
+			ByteBuffer out = ByteBuffer.allocate(size);
+			codec.write(snapshot, out);
+			assertThat(out.remaining()).isEqualTo(0);
+		}
+
+		@Test
+		void time_series_into_memory_time_series() {
+			TimeSeries<Memory> timeSeries = new TimeSeries<>();
+			for (int day = 1; day <= 5; day++) {
+				timeSeries.add(reading(day, day));
+			}
+			ByteBuffer encoded = Codecs.encode(Codecs.timeSeries(Codecs.MEMORY), timeSeries);
+			encoded.position(Codecs.HEADER_SIZE);
+
+			MemoryTimeSeries target = new MemoryTimeSeries(3);
+			Codecs.readTimeSeriesInto(Codecs.MEMORY, encoded, target);
+
+			assertThat(target.getTimedData()).containsExactly(reading(3, 3), reading(4, 4), reading(5, 5));
+		}
+
+		@Test
+		void gc_event() {
+			Map<MemoryPoolType, Memory> memoryAfterGC = new EnumMap<>(MemoryPoolType.class);
+			memoryAfterGC.put(MemoryPoolType.OLD, new Memory(1, 2, 3, 4));
+			memoryAfterGC.put(MemoryPoolType.METASPACE, new Memory(-1, 5, 6, -1));
+			Map<MemoryPoolType, Memory> memoryBeforeGC = new EnumMap<>(MemoryPoolType.class);
+			memoryBeforeGC.put(MemoryPoolType.OLD, new Memory(1, 3, 3, 4));
+			GCEvent event = new GCEvent("G1 Old Generation", GCCollection.MAJOR, memoryBeforeGC, memoryAfterGC,
+					Duration.ofMillis(42));
+
+			GCEvent decoded = roundtrip(Codecs.GC_EVENT, event);
+
+			assertThat(decoded.getGcName()).isEqualTo("G1 Old Generation");
+			assertThat(decoded.getCollection()).isEqualTo(GCCollection.MAJOR);
+			assertThat(decoded.getMemoryBeforeGC()).isEqualTo(memoryBeforeGC);
+			assertThat(decoded.getMemoryAfterGC()).isEqualTo(memoryAfterGC);
+			assertThat(decoded.getDuration()).isEqualTo(Duration.ofMillis(42));
+		}
+
+		@Test
+		void params() {
+			List<TimedData<Memory>> allData = Arrays.asList(reading(1, 1), reading(2, 2));
+			Params<Memory> params = new Params<>(reading(2, 2), allData);
+
+			Params<Memory> decoded = roundtrip(Codecs.params(Codecs.MEMORY), params);
+
+			assertThat(decoded.getTimedData()).isEqualTo(reading(2, 2));
+			assertThat(decoded.getAllData()).isEqualTo(allData);
+		}
+
+		@Test
+		void overflow() {
+			Overflow overflow = Overflow.overflow("usage above 80% – really");
+
+			Overflow decoded = roundtrip(Codecs.OVERFLOW, overflow);
+
+			assertThat(decoded.getStatus()).isEqualTo(Status.OVERFLOW);
+			assertThat(decoded.getReason()).isEqualTo(overflow.getReason());
+		}
+	}
+
+	@Nested
+	class BufferTest {
+		@Test
+		void writes_at_position_of_direct_buffer() {
+			Codec<TimedData<Memory>> codec = Codecs.timedData(Codecs.MEMORY);
+			TimedData<Memory> first = reading(1, 1);
+			TimedData<Memory> second = reading(2, 2);
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(codec.sizeOf(first) + codec.sizeOf(second));
+			codec.write(first, buffer);
+			codec.write(second, buffer);
+			assertThat(buffer.hasRemaining()).isFalse();
+
+			buffer.flip();
+			assertThat(codec.read(buffer)).isEqualTo(first);
+			assertThat(codec.read(buffer)).isEqualTo(second);
+		}
+
+		@Test
+		void encoding_is_stable() {
+			ByteBuffer encoded = Codecs.encode(Codecs.MEMORY, new Memory(-1, 2, 3, 4));
+
+			byte[] bytes = new byte[encoded.remaining()];
+			encoded.get(bytes);
+
+			assertThat(bytes).containsExactly(
+					0x47, 0x4D, 4, 1,
+					-1, -1, -1, -1, -1, -1, -1, -1,
+					0, 0, 0, 0, 0, 0, 0, 2,
+					0, 0, 0, 0, 0, 0, 0, 3,
+					0, 0, 0, 0, 0, 0, 0, 4);
+		}
+	}
+
+	@Nested
+	class InvalidDataTest {
+		private final ByteBuffer encoded = Codecs.encode(Codecs.MEMORY, new Memory(1, 2, 3, 4));
+
+		@Test
+		void wrong_magic() {
+			encoded.put(0, (byte) 0);
+
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> Codecs.decode(Codecs.MEMORY, encoded));
+
+			assertThat(iae).hasMessage("not an encoded value, magic: 77");
+		}
+
+		@Test
+		void unsupported_version() {
+			// version 3 encoded GCEvents without the collector name
+			encoded.put(2, (byte) 3);
+
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> Codecs.decode(Codecs.MEMORY, encoded));
+
+			assertThat(iae).hasMessage("unsupported format version: 3");
+		}
+
+		@Test
+		void wrong_type() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> Codecs.decode(Codecs.OVERFLOW, encoded));
+
+			assertThat(iae).hasMessage("expected type tag 6 but was: 1");
+		}
+
+		@Test
+		void unknown_enum_code() {
+			ByteBuffer overflow = Codecs.encode(Codecs.OVERFLOW, Overflow.ok("fine"));
+			overflow.put(Codecs.HEADER_SIZE, (byte) 2);
+
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> Codecs.decode(Codecs.OVERFLOW, overflow));
+
+			assertThat(iae).hasMessage("unknown code: 2");
+		}
+
+		@Test
+		void invalid_count() {
+			ByteBuffer timeSeries = Codecs.encode(Codecs.timeSeries(Codecs.MEMORY), new TimeSeries<>());
+			timeSeries.putInt(Codecs.HEADER_SIZE, Integer.MAX_VALUE);
+
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> Codecs.decode(Codecs.timeSeries(Codecs.MEMORY), timeSeries));
+
+			assertThat(iae).hasMessage("invalid count: " + Integer.MAX_VALUE);
+		}
+	}
+}
@@ -199,6 +199,26 @@ class AverageUsageAboveThresholdTest {
 
 	}
 
+	@Nested
+	class AttachTest {
+		private final AverageUsageAboveThreshold detector = new AverageUsageAboveThreshold(3, THRESHOLD_PCT);
+		private final TimeSeries<Memory> gcInfo = new TimeSeries<>();
+
+		@Test
+		void starts_the_aggregate() {
+			detector.attach(gcInfo);
+
+			assertThat(gcInfo.findAggregate(MemoryMetric.USAGE_PCT)).isPresent();
+		}
+
+		@Test
+		void detect_starts_the_aggregate_if_not_attached() {
+			detector.detect(gcInfo);
+
+			assertThat(gcInfo.findAggregate(MemoryMetric.USAGE_PCT)).isPresent();
+		}
+	}
+
 	@Nested
 	public class DetectorValidationTest {
 		@ParameterizedTest
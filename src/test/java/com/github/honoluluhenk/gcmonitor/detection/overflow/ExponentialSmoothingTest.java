@@ -0,0 +1,79 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Test;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExponentialSmoothingTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final Duration MINUTE = Duration.ofMinutes(1);
+
+	private static long at(Duration offset) {
+		return EpochNanos.of(START.plus(offset));
+	}
+
+	@Test
+	void first_value_is_the_level() {
+		ExponentialSmoothing dot = new ExponentialSmoothing(MemoryMetric.USED, MINUTE, null);
+
+		dot.update(at(Duration.ZERO), 42.0d);
+
+		assertThat(dot.getCount()).isEqualTo(1);
+		assertThat(dot.getLevel()).isEqualTo(42.0d);
+		assertThat(dot.getTrendPerSecond()).isEqualTo(0.0d);
+	}
+
+	@Test
+	void reading_after_one_halfLife_counts_half() {
+		ExponentialSmoothing dot = new ExponentialSmoothing(MemoryMetric.USED, MINUTE, null);
+
+		dot.update(at(Duration.ZERO), 0.0d);
+		dot.update(at(MINUTE), 100.0d);
+
+		assertThat(dot.getLevel()).isCloseTo(50.0d, within(1e-9));
+	}
+
+	@Test
+	void holt_follows_a_linear_trend() {
+		ExponentialSmoothing dot = new ExponentialSmoothing(MemoryMetric.USED, MINUTE, MINUTE);
+
+		// 1 per second, irregularly spaced
+		long second = 0;
+		for (int i = 0; i < 200; i++) {
+			second += 1 + i % 7;
+			dot.update(at(Duration.ofSeconds(second)), second);
+		}
+
+		assertThat(dot.getTrendPerSecond()).isCloseTo(1.0d, within(0.01d));
+		assertThat(dot.forecast(Duration.ofSeconds(100))).isCloseTo(second + 100.0d, within(2.0d));
+	}
+
+	@Test
+	void update_reads_the_metric_of_a_reading() {
+		ExponentialSmoothing dot = new ExponentialSmoothing(MemoryMetric.USED, MINUTE, null);
+
+		dot.update(new TimedData<>(START, new Memory(-1, 10, 100, 100)));
+		dot.update(new TimedData<>(START.plus(MINUTE), new Memory(-1, 30, 100, 100)));
+
+		assertThat(dot.getCount()).isEqualTo(2);
+		assertThat(dot.getLevel()).isCloseTo(20.0d, within(1e-9));
+	}
+
+	@Test
+	void requirePositive() {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> ExponentialSmoothing.requirePositive(Duration.ZERO, "halfLife"));
+
+		assertThat(iae).hasMessage("halfLife must be > 0 but was: PT0S");
+		assertThrows(NullPointerException.class, () -> ExponentialSmoothing.requirePositive(null, "halfLife"));
+	}
+}
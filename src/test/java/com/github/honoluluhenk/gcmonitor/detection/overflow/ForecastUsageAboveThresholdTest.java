@@ -0,0 +1,104 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowTestUtil.assertOverflow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ForecastUsageAboveThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final Duration MINUTE = Duration.ofMinutes(1);
+	private static final Duration HORIZON = Duration.ofMinutes(30);
+
+	private final ForecastUsageAboveThreshold dot =
+			new ForecastUsageAboveThreshold(3, MINUTE, Duration.ofMinutes(5), HORIZON, 90.0d);
+	private final TimeSeries<Memory> timeSeries = new TimeSeries<>();
+
+	private void add(int minute, long usagePct) {
+		timeSeries.add(new TimedData<>(START.plus(MINUTE.multipliedBy(minute)),
+				new Memory(-1, usagePct, 100, 100)));
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, 0, 1 })
+		void invalid_numMeasures(int numMeasures) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new ForecastUsageAboveThreshold(numMeasures, MINUTE, MINUTE, HORIZON, 90.0d));
+
+			assertThat(iae).hasMessage("numMeasures must be >= 2 but was: " + numMeasures);
+		}
+
+		@Test
+		void invalid_durations() {
+			IllegalArgumentException level = assertThrows(IllegalArgumentException.class,
+					() -> new ForecastUsageAboveThreshold(2, Duration.ZERO, MINUTE, HORIZON, 90.0d));
+			IllegalArgumentException trend = assertThrows(IllegalArgumentException.class,
+					() -> new ForecastUsageAboveThreshold(2, MINUTE, Duration.ZERO, HORIZON, 90.0d));
+			IllegalArgumentException horizon = assertThrows(IllegalArgumentException.class,
+					() -> new ForecastUsageAboveThreshold(2, MINUTE, MINUTE, Duration.ZERO, 90.0d));
+
+			assertThat(level).hasMessage("levelHalfLife must be > 0 but was: PT0S");
+			assertThat(trend).hasMessage("trendHalfLife must be > 0 but was: PT0S");
+			assertThat(horizon).hasMessage("horizon must be > 0 but was: PT0S");
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, 0.0d, 100.1d })
+		void invalid_thresholdPct(double thresholdPct) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new ForecastUsageAboveThreshold(2, MINUTE, MINUTE, HORIZON, thresholdPct));
+
+			assertThat(iae).hasMessage("thresholdPct must be 0 < x <= 100 but was: " + thresholdPct);
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getNumMeasures()).isEqualTo(3);
+			assertThat(dot.getHorizon()).isEqualTo(HORIZON);
+			assertThat(dot.getThresholdPct()).isEqualTo(90.0d);
+		}
+	}
+
+	@Test
+	void not_enough_measures() {
+		add(0, 10);
+		add(1, 20);
+
+		assertOverflow(dot.detect(timeSeries), Status.OK, "Not enough measures, have: 2 but need at least 3");
+	}
+
+	@Test
+	void flat_usage_is_ok() {
+		for (int minute = 0; minute < 30; minute++) {
+			add(minute, 60);
+		}
+
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+	}
+
+	@Test
+	void growing_usage_overflows_before_reaching_the_threshold() {
+		// 1% per minute: 30 minutes ahead is 90%
+		for (int minute = 0; minute <= 60; minute++) {
+			add(minute, minute + 10);
+		}
+
+		Overflow overflow = dot.detect(timeSeries);
+
+		assertThat(overflow.getStatus()).isEqualTo(Status.OVERFLOW);
+		assertThat(overflow.getReason()).startsWith("Forecast usage in PT30M: ");
+	}
+}
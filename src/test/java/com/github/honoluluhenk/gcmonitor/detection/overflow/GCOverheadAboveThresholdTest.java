@@ -0,0 +1,192 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowTestUtil.assertOverflow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GCOverheadAboveThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final Duration MINUTE = Duration.ofMinutes(1);
+
+	private long nowSecond = 0;
+
+	private GCOverheadAboveThreshold detector(double gcTimeLimitPct, double heapFreeLimitPct) {
+		return new GCOverheadAboveThreshold(MINUTE, gcTimeLimitPct, heapFreeLimitPct) {
+			@Override
+			long now() {
+				return EpochNanos.of(START.plusSeconds(nowSecond));
+			}
+		};
+	}
+
+	private static TimedData<GCEvent> minor(long endSecond, long durationSeconds) {
+		return new TimedData<>(START.plusSeconds(endSecond), new GCEvent(GCCollection.MINOR,
+				Collections.emptyMap(), Duration.ofSeconds(durationSeconds)));
+	}
+
+	private static TimedData<GCEvent> major(long endSecond, long durationSeconds, Memory old) {
+		Map<MemoryPoolType, Memory> memoryAfterGC = new EnumMap<>(MemoryPoolType.class);
+		memoryAfterGC.put(MemoryPoolType.OLD, old);
+		return new TimedData<>(START.plusSeconds(endSecond), new GCEvent(GCCollection.MAJOR,
+				memoryAfterGC, Duration.ofSeconds(durationSeconds)));
+	}
+
+	/**
+	 * A 3 second collection every 6 seconds until second 117: 50% GC time, the window covers 54 seconds.
+	 */
+	private void thrash(GCOverheadAboveThreshold dot) {
+		for (long second = 3; second < 120; second += 6) {
+			dot.accept(minor(second, 3));
+		}
+		nowSecond = 120;
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@Test
+		void invalid_window() {
+			IllegalArgumentException zero = assertThrows(IllegalArgumentException.class,
+					() -> new GCOverheadAboveThreshold(Duration.ZERO, 40.0d));
+			IllegalArgumentException tiny = assertThrows(IllegalArgumentException.class,
+					() -> new GCOverheadAboveThreshold(Duration.ofNanos(9), 40.0d));
+
+			assertThat(zero).hasMessage("window must be > 0 but was: PT0S");
+			assertThat(tiny).hasMessage("window must be >= 10 nanoseconds but was: PT0.000000009S");
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, 0.0d, 100.1d, Double.NaN })
+		void invalid_gcTimeLimitPct(double gcTimeLimitPct) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new GCOverheadAboveThreshold(MINUTE, gcTimeLimitPct));
+
+			assertThat(iae).hasMessage("gcTimeLimitPct must be 0 < x <= 100 but was: " + gcTimeLimitPct);
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, 0.0d, 100.1d, Double.NaN })
+		void invalid_heapFreeLimitPct(double heapFreeLimitPct) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new GCOverheadAboveThreshold(MINUTE, 40.0d, heapFreeLimitPct));
+
+			assertThat(iae).hasMessage("heapFreeLimitPct must be 0 < x <= 100 but was: " + heapFreeLimitPct);
+		}
+
+		@Test
+		void values() {
+			GCOverheadAboveThreshold dot = new GCOverheadAboveThreshold(MINUTE, 40.0d);
+
+			assertThat(dot.getWindow()).isEqualTo(MINUTE);
+			assertThat(dot.getGcTimeLimitPct()).isEqualTo(40.0d);
+			assertThat(dot.getHeapFreeLimitPct()).isEqualTo(100.0d);
+		}
+	}
+
+	@Test
+	void not_enough_data() {
+		GCOverheadAboveThreshold dot = detector(40.0d, 100.0d);
+		dot.accept(minor(10, 1));
+		nowSecond = 40;
+
+		assertOverflow(dot.detect(), Status.OK, "Not enough data, need collections over at least PT1M");
+	}
+
+	@Test
+	void gc_time_below_limit() {
+		GCOverheadAboveThreshold dot = detector(60.0d, 100.0d);
+		thrash(dot);
+
+		assertOverflow(dot.detect(), Status.OK, "GC time < gcTimeLimitPct: 50.00000% < 60.00000% within PT1M");
+	}
+
+	@Test
+	void gc_time_above_limit() {
+		GCOverheadAboveThreshold dot = detector(40.0d, 100.0d);
+		thrash(dot);
+
+		assertOverflow(dot.detect(), Status.OVERFLOW, "GC time: 50.00000% >= 40.00000% within PT1M");
+	}
+
+	@Test
+	void recovers_when_collections_stop() {
+		GCOverheadAboveThreshold dot = detector(40.0d, 100.0d);
+		thrash(dot);
+		nowSecond = 150;
+
+		assertOverflow(dot.detect(), Status.OK, "GC time < gcTimeLimitPct: 22.22222% < 40.00000% within PT1M");
+
+		nowSecond = 180;
+		assertThat(dot.detect().getReason()).startsWith("GC time < gcTimeLimitPct: 0.00000%");
+	}
+
+	@Test
+	void ignores_late_events_outside_of_the_window() {
+		GCOverheadAboveThreshold dot = detector(60.0d, 100.0d);
+		thrash(dot);
+
+		dot.accept(minor(30, 30));
+
+		assertThat(dot.detect().getReason()).startsWith("GC time < gcTimeLimitPct: 50.00000%");
+	}
+
+	@Test
+	void counts_only_the_part_of_a_collection_within_the_window() {
+		GCOverheadAboveThreshold dot = detector(20.0d, 100.0d);
+		dot.accept(minor(0, 0));
+		// from second 60 to 72, the window starts at 66
+		dot.accept(minor(72, 12));
+		nowSecond = 120;
+
+		assertOverflow(dot.detect(), Status.OK, "GC time < gcTimeLimitPct: 11.11111% < 20.00000% within PT1M");
+	}
+
+	@Nested
+	class HeapFreeLimitTest {
+		private final GCOverheadAboveThreshold dot = detector(40.0d, 10.0d);
+
+		@Test
+		void overflow_if_little_heap_is_freed() {
+			thrash(dot);
+			dot.accept(major(119, 0, new Memory(-1, 95, 95, 100)));
+
+			assertOverflow(dot.detect(), Status.OVERFLOW,
+					"GC time: 50.00000% >= 40.00000% within PT1M, heap free after major GC: 5.00000% < 10.00000%");
+		}
+
+		@Test
+		void ok_if_enough_heap_is_freed() {
+			thrash(dot);
+			dot.accept(major(119, 0, new Memory(-1, 50, 50, 100)));
+
+			assertOverflow(dot.detect(), Status.OK,
+					"GC time: 50.00000% >= 40.00000% but heap free after major GC: 50.00000% >= 10.00000%");
+		}
+
+		@Test
+		void ok_if_free_heap_is_unknown() {
+			thrash(dot);
+			dot.accept(major(119, 0, new Memory(-1, 50, 50, -1)));
+
+			assertOverflow(dot.detect(), Status.OK,
+					"GC time: 50.00000% >= 40.00000% but heap free after major GC: unknown >= 10.00000%");
+		}
+	}
+}
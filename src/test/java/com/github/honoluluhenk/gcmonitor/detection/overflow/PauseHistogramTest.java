@@ -0,0 +1,118 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PauseHistogramTest {
+	private static final long MILLIS = 1_000_000L;
+
+	private final PauseHistogram dot = new PauseHistogram();
+
+	private void record(long nanos, int times) {
+		for (int i = 0; i < times; i++) {
+			dot.recordNanos(nanos);
+		}
+	}
+
+	@Test
+	void buckets_are_exact_below_64_micros() {
+		for (int micros = 0; micros < 64; micros++) {
+			assertThat(PauseHistogram.highestEquivalentMicros(PauseHistogram.bucketIndex(micros))).isEqualTo(micros);
+		}
+	}
+
+	@Test
+	void buckets_are_within_3_percent() {
+		int previousIndex = -1;
+		for (long micros = 64; micros < (1L << 32); micros += 1 + micros / 97) {
+			int index = PauseHistogram.bucketIndex(micros);
+			long highest = PauseHistogram.highestEquivalentMicros(index);
+
+			assertThat(index).isGreaterThanOrEqualTo(previousIndex).isLessThan(PauseHistogram.BUCKETS);
+			assertThat(highest).isGreaterThanOrEqualTo(micros);
+			assertThat((double) (highest - micros) / micros).isLessThanOrEqualTo(1.0d / 32);
+			previousIndex = index;
+		}
+	}
+
+	@Test
+	void lowest_equivalent_is_the_start_of_the_bucket() {
+		for (long micros = 0; micros < (1L << 32); micros += 1 + micros / 97) {
+			int index = PauseHistogram.bucketIndex(micros);
+			long lowest = PauseHistogram.lowestEquivalentMicros(index);
+
+			assertThat(lowest).isLessThanOrEqualTo(micros);
+			assertThat(PauseHistogram.bucketIndex(lowest)).isEqualTo(index);
+			assertThat(PauseHistogram.bucketIndex(lowest - 1)).isEqualTo(index - 1);
+		}
+	}
+
+	@Test
+	void clamps_huge_pauses() {
+		dot.recordNanos(Long.MAX_VALUE);
+
+		assertThat(PauseHistogram.bucketIndex(Long.MAX_VALUE)).isEqualTo(PauseHistogram.BUCKETS - 1);
+		assertThat(dot.percentile(100.0d)).contains(Duration.ofNanos(((1L << 32) - 1) * 1_000L));
+	}
+
+	@Test
+	void empty() {
+		assertThat(dot.getCount()).isEqualTo(0);
+		assertThat(dot.percentile(99.0d)).isEmpty();
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { -1.0d, 0.0d, 100.1d, Double.NaN })
+	void invalid_percentile(double percentile) {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class, () -> dot.percentile(percentile));
+
+		assertThat(iae).hasMessage("percentile must be 0 < x <= 100 but was: " + percentile);
+	}
+
+	@Test
+	void percentiles() {
+		record(MILLIS, 99);
+		record(200 * MILLIS, 1);
+
+		assertThat(dot.getCount()).isEqualTo(100);
+		assertThat(dot.percentile(50.0d)).contains(Duration.ofNanos(1_007_000L));
+		assertThat(dot.percentile(99.0d)).contains(Duration.ofNanos(1_007_000L));
+		assertThat(dot.percentile(100.0d)).contains(Duration.ofNanos(200_703_000L));
+	}
+
+	@Test
+	void lower_bound_percentiles() {
+		record(MILLIS, 99);
+		record(200 * MILLIS, 1);
+
+		assertThat(dot.percentileLowerBound(99.0d)).contains(Duration.ofNanos(992_000L));
+		assertThat(dot.percentileLowerBound(100.0d)).contains(Duration.ofNanos(196_608_000L));
+		assertThat(new PauseHistogram().percentileLowerBound(99.0d)).isEmpty();
+	}
+
+	@Test
+	void merge_subtract_and_copy() {
+		PauseHistogram other = new PauseHistogram();
+		other.recordNanos(200 * MILLIS);
+		record(MILLIS, 3);
+
+		dot.merge(other);
+		PauseHistogram copy = dot.copy();
+		assertThat(dot.getCount()).isEqualTo(4);
+		assertThat(dot.percentile(100.0d)).contains(Duration.ofNanos(200_703_000L));
+
+		dot.subtract(other);
+		assertThat(dot.getCount()).isEqualTo(3);
+		assertThat(dot.percentile(100.0d)).contains(Duration.ofNanos(1_007_000L));
+
+		dot.clear();
+		assertThat(dot.getCount()).isEqualTo(0);
+		assertThat(copy.getCount()).isEqualTo(4);
+	}
+}
@@ -0,0 +1,39 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PauseSloTest {
+	@ParameterizedTest
+	@ValueSource(doubles = { -1.0d, 0.0d, 100.1d, Double.NaN })
+	void invalid_percentile(double percentile) {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> new PauseSlo(percentile, Duration.ofMillis(200)));
+
+		assertThat(iae).hasMessage("percentile must be 0 < x <= 100 but was: " + percentile);
+	}
+
+	@Test
+	void invalid_maxPause() {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> new PauseSlo(99.0d, Duration.ZERO));
+
+		assertThat(iae).hasMessage("maxPause must be > 0 but was: PT0S");
+		assertThrows(NullPointerException.class, () -> new PauseSlo(99.0d, null));
+	}
+
+	@Test
+	void values() {
+		PauseSlo slo = new PauseSlo(99.9d, Duration.ofMillis(200));
+
+		assertThat(slo.getPercentile()).isEqualTo(99.9d);
+		assertThat(slo.getMaxPause()).isEqualTo(Duration.ofMillis(200));
+		assertThat(slo).hasToString("p99.9 <= PT0.2S");
+	}
+}
@@ -0,0 +1,139 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowTestUtil.assertOverflow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PauseTimeAboveThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final Duration MINUTE = Duration.ofMinutes(1);
+	private static final String YOUNG = "G1 Young Generation";
+	private static final String OLD = "G1 Old Generation";
+
+	private long nowSecond = 0;
+
+	private final PauseTimeAboveThreshold dot = new PauseTimeAboveThreshold(MINUTE, Arrays.asList(
+			new PauseSlo(99.0d, Duration.ofMillis(200)),
+			new PauseSlo(100.0d, Duration.ofSeconds(1)))) {
+		@Override
+		long now() {
+			return EpochNanos.of(START.plusSeconds(nowSecond));
+		}
+	};
+
+	private void pause(String gcName, long second, long millis) {
+		dot.accept(new TimedData<>(START.plusSeconds(second), new GCEvent(gcName, GCCollection.MINOR,
+				Collections.emptyMap(), Collections.emptyMap(), Duration.ofMillis(millis))));
+		nowSecond = Math.max(nowSecond, second);
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@Test
+		void invalid_window() {
+			IllegalArgumentException zero = assertThrows(IllegalArgumentException.class,
+					() -> new PauseTimeAboveThreshold(Duration.ZERO, dot.getSlos()));
+			IllegalArgumentException tiny = assertThrows(IllegalArgumentException.class,
+					() -> new PauseTimeAboveThreshold(Duration.ofNanos(9), dot.getSlos()));
+
+			assertThat(zero).hasMessage("window must be > 0 but was: PT0S");
+			assertThat(tiny).hasMessage("window must be >= 10 nanoseconds but was: PT0.000000009S");
+		}
+
+		@Test
+		void invalid_slos() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new PauseTimeAboveThreshold(MINUTE, Collections.emptyList()));
+
+			assertThat(iae).hasMessage("need at least one slo");
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getWindow()).isEqualTo(MINUTE);
+			assertThat(dot.getSlos()).extracting(PauseSlo::getPercentile).containsExactly(99.0d, 100.0d);
+		}
+	}
+
+	@Test
+	void no_pauses() {
+		assertOverflow(dot.detect(), Status.OK, "All pause SLOs met within PT1M: [p99.0 <= PT0.2S, p100.0 <= PT1S]");
+	}
+
+	@Test
+	void short_pauses_are_ok() {
+		for (int second = 0; second < 100; second++) {
+			pause(YOUNG, second, 10);
+		}
+
+		assertThat(dot.detect().getStatus()).isEqualTo(Status.OK);
+	}
+
+	@Test
+	void pause_just_below_the_max_is_ok() {
+		// the bucket of 199ms reaches up to about 200.7ms
+		for (int second = 0; second < 10; second++) {
+			pause(YOUNG, second, 199);
+		}
+
+		assertThat(dot.detect().getStatus()).isEqualTo(Status.OK);
+	}
+
+	@Test
+	void long_pause_violates_percentile() {
+		for (int second = 0; second < 10; second++) {
+			pause(YOUNG, second, 10);
+		}
+		pause(YOUNG, 10, 250);
+
+		assertOverflow(dot.detect(), Status.OVERFLOW,
+				"Pause SLOs violated within PT1M: G1 Young Generation p99.0: PT0.249856S > PT0.2S");
+	}
+
+	@Test
+	void collectors_are_kept_apart() {
+		for (int second = 0; second < 100; second++) {
+			pause(YOUNG, second, 10);
+		}
+		pause(OLD, 50, 2_000);
+
+		assertOverflow(dot.detect(), Status.OVERFLOW, "Pause SLOs violated within PT1M: "
+				+ "G1 Old Generation p99.0: PT1.998848S > PT0.2S, G1 Old Generation p100.0: PT1.998848S > PT1S");
+		assertThat(dot.getHistograms()).containsOnlyKeys(YOUNG, OLD);
+		assertThat(dot.getHistograms().get(OLD).getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void long_pause_leaves_the_window() {
+		pause(YOUNG, 10, 250);
+		assertThat(dot.detect().getStatus()).isEqualTo(Status.OVERFLOW);
+
+		nowSecond = 75;
+
+		assertThat(dot.detect().getStatus()).isEqualTo(Status.OK);
+		assertThat(dot.getHistograms().get(YOUNG).getCount()).isEqualTo(0);
+	}
+
+	@Test
+	void ignores_late_pauses_outside_of_the_window() {
+		pause(YOUNG, 120, 10);
+
+		pause(YOUNG, 30, 250);
+
+		assertThat(dot.detect().getStatus()).isEqualTo(Status.OK);
+		assertThat(dot.getHistograms().get(YOUNG).getCount()).isEqualTo(1);
+	}
+}
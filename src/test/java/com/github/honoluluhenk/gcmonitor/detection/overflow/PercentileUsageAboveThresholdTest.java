@@ -0,0 +1,189 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowTestUtil.assertOverflow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PercentileUsageAboveThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final Duration HOUR = Duration.ofHours(1);
+
+	private final PercentileUsageAboveThreshold dot = new PercentileUsageAboveThreshold(5, 90.0d, HOUR, 75.0d);
+	private final TimeSeries<Memory> timeSeries = new TimeSeries<>();
+
+	private void add(int minute, long usagePct) {
+		timeSeries.add(new TimedData<>(START.plusMinutes(minute), new Memory(-1, usagePct, 100, 100)));
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_numMeasures(int numMeasures) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new PercentileUsageAboveThreshold(numMeasures, 90.0d, HOUR, 75.0d));
+
+			assertThat(iae).hasMessage("numMeasures must be > 0 but was: " + numMeasures);
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, 0.0d, 100.1d })
+		void invalid_percentile(double percentile) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new PercentileUsageAboveThreshold(1, percentile, HOUR, 75.0d));
+
+			assertThat(iae).hasMessage("percentile must be 0 < x <= 100 but was: " + percentile);
+		}
+
+		@Test
+		void invalid_window() {
+			IllegalArgumentException zero = assertThrows(IllegalArgumentException.class,
+					() -> new PercentileUsageAboveThreshold(1, 90.0d, Duration.ZERO, 75.0d));
+			IllegalArgumentException tiny = assertThrows(IllegalArgumentException.class,
+					() -> new PercentileUsageAboveThreshold(1, 90.0d, Duration.ofNanos(9), 75.0d));
+
+			assertThat(zero).hasMessage("window must be > 0 but was: PT0S");
+			assertThat(tiny).hasMessage("window must be >= 10 nanoseconds but was: PT0.000000009S");
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, 0.0d, 100.1d })
+		void invalid_thresholdPct(double thresholdPct) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new PercentileUsageAboveThreshold(1, 90.0d, HOUR, thresholdPct));
+
+			assertThat(iae).hasMessage("thresholdPct must be 0 < x <= 100 but was: " + thresholdPct);
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getNumMeasures()).isEqualTo(5);
+			assertThat(dot.getPercentile()).isEqualTo(90.0d);
+			assertThat(dot.getWindow()).isEqualTo(HOUR);
+			assertThat(dot.getThresholdPct()).isEqualTo(75.0d);
+		}
+	}
+
+	@Test
+	void not_enough_measures() {
+		add(0, 99);
+
+		assertOverflow(dot.detect(timeSeries), Status.OK, "Not enough measures, have: 1 but need at least 5");
+	}
+
+	@Test
+	void few_high_readings_are_ok() {
+		for (int minute = 0; minute < 20; minute++) {
+			add(minute, minute % 10 == 0 ? 95 : 50);
+		}
+
+		assertOverflow(dot.detect(timeSeries), Status.OK,
+				"p90.0 usagePct < thresholdPct: 50.0 < 75.0, have 20 measures");
+	}
+
+	@Test
+	void usage_just_below_the_threshold_is_ok() {
+		// 74.9% shares its bucket (74.75% to 75%) with the threshold
+		for (int minute = 0; minute < 20; minute++) {
+			timeSeries.add(new TimedData<>(START.plusMinutes(minute), new Memory(-1, 749, 1000, 1000)));
+		}
+
+		assertOverflow(dot.detect(timeSeries), Status.OK,
+				"p90.0 usagePct < thresholdPct: 74.75 < 75.0, have 20 measures");
+	}
+
+	@Test
+	void usage_at_the_threshold_overflows() {
+		for (int minute = 0; minute < 20; minute++) {
+			add(minute, 75);
+		}
+
+		assertOverflow(dot.detect(timeSeries), Status.OVERFLOW, "p90.0 usage: 75.00000% >= 75.00000%");
+	}
+
+	@Test
+	void mostly_high_readings_overflow() {
+		for (int minute = 0; minute < 20; minute++) {
+			add(minute, minute % 2 == 0 ? 80 : 50);
+		}
+
+		assertOverflow(dot.detect(timeSeries), Status.OVERFLOW, "p90.0 usage: 80.00000% >= 75.00000%");
+	}
+
+	@Test
+	void old_readings_leave_the_window() {
+		for (int minute = 0; minute < 10; minute++) {
+			add(minute, 90);
+		}
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OVERFLOW);
+
+		// expired readings still count as long as they are within the window
+		timeSeries.expire(new CollectionSizeExpiry<>(1));
+		for (int minute = 10; minute < 20; minute++) {
+			add(minute, 50);
+		}
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OVERFLOW);
+		assertThat(dot.getHistogram().getCount()).isEqualTo(20);
+
+		for (int minute = 60; minute < 70; minute++) {
+			add(minute, 50);
+		}
+		dot.detect(timeSeries);
+		assertThat(dot.getHistogram().getCount()).isEqualTo(18);
+
+		for (int minute = 70; minute < 80; minute++) {
+			add(minute, 50);
+		}
+		assertOverflow(dot.detect(timeSeries), Status.OK,
+				"p90.0 usagePct < thresholdPct: 50.0 < 75.0, have 20 measures");
+	}
+
+	@Test
+	void ignores_out_of_order_readings_outside_of_the_window() {
+		for (int minute = 120; minute < 125; minute++) {
+			add(minute, 50);
+		}
+		dot.detect(timeSeries);
+
+		add(10, 99);
+		add(130, 50);
+
+		assertThat(dot.detect(timeSeries).getReason()).endsWith("have 6 measures");
+	}
+
+	@Test
+	void sees_readings_expired_between_detections() {
+		dot.attach(timeSeries);
+		for (int minute = 0; minute < 10; minute++) {
+			add(minute, 90);
+		}
+		timeSeries.expire(new CollectionSizeExpiry<>(1));
+
+		assertOverflow(dot.detect(timeSeries), Status.OVERFLOW, "p90.0 usage: 90.00000% >= 75.00000%");
+		assertThat(dot.getHistogram().getCount()).isEqualTo(10);
+	}
+
+	@Test
+	void attaches_to_a_single_time_series() {
+		dot.attach(timeSeries);
+		dot.attach(timeSeries);
+
+		IllegalStateException ise = assertThrows(IllegalStateException.class,
+				() -> dot.detect(new TimeSeries<>()));
+
+		assertThat(ise).hasMessage("Already attached to another timeSeries, see attach()");
+	}
+}
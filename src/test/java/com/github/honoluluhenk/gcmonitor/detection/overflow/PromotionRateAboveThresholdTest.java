@@ -0,0 +1,146 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowTestUtil.assertOverflow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PromotionRateAboveThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final Duration MINUTE = Duration.ofMinutes(1);
+	private static final Duration WARN_BEFORE = Duration.ofMinutes(10);
+
+	private long nowSecond = 0;
+
+	private final PromotionRateAboveThreshold dot = new PromotionRateAboveThreshold(MINUTE, WARN_BEFORE) {
+		@Override
+		long now() {
+			return EpochNanos.of(START.plusSeconds(nowSecond));
+		}
+	};
+
+	private static TimedData<GCEvent> event(
+			GCCollection collection,
+			long endSecond,
+			Map<MemoryPoolType, Memory> before,
+			Map<MemoryPoolType, Memory> after
+	) {
+		return new TimedData<>(START.plusSeconds(endSecond), new GCEvent(collection, before, after, Duration.ZERO));
+	}
+
+	private static Map<MemoryPoolType, Memory> pools(Memory young, Memory old) {
+		Map<MemoryPoolType, Memory> pools = new EnumMap<>(MemoryPoolType.class);
+		if (young != null) {
+			pools.put(MemoryPoolType.YOUNG, young);
+		}
+		pools.put(MemoryPoolType.OLD, old);
+		return pools;
+	}
+
+	/**
+	 * A minor collection every 6 seconds until second 117: each one collects 600 bytes of young memory
+	 * and promotes 60 bytes, i.e.: 100 bytes/s allocated and 10 bytes/s promoted.
+	 */
+	private void minorCollections(long oldMax) {
+		for (int k = 0; k < 20; k++) {
+			dot.accept(event(GCCollection.MINOR, 3 + 6 * k,
+					pools(new Memory(-1, 600, 600, -1), new Memory(-1, 1000 + 60 * k, 1000 + 60 * k, oldMax)),
+					pools(new Memory(-1, 0, 600, -1), new Memory(-1, 1060 + 60 * k, 1060 + 60 * k, oldMax))));
+		}
+		nowSecond = 119;
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@Test
+		void invalid_window() {
+			IllegalArgumentException zero = assertThrows(IllegalArgumentException.class,
+					() -> new PromotionRateAboveThreshold(Duration.ZERO, WARN_BEFORE));
+			IllegalArgumentException tiny = assertThrows(IllegalArgumentException.class,
+					() -> new PromotionRateAboveThreshold(Duration.ofNanos(9), WARN_BEFORE));
+
+			assertThat(zero).hasMessage("window must be > 0 but was: PT0S");
+			assertThat(tiny).hasMessage("window must be >= 10 nanoseconds but was: PT0.000000009S");
+		}
+
+		@Test
+		void invalid_warnBefore() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new PromotionRateAboveThreshold(MINUTE, Duration.ofSeconds(-1)));
+
+			assertThat(iae).hasMessage("warnBefore must be > 0 but was: PT-1S");
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getWindow()).isEqualTo(MINUTE);
+			assertThat(dot.getWarnBefore()).isEqualTo(WARN_BEFORE);
+		}
+	}
+
+	@Test
+	void not_enough_data() {
+		minorCollections(100_000);
+		nowSecond = 50;
+
+		assertOverflow(dot.detect(), Status.OK, "Not enough data, need collections over at least PT1M");
+	}
+
+	@Test
+	void old_pool_fills_slowly() {
+		minorCollections(100_000);
+
+		assertOverflow(dot.detect(), Status.OK, "Old pool full in PT2H43M >= PT10M "
+				+ "(promotion: 10.0 bytes/s, reclaim: 0.0 bytes/s, allocation: 100.0 bytes/s)");
+	}
+
+	@Test
+	void old_pool_fills_quickly() {
+		minorCollections(5_000);
+
+		assertOverflow(dot.detect(), Status.OVERFLOW, "Old pool full in PT4M40S < PT10M "
+				+ "(promotion: 10.0 bytes/s, reclaim: 0.0 bytes/s, allocation: 100.0 bytes/s)");
+	}
+
+	@Test
+	void reclaim_keeps_up_with_promotion() {
+		minorCollections(5_000);
+		dot.accept(event(GCCollection.MAJOR, 118,
+				pools(null, new Memory(-1, 2200, 2200, 5_000)),
+				pools(null, new Memory(-1, 1000, 1000, 5_000))));
+
+		assertOverflow(dot.detect(), Status.OK,
+				"Promotion rate <= reclaim rate: 10.0 <= 20.0 bytes/s (allocation: 100.0 bytes/s)");
+	}
+
+	@Test
+	void old_pool_without_max() {
+		minorCollections(-1);
+
+		assertOverflow(dot.detect(), Status.OK, "Old pool has no max, promotion: 10.0 bytes/s, reclaim: 0.0 bytes/s");
+	}
+
+	@Test
+	void events_without_memory_before_gc() {
+		dot.accept(new TimedData<>(START, new GCEvent(GCCollection.MINOR,
+				pools(null, new Memory(-1, 1000, 1000, 5_000)))));
+		nowSecond = 60;
+
+		assertOverflow(dot.detect(), Status.OK,
+				"Promotion rate <= reclaim rate: 0.0 <= 0.0 bytes/s (allocation: 0.0 bytes/s)");
+	}
+}
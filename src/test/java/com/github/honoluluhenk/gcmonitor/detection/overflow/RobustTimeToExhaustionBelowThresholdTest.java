@@ -0,0 +1,158 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RobustTimeToExhaustionBelowThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final long MAX = 1_000_000;
+
+	private final RobustTimeToExhaustionBelowThreshold dot =
+			new RobustTimeToExhaustionBelowThreshold(3, Duration.ofHours(1));
+	private final TimeSeries<Memory> timeSeries = new TimeSeries<>();
+
+	private void add(Duration offset, long used) {
+		timeSeries.add(new TimedData<>(START.plus(offset), new Memory(-1, used, used, MAX)));
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, 0, 1 })
+		void invalid_numMeasures(int numMeasures) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new RobustTimeToExhaustionBelowThreshold(numMeasures, Duration.ofHours(1)));
+
+			assertThat(iae).hasMessage("numMeasures must be >= 2 but was: " + numMeasures);
+		}
+
+		@Test
+		void invalid_warnBefore() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new RobustTimeToExhaustionBelowThreshold(2, Duration.ofSeconds(-1)));
+
+			assertThat(iae).hasMessage("warnBefore must be > 0 but was: PT-1S");
+		}
+
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_maxPairs(int maxPairs) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new RobustTimeToExhaustionBelowThreshold(2, Duration.ofHours(1), maxPairs));
+
+			assertThat(iae).hasMessage("maxPairs must be > 0 but was: " + maxPairs);
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getNumMeasures()).isEqualTo(3);
+			assertThat(dot.getWarnBefore()).isEqualTo(Duration.ofHours(1));
+			assertThat(dot.getMaxPairs()).isEqualTo(RobustTimeToExhaustionBelowThreshold.DEFAULT_MAX_PAIRS);
+		}
+	}
+
+	@Test
+	void not_enough_measures() {
+		add(Duration.ZERO, 1000);
+
+		Overflow overflow = dot.detect(timeSeries);
+
+		assertThat(overflow.getStatus()).isEqualTo(Status.OK);
+		assertThat(overflow.getReason()).isEqualTo("Not enough measures, have: 1 but need at least 3");
+		assertThat(dot.timeToExhaustion(timeSeries)).isEmpty();
+	}
+
+	@Test
+	void same_timestamps_have_no_slope() {
+		for (int i = 0; i < 3; i++) {
+			add(Duration.ZERO, 1000);
+		}
+
+		assertThat(dot.detect(timeSeries).getReason()).isEqualTo("No slope: all 3 measures share the same timestamp");
+		assertThat(dot.timeToExhaustion(timeSeries)).isEmpty();
+	}
+
+	@Test
+	void ignores_outlier() {
+		// 10'000 bytes per hour with one huge batch job: 900'000 bytes left, i.e.: 90 hours
+		for (int hour = 0; hour <= 10; hour++) {
+			add(Duration.ofHours(hour), hour == 5 ? 950_000 : 10_000L * hour);
+		}
+
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+		assertThat(dot.timeToExhaustion(timeSeries)).contains(Duration.ofHours(90));
+
+		// least squares gets thrown off by the outlier
+		Duration leastSquares = new TimeToExhaustionBelowThreshold(3, Duration.ofHours(1))
+				.timeToExhaustion(timeSeries).get();
+		assertThat(leastSquares).isNotEqualTo(Duration.ofHours(90));
+	}
+
+	@Test
+	void fast_leak_overflows_with_slope_in_reason() {
+		for (int minute = 0; minute <= 10; minute++) {
+			add(Duration.ofMinutes(minute), 900_000 + 6000L * minute);
+		}
+
+		Overflow overflow = dot.detect(timeSeries);
+
+		assertThat(overflow.getStatus()).isEqualTo(Status.OVERFLOW);
+		assertThat(overflow.getReason()).startsWith("Projected exhaustion in PT6M40S < PT1H, slope: ");
+		assertThat(overflow.getReason()).contains("bytes/s (95% CI: ");
+	}
+
+	@Test
+	void shrinking_usage_is_ok() {
+		for (int minute = 0; minute <= 3; minute++) {
+			add(Duration.ofMinutes(minute), 10_000 - 1000L * minute);
+		}
+
+		assertThat(dot.detect(timeSeries).getReason()).startsWith("Usage not growing towards max");
+	}
+
+	@Test
+	void samples_large_series_deterministically() {
+		RobustTimeToExhaustionBelowThreshold sampling =
+				new RobustTimeToExhaustionBelowThreshold(3, Duration.ofHours(1), 1000);
+		// 1 byte per second plus noise
+		for (int second = 0; second < 5000; second++) {
+			add(Duration.ofSeconds(second), 100_000 + second + (second * 7919L) % 101);
+		}
+
+		Duration first = sampling.timeToExhaustion(timeSeries).get();
+		Duration second = sampling.timeToExhaustion(timeSeries).get();
+
+		assertThat(first).isEqualTo(second);
+		// about 895'000 bytes left
+		assertThat((double) first.getSeconds()).isCloseTo(895_000.0d, within(20_000.0d));
+	}
+
+	@Nested
+	class ValidateTest {
+		@Test
+		void accepts_enough_readings() {
+			assertThatCode(() -> dot.validate(3)).doesNotThrowAnyException();
+		}
+
+		@Test
+		void rejects_too_few_readings() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class, () -> dot.validate(2));
+
+			assertThat(iae).hasMessage("can never enough data because expectedReadings < numMeasures: 2 < 3");
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowTestUtil.assertOverflow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SmoothedUsageAboveThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final Duration MINUTE = Duration.ofMinutes(1);
+
+	private final SmoothedUsageAboveThreshold dot = new SmoothedUsageAboveThreshold(2, MINUTE, 75.0d);
+	private final TimeSeries<Memory> timeSeries = new TimeSeries<>();
+
+	private void add(int minute, long usagePct) {
+		timeSeries.add(new TimedData<>(START.plus(MINUTE.multipliedBy(minute)),
+				new Memory(-1, usagePct, 100, 100)));
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_numMeasures(int numMeasures) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new SmoothedUsageAboveThreshold(numMeasures, MINUTE, 75.0d));
+
+			assertThat(iae).hasMessage("numMeasures must be > 0 but was: " + numMeasures);
+		}
+
+		@Test
+		void invalid_halfLife() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new SmoothedUsageAboveThreshold(1, Duration.ZERO, 75.0d));
+
+			assertThat(iae).hasMessage("halfLife must be > 0 but was: PT0S");
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, 0.0d, 100.1d })
+		void invalid_thresholdPct(double thresholdPct) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new SmoothedUsageAboveThreshold(1, MINUTE, thresholdPct));
+
+			assertThat(iae).hasMessage("thresholdPct must be 0 < x <= 100 but was: " + thresholdPct);
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getNumMeasures()).isEqualTo(2);
+			assertThat(dot.getHalfLife()).isEqualTo(MINUTE);
+			assertThat(dot.getThresholdPct()).isEqualTo(75.0d);
+		}
+	}
+
+	@Test
+	void not_enough_measures() {
+		add(0, 99);
+
+		assertOverflow(dot.detect(timeSeries), Status.OK, "Not enough measures, have: 1 but need at least 2");
+	}
+
+	@Test
+	void single_spike_is_smoothed() {
+		add(0, 50);
+		add(1, 50);
+		add(2, 50);
+		add(3, 98);
+
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+	}
+
+	@Test
+	void sustained_high_usage_overflows() {
+		add(0, 50);
+		add(1, 90);
+		add(2, 90);
+		add(3, 90);
+
+		assertOverflow(dot.detect(timeSeries), Status.OVERFLOW, "Smoothed usage: 85.00000% >= 75.00000%");
+	}
+
+	@Test
+	void keeps_state_when_readings_expire() {
+		add(0, 90);
+		add(1, 90);
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OVERFLOW);
+
+		timeSeries.expire(new CollectionSizeExpiry<>(1));
+		add(2, 50);
+
+		// 90 + (50 - 90) / 2
+		assertThat(dot.detect(timeSeries).getReason()).isEqualTo(
+				"smoothed usagePct < thresholdPct: 70.0 < 75.0, have 3 measures");
+	}
+
+	@Test
+	void sees_readings_expired_between_detections() {
+		dot.attach(timeSeries);
+		add(0, 90);
+		add(1, 90);
+		timeSeries.expire(new CollectionSizeExpiry<>(1));
+		add(2, 50);
+
+		assertThat(dot.detect(timeSeries).getReason()).isEqualTo(
+				"smoothed usagePct < thresholdPct: 70.0 < 75.0, have 3 measures");
+	}
+
+	@Test
+	void attaches_to_a_single_time_series() {
+		dot.attach(timeSeries);
+		dot.attach(timeSeries);
+
+		IllegalStateException ise = assertThrows(IllegalStateException.class,
+				() -> dot.detect(new TimeSeries<>()));
+
+		assertThat(ise).hasMessage("Already attached to another timeSeries, see attach()");
+	}
+}
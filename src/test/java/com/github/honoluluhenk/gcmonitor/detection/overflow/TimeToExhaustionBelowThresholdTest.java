@@ -0,0 +1,164 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.RunningRegression;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TimeToExhaustionBelowThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+	private static final long MAX = 10_000;
+
+	private final TimeToExhaustionBelowThreshold dot = new TimeToExhaustionBelowThreshold(3, Duration.ofHours(1));
+	private final TimeSeries<Memory> timeSeries = new TimeSeries<>();
+
+	private void add(Duration offset, long used) {
+		timeSeries.add(new TimedData<>(START.plus(offset), new Memory(-1, used, used, MAX)));
+	}
+
+	@Nested
+	class AttachTest {
+		private final TimeSeries<Memory> unattached = new TimeSeries<>();
+
+		@Test
+		void starts_the_regression() {
+			dot.attach(unattached);
+
+			assertThat(unattached.findRegression(MemoryMetric.USED))
+					.map(RunningRegression::getMetric)
+					.contains(MemoryMetric.USED);
+		}
+
+		@Test
+		void detect_starts_the_regression_if_not_attached() {
+			dot.detect(unattached);
+
+			assertThat(unattached.findRegression(MemoryMetric.USED)).isPresent();
+		}
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, 0, 1 })
+		void invalid_numMeasures(int numMeasures) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new TimeToExhaustionBelowThreshold(numMeasures, Duration.ofHours(1)));
+
+			assertThat(iae).hasMessage("numMeasures must be >= 2 but was: " + numMeasures);
+		}
+
+		@Test
+		void invalid_warnBefore() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new TimeToExhaustionBelowThreshold(2, Duration.ZERO));
+
+			assertThat(iae).hasMessage("warnBefore must be > 0 but was: PT0S");
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getNumMeasures()).isEqualTo(3);
+			assertThat(dot.getWarnBefore()).isEqualTo(Duration.ofHours(1));
+		}
+	}
+
+	@Test
+	void not_enough_measures() {
+		add(Duration.ZERO, 1000);
+		add(Duration.ofMinutes(1), 9000);
+
+		Overflow overflow = dot.detect(timeSeries);
+
+		assertThat(overflow.getStatus()).isEqualTo(Status.OK);
+		assertThat(overflow.getReason()).isEqualTo("Not enough measures, have: 2 but need at least 3");
+	}
+
+	@Test
+	void slow_leak_is_ok_but_projected() {
+		// 1000 bytes per hour, 7000 bytes left
+		add(Duration.ZERO, 1000);
+		add(Duration.ofHours(1), 2000);
+		add(Duration.ofHours(2), 3000);
+
+		Overflow overflow = dot.detect(timeSeries);
+
+		assertThat(overflow.getStatus()).isEqualTo(Status.OK);
+		assertThat(overflow.getReason()).startsWith("Projected exhaustion in PT7H >= PT1H");
+		assertThat(dot.timeToExhaustion(timeSeries)).contains(Duration.ofHours(7));
+	}
+
+	@Test
+	void fast_leak_overflows_long_before_memory_is_full() {
+		// 3000 bytes per hour, 4000 bytes left
+		add(Duration.ZERO, 0);
+		add(Duration.ofMinutes(30), 1500);
+		add(Duration.ofHours(1), 3000);
+		add(Duration.ofHours(2), 6000);
+
+		Overflow overflow = new TimeToExhaustionBelowThreshold(3, Duration.ofHours(2)).detect(timeSeries);
+
+		assertThat(overflow.getStatus()).isEqualTo(Status.OVERFLOW);
+		assertThat(overflow.getReason()).startsWith("Projected exhaustion in PT1H20M < PT2H");
+	}
+
+	@Test
+	void already_exhausted() {
+		add(Duration.ZERO, 8000);
+		add(Duration.ofMinutes(1), 9000);
+		add(Duration.ofMinutes(2), MAX);
+
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OVERFLOW);
+		assertThat(dot.timeToExhaustion(timeSeries)).contains(Duration.ZERO);
+	}
+
+	@Test
+	void shrinking_usage_is_ok() {
+		add(Duration.ZERO, 9000);
+		add(Duration.ofMinutes(1), 8000);
+		add(Duration.ofMinutes(2), 7000);
+
+		Overflow overflow = dot.detect(timeSeries);
+
+		assertThat(overflow.getStatus()).isEqualTo(Status.OK);
+		assertThat(overflow.getReason()).startsWith("Usage not growing towards max");
+		assertThat(dot.timeToExhaustion(timeSeries)).isEmpty();
+	}
+
+	@Test
+	void no_max_is_not_projected() {
+		for (int i = 0; i < 3; i++) {
+			timeSeries.add(new TimedData<>(START.plusHours(i), new Memory(-1, 1000L * i, 1000L * i, -1)));
+		}
+
+		assertThat(dot.timeToExhaustion(timeSeries)).isEmpty();
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+	}
+
+	@Nested
+	class ValidateTest {
+		@Test
+		void accepts_enough_readings() {
+			assertThatCode(() -> dot.validate(3)).doesNotThrowAnyException();
+		}
+
+		@Test
+		void rejects_too_few_readings() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class, () -> dot.validate(2));
+
+			assertThat(iae).hasMessage("can never enough data because expectedReadings < numMeasures: 2 < 3");
+		}
+	}
+}
@@ -145,7 +145,7 @@ public class UsageAboveThresholdTest {
 				Overflow o = new UsageAboveThreshold(1, THRESHOLD_PCT)
 						.detect(ts);
 
-				assertOverflow(o, Status.OK, "have 2 readings, only 0 of 1 exceede threshold of 90.0%: [50.0]");
+				assertOverflow(o, Status.OK, "have 2 readings, only 0 of 1 exceede threshold of 90.0%: [51.0]");
 			}
 
 			@Test
@@ -168,18 +168,30 @@ public class UsageAboveThresholdTest {
 				Overflow o = new UsageAboveThreshold(2, THRESHOLD_PCT)
 						.detect(ts);
 
-				assertOverflow(o, Status.OK, "have 3 readings, only 0 of 2 exceede threshold of 90.0%: [50.0, 51.0]");
+				assertOverflow(o, Status.OK, "have 3 readings, only 0 of 2 exceede threshold of 90.0%: [51.0, 52.0]");
 			}
 
 			@Test
-			void detect_OK_lohi_reading_with_one_relevant() {
-				ts.add(FIRST_LOW);
-				ts.add(SECOND_HIGH);
+			void detect_OK_hilo_reading_with_last_one_relevant() {
+				ts.add(FIRST_HIGH);
+				ts.add(SECOND_LOW);
 
 				Overflow o = new UsageAboveThreshold(1, THRESHOLD_PCT)
 						.detect(ts);
 
-				assertOverflow(o, Status.OK, "have 2 readings, only 0 of 1 exceede threshold of 90.0%: [50.0]");
+				assertOverflow(o, Status.OK, "have 2 readings, only 0 of 1 exceede threshold of 90.0%: [51.0]");
+			}
+
+			@Test
+			void detect_OK_hihilo_reading_with_last_two_relevant() {
+				ts.add(FIRST_HIGH);
+				ts.add(SECOND_HIGH);
+				ts.add(THIRD_LOW);
+
+				Overflow o = new UsageAboveThreshold(2, THRESHOLD_PCT)
+						.detect(ts);
+
+				assertOverflow(o, Status.OK, "have 3 readings, only 1 of 2 exceede threshold of 90.0%: [91.0, 52.0]");
 			}
 
 			@Test
@@ -221,26 +233,37 @@ public class UsageAboveThresholdTest {
 			}
 
 			@Test
-			void overflow_two_readings_with_first_one_relevant() {
+			void overflow_two_readings_with_last_one_relevant() {
 				ts.add(FIRST_HIGH);
 				ts.add(SECOND_HIGH);
 
 				Overflow o = new UsageAboveThreshold(1, THRESHOLD_PCT)
 						.detect(ts);
 
-				assertOverflow(o, Status.OVERFLOW, "The last 1 readings were above threshold of 90.0: [90.0]");
+				assertOverflow(o, Status.OVERFLOW, "The last 1 readings were above threshold of 90.0: [91.0]");
 			}
 
 			@Test
-			void overflow_three_readings_with_first_two_relevant() {
-				ts.add(FIRST_HIGH);
+			void overflow_lohi_reading_with_last_one_relevant() {
+				ts.add(FIRST_LOW);
 				ts.add(SECOND_HIGH);
-				ts.add(THIRD_LOW);
+
+				Overflow o = new UsageAboveThreshold(1, THRESHOLD_PCT)
+						.detect(ts);
+
+				assertOverflow(o, Status.OVERFLOW, "The last 1 readings were above threshold of 90.0: [91.0]");
+			}
+
+			@Test
+			void overflow_only_newest_readings_above_threshold() {
+				ts.add(FIRST_LOW);
+				ts.add(SECOND_HIGH);
+				ts.add(THIRD_HIGH);
 
 				Overflow o = new UsageAboveThreshold(2, THRESHOLD_PCT)
 						.detect(ts);
 
-				assertOverflow(o, Status.OVERFLOW, "The last 2 readings were above threshold of 90.0: [90.0, 91.0]");
+				assertOverflow(o, Status.OVERFLOW, "The last 2 readings were above threshold of 90.0: [91.0, 96.0]");
 			}
 
 		}
@@ -0,0 +1,135 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UsageHistogramTest {
+	private final UsageHistogram dot = new UsageHistogram(10);
+
+	private static UsageHistogram histogram(double... usagePcts) {
+		UsageHistogram histogram = new UsageHistogram(10);
+		for (double usagePct : usagePcts) {
+			histogram.record(usagePct);
+		}
+		return histogram;
+	}
+
+	@Nested
+	class ValidationTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_bucketsPerPercent(int bucketsPerPercent) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new UsageHistogram(bucketsPerPercent));
+
+			assertThat(iae).hasMessage("bucketsPerPercent must be > 0 but was: " + bucketsPerPercent);
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, 0.0d, 100.1d, Double.NaN })
+		void invalid_percentile(double percentile) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> dot.percentile(percentile));
+
+			assertThat(iae).hasMessage("percentile must be 0 < x <= 100 but was: " + percentile);
+		}
+
+		@Test
+		void merge_needs_same_resolution() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> dot.merge(new UsageHistogram(4)));
+
+			assertThat(iae).hasMessage("bucketsPerPercent must match but was: 10 and 4");
+		}
+	}
+
+	@Test
+	void empty() {
+		assertThat(dot.getCount()).isEqualTo(0);
+		assertThat(dot.percentile(50.0d)).isNaN();
+	}
+
+	@Test
+	void percentiles_round_up_to_the_resolution() {
+		UsageHistogram histogram = histogram(10.0d, 20.0d, 30.0d, 40.0d, 50.0d, 60.0d, 70.0d, 80.0d, 90.0d, 99.95d);
+
+		assertThat(histogram.getCount()).isEqualTo(10);
+		assertThat(histogram.percentile(10.0d)).isEqualTo(10.1d);
+		assertThat(histogram.percentile(50.0d)).isEqualTo(50.1d);
+		assertThat(histogram.percentile(90.0d)).isEqualTo(90.1d);
+		assertThat(histogram.percentile(95.0d)).isEqualTo(100.0d);
+	}
+
+	@Test
+	void lower_bounds_round_down_to_the_resolution() {
+		UsageHistogram histogram = histogram(10.05d, 50.05d, 99.95d, 100.0d);
+
+		assertThat(histogram.percentileLowerBound(25.0d)).isEqualTo(10.0d);
+		assertThat(histogram.percentileLowerBound(50.0d)).isEqualTo(50.0d);
+		assertThat(histogram.percentileLowerBound(75.0d)).isEqualTo(99.9d);
+		assertThat(histogram.percentileLowerBound(100.0d)).isEqualTo(100.0d);
+		assertThat(dot.percentileLowerBound(50.0d)).isNaN();
+	}
+
+	@Test
+	void out_of_range_values_are_clamped() {
+		UsageHistogram histogram = histogram(-5.0d, 150.0d);
+
+		assertThat(histogram.percentile(50.0d)).isEqualTo(0.1d);
+		assertThat(histogram.percentile(100.0d)).isEqualTo(100.0d);
+	}
+
+	@Test
+	void merge_and_subtract() {
+		UsageHistogram low = histogram(10.0d, 10.0d, 10.0d);
+		UsageHistogram high = histogram(80.0d, 80.0d, 80.0d, 80.0d);
+
+		dot.merge(low);
+		dot.merge(high);
+		assertThat(dot.getCount()).isEqualTo(7);
+		assertThat(dot.percentile(50.0d)).isEqualTo(80.1d);
+
+		dot.subtract(high);
+		assertThat(dot.getCount()).isEqualTo(3);
+		assertThat(dot.percentile(100.0d)).isEqualTo(10.1d);
+	}
+
+	@Test
+	void copy_is_independent() {
+		dot.record(10.0d);
+		UsageHistogram copy = dot.copy();
+
+		dot.clear();
+
+		assertThat(dot.getCount()).isEqualTo(0);
+		assertThat(copy.getCount()).isEqualTo(1);
+		assertThat(copy.percentile(100.0d)).isEqualTo(10.1d);
+	}
+
+	@Test
+	void serialization_roundtrip() throws Exception {
+		dot.record(42.0d);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(dot);
+		}
+		UsageHistogram copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (UsageHistogram) in.readObject();
+		}
+
+		assertThat(copy.getCount()).isEqualTo(1);
+		assertThat(copy.percentile(50.0d)).isEqualTo(42.1d);
+	}
+}
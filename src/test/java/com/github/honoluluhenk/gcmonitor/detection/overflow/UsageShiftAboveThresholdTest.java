@@ -0,0 +1,147 @@
+package com.github.honoluluhenk.gcmonitor.detection.overflow;
+
+import java.time.ZonedDateTime;
+
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.mkTime;
+import static com.github.honoluluhenk.gcmonitor.detection.overflow.OverflowTestUtil.assertOverflow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UsageShiftAboveThresholdTest {
+	private static final ZonedDateTime START = mkTime(1);
+
+	private final UsageShiftAboveThreshold dot = new UsageShiftAboveThreshold(3, 1.0d, 20.0d);
+	private final TimeSeries<Memory> timeSeries = new TimeSeries<>();
+	private int minute = 0;
+
+	private void add(long... usagePcts) {
+		for (long usagePct : usagePcts) {
+			timeSeries.add(new TimedData<>(START.plusMinutes(minute++), new Memory(-1, usagePct, 100, 100)));
+		}
+	}
+
+	@Nested
+	class ConstructorValidationsTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_warmupMeasures(int warmupMeasures) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new UsageShiftAboveThreshold(warmupMeasures, 1.0d, 20.0d));
+
+			assertThat(iae).hasMessage("warmupMeasures must be > 0 but was: " + warmupMeasures);
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, Double.NaN })
+		void invalid_driftPct(double driftPct) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new UsageShiftAboveThreshold(1, driftPct, 20.0d));
+
+			assertThat(iae).hasMessage("driftPct must be >= 0 but was: " + driftPct);
+		}
+
+		@ParameterizedTest
+		@ValueSource(doubles = { -1.0d, 0.0d, Double.NaN })
+		void invalid_threshold(double threshold) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new UsageShiftAboveThreshold(1, 1.0d, threshold));
+
+			assertThat(iae).hasMessage("threshold must be > 0 but was: " + threshold);
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getWarmupMeasures()).isEqualTo(3);
+			assertThat(dot.getDriftPct()).isEqualTo(1.0d);
+			assertThat(dot.getThreshold()).isEqualTo(20.0d);
+		}
+	}
+
+	@Test
+	void not_enough_measures() {
+		add(70, 70, 70);
+
+		assertOverflow(dot.detect(timeSeries), Status.OK, "Not enough measures, have: 3 but need at least 4");
+	}
+
+	@Test
+	void stable_high_usage_is_ok() {
+		add(70, 70, 70, 70, 71, 69);
+
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+	}
+
+	@Test
+	void detects_sustained_shift_within_a_few_readings() {
+		add(70, 70, 70, 70, 71, 69);
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+
+		add(90);
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+
+		add(90);
+		assertOverflow(dot.detect(timeSeries), Status.OVERFLOW,
+				"Usage shift: baseline 72.85714%, now 90.00000% (Page-Hinkley: 30.14286 > 20.00000)");
+	}
+
+	@Test
+	void restarts_baseline_after_reporting_the_shift() {
+		add(70, 70, 70, 70, 90, 90);
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OVERFLOW);
+
+		add(90, 90, 90, 90);
+
+		assertThat(dot.detect(timeSeries).getReason())
+				.isEqualTo("Page-Hinkley statistic < threshold: 0.0 < 20.0, baseline: 90.00000%, have 5 measures");
+	}
+
+	@Test
+	void single_spike_is_tolerated() {
+		add(70, 70, 70, 70, 85, 70, 70, 70);
+
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+	}
+
+	@Test
+	void keeps_state_when_readings_expire() {
+		add(70, 70, 70, 70, 90);
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+
+		timeSeries.expire(new CollectionSizeExpiry<>(1));
+		add(90);
+
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OVERFLOW);
+	}
+
+	@Test
+	void sees_readings_sharing_a_timestamp() {
+		add(70, 70, 70, 70, 90);
+		minute--;
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OK);
+
+		// same timestamp as the reading seen by the last detection
+		add(90);
+
+		assertThat(dot.detect(timeSeries).getStatus()).isEqualTo(Status.OVERFLOW);
+	}
+
+	@Test
+	void attaches_to_a_single_time_series() {
+		dot.attach(timeSeries);
+		dot.attach(timeSeries);
+
+		IllegalStateException ise = assertThrows(IllegalStateException.class,
+				() -> dot.detect(new TimeSeries<>()));
+
+		assertThat(ise).hasMessage("Already attached to another timeSeries, see attach()");
+	}
+}
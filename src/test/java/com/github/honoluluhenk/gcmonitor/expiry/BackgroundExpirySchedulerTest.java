@@ -0,0 +1,167 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BackgroundExpirySchedulerTest {
+
+	private static final Duration LONG_INTERVAL = Duration.ofHours(1);
+
+	private BackgroundExpiryScheduler dot = null;
+
+	@AfterEach
+	void afterEach() {
+		if (dot != null) {
+			dot.stop();
+		}
+	}
+
+	@Nested
+	class ConstructorTest {
+		@Test
+		void defaults() {
+			BackgroundExpiryScheduler scheduler = new BackgroundExpiryScheduler();
+
+			assertThat(scheduler.getInterval()).isEqualTo(BackgroundExpiryScheduler.DEFAULT_INTERVAL);
+			assertThat(scheduler.getBatchSize()).isEqualTo(BackgroundExpiryScheduler.DEFAULT_BATCH_SIZE);
+			assertThat(scheduler.isStarted()).isFalse();
+		}
+
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_batchSize(int batchSize) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new BackgroundExpiryScheduler(LONG_INTERVAL, batchSize));
+
+			assertThat(iae).hasMessage("batchSize must be > 0 but was: " + batchSize);
+		}
+
+		@Test
+		void invalid_interval() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new BackgroundExpiryScheduler(Duration.ZERO, 1));
+
+			assertThat(iae).hasMessage("interval must be > 0 but was: PT0S");
+			assertThrows(IllegalArgumentException.class,
+					() -> new BackgroundExpiryScheduler(Duration.ofSeconds(-1), 1));
+		}
+	}
+
+	@Test
+	void runs_on_start_and_periodically() throws InterruptedException {
+		dot = new BackgroundExpiryScheduler(Duration.ofMillis(1), 1);
+		CountDownLatch runs = new CountDownLatch(3);
+
+		dot.start(runs::countDown);
+
+		assertThat(runs.await(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void runs_after_batchSize_readings() throws InterruptedException {
+		dot = new BackgroundExpiryScheduler(LONG_INTERVAL, 3);
+		CountDownLatch initial = new CountDownLatch(1);
+		dot.start(initial::countDown);
+		assertThat(initial.await(10, TimeUnit.SECONDS)).isTrue();
+
+		CountDownLatch batch = new CountDownLatch(1);
+		AtomicInteger batchRuns = new AtomicInteger();
+		Runnable expiry = () -> {
+			batchRuns.incrementAndGet();
+			batch.countDown();
+		};
+		dot.readingAdded(expiry);
+		dot.readingAdded(expiry);
+		assertThat(batchRuns.get()).isEqualTo(0);
+
+		dot.readingAdded(expiry);
+
+		assertThat(batch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(batchRuns.get()).isEqualTo(1);
+	}
+
+	@Test
+	void coalesces_bursts() throws InterruptedException {
+		dot = new BackgroundExpiryScheduler(LONG_INTERVAL, 1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		dot.start(() -> {
+			blocked.countDown();
+			awaitQuietly(release);
+		});
+		assertThat(blocked.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// the background thread is busy: the burst may queue only one run
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch ran = new CountDownLatch(1);
+		for (int i = 0; i < 100; i++) {
+			dot.readingAdded(() -> {
+				runs.incrementAndGet();
+				ran.countDown();
+			});
+		}
+		release.countDown();
+
+		assertThat(ran.await(10, TimeUnit.SECONDS)).isTrue();
+		dot.stop();
+		assertThat(runs.get()).isEqualTo(1);
+	}
+
+	@Test
+	void does_not_run_readings_while_stopped() {
+		dot = new BackgroundExpiryScheduler(LONG_INTERVAL, 1);
+		AtomicInteger runs = new AtomicInteger();
+
+		dot.readingAdded(runs::incrementAndGet);
+
+		assertThat(runs.get()).isEqualTo(0);
+	}
+
+	@Test
+	void keeps_running_after_failure() throws InterruptedException {
+		dot = new BackgroundExpiryScheduler(Duration.ofMillis(1), 1);
+		CountDownLatch runs = new CountDownLatch(2);
+
+		dot.start(() -> {
+			runs.countDown();
+			throw new IllegalStateException("failing on purpose");
+		});
+
+		assertThat(runs.await(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void start_stop_restart() {
+		dot = new BackgroundExpiryScheduler(LONG_INTERVAL, 1);
+
+		dot.start(() -> { });
+		dot.start(() -> { });
+		assertThat(dot.isStarted()).isTrue();
+
+		dot.stop();
+		dot.stop();
+		assertThat(dot.isStarted()).isFalse();
+
+		dot.start(() -> { });
+		assertThat(dot.isStarted()).isTrue();
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
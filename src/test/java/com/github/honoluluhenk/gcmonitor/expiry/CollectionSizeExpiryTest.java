@@ -1,11 +1,13 @@
 package com.github.honoluluhenk.gcmonitor.expiry;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.OptionalInt;
 
 import com.github.honoluluhenk.gcmonitor.PayloadFixture;
 import com.github.honoluluhenk.gcmonitor.TestUtil;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -73,6 +75,20 @@ class CollectionSizeExpiryTest {
 
 	}
 
+	@Nested
+	class ExpiredCountTest {
+		@Test
+		void expires_everything_beyond_max() {
+			assertThat(EXPIRY.expiredCount(Timestamps.of(asList(FIRST, SECOND, THIRD)))).isEqualTo(1);
+		}
+
+		@Test
+		void expires_nothing_on_small_list() {
+			assertThat(EXPIRY.expiredCount(Timestamps.of(asList(FIRST, SECOND)))).isEqualTo(0);
+			assertThat(EXPIRY.expiredCount(Timestamps.of(Collections.emptyList()))).isEqualTo(0);
+		}
+	}
+
 	@Nested
 	public class ExpectedReadingsTest {
 		@Test
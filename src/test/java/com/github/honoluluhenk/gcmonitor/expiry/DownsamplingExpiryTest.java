@@ -0,0 +1,173 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.detection.overflow.MemoryMetric;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimeSeries;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DownsamplingExpiryTest {
+
+	private static final long PEAK = 1000;
+
+	private final DownsamplingExpiry<Memory> dot = new DownsamplingExpiry<>(20, 5, MemoryMetric.USED);
+	private final TimeSeries<Memory> timeSeries = new TimeSeries<>();
+
+	private void add(int second, long used) {
+		timeSeries.add(new TimedData<>(TestUtil.mkTime(1).plusSeconds(second), new Memory(-1, used, 2000, 2000)));
+	}
+
+	private List<Long> useds() {
+		return timeSeries.stream()
+				.map(td -> td.getData().getUsed())
+				.collect(Collectors.toList());
+	}
+
+	@Nested
+	class ConstructorTest {
+		@Test
+		void invalid_rawReadings() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new DownsamplingExpiry<>(20, 0, MemoryMetric.USED));
+
+			assertThat(iae).hasMessage("rawReadings must be > 0 but was: 0");
+		}
+
+		@Test
+		void invalid_maxReadings() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new DownsamplingExpiry<>(10, 5, MemoryMetric.USED));
+
+			assertThat(iae).hasMessage("maxReadings - rawReadings must be >= 6 but was: 5");
+		}
+
+		@Test
+		void values() {
+			assertThat(dot.getMaxReadings()).isEqualTo(20);
+			assertThat(dot.getRawReadings()).isEqualTo(5);
+			assertThat(dot.getExpectedReadings()).isEqualTo(OptionalInt.of(5));
+		}
+	}
+
+	@Test
+	void expires_nothing_within_budget() {
+		for (int i = 0; i < 20; i++) {
+			add(i, i);
+		}
+
+		timeSeries.expire(dot);
+
+		assertThat(timeSeries.size()).isEqualTo(20);
+	}
+
+	@Test
+	void thins_older_readings_keeping_peak_and_newest() {
+		for (int i = 0; i < 40; i++) {
+			add(i, i == 17 ? PEAK : 10);
+		}
+
+		timeSeries.expire(dot);
+
+		// 5 raw + (20 - 5) / 2 downsampled
+		assertThat(timeSeries.size()).isEqualTo(12);
+		assertThat(useds()).contains(PEAK);
+		assertThat(timeSeries.latest(5))
+				.extracting(td -> td.getData().getUsed())
+				.containsExactly(10L, 10L, 10L, 10L, 10L);
+		assertThat(timeSeries.getTimedData().get(7).getTimestamp()).isEqualTo(TestUtil.mkTime(1).plusSeconds(35));
+		assertThat(timeSeries.getTimedData().get(0).getTimestamp()).isEqualTo(TestUtil.mkTime(1));
+	}
+
+	@Test
+	void bounded_while_covering_the_whole_horizon() {
+		for (int i = 0; i < 1000; i++) {
+			add(i, i % 50);
+			timeSeries.expire(dot);
+
+			assertThat(timeSeries.size()).isLessThanOrEqualTo(20);
+		}
+
+		assertThat(timeSeries.getTimedData().get(0).getTimestamp()).isEqualTo(TestUtil.mkTime(1));
+		assertThat(timeSeries.latest(5))
+				.extracting(td -> td.getData().getUsed())
+				.containsExactly(45L, 46L, 47L, 48L, 49L);
+	}
+
+	@Test
+	void keeps_raw_readings_sharing_a_timestamp_with_thinned_ones() {
+		for (int i = 0; i < 40; i++) {
+			add(Math.min(i, 30), i);
+		}
+
+		timeSeries.expire(dot);
+
+		assertThat(timeSeries.size()).isEqualTo(12);
+		assertThat(timeSeries.latest(5))
+				.extracting(td -> td.getData().getUsed())
+				.containsExactly(35L, 36L, 37L, 38L, 39L);
+	}
+
+	@Test
+	void selects_by_position() {
+		for (int i = 0; i < 40; i++) {
+			add(i, i == 17 ? PEAK : 10);
+		}
+		List<TimedData<Memory>> allData = timeSeries.getTimedData();
+
+		BitSet expired = dot.expiredIndices(allData);
+
+		assertThat(expired.cardinality()).isEqualTo(40 - 12);
+		assertThat(expired.get(17)).isFalse();
+		assertThat(expired.nextSetBit(35)).isEqualTo(-1);
+		assertThat(dot.isExpired(new Params<>(allData.get(expired.nextSetBit(0)), allData))).isTrue();
+		assertThat(dot.isExpired(new Params<>(allData.get(17), allData))).isFalse();
+	}
+
+	@Test
+	void combined_with_cutoff_selects_at_once() {
+		for (int i = 0; i < 40; i++) {
+			add(i, i == 17 ? PEAK : 10);
+		}
+
+		BitSet expected = dot.expiredIndices(timeSeries.getTimedData());
+		expected.set(0, 10);
+
+		Expiry<Memory> expiry = dot.or(new CollectionSizeExpiry<>(30));
+		timeSeries.expire(expiry);
+
+		assertThat(expiry).isInstanceOf(SelectionExpiry.class);
+		assertThat(timeSeries.size()).isEqualTo(40 - expected.cardinality());
+		assertThat(useds()).contains(PEAK);
+	}
+
+	@Nested
+	class LargestTrianglesTest {
+		private final long[] nanos = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+
+		@Test
+		void keeps_all_below_threshold() {
+			BitSet kept = DownsamplingExpiry.largestTriangles(nanos, new double[nanos.length], nanos.length);
+
+			assertThat(kept.cardinality()).isEqualTo(nanos.length);
+		}
+
+		@Test
+		void keeps_first_last_and_extremes() {
+			double[] values = { 0, 0, 0, 9, 0, 0, -9, 0, 0, 0 };
+
+			BitSet kept = DownsamplingExpiry.largestTriangles(nanos, values, 4);
+
+			assertThat(kept.stream().toArray()).containsExactly(0, 3, 6, 9);
+		}
+	}
+}
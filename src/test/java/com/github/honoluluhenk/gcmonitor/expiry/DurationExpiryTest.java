@@ -1,20 +1,24 @@
 package com.github.honoluluhenk.gcmonitor.expiry;
 
 import java.time.Duration;
-import java.time.ZonedDateTime;
+import java.time.Period;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAmount;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import com.github.honoluluhenk.gcmonitor.PayloadFixture;
 import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.timeddata.EpochNanos;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,14 +28,18 @@ class DurationExpiryTest {
 	private static final int EXPIRY_DAY = 9;
 	private static final Duration DURATION = Duration.of(NOW_DAY - EXPIRY_DAY, ChronoUnit.DAYS);
 
-	private static final DurationExpiry<PayloadFixture> EXPIRY = new DurationExpiry<PayloadFixture>(DURATION) {
-		private static final long serialVersionUID = 295246575272479240L;
+	private static final DurationExpiry<PayloadFixture> EXPIRY = fixedNow(DURATION);
 
-		@Override
-		ZonedDateTime getNow() {
-			return TestUtil.mkTime(NOW_DAY);
-		}
-	};
+	private static DurationExpiry<PayloadFixture> fixedNow(TemporalAmount expireAfter) {
+		return new DurationExpiry<PayloadFixture>(expireAfter) {
+			private static final long serialVersionUID = 295246575272479240L;
+
+			@Override
+			long getNowEpochNanos() {
+				return EpochNanos.of(TestUtil.mkTime(NOW_DAY));
+			}
+		};
+	}
 
 	private static final List<TimedData<PayloadFixture>> DONT_CARE = Collections.emptyList();
 
@@ -80,8 +88,33 @@ class DurationExpiryTest {
 		assertFalse(expired);
 	}
 
+	@Test
+	void expires_on_calendar_based_amount() {
+		DurationExpiry<PayloadFixture> expiry = fixedNow(Period.ofDays(NOW_DAY - EXPIRY_DAY));
+
+		assertTrue(expiry.isExpired(new Params<>(new TimedData<>(TestUtil.mkTime(EXPIRY_DAY),
+				new PayloadFixture("expired")), DONT_CARE)));
+		assertFalse(expiry.isExpired(new Params<>(new TimedData<>(TestUtil.mkTime(EXPIRY_DAY).plusNanos(1),
+				new PayloadFixture("not expired")), DONT_CARE)));
+	}
+
+	@Test
+	void expiredCount_finds_cutoff() {
+		List<TimedData<PayloadFixture>> sortedData = Arrays.asList(
+				new TimedData<>(TestUtil.mkTime(EXPIRY_DAY - 1), new PayloadFixture("expired")),
+				new TimedData<>(TestUtil.mkTime(EXPIRY_DAY), new PayloadFixture("expired")),
+				new TimedData<>(TestUtil.mkTime(EXPIRY_DAY).plusNanos(1), new PayloadFixture("not expired")),
+				new TimedData<>(TestUtil.mkTime(NOW_DAY), new PayloadFixture("not expired")));
+
+		assertThat(EXPIRY.expiredCount(Timestamps.of(sortedData))).isEqualTo(2);
+		assertThat(EXPIRY.expiredCount(Timestamps.of(sortedData.subList(0, 2)))).isEqualTo(2);
+		assertThat(EXPIRY.expiredCount(Timestamps.of(sortedData.subList(2, 4)))).isEqualTo(0);
+		assertThat(EXPIRY.expiredCount(Timestamps.of(DONT_CARE))).isEqualTo(0);
+		assertThat(fixedNow(Period.ofDays(NOW_DAY - EXPIRY_DAY)).expiredCount(Timestamps.of(sortedData))).isEqualTo(2);
+	}
+
 	@Test
 	void getNow_provieds_a_value() {
-		assertNotNull(new DurationExpiry<>(DURATION).getNow());
+		assertThat(new DurationExpiry<>(DURATION).getNowEpochNanos()).isPositive();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpiryCostTest {
+
+	@Test
+	void empty() {
+		ExpiryCost cost = ExpiryCost.EMPTY;
+
+		assertThat(cost.getRuns()).isEqualTo(0);
+		assertThat(cost.getTotalNanos()).isEqualTo(0);
+		assertThat(cost.getMaxNanos()).isEqualTo(0);
+		assertThat(cost.getLastNanos()).isEqualTo(0);
+		assertThat(cost.getMeanNanos()).isNaN();
+	}
+
+	@Test
+	void plus() {
+		ExpiryCost cost = ExpiryCost.EMPTY.plus(30).plus(50).plus(10);
+
+		assertThat(cost.getRuns()).isEqualTo(3);
+		assertThat(cost.getTotalNanos()).isEqualTo(90);
+		assertThat(cost.getMaxNanos()).isEqualTo(50);
+		assertThat(cost.getLastNanos()).isEqualTo(10);
+		assertThat(cost.getMeanNanos()).isEqualTo(30.0d);
+		assertThat(ExpiryCost.EMPTY.getRuns()).isEqualTo(0);
+	}
+
+	@Test
+	void invalid_nanos() {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> ExpiryCost.EMPTY.plus(-1));
+
+		assertThat(iae).hasMessage("nanos must be >= 0 but was: -1");
+	}
+}
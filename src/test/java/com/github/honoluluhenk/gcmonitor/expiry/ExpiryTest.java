@@ -1,9 +1,14 @@
 package com.github.honoluluhenk.gcmonitor.expiry;
 
 import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.OptionalInt;
 
+import com.github.honoluluhenk.gcmonitor.TestUtil;
 import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import static java.util.Collections.emptyList;
@@ -74,4 +79,107 @@ class ExpiryTest {
 	void expectedReadings() {
 		assertThat(TRUE.getExpectedReadings()).isEqualTo(OptionalInt.empty());
 	}
-}
\ No newline at end of file
+
+	@Nested
+	class CutoffTest {
+		private final List<TimedData<String>> sortedData = Arrays.asList(
+				new TimedData<>(TestUtil.mkTime(1), "1"),
+				new TimedData<>(TestUtil.mkTime(2), "2"),
+				new TimedData<>(TestUtil.mkTime(3), "3"),
+				new TimedData<>(TestUtil.mkTime(4), "4"));
+
+		private final CollectionSizeExpiry<String> keep1 = new CollectionSizeExpiry<>(1);
+		private final CollectionSizeExpiry<String> keep3 = new CollectionSizeExpiry<>(3);
+
+		private int expiredCount(Expiry<String> expiry) {
+			assertThat(expiry).isInstanceOf(CutoffExpiry.class);
+			return ((CutoffExpiry<String>) expiry).expiredCount(Timestamps.of(sortedData));
+		}
+
+		@Test
+		void and_is_the_shorter_cutoff() {
+			assertThat(expiredCount(keep1.and(keep3))).isEqualTo(1);
+			assertThat(expiredCount(keep3.and(keep1))).isEqualTo(1);
+			assertThat(expiredCount(keep1.and(new NullExpiry<>()))).isEqualTo(0);
+		}
+
+		@Test
+		void or_is_the_longer_cutoff() {
+			assertThat(expiredCount(keep1.or(keep3))).isEqualTo(3);
+			assertThat(expiredCount(keep3.or(keep1))).isEqualTo(3);
+			assertThat(expiredCount(keep3.or(new NullExpiry<>()))).isEqualTo(1);
+		}
+
+		@Test
+		void nested() {
+			assertThat(expiredCount(keep1.or(keep3).and(keep3))).isEqualTo(1);
+		}
+
+		@Test
+		void predicate_is_not_a_cutoff() {
+			assertThat(keep1.and(TRUE)).isNotInstanceOf(CutoffExpiry.class);
+			assertThat(TRUE.or(keep1)).isNotInstanceOf(CutoffExpiry.class);
+			assertThat(keep1.negate()).isNotInstanceOf(CutoffExpiry.class);
+		}
+
+		@Test
+		void right_is_skipped_if_left_decides() {
+			CutoffExpiry<String> failing = new CutoffExpiry<String>() {
+				@Override
+				public int expiredCount(Timestamps timestamps) {
+					throw new AssertionError("must not be asked");
+				}
+
+				@Override
+				public boolean isExpired(Params<String> params) {
+					throw new AssertionError("must not be asked");
+				}
+			};
+
+			CutoffExpiry<String> all = new CutoffExpiry<String>() {
+				@Override
+				public int expiredCount(Timestamps timestamps) {
+					return timestamps.size();
+				}
+
+				@Override
+				public boolean isExpired(Params<String> params) {
+					return true;
+				}
+			};
+
+			assertThat(expiredCount(new NullExpiry<String>().and(failing))).isEqualTo(0);
+			assertThat(expiredCount(all.or(failing))).isEqualTo(4);
+		}
+	}
+
+	@Nested
+	class ExpectedReadingsTest {
+		private final CollectionSizeExpiry<String> keep1 = new CollectionSizeExpiry<>(1);
+		private final CollectionSizeExpiry<String> keep3 = new CollectionSizeExpiry<>(3);
+
+		@Test
+		void and_keeps_the_larger_bound() {
+			assertThat(keep1.and(keep3).getExpectedReadings()).isEqualTo(OptionalInt.of(3));
+			assertThat(keep1.and(TRUE).getExpectedReadings()).isEqualTo(OptionalInt.of(1));
+			assertThat(TRUE.and(keep3).getExpectedReadings()).isEqualTo(OptionalInt.of(3));
+			assertThat(TRUE.and(FALSE).getExpectedReadings()).isEqualTo(OptionalInt.empty());
+		}
+
+		@Test
+		void or_keeps_the_smaller_bound_of_cutoffs() {
+			assertThat(keep1.or(keep3).getExpectedReadings()).isEqualTo(OptionalInt.of(1));
+			assertThat(keep1.or(new NullExpiry<>()).getExpectedReadings()).isEqualTo(OptionalInt.empty());
+		}
+
+		@Test
+		void or_has_no_bound_for_predicates() {
+			assertThat(keep1.or(TRUE).getExpectedReadings()).isEqualTo(OptionalInt.empty());
+		}
+
+		@Test
+		void negate_has_no_bound() {
+			assertThat(keep1.negate().getExpectedReadings()).isEqualTo(OptionalInt.empty());
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LazyExpirySchedulerTest {
+
+	private final LazyExpiryScheduler dot = new LazyExpiryScheduler(3);
+	private final AtomicInteger runs = new AtomicInteger();
+
+	@ParameterizedTest
+	@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+	void invalid_maxPendingReadings(int maxPendingReadings) {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> new LazyExpiryScheduler(maxPendingReadings));
+
+		assertThat(iae).hasMessage("maxPendingReadings must be > 0 but was: " + maxPendingReadings);
+	}
+
+	@Test
+	void defaults() {
+		assertThat(new LazyExpiryScheduler().getMaxPendingReadings())
+				.isEqualTo(LazyExpiryScheduler.DEFAULT_MAX_PENDING_READINGS);
+	}
+
+	@Test
+	void does_not_run_on_add() {
+		dot.readingAdded(runs::incrementAndGet);
+		dot.readingAdded(runs::incrementAndGet);
+
+		assertThat(runs.get()).isEqualTo(0);
+	}
+
+	@Test
+	void runs_on_read() {
+		dot.readingAdded(runs::incrementAndGet);
+		dot.beforeRead(runs::incrementAndGet);
+		dot.beforeRead(runs::incrementAndGet);
+
+		assertThat(runs.get()).isEqualTo(2);
+	}
+
+	@Test
+	void runs_after_maxPendingReadings() {
+		for (int i = 0; i < 7; i++) {
+			dot.readingAdded(runs::incrementAndGet);
+		}
+
+		assertThat(runs.get()).isEqualTo(2);
+	}
+
+	@Test
+	void read_resets_pending_readings() {
+		dot.readingAdded(runs::incrementAndGet);
+		dot.readingAdded(runs::incrementAndGet);
+		dot.beforeRead(runs::incrementAndGet);
+		dot.readingAdded(runs::incrementAndGet);
+		dot.readingAdded(runs::incrementAndGet);
+
+		assertThat(runs.get()).isEqualTo(1);
+	}
+
+	@Test
+	void start_stop_do_not_run() {
+		dot.start(runs::incrementAndGet);
+		dot.stop();
+
+		assertThat(runs.get()).isEqualTo(0);
+	}
+}
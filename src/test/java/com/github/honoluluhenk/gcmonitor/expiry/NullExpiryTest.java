@@ -1,5 +1,8 @@
 package com.github.honoluluhenk.gcmonitor.expiry;
 
+import java.util.Collections;
+
+import com.github.honoluluhenk.gcmonitor.timeddata.Timestamps;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -10,4 +13,9 @@ class NullExpiryTest {
 	void expired() {
 		assertThat(new NullExpiry<>().isExpired(null)).isFalse();
 	}
+
+	@Test
+	void expiredCount() {
+		assertThat(new NullExpiry<>().expiredCount(Timestamps.of(Collections.emptyList()))).isEqualTo(0);
+	}
 }
\ No newline at end of file
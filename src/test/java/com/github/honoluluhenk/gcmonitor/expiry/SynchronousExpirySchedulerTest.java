@@ -0,0 +1,29 @@
+package com.github.honoluluhenk.gcmonitor.expiry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SynchronousExpirySchedulerTest {
+
+	private final SynchronousExpiryScheduler dot = new SynchronousExpiryScheduler();
+	private final AtomicInteger runs = new AtomicInteger();
+
+	@Test
+	void runs_on_each_reading() {
+		dot.readingAdded(runs::incrementAndGet);
+		dot.readingAdded(runs::incrementAndGet);
+
+		assertThat(runs.get()).isEqualTo(2);
+	}
+
+	@Test
+	void does_not_run_on_start() {
+		dot.start(runs::incrementAndGet);
+		dot.stop();
+
+		assertThat(runs.get()).isEqualTo(0);
+	}
+}
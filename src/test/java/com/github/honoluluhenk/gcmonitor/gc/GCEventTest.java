@@ -1,6 +1,7 @@
 package com.github.honoluluhenk.gcmonitor.gc;
 
 import java.lang.management.MemoryUsage;
+import java.time.Duration;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -10,6 +11,7 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class GCEventTest {
 	private final Map<MemoryPoolType, Memory> memoryAfterGC = new EnumMap<>(MemoryPoolType.class);
@@ -35,4 +37,38 @@ class GCEventTest {
 				.containsOnlyKeys(MemoryPoolType.OLD)
 				.containsValue(fixture);
 	}
-}
\ No newline at end of file
+
+	@Test
+	void getDuration() {
+		assertThat(new GCEvent(GCCollection.MAJOR, memoryAfterGC).getDuration()).isEqualTo(Duration.ZERO);
+		assertThat(new GCEvent(GCCollection.MAJOR, memoryAfterGC, Duration.ofMillis(12)).getDuration())
+				.isEqualTo(Duration.ofMillis(12));
+		assertThat(new GCEvent(GCCollection.MAJOR, memoryAfterGC, Duration.ofMillis(12)).getDurationNanos())
+				.isEqualTo(12_000_000L);
+	}
+
+	@Test
+	void negative_duration() {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> new GCEvent(GCCollection.MAJOR, memoryAfterGC, Duration.ofMillis(-1)));
+
+		assertThat(iae).hasMessage("duration must be >= 0 but was: PT-0.001S");
+	}
+
+	@Test
+	void getMemoryBeforeGC() {
+		Map<MemoryPoolType, Memory> memoryBeforeGC = new EnumMap<>(MemoryPoolType.class);
+		memoryBeforeGC.put(MemoryPoolType.YOUNG, new Memory(-1, 10, 20, -1));
+
+		assertThat(new GCEvent(GCCollection.MINOR, memoryAfterGC).getMemoryBeforeGC()).isEmpty();
+		assertThat(new GCEvent(GCCollection.MINOR, memoryBeforeGC, memoryAfterGC, Duration.ZERO).getMemoryBeforeGC())
+				.isEqualTo(memoryBeforeGC);
+	}
+
+	@Test
+	void getGcName() {
+		assertThat(new GCEvent(GCCollection.MINOR, memoryAfterGC).getGcName()).isEmpty();
+		assertThat(new GCEvent("G1 Young Generation", GCCollection.MINOR, memoryAfterGC, memoryAfterGC, Duration.ZERO)
+				.getGcName()).isEqualTo("G1 Young Generation");
+	}
+}
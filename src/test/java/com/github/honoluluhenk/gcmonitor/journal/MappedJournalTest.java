@@ -0,0 +1,221 @@
+package com.github.honoluluhenk.gcmonitor.journal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedJournalTest {
+
+	private Path directory = null;
+
+	@BeforeEach
+	void setup() throws IOException {
+		directory = Files.createTempDirectory("gcmonitor-journal");
+	}
+
+	@AfterEach
+	void cleanup() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	private MappedJournal open(int recordsPerSegment, int maxSegments) throws IOException {
+		return new MappedJournal(directory, recordsPerSegment, maxSegments, ZoneId.systemDefault());
+	}
+
+	private static TimedData<Memory> reading(int day, long used) {
+		return new TimedData<>(TestUtil.mkTime(day), new Memory(-1, used, 1000, -1));
+	}
+
+	private static List<Long> replayUseds(MappedJournal journal) {
+		List<TimedData<Memory>> replayed = new ArrayList<>();
+		journal.replay(replayed::add);
+
+		return replayed.stream()
+				.map(td -> td.getData().getUsed())
+				.collect(Collectors.toList());
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().collect(Collectors.toList());
+		}
+	}
+
+	@Nested
+	class ConstructorTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_recordsPerSegment(int recordsPerSegment) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> open(recordsPerSegment, 1));
+
+			assertThat(iae).hasMessage("recordsPerSegment must be > 0 but was: " + recordsPerSegment);
+		}
+
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_maxSegments(int maxSegments) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> open(1, maxSegments));
+
+			assertThat(iae).hasMessage("maxSegments must be > 0 but was: " + maxSegments);
+		}
+
+		@Test
+		void creates_directory() throws IOException {
+			Path nested = directory.resolve("a").resolve("b");
+
+			MappedJournal journal = new MappedJournal(nested);
+
+			assertThat(nested).isDirectory();
+			assertThat(journal.getRecordsPerSegment()).isEqualTo(65_536);
+			assertThat(journal.getMaxSegments()).isEqualTo(16);
+			journal.close();
+		}
+	}
+
+	@Nested
+	class AppendReplayTest {
+		@Test
+		void replays_appended_readings() throws IOException {
+			MappedJournal journal = open(10, 2);
+			journal.append(reading(1, 1));
+			journal.append(reading(2, 2));
+
+			List<TimedData<Memory>> replayed = new ArrayList<>();
+			journal.replay(replayed::add);
+
+			assertThat(replayed).containsExactly(reading(1, 1), reading(2, 2));
+		}
+
+		@Test
+		void survives_reopening() throws IOException {
+			MappedJournal journal = open(10, 2);
+			journal.append(reading(1, 1));
+			journal.append(reading(2, 2));
+			journal.close();
+
+			MappedJournal reopened = open(10, 2);
+			reopened.append(reading(3, 3));
+
+			assertThat(replayUseds(reopened)).containsExactly(1L, 2L, 3L);
+		}
+
+		@Test
+		void rolls_segments_and_deletes_oldest() throws IOException {
+			MappedJournal journal = open(2, 3);
+			for (int day = 1; day <= 9; day++) {
+				journal.append(reading(day, day));
+			}
+
+			assertThat(replayUseds(journal)).containsExactly(5L, 6L, 7L, 8L, 9L);
+			assertThat(segmentFiles()).hasSize(3);
+		}
+
+		@Test
+		void continues_after_reopening_full_segment() throws IOException {
+			MappedJournal journal = open(2, 3);
+			journal.append(reading(1, 1));
+			journal.append(reading(2, 2));
+			journal.close();
+
+			MappedJournal reopened = open(2, 3);
+			reopened.append(reading(3, 3));
+
+			assertThat(replayUseds(reopened)).containsExactly(1L, 2L, 3L);
+			assertThat(segmentFiles()).hasSize(2);
+		}
+
+		@Test
+		void closed_journal_fails() throws IOException {
+			MappedJournal journal = open(2, 3);
+			journal.close();
+			journal.close();
+
+			assertThrows(IllegalStateException.class, () -> journal.append(reading(1, 1)));
+			assertThrows(IllegalStateException.class, () -> journal.replay(td -> { }));
+			assertThrows(IllegalStateException.class, journal::flush);
+		}
+	}
+
+	@Nested
+	class RecoveryTest {
+		private void corrupt(Path file, long offset) throws IOException {
+			try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+				raf.seek(offset);
+				raf.writeLong(0xDEADBEEFL);
+			}
+		}
+
+		@Test
+		void ignores_torn_tail_record() throws IOException {
+			MappedJournal journal = open(10, 2);
+			journal.append(reading(1, 1));
+			journal.append(reading(2, 2));
+			journal.append(reading(3, 3));
+			journal.flush();
+			journal.close();
+
+			// simulate a crash while writing the last record
+			corrupt(segmentFiles().get(0), JournalSegment.HEADER_SIZE + 2L * JournalSegment.RECORD_SIZE + 8);
+
+			MappedJournal reopened = open(10, 2);
+			assertThat(replayUseds(reopened)).containsExactly(1L, 2L);
+
+			reopened.append(reading(4, 4));
+			assertThat(replayUseds(reopened)).containsExactly(1L, 2L, 4L);
+		}
+
+		@Test
+		void starts_new_segment_if_newest_is_unreadable() throws IOException {
+			MappedJournal journal = open(10, 3);
+			journal.append(reading(1, 1));
+			journal.close();
+
+			corrupt(segmentFiles().get(0), 0);
+
+			MappedJournal reopened = open(10, 3);
+			reopened.append(reading(2, 2));
+
+			assertThat(replayUseds(reopened)).containsExactly(2L);
+			assertThat(segmentFiles()).hasSize(2);
+		}
+
+		@Test
+		void skips_unreadable_older_segments() throws IOException {
+			MappedJournal journal = open(1, 3);
+			journal.append(reading(1, 1));
+			journal.append(reading(2, 2));
+			journal.append(reading(3, 3));
+			journal.close();
+
+			corrupt(segmentFiles().get(1), 0);
+
+			assertThat(replayUseds(open(1, 3))).containsExactly(1L, 3L);
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.github.honoluluhenk.gcmonitor.journal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.timeddata.TimedData;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NullJournalTest {
+
+	@Test
+	void forgets_everything() {
+		NullJournal journal = new NullJournal();
+		journal.append(new TimedData<>(TestUtil.mkTime(1), new Memory(1, 2, 3, 4)));
+
+		List<TimedData<Memory>> replayed = new ArrayList<>();
+		journal.replay(replayed::add);
+
+		assertThat(replayed).isEmpty();
+	}
+}
@@ -35,7 +35,11 @@ class MemoryTest {
 				() -> assertThat(new Memory(0, 0, 0, 0).getInit().get())
 						.isEqualTo(0),
 				() -> assertThat(new Memory(-1, 0, 0, 0).getInit().isPresent())
-						.isFalse()
+						.isFalse(),
+				() -> assertThat(new Memory(1, 0, 0, 0).getInitOrMinusOne())
+						.isEqualTo(1),
+				() -> assertThat(new Memory(-1, 0, 0, 0).getInitOrMinusOne())
+						.isEqualTo(-1)
 		);
 	}
 
@@ -110,7 +114,11 @@ class MemoryTest {
 				() -> assertThat(new Memory(IGNORE, 0, 0, 0).getMax().get())
 						.isEqualTo(0),
 				() -> assertThat(new Memory(IGNORE, 0, 0, -1).getMax().isPresent())
-						.isFalse()
+						.isFalse(),
+				() -> assertThat(new Memory(IGNORE, 0, 0, 1).getMaxOrMinusOne())
+						.isEqualTo(1),
+				() -> assertThat(new Memory(IGNORE, 0, 0, -1).getMaxOrMinusOne())
+						.isEqualTo(-1)
 		);
 	}
 
@@ -119,4 +127,20 @@ class MemoryTest {
 		assertThat(new Memory(123, 234, 345, 456).toString())
 				.isEqualTo("Memory{init = 123(0K) used = 234(0K) committed = 345(0K) max = 456(0K)}");
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void equals_hashCode_on_values() {
+		Memory memory = new Memory(1, 2, 3, 4);
+
+		assertAll(
+				() -> assertThat(memory).isEqualTo(memory),
+				() -> assertThat(memory).isEqualTo(new Memory(1, 2, 3, 4)),
+				() -> assertThat(memory.hashCode()).isEqualTo(new Memory(1, 2, 3, 4).hashCode()),
+				() -> assertThat(memory).isNotEqualTo(new Memory(-1, 2, 3, 4)),
+				() -> assertThat(memory).isNotEqualTo(new Memory(1, 3, 3, 4)),
+				() -> assertThat(memory).isNotEqualTo(new Memory(1, 2, 4, 4)),
+				() -> assertThat(memory).isNotEqualTo(new Memory(1, 2, 3, -1)),
+				() -> assertThat(memory).isNotEqualTo("foo")
+		);
+	}
+}
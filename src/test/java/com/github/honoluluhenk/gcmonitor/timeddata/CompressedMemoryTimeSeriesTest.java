@@ -0,0 +1,390 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.CutoffExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.NullExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.Params;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.reading;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompressedMemoryTimeSeriesTest {
+
+	// small blocks: most tests span several blocks
+	private final CompressedMemoryTimeSeries dot = new CompressedMemoryTimeSeries(2, ZoneId.systemDefault());
+
+	@Nested
+	class ConstructorTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_blockSize(int blockSize) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new CompressedMemoryTimeSeries(blockSize, ZoneId.systemDefault()));
+
+			assertThat(iae).hasMessage("blockSize must be > 0 but was: " + blockSize);
+		}
+
+		@Test
+		void defaults() {
+			CompressedMemoryTimeSeries series = new CompressedMemoryTimeSeries();
+
+			assertThat(series.getBlockSize()).isEqualTo(1024);
+			assertThat(series.getZone()).isEqualTo(ZoneId.systemDefault());
+			assertThat(series.getTimedData()).isEmpty();
+			assertThat(series.getBlocks()).isEmpty();
+		}
+	}
+
+	@Nested
+	class BudgetTest {
+		@ParameterizedTest
+		@ValueSource(longs = { Long.MIN_VALUE, -1, 0 })
+		void invalid_budget(long maxRetainedBytes) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new CompressedMemoryTimeSeries(2, ZoneId.systemDefault(), maxRetainedBytes));
+
+			assertThat(iae).hasMessage("maxRetainedBytes must be > 0 but was: " + maxRetainedBytes);
+		}
+
+		@Test
+		void unbounded_by_default() {
+			assertThat(dot.getMaxRetainedBytes()).isEqualTo(Long.MAX_VALUE);
+		}
+
+		@Test
+		void retained_bytes_of_empty_series() {
+			// Blocks (32) + encoder with its BitOutput (80 + 24) + initial buffer (16 + 64)
+			assertThat(dot.getRetainedBytes()).isEqualTo(216);
+		}
+
+		@Test
+		void retained_bytes_grow_per_sealed_block() {
+			dot.add(reading(1, 1));
+			dot.add(reading(2, 2));
+			long oneBlock = dot.getRetainedBytes();
+			dot.add(reading(3, 3));
+			dot.add(reading(4, 4));
+
+			MemoryBlock second = dot.getBlocks().get(1);
+			// one more block (object and data) and one more reference in the list
+			assertThat(dot.getRetainedBytes() - oneBlock).isBetween(second.getRetainedBytes(),
+					second.getRetainedBytes() + Footprint.REFERENCE + 4);
+		}
+
+		@Test
+		void evicts_oldest_blocks_if_over_budget() {
+			for (int day = 1; day <= 4; day++) {
+				dot.add(reading(day, day));
+			}
+			long budget = dot.getRetainedBytes();
+			CompressedMemoryTimeSeries bounded = new CompressedMemoryTimeSeries(2, ZoneId.systemDefault(), budget);
+			RunningAggregate<Memory> aggregate = bounded.aggregate(Memory::getUsed);
+
+			for (int day = 1; day <= 9; day++) {
+				bounded.add(reading(day, day));
+				assertThat(bounded.getRetainedBytes()).isLessThanOrEqualTo(budget);
+			}
+
+			// the open block [9] does not fit next to 2 sealed blocks: only [7, 8] is left
+			assertThat(bounded.getTimedData()).extracting(td -> td.getData().getUsed())
+					.containsExactly(7L, 8L, 9L);
+			assertThat(aggregate.getStatistics().getSum()).isEqualTo(7 + 8 + 9);
+		}
+	}
+
+	@Nested
+	class AddTest {
+		@BeforeEach
+		void setup() {
+			dot.add(reading(3, 3));
+			dot.add(reading(5, 5));
+			dot.add(reading(7, 7));
+		}
+
+		@Test
+		void decodes_what_was_added() {
+			assertThat(dot.getTimedData()).containsExactly(reading(3, 3), reading(5, 5), reading(7, 7));
+		}
+
+		@Test
+		void seals_full_blocks() {
+			assertThat(dot.getBlocks()).extracting(MemoryBlock::size)
+					.containsExactly(2, 1);
+			assertThat(dot.size()).isEqualTo(3);
+			assertThat(dot.getByteSize()).isPositive();
+		}
+
+		@Test
+		void inserts_out_of_order() {
+			dot.add(reading(4, 4));
+			dot.add(reading(1, 1));
+
+			assertThat(useds()).containsExactly(1L, 3L, 4L, 5L, 7L);
+			assertThat(dot.getBlocks()).extracting(MemoryBlock::size)
+					.containsExactly(2, 2, 1);
+		}
+	}
+
+	@Nested
+	class ExpireTest {
+		@BeforeEach
+		void setup() {
+			for (int day = 1; day <= 7; day++) {
+				dot.add(reading(day, day));
+			}
+		}
+
+		@Test
+		void expire_nothing() {
+			dot.expire(new NullExpiry<>());
+
+			assertThat(useds()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+		}
+
+		@Test
+		void expire_collection_size() {
+			dot.expire(new CollectionSizeExpiry<>(3));
+
+			assertThat(useds()).containsExactly(5L, 6L, 7L);
+		}
+
+		@Test
+		void expire_cutoff_searches_blocks() {
+			long cutoff = EpochNanos.of(TestUtil.mkTime(4));
+			MemoryBlock kept = dot.getBlocks().get(2);
+
+			dot.expire(new CutoffExpiry<Memory>() {
+				@Override
+				public boolean isExpired(Params<Memory> params) {
+					return params.getTimedData().getEpochNanos() <= cutoff;
+				}
+
+				@Override
+				public int expiredCount(Timestamps sortedTimestamps) {
+					assertThat(sortedTimestamps.size()).isEqualTo(7);
+					assertThat(sortedTimestamps.epochNanos(3)).isEqualTo(cutoff);
+					return sortedTimestamps.countUntil(cutoff);
+				}
+			});
+
+			assertThat(useds()).containsExactly(5L, 6L, 7L);
+			assertThat(dot.getBlocks().get(0)).isSameAs(kept);
+		}
+
+		@Test
+		void expire_middle() {
+			dot.expire(params -> params.getTimedData().getData().getUsed() == 5L);
+
+			assertThat(useds()).containsExactly(1L, 2L, 3L, 4L, 6L, 7L);
+		}
+
+		@Test
+		void add_after_expire() {
+			dot.expire(new CollectionSizeExpiry<>(1));
+			dot.add(reading(8, 8));
+
+			assertThat(useds()).containsExactly(7L, 8L);
+		}
+
+		@Test
+		void drops_whole_blocks_without_reencoding() {
+			MemoryBlock kept = dot.getBlocks().get(2);
+
+			dot.expire(new CollectionSizeExpiry<>(3));
+
+			assertThat(dot.getBlocks().get(0)).isSameAs(kept);
+		}
+
+		@Test
+		void reencodes_only_partly_expired_block() {
+			MemoryBlock kept = dot.getBlocks().get(2);
+
+			dot.expire(new CollectionSizeExpiry<>(4));
+
+			assertThat(useds()).containsExactly(4L, 5L, 6L, 7L);
+			assertThat(dot.getBlocks()).extracting(MemoryBlock::size)
+					.containsExactly(1, 2, 1);
+			assertThat(dot.getBlocks().get(1)).isSameAs(kept);
+			assertThat(dot.size()).isEqualTo(4);
+		}
+
+		@Test
+		void expires_prefix_of_open_block() {
+			CompressedMemoryTimeSeries series = new CompressedMemoryTimeSeries(4, ZoneId.systemDefault());
+			for (int day = 1; day <= 3; day++) {
+				series.add(reading(day, day));
+			}
+
+			series.expire(new CollectionSizeExpiry<>(2));
+			series.add(reading(4, 4));
+			series.add(reading(5, 5));
+
+			assertThat(useds(series.getTimedData())).containsExactly(2L, 3L, 4L, 5L);
+			assertThat(series.getBlocks()).extracting(MemoryBlock::size)
+					.containsExactly(4);
+		}
+
+		@Test
+		void expire_nothing_keeps_blocks() {
+			List<MemoryBlock> before = dot.getBlocks();
+
+			dot.expire(new CollectionSizeExpiry<>(7));
+
+			assertThat(dot.getBlocks()).containsExactlyElementsOf(before);
+		}
+
+		@Test
+		void keeps_aggregates() {
+			RunningAggregate<Memory> aggregate = dot.aggregate(Memory::getUsed);
+
+			dot.expire(new CollectionSizeExpiry<>(3));
+			assertThat(aggregate.getStatistics().getMean()).isEqualTo(6.0d);
+
+			dot.expire(params -> params.getTimedData().getData().getUsed() == 6L);
+			assertThat(aggregate.getStatistics().getMean()).isEqualTo(6.0d);
+			assertThat(aggregate.getStatistics().getMin()).isEqualTo(5.0d);
+		}
+	}
+
+	@Nested
+	class RangeQueryTest {
+		@BeforeEach
+		void setup() {
+			for (int day = 1; day <= 9; day += 2) {
+				dot.add(reading(day, day));
+			}
+		}
+
+		@Test
+		void latest() {
+			assertThat(useds(dot.latest(0))).isEmpty();
+			assertThat(useds(dot.latest(1))).containsExactly(9L);
+			assertThat(useds(dot.latest(3))).containsExactly(5L, 7L, 9L);
+			assertThat(useds(dot.latest(99))).containsExactly(1L, 3L, 5L, 7L, 9L);
+			assertThrows(IllegalArgumentException.class, () -> dot.latest(-1));
+		}
+
+		@Test
+		void earliest() {
+			assertThat(useds(dot.earliest(2))).containsExactly(1L, 3L);
+		}
+
+		@Test
+		void between() {
+			assertThat(useds(dot.between(TestUtil.mkTime(3), TestUtil.mkTime(7)))).containsExactly(3L, 5L);
+			assertThat(useds(dot.between(TestUtil.mkTime(4), TestUtil.mkTime(5)))).isEmpty();
+			assertThat(useds(dot.between(TestUtil.mkTime(7), TestUtil.mkTime(3)))).isEmpty();
+		}
+
+		@Test
+		void since() {
+			assertThat(useds(dot.since(TestUtil.mkTime(6)))).containsExactly(7L, 9L);
+			assertThat(useds(dot.since(TestUtil.mkTime(10)))).isEmpty();
+		}
+
+		@Test
+		void since_epochNanos() {
+			long seven = EpochNanos.of(TestUtil.mkTime(7));
+
+			assertThat(useds(dot.since(seven))).containsExactly(7L, 9L);
+			assertThat(useds(dot.since(seven + 1))).containsExactly(9L);
+		}
+
+		@Test
+		void floor_and_ceiling() {
+			assertThat(dot.floor(TestUtil.mkTime(4))).contains(reading(3, 3));
+			assertThat(dot.ceiling(TestUtil.mkTime(4))).contains(reading(5, 5));
+		}
+	}
+
+	@Nested
+	class SnapshotTest {
+		@Test
+		void snapshot_does_not_change() {
+			dot.add(reading(1, 1));
+			List<TimedData<Memory>> before = dot.getTimedData();
+
+			dot.add(reading(2, 2));
+			dot.add(reading(3, 3));
+
+			assertThat(useds(before)).containsExactly(1L);
+		}
+
+		@Test
+		void serialization_roundtrip() throws Exception {
+			for (int day = 1; day <= 5; day++) {
+				dot.add(reading(day, day));
+			}
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(dot);
+			}
+			CompressedMemoryTimeSeries copy;
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				copy = (CompressedMemoryTimeSeries) in.readObject();
+			}
+			copy.add(reading(6, 6));
+
+			assertThat(useds(copy.getTimedData())).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+			assertThat(copy.getBlocks()).extracting(MemoryBlock::size)
+					.containsExactly(2, 2, 2);
+		}
+
+		@Test
+		void readers_see_consistent_data_while_writing() throws Exception {
+			CompressedMemoryTimeSeries series = new CompressedMemoryTimeSeries(64, ZoneId.systemDefault());
+			int count = 20_000;
+			AtomicBoolean done = new AtomicBoolean(false);
+			AtomicReference<String> failure = new AtomicReference<>();
+
+			Thread reader = new Thread(() -> {
+				while (!done.get()) {
+					List<TimedData<Memory>> snapshot = series.latest(200);
+					for (int i = 1; i < snapshot.size(); i++) {
+						if (snapshot.get(i).getData().getUsed() != snapshot.get(i - 1).getData().getUsed() + 1) {
+							failure.set("inconsistent snapshot at index " + i);
+						}
+					}
+				}
+			});
+			reader.start();
+
+			for (int i = 0; i < count; i++) {
+				series.add(new TimedData<>(TestUtil.mkTime(1).plusSeconds(i), new Memory(-1, i, i, -1)));
+			}
+			done.set(true);
+			reader.join();
+
+			assertThat(failure.get()).isNull();
+		}
+	}
+
+	private List<Long> useds() {
+		return useds(dot.getTimedData());
+	}
+
+	private static List<Long> useds(List<TimedData<Memory>> timedData) {
+		return timedData.stream()
+				.map(td -> td.getData().getUsed())
+				.collect(Collectors.toList());
+	}
+}
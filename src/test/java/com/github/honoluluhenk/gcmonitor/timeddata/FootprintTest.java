@@ -0,0 +1,27 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FootprintTest {
+
+	@Test
+	void object_is_aligned() {
+		assertThat(Footprint.object(0)).isEqualTo(16);
+		assertThat(Footprint.object(Integer.BYTES)).isEqualTo(16);
+		assertThat(Footprint.object(Long.BYTES)).isEqualTo(24);
+	}
+
+	@Test
+	void array_is_aligned() {
+		assertThat(Footprint.array(0, Long.BYTES)).isEqualTo(16);
+		assertThat(Footprint.array(1, Byte.BYTES)).isEqualTo(24);
+		assertThat(Footprint.array(3, Long.BYTES)).isEqualTo(40);
+	}
+
+	@Test
+	void memory_time_series_columns() {
+		assertThat(new MemoryTimeSeries(10).getRetainedBytes()).isEqualTo(5 * (16 + 10 * 8));
+	}
+}
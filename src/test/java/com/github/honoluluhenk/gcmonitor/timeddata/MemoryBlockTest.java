@@ -0,0 +1,163 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MemoryBlockTest {
+
+	private static final long SECOND = 1_000_000_000L;
+	private static final long T0 = 1_514_764_800L * SECOND;
+
+	private final MemoryBlockEncoder encoder = new MemoryBlockEncoder();
+
+	private static List<long[]> decodeAll(MemoryBlock block) {
+		List<long[]> result = new ArrayList<>();
+		MemoryBlockDecoder decoder = block.decoder();
+		while (decoder.next()) {
+			result.add(new long[] {
+					decoder.getTimestamp(), decoder.getInit(), decoder.getUsed(), decoder.getCommitted(),
+					decoder.getMax()});
+		}
+		return result;
+	}
+
+	@Nested
+	class RoundTripTest {
+		@Test
+		void empty_block() {
+			MemoryBlock block = encoder.seal();
+
+			assertThat(block.size()).isEqualTo(0);
+			assertThat(block.getByteSize()).isEqualTo(0);
+			assertThat(decodeAll(block)).isEmpty();
+		}
+
+		@Test
+		void extreme_values() {
+			long[][] readings = {
+					{T0, -1, 0, 0, -1},
+					{T0, Long.MAX_VALUE, Long.MIN_VALUE, 1, Long.MAX_VALUE},
+					{Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, -1, 0},
+					{Long.MAX_VALUE, 0, 0, 0, 0},
+			};
+			for (long[] r : readings) {
+				encoder.append(r[0], r[1], r[2], r[3], r[4]);
+			}
+
+			assertThat(decodeAll(encoder.seal())).containsExactly(readings);
+		}
+
+		@Test
+		void random_values() {
+			Random random = new Random(42);
+			List<long[]> readings = new ArrayList<>();
+			long timestamp = T0;
+			for (int i = 0; i < 1000; i++) {
+				timestamp += random.nextInt(1000) * SECOND;
+				long[] r = {timestamp, random.nextLong(), random.nextLong(), random.nextInt(), -1};
+				readings.add(r);
+				encoder.append(r[0], r[1], r[2], r[3], r[4]);
+			}
+
+			assertThat(decodeAll(encoder.seal())).containsExactlyElementsOf(readings);
+		}
+
+		@Test
+		void iterator_creates_timed_data() {
+			encoder.append(T0, -1, 10, 20, 30);
+			encoder.append(T0 + SECOND, -1, 11, 20, 30);
+
+			Iterator<TimedData<Memory>> it = encoder.seal().iterator(ZoneId.of("UTC"));
+
+			TimedData<Memory> first = it.next();
+			assertThat(first.getTimestamp()).isEqualTo(EpochNanos.toZonedDateTime(T0, ZoneId.of("UTC")));
+			assertThat(first.getData()).isEqualTo(new Memory(-1, 10, 20, 30));
+			assertThat(it.next().getData()).isEqualTo(new Memory(-1, 11, 20, 30));
+			assertThat(it.hasNext()).isFalse();
+			assertThrows(NoSuchElementException.class, it::next);
+		}
+	}
+
+	@Nested
+	class CompressionTest {
+		@Test
+		void unchanged_fields_cost_one_bit() {
+			for (int i = 0; i < 1000; i++) {
+				encoder.append(T0 + i * SECOND, 1000, 2000, 3000, 4000);
+			}
+
+			// first readings are expensive, then 5 bits per reading
+			assertThat(encoder.seal().getByteSize()).isLessThan(1000 * 5 / 8 + 50);
+		}
+
+		@Test
+		void realistic_readings_need_less_than_2_bytes_per_field() {
+			Random random = new Random(42);
+			long timestamp = T0;
+			long used = 100_000_000L;
+			long committed = 500_000_000L;
+			int readings = 10_000;
+			for (int i = 0; i < readings; i++) {
+				// roughly every second, jitter of up to 1ms
+				timestamp += SECOND + random.nextInt(1_000_000);
+				used += random.nextInt(1_000_000) - 500_000;
+				if (random.nextInt(100) == 0) {
+					committed += 1_000_000L;
+				}
+				encoder.append(timestamp, 1_000_000L, used, committed, 2_000_000_000L);
+			}
+
+			double bytesPerField = encoder.seal().getByteSize() / (readings * 5.0d);
+			assertThat(bytesPerField).isLessThan(2.0d);
+		}
+	}
+
+	@Nested
+	class ViewTest {
+		@Test
+		void view_is_not_affected_by_later_appends() {
+			encoder.append(T0, -1, 10, 20, 30);
+			MemoryBlock view = encoder.view();
+
+			for (int i = 1; i < 1000; i++) {
+				encoder.append(T0 + i, -1, i, 20, 30);
+			}
+
+			assertThat(view.size()).isEqualTo(1);
+			assertThat(decodeAll(view)).containsExactly(new long[] {T0, -1, 10, 20, 30});
+		}
+
+		@Test
+		void serializes_trimmed() throws Exception {
+			encoder.append(T0, -1, 10, 20, 30);
+			MemoryBlock view = encoder.view();
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(view);
+			}
+			MemoryBlock copy;
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				copy = (MemoryBlock) in.readObject();
+			}
+
+			assertThat(decodeAll(copy)).containsExactly(new long[] {T0, -1, 10, 20, 30});
+			assertThat(copy.getByteSize()).isEqualTo(view.getByteSize());
+		}
+	}
+}
@@ -0,0 +1,383 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.NullExpiry;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.TestUtil.reading;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MemoryTimeSeriesTest {
+
+	private final MemoryTimeSeries dot = new MemoryTimeSeries(4);
+
+	@Nested
+	class ConstructorTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_capacity(int capacity) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new MemoryTimeSeries(capacity));
+
+			assertThat(iae).hasMessage("capacity must be > 0 but was: " + capacity);
+		}
+
+		@Test
+		void defaults() {
+			assertThat(dot.getCapacity()).isEqualTo(4);
+			assertThat(dot.getZone()).isEqualTo(ZoneId.systemDefault());
+			assertThat(dot.getTimedData()).isEmpty();
+		}
+	}
+
+	@Nested
+	class AddTest {
+		@BeforeEach
+		void setup() {
+			dot.add(reading(3, 3));
+			dot.add(reading(5, 5));
+			dot.add(reading(7, 7));
+		}
+
+		@Test
+		void roundtrips_all_values() {
+			TimedData<Memory> original = new TimedData<>(TestUtil.mkTime(9).plusNanos(123),
+					new Memory(10, 20, 30, -1));
+			dot.add(original);
+
+			assertThat(dot.getTimedData().get(3))
+					.isEqualTo(original);
+		}
+
+		@Test
+		void keeps_ordering() {
+			assertThat(useds()).containsExactly(3L, 5L, 7L);
+		}
+
+		@Test
+		void inserts_out_of_order() {
+			dot.add(reading(4, 4));
+
+			assertThat(useds()).containsExactly(3L, 4L, 5L, 7L);
+		}
+
+		@Test
+		void inserts_after_same_timestamp() {
+			dot.add(reading(5, 55));
+
+			assertThat(useds()).containsExactly(3L, 5L, 55L, 7L);
+		}
+
+		@Test
+		void overwrites_oldest_if_full() {
+			dot.add(reading(9, 9));
+			dot.add(reading(11, 11));
+			dot.add(reading(13, 13));
+
+			assertThat(useds()).containsExactly(7L, 9L, 11L, 13L);
+		}
+
+		@Test
+		void inserts_out_of_order_if_full() {
+			dot.add(reading(9, 9));
+			dot.add(reading(6, 6));
+
+			assertThat(useds()).containsExactly(5L, 6L, 7L, 9L);
+		}
+
+		@Test
+		void drops_reading_older_than_everything_if_full() {
+			dot.add(reading(9, 9));
+			dot.add(reading(1, 1));
+
+			assertThat(useds()).containsExactly(3L, 5L, 7L, 9L);
+		}
+	}
+
+	@Nested
+	class ExpireTest {
+		@BeforeEach
+		void setup() {
+			// wrap around the physical end of the buffer
+			for (int day = 1; day <= 7; day++) {
+				dot.add(reading(day, day));
+			}
+		}
+
+		@Test
+		void expire_nothing() {
+			dot.expire(new NullExpiry<>());
+
+			assertThat(useds()).containsExactly(4L, 5L, 6L, 7L);
+		}
+
+		@Test
+		void expire_collection_size() {
+			dot.expire(new CollectionSizeExpiry<>(2));
+
+			assertThat(useds()).containsExactly(6L, 7L);
+		}
+
+		@Test
+		void expire_middle() {
+			dot.expire(params -> params.getTimedData().getData().getUsed() == 5L);
+
+			assertThat(useds()).containsExactly(4L, 6L, 7L);
+		}
+
+		@Test
+		void add_after_expire() {
+			dot.expire(new CollectionSizeExpiry<>(1));
+			dot.add(reading(8, 8));
+
+			assertThat(useds()).containsExactly(7L, 8L);
+		}
+	}
+
+	@Nested
+	class AggregateTest {
+		private final Metric<Memory> used = Memory::getUsed;
+
+		private void assertAggregateMatchesData(RunningAggregate<Memory> aggregate) {
+			List<Long> useds = useds();
+			Statistics statistics = aggregate.getStatistics();
+
+			assertThat(statistics.getCount()).isEqualTo(useds.size());
+			assertThat(statistics.getSum()).isEqualTo(useds.stream().mapToLong(Long::longValue).sum());
+			assertThat(statistics.getMin()).isEqualTo(useds.stream().mapToLong(Long::longValue).min().getAsLong());
+			assertThat(statistics.getMax()).isEqualTo(useds.stream().mapToLong(Long::longValue).max().getAsLong());
+		}
+
+		@Test
+		void follows_overwriting_the_oldest() {
+			RunningAggregate<Memory> aggregate = dot.aggregate(used);
+
+			for (int day = 1; day <= 7; day++) {
+				dot.add(reading(day, 10 - day));
+				assertAggregateMatchesData(aggregate);
+			}
+		}
+
+		@Test
+		void follows_out_of_order_add() {
+			RunningAggregate<Memory> aggregate = dot.aggregate(used);
+			dot.add(reading(3, 3));
+			dot.add(reading(5, 5));
+			dot.add(reading(7, 7));
+			dot.add(reading(9, 9));
+
+			dot.add(reading(6, 6));
+			assertAggregateMatchesData(aggregate);
+
+			dot.add(reading(1, 1));
+			assertAggregateMatchesData(aggregate);
+		}
+
+		@Test
+		void follows_expire() {
+			for (int day = 1; day <= 7; day++) {
+				dot.add(reading(day, day));
+			}
+			RunningAggregate<Memory> aggregate = dot.aggregate(used);
+			assertAggregateMatchesData(aggregate);
+
+			dot.expire(params -> params.getTimedData().getData().getUsed() == 5L);
+			assertAggregateMatchesData(aggregate);
+
+			dot.expire(new CollectionSizeExpiry<>(2));
+			assertAggregateMatchesData(aggregate);
+
+			dot.add(reading(8, 8));
+			assertAggregateMatchesData(aggregate);
+		}
+	}
+
+	@Nested
+	class RangeQueryTest {
+		@BeforeEach
+		void setup() {
+			// wrap around the physical end of the buffer: keeps days 3, 5, 7, 9
+			for (int day = 1; day <= 9; day += 2) {
+				dot.add(reading(day, day));
+			}
+		}
+
+		@Test
+		void size() {
+			assertThat(dot.size()).isEqualTo(4);
+		}
+
+		@Test
+		void latest() {
+			assertThat(useds(dot.latest(0))).isEmpty();
+			assertThat(useds(dot.latest(3))).containsExactly(5L, 7L, 9L);
+			assertThat(useds(dot.latest(99))).containsExactly(3L, 5L, 7L, 9L);
+			assertThrows(IllegalArgumentException.class, () -> dot.latest(-1));
+		}
+
+		@Test
+		void earliest() {
+			assertThat(useds(dot.earliest(0))).isEmpty();
+			assertThat(useds(dot.earliest(3))).containsExactly(3L, 5L, 7L);
+			assertThat(useds(dot.earliest(99))).containsExactly(3L, 5L, 7L, 9L);
+			assertThrows(IllegalArgumentException.class, () -> dot.earliest(-1));
+		}
+
+		@Test
+		void between() {
+			assertThat(useds(dot.between(TestUtil.mkTime(5), TestUtil.mkTime(9)))).containsExactly(5L, 7L);
+			assertThat(useds(dot.between(TestUtil.mkTime(4), TestUtil.mkTime(10)))).containsExactly(5L, 7L, 9L);
+			assertThat(useds(dot.between(TestUtil.mkTime(9), TestUtil.mkTime(3)))).isEmpty();
+		}
+
+		@Test
+		void since() {
+			assertThat(useds(dot.since(TestUtil.mkTime(7)))).containsExactly(7L, 9L);
+			assertThat(useds(dot.since(TestUtil.mkTime(1)))).containsExactly(3L, 5L, 7L, 9L);
+			assertThat(useds(dot.since(TestUtil.mkTime(10)))).isEmpty();
+		}
+
+		@Test
+		void since_epochNanos() {
+			long seven = EpochNanos.of(TestUtil.mkTime(7));
+
+			assertThat(useds(dot.since(seven))).containsExactly(7L, 9L);
+			assertThat(useds(dot.since(seven + 1))).containsExactly(9L);
+		}
+
+		@Test
+		void floor() {
+			assertThat(dot.floor(TestUtil.mkTime(2))).isEmpty();
+			assertThat(dot.floor(TestUtil.mkTime(6))).contains(reading(5, 5));
+			assertThat(dot.floor(TestUtil.mkTime(9))).contains(reading(9, 9));
+		}
+
+		@Test
+		void ceiling() {
+			assertThat(dot.ceiling(TestUtil.mkTime(2))).contains(reading(3, 3));
+			assertThat(dot.ceiling(TestUtil.mkTime(6))).contains(reading(7, 7));
+			assertThat(dot.ceiling(TestUtil.mkTime(10))).isEmpty();
+		}
+	}
+
+	@Nested
+	class SnapshotTest {
+		@Test
+		void snapshot_does_not_change_on_add() {
+			dot.add(reading(1, 1));
+			List<TimedData<Memory>> before = dot.getTimedData();
+
+			for (int day = 2; day <= 6; day++) {
+				dot.add(reading(day, day));
+			}
+
+			assertThat(before).extracting(td -> td.getData().getUsed())
+					.containsExactly(1L);
+			assertThat(useds()).containsExactly(3L, 4L, 5L, 6L);
+		}
+
+		@Test
+		void serialization_roundtrip() throws Exception {
+			for (int day = 1; day <= 6; day++) {
+				dot.add(reading(day, day));
+			}
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(dot);
+			}
+			MemoryTimeSeries copy;
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				copy = (MemoryTimeSeries) in.readObject();
+			}
+			copy.add(reading(7, 7));
+
+			assertThat(copy.getTimedData()).extracting(td -> td.getData().getUsed())
+					.containsExactly(4L, 5L, 6L, 7L);
+		}
+
+		@Test
+		@SuppressWarnings("unchecked")
+		void snapshot_serialization_roundtrip() throws Exception {
+			dot.add(reading(1, 1));
+			dot.add(reading(2, 2));
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(dot.getTimedData());
+			}
+			List<TimedData<Memory>> copy;
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				copy = (List<TimedData<Memory>>) in.readObject();
+			}
+
+			assertThat(copy).isEqualTo(dot.getTimedData());
+		}
+
+		@Test
+		void readers_see_consistent_data_while_writing() throws Exception {
+			MemoryTimeSeries series = new MemoryTimeSeries(100);
+			int count = 50_000;
+			AtomicBoolean done = new AtomicBoolean(false);
+			AtomicReference<String> failure = new AtomicReference<>();
+
+			Thread reader = new Thread(() -> {
+				while (!done.get()) {
+					List<TimedData<Memory>> snapshot = series.getTimedData();
+					for (int i = 1; i < snapshot.size(); i++) {
+						// each reading uses its sequence number as used and committed
+						Memory memory = snapshot.get(i).getData();
+						if (memory.getUsed() != snapshot.get(i - 1).getData().getUsed() + 1
+								|| memory.getUsed() != memory.getCommitted()) {
+							failure.set("inconsistent snapshot at index " + i);
+						}
+					}
+				}
+			});
+			reader.start();
+
+			for (int i = 0; i < count; i++) {
+				series.add(new TimedData<>(TestUtil.mkTime(1).plusSeconds(i), new Memory(-1, i, i, -1)));
+			}
+			done.set(true);
+			reader.join();
+
+			assertThat(failure.get()).isNull();
+		}
+	}
+
+	@Test
+	void view_is_bounds_checked() {
+		dot.add(reading(1, 1));
+
+		assertThrows(IndexOutOfBoundsException.class, () -> dot.getTimedData().get(1));
+		assertThrows(IndexOutOfBoundsException.class, () -> dot.getTimedData().get(-1));
+	}
+
+	private List<Long> useds() {
+		return useds(dot.getTimedData());
+	}
+
+	private static List<Long> useds(List<TimedData<Memory>> timedData) {
+		return timedData.stream()
+				.map(td -> td.getData().getUsed())
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,292 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.NullExpiry;
+import com.github.honoluluhenk.gcmonitor.gc.GCCollection;
+import com.github.honoluluhenk.gcmonitor.gc.GCEvent;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType.METASPACE;
+import static com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType.OLD;
+import static com.github.honoluluhenk.gcmonitor.memory.MemoryPoolType.YOUNG;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultiPoolTimeSeriesTest {
+
+	private final MultiPoolTimeSeries dot = new MultiPoolTimeSeries(4);
+
+	/**
+	 * OLD uses {@code used}, YOUNG uses {@code used * 10} and is only present on odd days.
+	 * The collection takes {@code day} milliseconds.
+	 */
+	private static TimedData<GCEvent> event(int day, long used) {
+		Map<MemoryPoolType, Memory> memoryAfterGC = new EnumMap<>(MemoryPoolType.class);
+		memoryAfterGC.put(OLD, new Memory(-1, used, 1000, 2000));
+		if (day % 2 == 1) {
+			memoryAfterGC.put(YOUNG, new Memory(1, used * 10, 5000, -1));
+		}
+		return new TimedData<>(TestUtil.mkTime(day),
+				new GCEvent(GCCollection.MAJOR, memoryAfterGC, Duration.ofMillis(day)));
+	}
+
+	@Nested
+	class ConstructorTest {
+		@ParameterizedTest
+		@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+		void invalid_capacity(int capacity) {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new MultiPoolTimeSeries(capacity));
+
+			assertThat(iae).hasMessage("capacity must be > 0 but was: " + capacity);
+		}
+
+		@Test
+		void defaults() {
+			assertThat(dot.getCapacity()).isEqualTo(4);
+			assertThat(dot.getZone()).isEqualTo(ZoneId.systemDefault());
+			assertThat(dot.getTimedData()).isEmpty();
+			assertThat(dot.pool(OLD).getTimedData()).isEmpty();
+		}
+	}
+
+	@Nested
+	class AddTest {
+		@BeforeEach
+		void setup() {
+			dot.add(event(3, 3));
+			dot.add(event(4, 4));
+			dot.add(event(5, 5));
+		}
+
+		@Test
+		void roundtrips_events() {
+			List<TimedData<GCEvent>> events = dot.getTimedData();
+
+			assertThat(events).extracting(TimedData::getTimestamp)
+					.containsExactly(TestUtil.mkTime(3), TestUtil.mkTime(4), TestUtil.mkTime(5));
+			assertThat(events.get(0).getData().getMemoryAfterGC()).isEqualTo(event(3, 3).getData().getMemoryAfterGC());
+			assertThat(events.get(1).getData().getMemoryAfterGC()).isEqualTo(event(4, 4).getData().getMemoryAfterGC());
+			assertThat(events.get(0).getData().getCollection()).isEqualTo(GCCollection.MAJOR);
+			assertThat(events).extracting(td -> td.getData().getDuration())
+					.containsExactly(Duration.ofMillis(3), Duration.ofMillis(4), Duration.ofMillis(5));
+		}
+
+		@Test
+		void pool_contains_only_events_with_that_pool() {
+			assertThat(useds(dot.pool(OLD))).containsExactly(3L, 4L, 5L);
+			assertThat(useds(dot.pool(YOUNG))).containsExactly(30L, 50L);
+			assertThat(dot.pool(METASPACE).getTimedData()).isEmpty();
+		}
+
+		@Test
+		void pool_size_counts_events_with_that_pool() {
+			assertThat(dot.pool(OLD).size()).isEqualTo(3);
+			assertThat(dot.pool(YOUNG).size()).isEqualTo(2);
+			assertThat(dot.pool(METASPACE).size()).isEqualTo(0);
+			assertThat(dot.pool(OLD).isReadOnly()).isTrue();
+		}
+
+		@Test
+		void pool_keeps_all_values() {
+			assertThat(dot.pool(YOUNG).getTimedData().get(0))
+					.isEqualTo(new TimedData<>(TestUtil.mkTime(3), new Memory(1, 30, 5000, -1)));
+		}
+
+		@Test
+		void inserts_out_of_order() {
+			dot.add(event(2, 2));
+
+			assertThat(useds(dot.pool(OLD))).containsExactly(2L, 3L, 4L, 5L);
+			assertThat(dot.getTimedData()).extracting(td -> td.getData().getDuration().toMillis())
+					.containsExactly(2L, 3L, 4L, 5L);
+		}
+
+		@Test
+		void overwrites_oldest_if_full() {
+			dot.add(event(6, 6));
+			dot.add(event(7, 7));
+
+			assertThat(useds(dot.pool(OLD))).containsExactly(4L, 5L, 6L, 7L);
+			assertThat(useds(dot.pool(YOUNG))).containsExactly(50L, 70L);
+		}
+
+		@Test
+		void drops_event_older_than_everything_if_full() {
+			dot.add(event(6, 6));
+			dot.add(event(1, 1));
+
+			assertThat(useds(dot.pool(OLD))).containsExactly(3L, 4L, 5L, 6L);
+		}
+	}
+
+	@Nested
+	class ExpireTest {
+		@BeforeEach
+		void setup() {
+			// wrap around the physical end of the buffer
+			for (int day = 1; day <= 7; day++) {
+				dot.add(event(day, day));
+			}
+		}
+
+		@Test
+		void expire_nothing() {
+			dot.expire(new NullExpiry<>());
+
+			assertThat(useds(dot.pool(OLD))).containsExactly(4L, 5L, 6L, 7L);
+		}
+
+		@Test
+		void expire_collection_size() {
+			dot.expire(new CollectionSizeExpiry<>(2));
+
+			assertThat(useds(dot.pool(OLD))).containsExactly(6L, 7L);
+			assertThat(useds(dot.pool(YOUNG))).containsExactly(70L);
+		}
+
+		@Test
+		void expire_middle() {
+			dot.expire(params -> params.getTimedData().getData().getMemoryAfterGC().get(OLD).getUsed() == 5L);
+
+			assertThat(useds(dot.pool(OLD))).containsExactly(4L, 6L, 7L);
+			assertThat(useds(dot.pool(YOUNG))).containsExactly(70L);
+		}
+	}
+
+	@Nested
+	class PoolViewTest {
+		@Test
+		void is_read_only() {
+			TimeSeries<Memory> pool = dot.pool(OLD);
+
+			assertThrows(UnsupportedOperationException.class,
+					() -> pool.add(new TimedData<>(TestUtil.mkTime(1), new Memory(-1, 1, 1, -1))));
+			assertThrows(UnsupportedOperationException.class, () -> pool.expire(new NullExpiry<>()));
+		}
+
+		@Test
+		void supports_range_queries() {
+			for (int day = 1; day <= 4; day++) {
+				dot.add(event(day, day));
+			}
+
+			assertThat(useds(dot.pool(YOUNG).latest(1))).containsExactly(30L);
+			assertThat(dot.pool(OLD).floor(TestUtil.mkTime(2)).map(td -> td.getData().getUsed())).contains(2L);
+		}
+
+		@Test
+		void notifies_append_listeners_of_the_pool() {
+			dot.add(event(1, 1));
+			List<Long> notified = new ArrayList<>();
+
+			List<TimedData<Memory>> existing = dot.pool(YOUNG).addAppendListener(
+					td -> notified.add(td.getData().getUsed()));
+			for (int day = 2; day <= 5; day++) {
+				dot.add(event(day, day));
+			}
+
+			assertThat(useds(existing)).containsExactly(10L);
+			assertThat(notified).containsExactly(30L, 50L);
+		}
+	}
+
+	@Nested
+	class AggregateTest {
+		private final Metric<Memory> used = Memory::getUsed;
+
+		private void assertAggregateMatchesData(MemoryPoolType poolType) {
+			List<Long> useds = useds(dot.pool(poolType));
+			Statistics statistics = dot.pool(poolType).aggregate(used).getStatistics();
+
+			assertThat(statistics.getCount()).isEqualTo(useds.size());
+			assertThat(statistics.getSum()).isEqualTo(useds.stream().mapToLong(Long::longValue).sum());
+		}
+
+		@Test
+		void pool_aggregate_follows_overwriting_the_oldest() {
+			dot.pool(OLD).aggregate(used);
+			dot.pool(YOUNG).aggregate(used);
+
+			for (int day = 1; day <= 7; day++) {
+				dot.add(event(day, day));
+				assertAggregateMatchesData(OLD);
+				assertAggregateMatchesData(YOUNG);
+			}
+		}
+
+		@Test
+		void pool_aggregate_follows_out_of_order_add_and_expire() {
+			dot.pool(YOUNG).aggregate(used);
+			dot.add(event(3, 3));
+			dot.add(event(5, 5));
+			dot.add(event(1, 1));
+			assertAggregateMatchesData(YOUNG);
+
+			dot.expire(params -> params.getTimedData().getData().getMemoryAfterGC().get(OLD).getUsed() == 3L);
+			assertAggregateMatchesData(YOUNG);
+
+			dot.expire(new CollectionSizeExpiry<>(1));
+			assertAggregateMatchesData(YOUNG);
+		}
+
+		@Test
+		void aggregate_over_events() {
+			RunningAggregate<GCEvent> aggregate = dot.aggregate(event -> event.getMemoryAfterGC().size());
+			for (int day = 1; day <= 6; day++) {
+				dot.add(event(day, day));
+			}
+
+			assertThat(aggregate.getStatistics().getCount()).isEqualTo(4);
+			assertThat(aggregate.getStatistics().getSum()).isEqualTo(6);
+		}
+	}
+
+	@Test
+	void serialization_roundtrip() throws Exception {
+		for (int day = 1; day <= 6; day++) {
+			dot.add(event(day, day));
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(dot);
+		}
+		MultiPoolTimeSeries copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (MultiPoolTimeSeries) in.readObject();
+		}
+		copy.add(event(7, 7));
+
+		assertThat(useds(copy.pool(OLD))).containsExactly(4L, 5L, 6L, 7L);
+	}
+
+	private static List<Long> useds(TimeSeries<Memory> timeSeries) {
+		return useds(timeSeries.getTimedData());
+	}
+
+	private static List<Long> useds(List<TimedData<Memory>> timedData) {
+		return timedData.stream()
+				.map(td -> td.getData().getUsed())
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,63 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupTest {
+
+	private static final ZonedDateTime T0 = ZonedDateTime.of(2018, 1, 1, 12, 34, 56, 789, ZoneId.of("UTC"));
+
+	@Test
+	void single_reading() {
+		Rollup rollup = Rollup.of(T0, 42.0d);
+
+		assertThat(rollup.getStart()).isEqualTo(T0);
+		assertThat(rollup.getCount()).isEqualTo(1);
+		assertThat(rollup.getMin()).isEqualTo(42.0d);
+		assertThat(rollup.getMax()).isEqualTo(42.0d);
+		assertThat(rollup.getAverage()).isEqualTo(42.0d);
+		assertThat(rollup.getLast()).isEqualTo(42.0d);
+		assertThat(rollup.getLastTimestamp()).isEqualTo(T0);
+	}
+
+	@Test
+	void aligns_to_bucket_start() {
+		Rollup rollup = Rollup.of(T0, 42.0d)
+				.inBucket(Duration.ofMinutes(1));
+
+		assertThat(rollup.getStart()).isEqualTo(ZonedDateTime.of(2018, 1, 1, 12, 34, 0, 0, ZoneId.of("UTC")));
+		assertThat(rollup.getResolution()).isEqualTo(Duration.ofMinutes(1));
+		assertThat(rollup.getLastTimestamp()).isEqualTo(T0);
+	}
+
+	@Test
+	void keeps_zone_of_reading() {
+		ZonedDateTime zurich = T0.withZoneSameInstant(ZoneId.of("Europe/Zurich"));
+
+		Rollup rollup = Rollup.of(zurich, 42.0d)
+				.inBucket(Duration.ofHours(1));
+
+		assertThat(rollup.getStart().getZone()).isEqualTo(ZoneId.of("Europe/Zurich"));
+		assertThat(rollup.getStart().getMinute()).isEqualTo(0);
+	}
+
+	@Test
+	void merges() {
+		Rollup older = Rollup.of(T0, 10.0d);
+		Rollup newer = Rollup.of(T0.plusSeconds(1), 30.0d);
+
+		Rollup merged = newer.merge(older);
+
+		assertThat(merged.getCount()).isEqualTo(2);
+		assertThat(merged.getMin()).isEqualTo(10.0d);
+		assertThat(merged.getMax()).isEqualTo(30.0d);
+		assertThat(merged.getAverage()).isEqualTo(20.0d);
+		assertThat(merged.getLast()).isEqualTo(30.0d);
+		assertThat(merged.getLastTimestamp()).isEqualTo(T0.plusSeconds(1));
+	}
+}
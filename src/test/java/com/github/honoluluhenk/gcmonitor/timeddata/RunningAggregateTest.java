@@ -0,0 +1,185 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.util.Arrays;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RunningAggregateTest {
+
+	private final RunningAggregate<Memory> dot = new RunningAggregate<>(Memory::getUsed);
+
+	private static Memory used(long used) {
+		return new Memory(-1, used, 1000, 2000);
+	}
+
+	private void append(long... useds) {
+		for (long used : useds) {
+			dot.append(used(used));
+		}
+	}
+
+	@Nested
+	class EmptyTest {
+		@Test
+		void has_no_values() {
+			Statistics statistics = dot.getStatistics();
+
+			assertThat(statistics.getCount()).isEqualTo(0);
+			assertThat(statistics.getSum()).isNaN();
+			assertThat(statistics.getMean()).isNaN();
+			assertThat(statistics.getVariance()).isNaN();
+			assertThat(statistics.getMin()).isNaN();
+			assertThat(statistics.getMax()).isNaN();
+		}
+
+		@Test
+		void is_empty_again_after_removing_everything() {
+			append(1, 2, 3);
+			dot.removeOldest(3);
+
+			assertThat(dot.getStatistics().getCount()).isEqualTo(0);
+			assertThat(dot.getStatistics().getMean()).isNaN();
+		}
+
+		@Test
+		void ignores_removing_more_than_available() {
+			append(1);
+			dot.removeOldest(2);
+
+			assertThat(dot.getStatistics().getCount()).isEqualTo(0);
+		}
+	}
+
+	@Nested
+	class AppendTest {
+		@Test
+		void calculates_statistics() {
+			append(2, 4, 4, 4, 5, 5, 7, 9);
+
+			Statistics statistics = dot.getStatistics();
+			assertThat(statistics.getCount()).isEqualTo(8);
+			assertThat(statistics.getSum()).isEqualTo(40.0d);
+			assertThat(statistics.getMean()).isEqualTo(5.0d);
+			assertThat(statistics.getVariance()).isEqualTo(4.0d);
+			assertThat(statistics.getStandardDeviation()).isEqualTo(2.0d);
+			assertThat(statistics.getMin()).isEqualTo(2.0d);
+			assertThat(statistics.getMax()).isEqualTo(9.0d);
+		}
+
+		@Test
+		void calculates_variance_of_large_values_without_cancellation() {
+			RunningAggregate<Memory> large = new RunningAggregate<>(memory -> memory.getUsed() + 1e12d);
+			for (long used : new long[] { 2, 4, 4, 4, 5, 5, 7, 9 }) {
+				large.append(used(used));
+			}
+
+			assertThat(large.getStatistics().getVariance()).isCloseTo(4.0d, within(1e-3));
+		}
+
+		@Test
+		void publishes_new_immutable_statistics() {
+			append(1);
+			Statistics before = dot.getStatistics();
+
+			append(3);
+
+			assertThat(before.getCount()).isEqualTo(1);
+			assertThat(dot.getStatistics().getCount()).isEqualTo(2);
+		}
+	}
+
+	@Nested
+	class RemoveOldestTest {
+		@Test
+		void slides_min_and_max() {
+			append(1, 9, 5, 3, 7);
+
+			dot.removeOldest(1);
+			assertThat(dot.getStatistics().getMin()).isEqualTo(3.0d);
+			assertThat(dot.getStatistics().getMax()).isEqualTo(9.0d);
+
+			dot.removeOldest(1);
+			assertThat(dot.getStatistics().getMin()).isEqualTo(3.0d);
+			assertThat(dot.getStatistics().getMax()).isEqualTo(7.0d);
+
+			dot.removeOldest(2);
+			assertThat(dot.getStatistics().getMin()).isEqualTo(7.0d);
+			assertThat(dot.getStatistics().getMax()).isEqualTo(7.0d);
+		}
+
+		@Test
+		void handles_duplicate_min_and_max() {
+			append(5, 5, 5);
+
+			dot.removeOldest(2);
+
+			assertThat(dot.getStatistics().getMin()).isEqualTo(5.0d);
+			assertThat(dot.getStatistics().getMax()).isEqualTo(5.0d);
+			assertThat(dot.getStatistics().getCount()).isEqualTo(1);
+		}
+
+		@Test
+		void sliding_window_matches_recalculation() {
+			long[] values = { 17, 3, 99, 42, 42, 8, 0, 15, 77, 3, 64, 1 };
+			int window = 4;
+			for (int i = 0; i < values.length; i++) {
+				append(values[i]);
+				if (i >= window) {
+					dot.removeOldest(1);
+				}
+
+				long[] expected = Arrays.copyOfRange(values, Math.max(0, i - window + 1), i + 1);
+				Statistics statistics = dot.getStatistics();
+				assertThat(statistics.getCount()).isEqualTo(expected.length);
+				assertThat(statistics.getSum()).isEqualTo(Arrays.stream(expected).sum());
+				assertThat(statistics.getMin()).isEqualTo(Arrays.stream(expected).min().getAsLong());
+				assertThat(statistics.getMax()).isEqualTo(Arrays.stream(expected).max().getAsLong());
+				assertThat(statistics.getVariance()).isCloseTo(variance(expected), within(1e-9));
+			}
+		}
+
+		@Test
+		void does_not_drift() {
+			RunningAggregate<Memory> tenths = new RunningAggregate<>(memory -> memory.getUsed() / 10.0d);
+			tenths.append(used(1));
+			for (int i = 0; i < 100_000; i++) {
+				tenths.append(used(3));
+				tenths.removeOldest(1);
+			}
+
+			assertThat(tenths.getStatistics().getSum()).isCloseTo(0.3d, within(1e-15));
+			assertThat(tenths.getStatistics().getVariance()).isCloseTo(0.0d, within(1e-15));
+		}
+	}
+
+	private static double variance(long... values) {
+		double mean = Arrays.stream(values).average().getAsDouble();
+		return Arrays.stream(values)
+				.mapToDouble(value -> (value - mean) * (value - mean))
+				.average()
+				.getAsDouble();
+	}
+
+	@Nested
+	class RebuildTest {
+		@Test
+		void replaces_everything() {
+			append(100, 200);
+
+			dot.rebuild(Arrays.asList(
+					new TimedData<>(TestUtil.mkTime(1), used(3)),
+					new TimedData<>(TestUtil.mkTime(2), used(1))));
+
+			assertThat(dot.getStatistics().getCount()).isEqualTo(2);
+			assertThat(dot.getStatistics().getMean()).isEqualTo(2.0d);
+			assertThat(dot.getStatistics().getMin()).isEqualTo(1.0d);
+			assertThat(dot.getStatistics().getMax()).isEqualTo(3.0d);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RunningRegressionTest {
+
+	private static final ZonedDateTime START = TestUtil.mkTime(1);
+
+	private final RunningRegression<Memory> dot = new RunningRegression<>(Memory::getUsed);
+
+	private static TimedData<Memory> reading(long second, long used) {
+		return new TimedData<>(START.plusSeconds(second), new Memory(-1, used, used, -1));
+	}
+
+	@Nested
+	class EmptyTest {
+		@Test
+		void has_no_values() {
+			Regression regression = dot.getRegression();
+
+			assertThat(regression.getCount()).isEqualTo(0);
+			assertThat(regression.getSlopePerSecond()).isNaN();
+			assertThat(regression.getRSquared()).isNaN();
+		}
+
+		@Test
+		void needs_two_distinct_timestamps() {
+			dot.append(reading(1, 10));
+			dot.append(reading(1, 20));
+
+			assertThat(dot.getRegression().getCount()).isEqualTo(2);
+			assertThat(dot.getRegression().getSlopePerSecond()).isNaN();
+		}
+
+		@Test
+		void is_empty_again_after_removing_everything() {
+			dot.append(reading(1, 10));
+			dot.append(reading(2, 20));
+			dot.removeOldest(3);
+
+			assertThat(dot.getRegression().getCount()).isEqualTo(0);
+		}
+	}
+
+	@Nested
+	class AppendTest {
+		@Test
+		void fits_a_line() {
+			for (int second = 0; second < 10; second++) {
+				dot.append(reading(second, 100 + 5 * second));
+			}
+
+			Regression regression = dot.getRegression();
+			assertThat(regression.getCount()).isEqualTo(10);
+			assertThat(regression.getSlopePerSecond()).isCloseTo(5.0d, within(1e-9));
+			assertThat(regression.valueAt(EpochNanos.of(START.plusSeconds(20))))
+					.isCloseTo(200.0d, within(1e-6));
+			assertThat(regression.getRSquared()).isCloseTo(1.0d, within(1e-9));
+		}
+
+		@Test
+		void fits_noisy_data() {
+			// values 1, 1, 5, 5 over 0..3: least squares slope is 1.6
+			dot.append(reading(0, 1));
+			dot.append(reading(1, 1));
+			dot.append(reading(2, 5));
+			dot.append(reading(3, 5));
+
+			assertThat(dot.getRegression().getSlopePerSecond()).isCloseTo(1.6d, within(1e-9));
+			assertThat(dot.getRegression().getRSquared()).isBetween(0.0d, 1.0d);
+		}
+
+		@Test
+		void fits_a_line_far_from_zero() {
+			// raw sums of squares (~1e25) would cancel out the variance (~1e3) completely
+			for (int second = 0; second < 10; second++) {
+				dot.append(reading(second, 1_000_000_000_000L + 3 * second + (second % 2)));
+			}
+
+			Regression regression = dot.getRegression();
+			assertThat(regression.getSlopePerSecond()).isCloseTo(3.0303d, within(1e-4));
+			assertThat(regression.getRSquared()).isCloseTo(0.9968d, within(1e-4));
+		}
+
+		@Test
+		void flat_line() {
+			dot.append(reading(0, 7));
+			dot.append(reading(5, 7));
+
+			assertThat(dot.getRegression().getSlopePerSecond()).isEqualTo(0.0d);
+			assertThat(dot.getRegression().getRSquared()).isEqualTo(1.0d);
+		}
+	}
+
+	@Nested
+	class SlidingWindowTest {
+		@Test
+		void matches_rebuild_while_sliding_for_a_long_time() {
+			List<TimedData<Memory>> window = new ArrayList<>();
+			RunningRegression<Memory> rebuilt = new RunningRegression<>(Memory::getUsed);
+
+			for (int second = 0; second < 100_000; second += 7) {
+				TimedData<Memory> reading = reading(second, 1_000_000_000L + 3L * second + (second % 11) * 1000);
+				dot.append(reading);
+				window.add(reading);
+				if (window.size() > 50) {
+					window.remove(0);
+					dot.removeOldest(1);
+				}
+			}
+			rebuilt.rebuild(window);
+
+			assertThat(dot.getRegression().getCount()).isEqualTo(50);
+			assertThat(dot.getRegression().getSlopePerSecond())
+					.isCloseTo(rebuilt.getRegression().getSlopePerSecond(), within(1e-6));
+		}
+	}
+
+	@Nested
+	class TimeSeriesTest {
+		@Test
+		void follows_add_and_expire() {
+			TimeSeries<Memory> series = new TimeSeries<>();
+			series.add(reading(0, 1000));
+			RunningRegression<Memory> regression = series.regression(Memory::getUsed);
+
+			series.add(reading(1, 10));
+			series.add(reading(2, 20));
+			series.add(reading(3, 30));
+			series.expire(new CollectionSizeExpiry<>(3));
+
+			assertThat(regression.getRegression().getCount()).isEqualTo(3);
+			assertThat(regression.getRegression().getSlopePerSecond()).isCloseTo(10.0d, within(1e-9));
+		}
+
+		@Test
+		void is_started_only_once() {
+			TimeSeries<Memory> series = new TimeSeries<>();
+			Metric<Memory> used = Memory::getUsed;
+
+			RunningRegression<Memory> regression = series.regression(used);
+
+			assertThat(series.regression(used)).isSameAs(regression);
+			assertThat(series.findRegression(used)).containsSame(regression);
+			assertThat(series.findRegression(Memory::getCommitted)).isEmpty();
+		}
+
+		@Test
+		void follows_memoryTimeSeries_overwriting_the_oldest() {
+			MemoryTimeSeries series = new MemoryTimeSeries(3);
+			RunningRegression<Memory> regression = series.regression(Memory::getUsed);
+
+			for (int second = 0; second < 10; second++) {
+				series.add(reading(second, second < 7 ? 0 : 4 * second));
+			}
+
+			assertThat(regression.getRegression().getCount()).isEqualTo(3);
+			assertThat(regression.getRegression().getSlopePerSecond()).isCloseTo(4.0d, within(1e-9));
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TierTest {
+
+	@Test
+	void calculates_horizon() {
+		Tier tier = new Tier(Duration.ofMinutes(1), 60);
+
+		assertThat(tier.getHorizon()).isEqualTo(Duration.ofHours(1));
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { -1, 0 })
+	void invalid_resolution(long seconds) {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> new Tier(Duration.ofSeconds(seconds), 1));
+
+		assertThat(iae).hasMessage("resolution must be > 0 but was: " + Duration.ofSeconds(seconds));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { Integer.MIN_VALUE, -1, 0 })
+	void invalid_maxBuckets(int maxBuckets) {
+		IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+				() -> new Tier(Duration.ofSeconds(1), maxBuckets));
+
+		assertThat(iae).hasMessage("maxBuckets must be > 0 but was: " + maxBuckets);
+	}
+}
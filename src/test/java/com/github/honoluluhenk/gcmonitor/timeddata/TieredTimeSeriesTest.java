@@ -0,0 +1,290 @@
+package com.github.honoluluhenk.gcmonitor.timeddata;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TieredTimeSeriesTest {
+
+	private static final ZonedDateTime T0 = ZonedDateTime.of(2018, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+	private static final Metric<Memory> USED = Memory::getUsed;
+	private static final List<Tier> TIERS = Arrays.asList(
+			new Tier(Duration.ofMinutes(1), 3),
+			new Tier(Duration.ofHours(1), 2));
+
+	private static TimedData<Memory> reading(Duration offset, long used) {
+		return new TimedData<>(T0.plus(offset), new Memory(-1, used, 1000, 2000));
+	}
+
+	private static List<Long> useds(TimeSeries<Memory> timeSeries) {
+		return timeSeries.stream()
+				.map(td -> td.getData().getUsed())
+				.collect(Collectors.toList());
+	}
+
+	@Nested
+	class ConstructorTest {
+		@Test
+		void needs_tiers() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new TieredTimeSeries<>(USED, Duration.ZERO, 1, Collections.emptyList()));
+
+			assertThat(iae).hasMessage("need at least one tier");
+		}
+
+		@Test
+		void needs_increasing_tier_resolutions() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new TieredTimeSeries<>(USED, Duration.ZERO, 1, Arrays.asList(
+							new Tier(Duration.ofHours(1), 1),
+							new Tier(Duration.ofMinutes(1), 1))));
+
+			assertThat(iae).hasMessage(
+					"tier resolutions must be increasing multiples of each other but got: PT1H and PT1M");
+		}
+
+		@Test
+		void needs_tier_resolutions_to_be_multiples() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new TieredTimeSeries<>(USED, Duration.ZERO, 1, Arrays.asList(
+							new Tier(Duration.ofMinutes(2), 1),
+							new Tier(Duration.ofMinutes(3), 1))));
+
+			assertThat(iae).hasMessage(
+					"tier resolutions must be increasing multiples of each other but got: PT2M and PT3M");
+		}
+
+		@Test
+		void invalid_rawRetention() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new TieredTimeSeries<>(USED, Duration.ofSeconds(-1), 1, TIERS));
+
+			assertThat(iae).hasMessage("rawRetention must be >= 0 but was: PT-1S");
+		}
+
+		@Test
+		void invalid_maxRawReadings() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class,
+					() -> new TieredTimeSeries<>(USED, Duration.ZERO, 0, TIERS));
+
+			assertThat(iae).hasMessage("maxRawReadings must be > 0 but was: 0");
+		}
+
+		@Test
+		void default_tiers() {
+			TieredTimeSeries<Memory> dot = TieredTimeSeries.withDefaultTiers(USED);
+
+			assertThat(dot.getRawRetention()).isEqualTo(Duration.ofMinutes(10));
+			assertThat(dot.getTiers().get(0).getHorizon()).isEqualTo(Duration.ofDays(1));
+			assertThat(dot.getTiers().get(1).getHorizon()).isEqualTo(Duration.ofDays(28));
+		}
+	}
+
+	@Nested
+	class RawReadingsTest {
+		@Test
+		void rolls_readings_older_than_raw_retention() {
+			TieredTimeSeries<Memory> dot = new TieredTimeSeries<>(USED, Duration.ofSeconds(10), 100, TIERS);
+
+			for (int second = 0; second <= 30; second++) {
+				dot.add(reading(Duration.ofSeconds(second), second));
+			}
+
+			assertThat(useds(dot)).containsExactly(20L, 21L, 22L, 23L, 24L, 25L, 26L, 27L, 28L, 29L, 30L);
+
+			Rollup minute = dot.getHistory().get(0);
+			assertThat(minute.getStart()).isEqualTo(T0);
+			assertThat(minute.getCount()).isEqualTo(20);
+			assertThat(minute.getMin()).isEqualTo(0.0d);
+			assertThat(minute.getMax()).isEqualTo(19.0d);
+			assertThat(minute.getAverage()).isEqualTo(9.5d);
+			assertThat(minute.getLast()).isEqualTo(19.0d);
+		}
+
+		@Test
+		void keeps_at_most_maxRawReadings() {
+			TieredTimeSeries<Memory> dot = new TieredTimeSeries<>(USED, Duration.ofDays(1), 2, TIERS);
+
+			for (int second = 0; second < 5; second++) {
+				dot.add(reading(Duration.ofSeconds(second), second));
+			}
+
+			assertThat(useds(dot)).containsExactly(3L, 4L);
+			assertThat(dot.getHistory()).hasSize(1);
+			assertThat(dot.getHistory().get(0).getCount()).isEqualTo(3);
+		}
+
+		@Test
+		void readers_never_see_more_than_maxRawReadings() throws Exception {
+			TieredTimeSeries<Memory> dot = new TieredTimeSeries<>(USED, Duration.ofDays(1), 2, TIERS);
+			AtomicBoolean done = new AtomicBoolean(false);
+			AtomicInteger maxSeen = new AtomicInteger();
+
+			Thread reader = new Thread(() -> {
+				while (!done.get()) {
+					maxSeen.accumulateAndGet(dot.getTimedData().size(), Math::max);
+				}
+			});
+			reader.start();
+
+			for (int second = 0; second < 20_000; second++) {
+				dot.add(reading(Duration.ofSeconds(second), second % 1000));
+			}
+			done.set(true);
+			reader.join();
+
+			assertThat(maxSeen.get()).isLessThanOrEqualTo(2);
+		}
+
+		@Test
+		void keeps_aggregates_of_raw_readings() {
+			TieredTimeSeries<Memory> dot = new TieredTimeSeries<>(USED, Duration.ZERO, 2, TIERS);
+			RunningAggregate<Memory> aggregate = dot.aggregate(USED);
+
+			for (int second = 0; second < 5; second++) {
+				dot.add(reading(Duration.ofSeconds(second), second));
+			}
+
+			assertThat(aggregate.getStatistics().getCount()).isEqualTo(1);
+			assertThat(aggregate.getStatistics().getMean()).isEqualTo(4.0d);
+		}
+	}
+
+	@Nested
+	class TiersTest {
+		private final TieredTimeSeries<Memory> dot = new TieredTimeSeries<>(USED, Duration.ZERO, 1, TIERS);
+
+		@Test
+		void promotes_oldest_buckets_to_next_tier() {
+			for (int minute = 0; minute < 10; minute++) {
+				dot.add(reading(Duration.ofMinutes(minute), minute));
+			}
+
+			assertThat(useds(dot)).containsExactly(9L);
+
+			List<Rollup> history = dot.getHistory();
+			assertThat(history)
+					.extracting(Rollup::getStart)
+					.containsExactly(T0, T0.plusMinutes(6), T0.plusMinutes(7), T0.plusMinutes(8));
+
+			Rollup hour = history.get(0);
+			assertThat(hour.getResolution()).isEqualTo(Duration.ofHours(1));
+			assertThat(hour.getCount()).isEqualTo(6);
+			assertThat(hour.getAverage()).isEqualTo(2.5d);
+			assertThat(hour.getLast()).isEqualTo(5.0d);
+
+			assertThat(dot.getHistory(0)).hasSize(3);
+			assertThat(dot.getHistory(1)).containsExactly(hour);
+		}
+
+		@Test
+		void drops_oldest_buckets_of_last_tier() {
+			for (int hour = 0; hour < 10; hour++) {
+				dot.add(reading(Duration.ofHours(hour), hour));
+			}
+
+			assertThat(dot.getHistory(1))
+					.extracting(Rollup::getStart)
+					.containsExactly(T0.plusHours(4), T0.plusHours(5));
+			assertThat(dot.getHistory(0))
+					.extracting(Rollup::getStart)
+					.containsExactly(T0.plusHours(6), T0.plusHours(7), T0.plusHours(8));
+		}
+
+		@Test
+		void merges_late_reading_into_existing_bucket() {
+			dot.add(reading(Duration.ofMinutes(0), 10));
+			dot.add(reading(Duration.ofMinutes(1), 20));
+			dot.add(reading(Duration.ofMinutes(2), 30));
+
+			dot.add(reading(Duration.ofSeconds(30), 40));
+
+			assertThat(dot.getHistory(0))
+					.extracting(Rollup::getCount)
+					.containsExactly(2L, 1L);
+			assertThat(dot.getHistory(0).get(0).getMax()).isEqualTo(40.0d);
+			assertThat(dot.getHistory(0).get(0).getLast()).isEqualTo(40.0d);
+		}
+
+		@Test
+		void inserts_late_reading_before_existing_buckets() {
+			dot.add(reading(Duration.ofMinutes(1), 20));
+			dot.add(reading(Duration.ofMinutes(2), 30));
+
+			dot.add(reading(Duration.ofSeconds(0), 10));
+
+			assertThat(dot.getHistory(0))
+					.extracting(Rollup::getStart)
+					.containsExactly(T0, T0.plusMinutes(1));
+		}
+	}
+
+	@Nested
+	class HistoryTest {
+		private final TieredTimeSeries<Memory> dot = new TieredTimeSeries<>(USED, Duration.ZERO, 1, TIERS);
+
+		@Test
+		void orders_overlapping_tiers_by_start() {
+			for (int minute = 60; minute < 70; minute++) {
+				dot.add(reading(Duration.ofMinutes(minute), minute));
+			}
+
+			assertThat(dot.getHistory())
+					.extracting(Rollup::getResolution)
+					.containsExactly(Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofMinutes(1),
+							Duration.ofMinutes(1));
+			assertThat(dot.getHistory())
+					.extracting(Rollup::getStart)
+					.isSortedAccordingTo(Comparator.naturalOrder());
+		}
+
+		@Test
+		void publishes_immutable_snapshots() {
+			dot.add(reading(Duration.ofMinutes(0), 10));
+			dot.add(reading(Duration.ofMinutes(1), 20));
+			List<Rollup> before = dot.getHistory();
+
+			dot.add(reading(Duration.ofMinutes(2), 30));
+
+			assertThat(before).hasSize(1);
+			assertThat(dot.getHistory()).hasSize(2);
+		}
+
+		@Test
+		void is_queryable_as_time_series() {
+			for (int minute = 0; minute < 10; minute++) {
+				dot.add(reading(Duration.ofMinutes(minute), minute));
+			}
+
+			TimeSeries<Rollup> history = dot.history();
+
+			assertThat(history.size()).isEqualTo(4);
+			assertThat(history.since(T0.plusMinutes(7)))
+					.extracting(td -> td.getData().getLast())
+					.containsExactly(7.0d, 8.0d);
+			assertThat(history.latest(1).get(0).getTimestamp()).isEqualTo(T0.plusMinutes(8));
+		}
+
+		@Test
+		void is_read_only() {
+			UnsupportedOperationException uoe = assertThrows(UnsupportedOperationException.class,
+					() -> dot.history().aggregate(Rollup::getAverage));
+
+			assertThat(uoe).hasMessage("read-only view of the history");
+		}
+	}
+}
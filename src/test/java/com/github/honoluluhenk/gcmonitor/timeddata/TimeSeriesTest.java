@@ -1,16 +1,29 @@
 package com.github.honoluluhenk.gcmonitor.timeddata;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import com.github.honoluluhenk.gcmonitor.PayloadFixture;
 import com.github.honoluluhenk.gcmonitor.TestUtil;
+import com.github.honoluluhenk.gcmonitor.expiry.CollectionSizeExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.CutoffExpiry;
 import com.github.honoluluhenk.gcmonitor.expiry.FakeExpiry;
+import com.github.honoluluhenk.gcmonitor.expiry.Params;
+import com.github.honoluluhenk.gcmonitor.memory.Memory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class TimeSeriesTest {
 
@@ -18,6 +31,9 @@ class TimeSeriesTest {
 	private static final PayloadFixture FIVE = new PayloadFixture("five");
 	private static final PayloadFixture SEVEN = new PayloadFixture("seven");
 	private static final PayloadFixture FOO = new PayloadFixture("foo");
+	private static final PayloadFixture BAR = new PayloadFixture("bar");
+	private static final PayloadFixture BAZ = new PayloadFixture("baz");
+	private static final PayloadFixture QUX = new PayloadFixture("qux");
 
 	private final TimeSeries<PayloadFixture> dot = new TimeSeries<>();
 
@@ -64,6 +80,24 @@ class TimeSeriesTest {
 
 			assertThat(payloads()).containsExactly(THREE, FIVE, FOO, SEVEN);
 		}
+
+		@Test
+		void testAdd_MultipleOnSameDay_keeps_insertion_order() {
+			dot.add(new TimedData<>(TestUtil.mkTime(5), FOO));
+			dot.add(new TimedData<>(TestUtil.mkTime(5), BAR));
+
+			assertThat(payloads()).containsExactly(THREE, FIVE, FOO, BAR, SEVEN);
+		}
+
+		@Test
+		void testAdd_many_out_of_order() {
+			dot.add(new TimedData<>(TestUtil.mkTime(6), FOO));
+			dot.add(new TimedData<>(TestUtil.mkTime(2), BAR));
+			dot.add(new TimedData<>(TestUtil.mkTime(8), BAZ));
+			dot.add(new TimedData<>(TestUtil.mkTime(4), QUX));
+
+			assertThat(payloads()).containsExactly(BAR, THREE, QUX, FIVE, FOO, SEVEN, BAZ);
+		}
 	}
 
 	@Nested
@@ -102,6 +136,350 @@ class TimeSeriesTest {
 
 			assertThat(payloads()).containsExactly();
 		}
+
+		@Test
+		void testExpire_cutoff_asked_once() {
+			AtomicInteger calls = new AtomicInteger();
+			dot.expire(new CutoffExpiry<PayloadFixture>() {
+				@Override
+				public int expiredCount(Timestamps sortedTimestamps) {
+					calls.incrementAndGet();
+					return 2;
+				}
+
+				@Override
+				public boolean isExpired(Params<PayloadFixture> params) {
+					throw new AssertionError("must not be asked per entry");
+				}
+			});
+
+			assertThat(calls.get()).isEqualTo(1);
+			assertThat(payloads()).containsExactly(SEVEN);
+		}
+
+		@Test
+		void testExpire_cutoff_out_of_range() {
+			CutoffExpiry<PayloadFixture> expiry = new CutoffExpiry<PayloadFixture>() {
+				@Override
+				public int expiredCount(Timestamps sortedTimestamps) {
+					return 4;
+				}
+
+				@Override
+				public boolean isExpired(Params<PayloadFixture> params) {
+					return true;
+				}
+			};
+
+			IllegalStateException ise = assertThrows(IllegalStateException.class, () -> dot.expire(expiry));
+
+			assertThat(ise).hasMessage("expiredCount must be within [0, 3] but was: 4");
+			assertThat(payloads()).containsExactly(THREE, FIVE, SEVEN);
+		}
+	}
+
+	@Nested
+	class RangeQueryTest {
+		@Test
+		void size() {
+			assertThat(dot.size()).isEqualTo(3);
+			assertThat(new TimeSeries<PayloadFixture>().size()).isEqualTo(0);
+		}
+
+		@Test
+		void latest() {
+			assertThat(data(dot.latest(0))).isEmpty();
+			assertThat(data(dot.latest(2))).containsExactly(FIVE, SEVEN);
+			assertThat(data(dot.latest(3))).containsExactly(THREE, FIVE, SEVEN);
+			assertThat(data(dot.latest(99))).containsExactly(THREE, FIVE, SEVEN);
+		}
+
+		@Test
+		void earliest() {
+			assertThat(data(dot.earliest(0))).isEmpty();
+			assertThat(data(dot.earliest(2))).containsExactly(THREE, FIVE);
+			assertThat(data(dot.earliest(99))).containsExactly(THREE, FIVE, SEVEN);
+		}
+
+		@Test
+		void negative_count() {
+			IllegalArgumentException iae = assertThrows(IllegalArgumentException.class, () -> dot.latest(-1));
+			assertThat(iae).hasMessage("count must be >= 0 but was: -1");
+			assertThrows(IllegalArgumentException.class, () -> dot.earliest(-1));
+		}
+
+		@Test
+		void between() {
+			assertThat(data(dot.between(TestUtil.mkTime(3), TestUtil.mkTime(7)))).containsExactly(THREE, FIVE);
+			assertThat(data(dot.between(TestUtil.mkTime(4), TestUtil.mkTime(8)))).containsExactly(FIVE, SEVEN);
+			assertThat(data(dot.between(TestUtil.mkTime(1), TestUtil.mkTime(2)))).isEmpty();
+			assertThat(data(dot.between(TestUtil.mkTime(7), TestUtil.mkTime(3)))).isEmpty();
+		}
+
+		@Test
+		void since() {
+			assertThat(data(dot.since(TestUtil.mkTime(5)))).containsExactly(FIVE, SEVEN);
+			assertThat(data(dot.since(TestUtil.mkTime(6)))).containsExactly(SEVEN);
+			assertThat(data(dot.since(TestUtil.mkTime(1)))).containsExactly(THREE, FIVE, SEVEN);
+			assertThat(data(dot.since(TestUtil.mkTime(8)))).isEmpty();
+		}
+
+		@Test
+		void since_epochNanos() {
+			long five = EpochNanos.of(TestUtil.mkTime(5));
+
+			assertThat(data(dot.since(five))).containsExactly(FIVE, SEVEN);
+			assertThat(data(dot.since(five + 1))).containsExactly(SEVEN);
+		}
+
+		@Test
+		void floor() {
+			assertThat(dot.floor(TestUtil.mkTime(2))).isEmpty();
+			assertThat(dot.floor(TestUtil.mkTime(5)).map(TimedData::getData)).contains(FIVE);
+			assertThat(dot.floor(TestUtil.mkTime(6)).map(TimedData::getData)).contains(FIVE);
+			assertThat(dot.floor(TestUtil.mkTime(9)).map(TimedData::getData)).contains(SEVEN);
+		}
+
+		@Test
+		void ceiling() {
+			assertThat(dot.ceiling(TestUtil.mkTime(2)).map(TimedData::getData)).contains(THREE);
+			assertThat(dot.ceiling(TestUtil.mkTime(5)).map(TimedData::getData)).contains(FIVE);
+			assertThat(dot.ceiling(TestUtil.mkTime(6)).map(TimedData::getData)).contains(SEVEN);
+			assertThat(dot.ceiling(TestUtil.mkTime(9))).isEmpty();
+		}
+
+		@Test
+		void range_is_a_snapshot() {
+			List<TimedData<PayloadFixture>> latest = dot.latest(2);
+
+			dot.add(new TimedData<>(TestUtil.mkTime(9), FOO));
+			dot.expire(new FakeExpiry(FIVE));
+
+			assertThat(data(latest)).containsExactly(FIVE, SEVEN);
+		}
+
+		private List<PayloadFixture> data(List<TimedData<PayloadFixture>> timedData) {
+			return timedData.stream()
+					.map(TimedData::getData)
+					.collect(Collectors.toList());
+		}
+	}
+
+	@Nested
+	class AggregateTest {
+		private final Metric<Memory> used = Memory::getUsed;
+		private final TimeSeries<Memory> series = new TimeSeries<>();
+
+		private void add(int day, long usedValue) {
+			series.add(new TimedData<>(TestUtil.mkTime(day), new Memory(-1, usedValue, 1000, 2000)));
+		}
+
+		@Test
+		void starts_with_existing_data() {
+			add(1, 10);
+			add(2, 30);
+
+			Statistics statistics = series.aggregate(used).getStatistics();
+
+			assertThat(statistics.getCount()).isEqualTo(2);
+			assertThat(statistics.getMean()).isEqualTo(20.0d);
+		}
+
+		@Test
+		void is_started_only_once() {
+			RunningAggregate<Memory> aggregate = series.aggregate(used);
+
+			assertThat(series.aggregate(used)).isSameAs(aggregate);
+			assertThat(series.findAggregate(used)).containsSame(aggregate);
+		}
+
+		@Test
+		void is_not_started_by_find() {
+			assertThat(series.findAggregate(used)).isEmpty();
+		}
+
+		@Test
+		void follows_add_and_expire() {
+			RunningAggregate<Memory> aggregate = series.aggregate(used);
+
+			add(1, 10);
+			add(2, 50);
+			add(3, 20);
+			assertThat(aggregate.getStatistics().getMax()).isEqualTo(50.0d);
+
+			series.expire(new CollectionSizeExpiry<>(1));
+
+			assertThat(aggregate.getStatistics().getCount()).isEqualTo(1);
+			assertThat(aggregate.getStatistics().getMax()).isEqualTo(20.0d);
+		}
+
+		@Test
+		void follows_out_of_order_add_and_expire_in_the_middle() {
+			RunningAggregate<Memory> aggregate = series.aggregate(used);
+
+			add(1, 10);
+			add(3, 30);
+			add(2, 50);
+			assertThat(aggregate.getStatistics().getMean()).isEqualTo(30.0d);
+
+			series.expire(params -> params.getTimedData().getData().getUsed() == 50L);
+
+			assertThat(aggregate.getStatistics().getMean()).isEqualTo(20.0d);
+			assertThat(aggregate.getStatistics().getMax()).isEqualTo(30.0d);
+
+			series.expire(new CollectionSizeExpiry<>(1));
+			assertThat(aggregate.getStatistics().getMin()).isEqualTo(30.0d);
+		}
+	}
+
+	@Nested
+	class AppendListenerTest {
+		private final List<PayloadFixture> notified = new ArrayList<>();
+
+		@Test
+		void returns_the_existing_data() {
+			List<TimedData<PayloadFixture>> existing = dot.addAppendListener(td -> notified.add(td.getData()));
+
+			assertThat(existing).extracting(TimedData::getData)
+					.containsExactly(THREE, FIVE, SEVEN);
+			assertThat(notified).isEmpty();
+		}
+
+		@Test
+		void notifies_appended_entries_only() {
+			dot.addAppendListener(td -> notified.add(td.getData()));
+
+			dot.add(new TimedData<>(TestUtil.mkTime(9), FOO));
+			dot.add(new TimedData<>(TestUtil.mkTime(1), BAR));
+			dot.add(new TimedData<>(TestUtil.mkTime(9), BAZ));
+
+			assertThat(notified).containsExactly(FOO, BAZ);
+		}
+
+		@Test
+		void notifies_entries_expired_before_being_read() {
+			dot.addAppendListener(td -> notified.add(td.getData()));
+
+			dot.add(new TimedData<>(TestUtil.mkTime(9), FOO));
+			dot.add(new TimedData<>(TestUtil.mkTime(10), BAR));
+			dot.expire(new CollectionSizeExpiry<>(1));
+
+			assertThat(notified).containsExactly(FOO, BAR);
+			assertThat(payloads()).containsExactly(BAR);
+		}
+	}
+
+	@Nested
+	class SnapshotTest {
+		@Test
+		void snapshot_does_not_change_on_add() {
+			List<TimedData<PayloadFixture>> before = dot.getTimedData();
+
+			dot.add(new TimedData<>(TestUtil.mkTime(9), FOO));
+			dot.add(new TimedData<>(TestUtil.mkTime(4), BAR));
+
+			assertThat(before).extracting(TimedData::getData)
+					.containsExactly(THREE, FIVE, SEVEN);
+			assertThat(payloads()).containsExactly(THREE, BAR, FIVE, SEVEN, FOO);
+		}
+
+		@Test
+		void snapshot_does_not_change_on_expire() {
+			List<TimedData<PayloadFixture>> before = dot.getTimedData();
+
+			dot.expire(new FakeExpiry(THREE));
+			dot.expire(new FakeExpiry(SEVEN));
+
+			assertThat(before).extracting(TimedData::getData)
+					.containsExactly(THREE, FIVE, SEVEN);
+			assertThat(payloads()).containsExactly(FIVE);
+		}
+
+		@Test
+		void snapshot_is_unmodifiable() {
+			List<TimedData<PayloadFixture>> snapshot = dot.getTimedData();
+			TimedData<PayloadFixture> entry = new TimedData<>(TestUtil.mkTime(9), FOO);
+
+			assertThrows(UnsupportedOperationException.class, () -> snapshot.add(entry));
+			assertThrows(UnsupportedOperationException.class, () -> snapshot.set(0, entry));
+			assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+		}
+
+		@Test
+		void snapshot_subList() {
+			List<TimedData<PayloadFixture>> subList = dot.getTimedData().subList(1, 3);
+
+			assertThat(subList).extracting(TimedData::getData)
+					.containsExactly(FIVE, SEVEN);
+			assertThat(subList.subList(1, 2)).extracting(TimedData::getData)
+					.containsExactly(SEVEN);
+			assertThrows(IndexOutOfBoundsException.class, () -> subList.get(2));
+			assertThrows(IndexOutOfBoundsException.class, () -> subList.subList(1, 3));
+		}
+
+		@Test
+		void many_prefix_expiries_and_appends() {
+			for (int i = 0; i < 1000; i++) {
+				dot.add(new TimedData<>(TestUtil.mkTime(10).plusSeconds(i), new PayloadFixture("p" + i)));
+				dot.expire(new CollectionSizeExpiry<>(5));
+			}
+
+			assertThat(dot.getTimedData()).extracting(TimedData::getData)
+					.extracting(PayloadFixture::toString)
+					.containsExactly(
+							"PayloadFixture{name=p995}",
+							"PayloadFixture{name=p996}",
+							"PayloadFixture{name=p997}",
+							"PayloadFixture{name=p998}",
+							"PayloadFixture{name=p999}");
+		}
+
+		@Test
+		void serializes_only_visible_data() throws Exception {
+			dot.expire(new FakeExpiry(THREE));
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(dot);
+			}
+			TimeSeries<?> copy;
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				copy = (TimeSeries<?>) in.readObject();
+			}
+
+			assertThat(copy.getTimedData()).extracting(td -> td.getData().toString())
+					.containsExactly(FIVE.toString(), SEVEN.toString());
+		}
+
+		@Test
+		void readers_see_consistent_data_while_writing() throws Exception {
+			int count = 20_000;
+			AtomicBoolean done = new AtomicBoolean(false);
+			AtomicReference<String> failure = new AtomicReference<>();
+
+			Thread reader = new Thread(() -> {
+				while (!done.get()) {
+					List<TimedData<PayloadFixture>> snapshot = dot.getTimedData();
+					for (int i = 1; i < snapshot.size(); i++) {
+						if (snapshot.get(i - 1).getTimestamp().isAfter(snapshot.get(i).getTimestamp())) {
+							failure.set("unordered snapshot at index " + i);
+						}
+					}
+				}
+			});
+			reader.start();
+
+			for (int i = 0; i < count; i++) {
+				dot.add(new TimedData<>(TestUtil.mkTime(10).plusSeconds(i), FOO));
+				if (i % 100 == 0) {
+					dot.expire(new CollectionSizeExpiry<>(1000));
+				}
+			}
+			done.set(true);
+			reader.join();
+
+			assertThat(failure.get()).isNull();
+		}
 	}
 
 	private List<PayloadFixture> payloads() {
@@ -1,6 +1,12 @@
 package com.github.honoluluhenk.gcmonitor.timeddata;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 
 import org.junit.jupiter.api.Nested;
@@ -21,6 +27,41 @@ class TimedDataTest {
 		assertThat(timestamp).isEqualTo(now);
 	}
 
+	@Test
+	void timestamp_is_kept_as_epoch_nanos() {
+		ZonedDateTime timestamp = ZonedDateTime.of(2018, 1, 2, 3, 4, 5, 6, ZoneOffset.UTC);
+		TimedData<String> out = new TimedData<>(timestamp, "Hello");
+
+		assertThat(out.getEpochNanos()).isEqualTo(timestamp.toEpochSecond() * 1_000_000_000L + 6);
+		assertThat(out.getZone()).isEqualTo(ZoneOffset.UTC);
+	}
+
+	@Test
+	void getTimestamp_is_created_from_epoch_nanos() {
+		ZonedDateTime timestamp = ZonedDateTime.now(ZoneId.of("Europe/Zurich"));
+		TimedData<String> out = new TimedData<>(EpochNanos.of(timestamp), timestamp.getZone(), "Hello");
+
+		assertThat(out.getTimestamp()).isEqualTo(timestamp);
+		assertThat(out).isEqualTo(new TimedData<>(timestamp, "Hello"));
+	}
+
+	@Test
+	void getTimestamp_survives_serialization() throws Exception {
+		ZonedDateTime now = ZonedDateTime.now();
+		TimedData<String> out = new TimedData<>(now, "Hello");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+			stream.writeObject(out);
+		}
+		Object copy;
+		try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = stream.readObject();
+		}
+
+		assertThat(((TimedData<?>) copy).getTimestamp()).isEqualTo(now);
+	}
+
 	@Test
 	void getData_should_return_the_data() {
 		String hello = "Hello";